@@ -0,0 +1,13 @@
+package io.github.llnancy.httpexchange.benchmark;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeClient;
+
+/**
+ * {@link StubApi} with a no-op {@link org.springframework.web.reactive.function.client.ExchangeFilterFunction}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/22
+ */
+@HttpExchangeClient(baseUrl = "${stub.base-url}", filter = NoopExchangeFilterFunction.class)
+public interface FilteredStubApi extends StubApi {
+}
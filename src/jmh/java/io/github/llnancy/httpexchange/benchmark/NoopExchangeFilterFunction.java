@@ -0,0 +1,23 @@
+package io.github.llnancy.httpexchange.benchmark;
+
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * a filter which only passes the request through, to measure the filter chain overhead
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/22
+ */
+public class NoopExchangeFilterFunction implements ExchangeFilterFunction {
+
+    @Override
+    @NonNull
+    public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+        return next.exchange(request);
+    }
+}
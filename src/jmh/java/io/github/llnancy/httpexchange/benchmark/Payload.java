@@ -0,0 +1,38 @@
+package io.github.llnancy.httpexchange.benchmark;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * json payload of the benchmarks
+ *
+ * @param items items
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/22
+ */
+public record Payload(List<Item> items) {
+
+    /**
+     * create a payload
+     *
+     * @param size number of items
+     * @return {@link Payload}
+     */
+    public static Payload of(int size) {
+        return new Payload(IntStream.range(0, size)
+                .mapToObj(i -> new Item(i, "item-" + i, "description of item " + i, i * 0.5D, i % 2 == 0))
+                .toList());
+    }
+
+    /**
+     * payload item
+     *
+     * @param id          id
+     * @param name        name
+     * @param description description
+     * @param price       price
+     * @param available   available
+     */
+    public record Item(long id, String name, String description, double price, boolean available) {
+    }
+}
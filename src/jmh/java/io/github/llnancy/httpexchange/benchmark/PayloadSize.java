@@ -0,0 +1,35 @@
+package io.github.llnancy.httpexchange.benchmark;
+
+/**
+ * payload size of the benchmarks
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/22
+ */
+public enum PayloadSize {
+
+    /**
+     * a single item, about 100 bytes
+     */
+    SMALL(1),
+
+    /**
+     * 1000 items, about 100 kilobytes
+     */
+    LARGE(1000);
+
+    private final Payload payload;
+
+    PayloadSize(int items) {
+        this.payload = Payload.of(items);
+    }
+
+    /**
+     * the payload of this size
+     *
+     * @return {@link Payload}
+     */
+    public Payload payload() {
+        return payload;
+    }
+}
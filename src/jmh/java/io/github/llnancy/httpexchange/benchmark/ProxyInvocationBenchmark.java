@@ -0,0 +1,115 @@
+package io.github.llnancy.httpexchange.benchmark;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeClientFactoryBean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Map;
+
+/**
+ * overhead of the http exchange client proxy versus a hand-written {@link WebClient} call.
+ * <p>
+ * run with {@code ./gradlew jmh}, use {@code -Pjmh.includes=ProxyInvocationBenchmark} to run only this class.
+ * the throughput, the sampled latency percentiles (p0.99) and the gc profiler allocation rate
+ * ({@code gc.alloc.rate.norm}) are written to {@code build/results/jmh/results.json}.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/22
+ */
+@State(Scope.Benchmark)
+public class ProxyInvocationBenchmark {
+
+    @Param({"SMALL", "LARGE"})
+    private PayloadSize size;
+
+    @Param({"false", "true"})
+    private boolean filtered;
+
+    private StubServer server;
+
+    private GenericApplicationContext context;
+
+    private StubApi api;
+
+    private WebClient webClient;
+
+    private Payload payload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        server = StubServer.start();
+        context = new GenericApplicationContext();
+        context.getEnvironment()
+                .getPropertySources()
+                .addFirst(new MapPropertySource("stub", Map.of("stub.base-url", server.baseUrl())));
+        context.registerBean(NoopExchangeFilterFunction.class);
+        context.refresh();
+        api = filtered ? createClient(FilteredStubApi.class) : createClient(StubApi.class);
+        WebClient.Builder builder = WebClient.builder().baseUrl(server.baseUrl() + "/");
+        if (filtered) {
+            builder.filter(new NoopExchangeFilterFunction());
+        }
+        webClient = builder.build();
+        payload = size.payload();
+    }
+
+    private <T extends StubApi> T createClient(Class<T> clazz) {
+        HttpExchangeClientFactoryBean<T> factoryBean = new HttpExchangeClientFactoryBean<>(clazz);
+        factoryBean.setEnvironment(context.getEnvironment());
+        factoryBean.setApplicationContext(context);
+        return factoryBean.getObject();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Benchmark
+    public Payload proxyGetBlocking() {
+        return api.get(size);
+    }
+
+    @Benchmark
+    public Payload proxyGetMono() {
+        return api.getMono(size).block();
+    }
+
+    @Benchmark
+    public Payload proxyPostBlocking() {
+        return api.post(payload);
+    }
+
+    @Benchmark
+    public Payload proxyPostMono() {
+        return api.postMono(payload).block();
+    }
+
+    @Benchmark
+    public Payload webClientGet() {
+        return webClient.get()
+                .uri("/payload/{size}", size)
+                .retrieve()
+                .bodyToMono(Payload.class)
+                .block();
+    }
+
+    @Benchmark
+    public Payload webClientPost() {
+        return webClient.post()
+                .uri("/echo")
+                .bodyValue(payload)
+                .retrieve()
+                .bodyToMono(Payload.class)
+                .block();
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.llnancy.httpexchange.benchmark;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeClient;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * http exchange client of the {@link StubServer}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/22
+ */
+@HttpExchangeClient(baseUrl = "${stub.base-url}")
+public interface StubApi {
+
+    @GetExchange("/payload/{size}")
+    Payload get(@PathVariable PayloadSize size);
+
+    @GetExchange("/payload/{size}")
+    Mono<Payload> getMono(@PathVariable PayloadSize size);
+
+    @PostExchange("/echo")
+    Payload post(@RequestBody Payload payload);
+
+    @PostExchange("/echo")
+    Mono<Payload> postMono(@RequestBody Payload payload);
+}
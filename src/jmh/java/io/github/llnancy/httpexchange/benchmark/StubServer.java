@@ -0,0 +1,78 @@
+package io.github.llnancy.httpexchange.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * in-process reactor netty stub server.
+ * <p>
+ * {@code GET /payload/{size}} returns the pre-serialized {@link PayloadSize} payload,
+ * {@code POST /echo} echoes the request body.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/22
+ */
+public final class StubServer implements AutoCloseable {
+
+    private final DisposableServer server;
+
+    private StubServer(DisposableServer server) {
+        this.server = server;
+    }
+
+    /**
+     * start a stub server on a random port
+     *
+     * @return {@link StubServer}
+     */
+    public static StubServer start() {
+        Map<PayloadSize, byte[]> payloads = serializePayloads();
+        DisposableServer server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .get("/payload/{size}", (request, response) -> response
+                                .header(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                                .sendByteArray(Mono.just(payloads.get(PayloadSize.valueOf(request.param("size"))))))
+                        .post("/echo", (request, response) -> response
+                                .header(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                                .send(request.receive().retain())))
+                .bindNow();
+        return new StubServer(server);
+    }
+
+    /**
+     * the base url of the stub server
+     *
+     * @return base url
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    private static Map<PayloadSize, byte[]> serializePayloads() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<PayloadSize, byte[]> payloads = new EnumMap<>(PayloadSize.class);
+        for (PayloadSize size : PayloadSize.values()) {
+            try {
+                payloads.put(size, objectMapper.writeValueAsBytes(size.payload()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return payloads;
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.llnancy.httpexchange.batch;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.ClientProperties;
+import io.github.llnancy.httpexchange.core.BatchExchange;
+import io.github.llnancy.httpexchange.core.HttpExchangeClient;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.github.llnancy.httpexchange.deadline.ExchangeTimeouts;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * installs the micro-batching on a http exchange client which has {@link BatchExchange} methods
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/25
+ */
+@Slf4j
+public final class MicroBatchCustomizer implements HttpExchangeClientCustomizer {
+
+    private final Map<Method, MicroBatchInterceptor.BatchedMethod> methods;
+
+    private MicroBatchCustomizer(Map<Method, MicroBatchInterceptor.BatchedMethod> methods) {
+        this.methods = methods;
+    }
+
+    /**
+     * create the customizer of a client
+     *
+     * @param metadata {@link HttpExchangeClientMetadata}
+     * @return {@link MicroBatchCustomizer}, or {@code null} if the client has no batched method
+     */
+    public static MicroBatchCustomizer create(HttpExchangeClientMetadata metadata) {
+        ClientPropertiesResolver resolver = metadata.properties();
+        ExchangeTimeouts timeouts = ExchangeTimeouts.create(metadata);
+        Duration responseTimeout = responseTimeout(metadata);
+        Map<Method, MicroBatchInterceptor.BatchedMethod> methods = new HashMap<>();
+        for (HttpExchangeMethod exchangeMethod : metadata.methods().values()) {
+            Method method = exchangeMethod.method();
+            BatchExchange batchExchange = AnnotatedElementUtils.findMergedAnnotation(method, BatchExchange.class);
+            if (Objects.isNull(batchExchange)) {
+                continue;
+            }
+            if (method.getParameterCount() != 1 || !isMonoOrValue(method)) {
+                log.warn("@BatchExchange only supports methods with one parameter returning Mono or a value, ignore {}.", method);
+                continue;
+            }
+            Method batchMethod = findBatchMethod(metadata, batchExchange.method());
+            if (Objects.isNull(batchMethod)) {
+                log.warn("Batch method '{}' of {} is not found, it must be an exchange method with one collection parameter returning a Map or a List, ignore.", batchExchange.method(), method);
+                continue;
+            }
+            Duration window = resolver.resolveDuration(batchExchange.window());
+            window = Objects.nonNull(window) ? window : Duration.ZERO;
+            MicroBatcher batcher = new MicroBatcher(batchMethod,
+                    Mono.class.isAssignableFrom(batchMethod.getReturnType()),
+                    !batchMethod.getParameterTypes()[0].isAssignableFrom(ArrayList.class),
+                    Math.max(1, batchExchange.maxSize()),
+                    window);
+            Duration timeout = Objects.nonNull(timeouts) ? timeouts.timeout(metadata.methods().get(batchMethod), null) : null;
+            timeout = Objects.nonNull(timeout) ? timeout : responseTimeout;
+            methods.put(method, new MicroBatchInterceptor.BatchedMethod(Mono.class.isAssignableFrom(method.getReturnType()), batcher,
+                    Objects.nonNull(timeout) ? window.plus(timeout) : null));
+        }
+        return methods.isEmpty() ? null : new MicroBatchCustomizer(methods);
+    }
+
+    private static Duration responseTimeout(HttpExchangeClientMetadata metadata) {
+        HttpExchangeClient httpExchangeClient = AnnotatedElementUtils.findMergedAnnotation(metadata.clientInterface(), HttpExchangeClient.class);
+        return metadata.properties().resolveDuration(ClientProperties::getResponseTimeout, Objects.nonNull(httpExchangeClient) ? httpExchangeClient.responseTimeout() : null);
+    }
+
+    private static Method findBatchMethod(HttpExchangeClientMetadata metadata, String name) {
+        for (HttpExchangeMethod exchangeMethod : metadata.methods().values()) {
+            Method method = exchangeMethod.method();
+            if (!method.getName().equals(name) || method.getParameterCount() != 1 || !isMonoOrValue(method)) {
+                continue;
+            }
+            Class<?> parameterType = method.getParameterTypes()[0];
+            boolean collection = parameterType.isAssignableFrom(ArrayList.class) || parameterType.isAssignableFrom(LinkedHashSet.class);
+            ResolvableType returnType = ResolvableType.forMethodReturnType(method);
+            Class<?> resultType = (Mono.class.isAssignableFrom(method.getReturnType()) ? returnType.getGeneric(0) : returnType).toClass();
+            boolean result = Map.class.isAssignableFrom(resultType) || List.class.isAssignableFrom(resultType);
+            if (collection && Collection.class.isAssignableFrom(parameterType) && result) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isMonoOrValue(Method method) {
+        return Mono.class.isAssignableFrom(method.getReturnType())
+                || (method.getReturnType() != void.class && Objects.isNull(ReactiveAdapterRegistry.getSharedInstance().getAdapter(method.getReturnType())));
+    }
+
+    @Override
+    public void customizeInterceptors(HttpExchangeClientMetadata metadata, List<MethodInterceptor> interceptors) {
+        interceptors.add(new MicroBatchInterceptor(methods));
+    }
+}
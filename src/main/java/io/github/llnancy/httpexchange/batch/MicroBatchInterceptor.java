@@ -0,0 +1,75 @@
+package io.github.llnancy.httpexchange.batch;
+
+import io.github.llnancy.httpexchange.deadline.Deadline;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.lang.NonNull;
+import org.springframework.web.client.ResourceAccessException;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * turns the invocations of the {@link io.github.llnancy.httpexchange.core.BatchExchange} methods into
+ * keys of their {@link MicroBatcher}s.
+ * <p>
+ * a blocking caller waits for its item at most the window and the timeout of the batch exchange, and never after
+ * its current {@link Deadline}.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/25
+ */
+final class MicroBatchInterceptor implements MethodInterceptor {
+
+    private final Map<Method, BatchedMethod> methods;
+
+    MicroBatchInterceptor(Map<Method, BatchedMethod> methods) {
+        this.methods = methods;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        BatchedMethod method = methods.get(invocation.getMethod());
+        if (Objects.isNull(method)) {
+            return invocation.proceed();
+        }
+        Object proxy = ((ProxyMethodInvocation) invocation).getProxy();
+        Object key = invocation.getArguments()[0];
+        Deadline current = Deadline.current();
+        if (method.reactive()) {
+            return Mono.deferContextual(context -> Mono.fromFuture(method.batcher().add(proxy, key, context.getOrDefault(Deadline.CONTEXT_KEY, current))));
+        }
+        CompletableFuture<Object> future = method.batcher().add(proxy, key, current);
+        Duration wait = method.timeout();
+        if (Objects.nonNull(current) && (Objects.isNull(wait) || current.remaining().compareTo(wait) < 0)) {
+            wait = current.remaining();
+        }
+        try {
+            return Objects.nonNull(wait) ? future.get(Math.max(0, wait.toNanos()), TimeUnit.NANOSECONDS) : future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            String message = "Batch of " + invocation.getMethod() + " did not complete within " + wait + ".";
+            throw new ResourceAccessException(message, new SocketTimeoutException(message));
+        }
+    }
+
+    /**
+     * a single-item method linked to a batch method
+     *
+     * @param reactive whether the single-item method returns {@code Mono}
+     * @param batcher  the {@link MicroBatcher} of the batch method
+     * @param timeout  the maximum time a blocking caller waits for the batch, or {@code null} if not limited
+     */
+    record BatchedMethod(boolean reactive, MicroBatcher batcher, Duration timeout) {
+    }
+}
@@ -0,0 +1,186 @@
+package io.github.llnancy.httpexchange.batch;
+
+import io.github.llnancy.httpexchange.deadline.Deadline;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * collects the keys of a single-item method and sends them by its batch method.
+ * <p>
+ * the first key of a window schedules the flush of the window, a full window is flushed at once by the
+ * invocation which fills it. the batch method is invoked on the client proxy, so the features of the
+ * batch method apply. a blocking batch method is invoked on the bounded elastic scheduler.
+ * <p>
+ * the batch is invoked with the latest deadline of its callers made current, or none if a caller has no deadline,
+ * so it is not cut short by the caller which gives up first. the invocation attributes of the callers describe
+ * their single-item invocations and are not carried to the batch invocation.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/25
+ */
+final class MicroBatcher {
+
+    private final Method batchMethod;
+
+    private final boolean reactive;
+
+    private final boolean set;
+
+    private final int maxSize;
+
+    private final Duration window;
+
+    private List<Pending> pending = new ArrayList<>();
+
+    MicroBatcher(Method batchMethod, boolean reactive, boolean set, int maxSize, Duration window) {
+        this.batchMethod = batchMethod;
+        this.reactive = reactive;
+        this.set = set;
+        this.maxSize = maxSize;
+        this.window = window;
+    }
+
+    /**
+     * add a key to the current window
+     *
+     * @param proxy    the client proxy
+     * @param key      the item key
+     * @param deadline the deadline of the caller, or {@code null}
+     * @return the future of the item
+     */
+    CompletableFuture<Object> add(Object proxy, Object key, Deadline deadline) {
+        Pending item = new Pending(key, deadline, new CompletableFuture<>());
+        List<Pending> full = null;
+        synchronized (this) {
+            List<Pending> current = pending;
+            current.add(item);
+            if (current.size() >= maxSize) {
+                full = current;
+                pending = new ArrayList<>();
+            } else if (current.size() == 1) {
+                Schedulers.parallel().schedule(() -> flushWindow(proxy, current), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (Objects.nonNull(full)) {
+            flush(proxy, full);
+        }
+        return item.future();
+    }
+
+    private void flushWindow(Object proxy, List<Pending> window) {
+        synchronized (this) {
+            if (pending != window) {
+                // already flushed as a full window
+                return;
+            }
+            pending = new ArrayList<>();
+        }
+        flush(proxy, window);
+    }
+
+    private void flush(Object proxy, List<Pending> batch) {
+        LinkedHashSet<Object> keys = new LinkedHashSet<>();
+        batch.forEach(item -> keys.add(item.key()));
+        Collection<Object> argument = set ? keys : new ArrayList<>(keys);
+        Deadline deadline = latestDeadline(batch);
+        if (reactive) {
+            Mono<?> result;
+            try {
+                result = (Mono<?>) invoke(proxy, argument, deadline);
+            } catch (Throwable t) {
+                fail(batch, t);
+                return;
+            }
+            result.subscribe(value -> complete(batch, argument, value), error -> fail(batch, error), () -> complete(batch, argument, null));
+        } else {
+            Schedulers.boundedElastic().schedule(() -> {
+                try {
+                    complete(batch, argument, invoke(proxy, argument, deadline));
+                } catch (Throwable t) {
+                    fail(batch, t);
+                }
+            });
+        }
+    }
+
+    private static Deadline latestDeadline(List<Pending> batch) {
+        Deadline latest = null;
+        for (Pending item : batch) {
+            if (Objects.isNull(item.deadline())) {
+                return null;
+            }
+            if (Objects.isNull(latest) || item.deadline().remaining().compareTo(latest.remaining()) > 0) {
+                latest = item.deadline();
+            }
+        }
+        return latest;
+    }
+
+    private Object invoke(Object proxy, Collection<Object> argument, Deadline deadline) throws Throwable {
+        if (Objects.isNull(deadline)) {
+            return invoke(proxy, argument);
+        }
+        Deadline.Scope scope = deadline.makeCurrent();
+        try {
+            return invoke(proxy, argument);
+        } finally {
+            scope.close();
+        }
+    }
+
+    private Object invoke(Object proxy, Collection<Object> argument) throws Throwable {
+        try {
+            return batchMethod.invoke(proxy, argument);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private void complete(List<Pending> batch, Collection<Object> keys, Object result) {
+        if (result instanceof Map<?, ?> items) {
+            batch.forEach(item -> item.future().complete(items.get(item.key())));
+            return;
+        }
+        if (result instanceof List<?> list) {
+            if (list.size() != keys.size()) {
+                fail(batch, new IllegalStateException("Batch method " + batchMethod + " returned " + list.size() + " items for " + keys.size() + " keys."));
+                return;
+            }
+            Map<Object, Object> items = new HashMap<>(keys.size() * 2);
+            int index = 0;
+            for (Object key : keys) {
+                items.put(key, list.get(index++));
+            }
+            batch.forEach(item -> item.future().complete(items.get(item.key())));
+            return;
+        }
+        batch.forEach(item -> item.future().complete(null));
+    }
+
+    private static void fail(List<Pending> batch, Throwable error) {
+        batch.forEach(item -> item.future().completeExceptionally(error));
+    }
+
+    /**
+     * a key waiting for its item
+     *
+     * @param key      the item key
+     * @param deadline the deadline of the caller, or {@code null}
+     * @param future   the future of the item
+     */
+    private record Pending(Object key, Deadline deadline, CompletableFuture<Object> future) {
+    }
+}
@@ -0,0 +1,258 @@
+package io.github.llnancy.httpexchange.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * a cached decoded response with its validators and freshness.
+ * <p>
+ * the freshness is computed from the response headers as a private cache of RFC 9111 does:
+ * {@code no-store} is not stored, {@code no-cache} is always revalidated, {@code max-age} minus {@code Age}
+ * takes precedence over {@code Expires}, and {@code must-revalidate} disables serving stale values.
+ * <p>
+ * the request headers named by {@code Vary}, and the {@code Authorization} header which makes the response
+ * specific to the caller, are kept as the variant of the entry. the cache key does not contain the request headers,
+ * so an entry with a variant is only selected by the transport, after the request headers are resolved.
+ * {@code Vary: Accept-Encoding} is ignored as the entry holds the decoded value, {@code Vary: *} is not stored.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/24
+ */
+final class CacheEntry {
+
+    private final Object value;
+
+    private final String etag;
+
+    private final String lastModified;
+
+    private final long weight;
+
+    private final long lifetime;
+
+    private final long staleWhileRevalidate;
+
+    private final long freshUntil;
+
+    private final Map<String, List<String>> variant;
+
+    private final AtomicBoolean revalidating = new AtomicBoolean();
+
+    private CacheEntry(Object value, Map<String, List<String>> variant, String etag, String lastModified, long weight, long lifetime, long staleWhileRevalidate, long now) {
+        this.value = value;
+        this.variant = variant;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.weight = weight;
+        this.lifetime = lifetime;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.freshUntil = now + lifetime;
+    }
+
+    /**
+     * create an entry from a {@code 2xx} response
+     *
+     * @param value          the decoded value
+     * @param requestHeaders the headers of the sent request
+     * @param headers        the response headers
+     * @param weight         the body size in bytes
+     * @param now            the current time in millis
+     * @param ttl            the lifetime in millis of the responses without explicit freshness
+     * @return {@link CacheEntry}, or {@code null} if the response is not storable
+     */
+    static CacheEntry of(Object value, HttpHeaders requestHeaders, HttpHeaders headers, long weight, long now, long ttl) {
+        Directives directives = Directives.parse(headers);
+        if (directives.noStore) {
+            return null;
+        }
+        Map<String, List<String>> variant = new HashMap<>();
+        for (String name : headers.getVary()) {
+            if ("*".equals(name)) {
+                return null;
+            }
+            if (!HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase(name)) {
+                variant.put(name.toLowerCase(Locale.ROOT), List.copyOf(requestHeaders.getOrEmpty(name)));
+            }
+        }
+        if (requestHeaders.containsKey(HttpHeaders.AUTHORIZATION)) {
+            variant.put(HttpHeaders.AUTHORIZATION.toLowerCase(Locale.ROOT), List.copyOf(requestHeaders.getOrEmpty(HttpHeaders.AUTHORIZATION)));
+        }
+        String etag = headers.getETag();
+        String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        long lifetime = directives.lifetime(headers, now, ttl);
+        if (lifetime <= 0 && !StringUtils.hasText(etag) && !StringUtils.hasText(lastModified)) {
+            return null;
+        }
+        return new CacheEntry(value, variant.isEmpty() ? null : Map.copyOf(variant), etag, lastModified, weight, lifetime, directives.staleWhileRevalidate(), now);
+    }
+
+    /**
+     * refresh the entry by a {@code 304} response, the headers of which update the stored ones
+     *
+     * @param headers the {@code 304} response headers
+     * @param now     the current time in millis
+     * @return the refreshed {@link CacheEntry}
+     */
+    CacheEntry revalidated(HttpHeaders headers, long now) {
+        Directives directives = Directives.parse(headers);
+        boolean explicit = directives.present || headers.getExpires() >= 0;
+        String newEtag = headers.getETag();
+        String newLastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        return new CacheEntry(value,
+                variant,
+                StringUtils.hasText(newEtag) ? newEtag : etag,
+                StringUtils.hasText(newLastModified) ? newLastModified : lastModified,
+                weight,
+                explicit ? directives.lifetime(headers, now, 0) : lifetime,
+                explicit ? directives.staleWhileRevalidate() : staleWhileRevalidate,
+                now);
+    }
+
+    Object value() {
+        return value;
+    }
+
+    long weight() {
+        return weight;
+    }
+
+    /**
+     * whether the entry is selected by the invocation alone, without the resolved request headers
+     *
+     * @return {@code true} if the entry has no variant
+     */
+    boolean isSelectable() {
+        return Objects.isNull(variant);
+    }
+
+    /**
+     * whether the entry is the variant of the resolved request headers
+     *
+     * @param requestHeaders the headers of the request to send
+     * @return {@code true} if the request headers of the variant are the same
+     */
+    boolean matches(HttpHeaders requestHeaders) {
+        if (Objects.isNull(variant)) {
+            return true;
+        }
+        for (Map.Entry<String, List<String>> header : variant.entrySet()) {
+            if (!header.getValue().equals(requestHeaders.getOrEmpty(header.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isFresh(long now) {
+        return now < freshUntil;
+    }
+
+    boolean isStaleUsable(long now) {
+        return now < freshUntil + staleWhileRevalidate;
+    }
+
+    boolean hasValidators() {
+        return Objects.nonNull(etag) || Objects.nonNull(lastModified);
+    }
+
+    void applyValidators(HttpHeaders headers) {
+        if (Objects.nonNull(etag)) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        if (Objects.nonNull(lastModified)) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        }
+    }
+
+    boolean startRevalidation() {
+        return revalidating.compareAndSet(false, true);
+    }
+
+    void endRevalidation() {
+        revalidating.set(false);
+    }
+
+    /**
+     * the {@code Cache-Control} directives used by a private cache
+     */
+    private static final class Directives {
+
+        private boolean present;
+
+        private boolean noStore;
+
+        private boolean noCache;
+
+        private boolean mustRevalidate;
+
+        private long maxAge = -1;
+
+        private long staleWhileRevalidate;
+
+        static Directives parse(HttpHeaders headers) {
+            Directives directives = new Directives();
+            for (String header : headers.getValuesAsList(HttpHeaders.CACHE_CONTROL)) {
+                directives.present = true;
+                int index = header.indexOf('=');
+                String name = (index < 0 ? header : header.substring(0, index)).trim().toLowerCase();
+                String argument = index < 0 ? null : header.substring(index + 1).trim().replace("\"", "");
+                switch (name) {
+                    case "no-store" -> directives.noStore = true;
+                    case "no-cache" -> directives.noCache = true;
+                    case "must-revalidate", "proxy-revalidate" -> directives.mustRevalidate = true;
+                    case "max-age" -> directives.maxAge = seconds(argument);
+                    case "stale-while-revalidate" -> directives.staleWhileRevalidate = seconds(argument);
+                    default -> {
+                    }
+                }
+            }
+            return directives;
+        }
+
+        long lifetime(HttpHeaders headers, long now, long ttl) {
+            if (noCache) {
+                return 0;
+            }
+            if (maxAge >= 0) {
+                long age = seconds(headers.getFirst("Age"));
+                return Math.max(0, maxAge - Math.max(0, age)) * 1000;
+            }
+            long expires = headers.getExpires();
+            if (expires >= 0) {
+                long date = date(headers);
+                return Math.max(0, expires - (date >= 0 ? date : now));
+            }
+            return ttl;
+        }
+
+        long staleWhileRevalidate() {
+            return noCache || mustRevalidate ? 0 : Math.max(0, staleWhileRevalidate) * 1000;
+        }
+
+        private static long date(HttpHeaders headers) {
+            try {
+                return headers.getDate();
+            } catch (IllegalArgumentException e) {
+                return -1;
+            }
+        }
+
+        private static long seconds(String value) {
+            if (!StringUtils.hasText(value)) {
+                return -1;
+            }
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.llnancy.httpexchange.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Objects;
+
+/**
+ * the state of a cached invocation shared by the {@link ResponseCacheInterceptor} and the transport filters,
+ * passed as the {@link #ATTRIBUTE} invocation attribute.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/24
+ */
+final class CacheExchange {
+
+    static final String ATTRIBUTE = CacheExchange.class.getName();
+
+    private final CacheEntry cached;
+
+    private final ExchangeResponseCache statistics;
+
+    private volatile boolean conditional;
+
+    private volatile boolean hit;
+
+    private volatile HttpHeaders requestHeaders;
+
+    private volatile HttpHeaders responseHeaders;
+
+    private volatile boolean notModified;
+
+    private volatile long bytes;
+
+    /**
+     * constructor
+     *
+     * @param cached     the cached entry, or {@code null}
+     * @param statistics the cache which counts the hit or miss of the exchange, or {@code null} not to count it
+     */
+    CacheExchange(CacheEntry cached, ExchangeResponseCache statistics) {
+        this.cached = cached;
+        this.statistics = statistics;
+    }
+
+    /**
+     * select the cached entry by the resolved headers of the request to send
+     *
+     * @param headers the request headers
+     * @return {@code true} if the fresh entry answers the request, which is not sent then
+     */
+    boolean select(HttpHeaders headers) {
+        if (Objects.nonNull(cached) && cached.matches(headers)) {
+            if (cached.isFresh(System.currentTimeMillis())) {
+                hit = true;
+                if (Objects.nonNull(statistics)) {
+                    statistics.hit();
+                }
+                return true;
+            }
+            conditional = cached.hasValidators();
+        }
+        if (Objects.nonNull(statistics)) {
+            statistics.miss();
+        }
+        return false;
+    }
+
+    /**
+     * add the validators of the selected stale entry to the request
+     *
+     * @param headers the request headers
+     */
+    void applyValidators(HttpHeaders headers) {
+        if (conditional) {
+            cached.applyValidators(headers);
+        }
+    }
+
+    boolean isConditional() {
+        return conditional;
+    }
+
+    void success(HttpHeaders requestHeaders, HttpHeaders responseHeaders) {
+        this.requestHeaders = requestHeaders;
+        this.responseHeaders = responseHeaders;
+    }
+
+    void notModified(HttpHeaders headers) {
+        this.responseHeaders = headers;
+        this.notModified = true;
+    }
+
+    void addBytes(long count) {
+        bytes += count;
+    }
+
+    CacheEntry cached() {
+        return cached;
+    }
+
+    boolean isHit() {
+        return hit;
+    }
+
+    HttpHeaders requestHeaders() {
+        return requestHeaders;
+    }
+
+    HttpHeaders responseHeaders() {
+        return responseHeaders;
+    }
+
+    boolean isNotModified() {
+        return notModified;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.llnancy.httpexchange.cache;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * the cache key of an invocation, the method and its arguments
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/24
+ */
+final class CacheKey {
+
+    private final Method method;
+
+    private final Object[] arguments;
+
+    private final int hash;
+
+    CacheKey(Method method, Object[] arguments) {
+        this.method = method;
+        this.arguments = arguments.clone();
+        this.hash = 31 * method.hashCode() + Arrays.deepHashCode(this.arguments);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheKey other)) {
+            return false;
+        }
+        return hash == other.hash && method.equals(other.method) && Arrays.deepEquals(arguments, other.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return method.getName() + Arrays.deepToString(arguments);
+    }
+}
@@ -0,0 +1,234 @@
+package io.github.llnancy.httpexchange.cache;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the bounded in-memory response cache of a http exchange client.
+ * <p>
+ * the entries are evicted in approximately least recently used order when either the number of entries exceeds
+ * {@code maxEntries} or the sum of the body sizes exceeds {@code maxWeight}. a read only marks its entry as
+ * referenced without a lock, the writer which exceeds a bound evicts by the second chance (clock) algorithm:
+ * the referenced entries in insertion order are unmarked and kept once, the first unreferenced one is evicted.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/24
+ */
+public final class ExchangeResponseCache {
+
+    private final String clientName;
+
+    private final int maxEntries;
+
+    private final long maxWeight;
+
+    private final ConcurrentMap<CacheKey, Node> entries = new ConcurrentHashMap<>();
+
+    private final Queue<Node> clock = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong weight = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder revalidations = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * constructor
+     *
+     * @param clientName the client name
+     * @param maxEntries the maximum number of entries
+     * @param maxWeight  the maximum sum of the body sizes in bytes
+     */
+    public ExchangeResponseCache(String clientName, int maxEntries, long maxWeight) {
+        this.clientName = clientName;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    CacheEntry get(CacheKey key) {
+        Node node = entries.get(key);
+        if (Objects.isNull(node)) {
+            return null;
+        }
+        if (!node.referenced) {
+            // skip the write of the hot entries, which are marked already
+            node.referenced = true;
+        }
+        return node.entry;
+    }
+
+    void put(CacheKey key, CacheEntry entry) {
+        if (entry.weight() > maxWeight) {
+            remove(key);
+            return;
+        }
+        Node[] created = new Node[1];
+        entries.compute(key, (k, node) -> {
+            if (Objects.isNull(node)) {
+                created[0] = new Node(k, entry);
+                weight.addAndGet(entry.weight());
+                return created[0];
+            }
+            weight.addAndGet(entry.weight() - node.entry.weight());
+            node.entry = entry;
+            node.referenced = true;
+            return node;
+        });
+        if (Objects.nonNull(created[0])) {
+            clock.add(created[0]);
+        }
+        if (entries.size() > maxEntries || weight.get() > maxWeight) {
+            evict();
+        }
+    }
+
+    void remove(CacheKey key) {
+        Node node = entries.remove(key);
+        if (Objects.nonNull(node)) {
+            weight.addAndGet(-node.entry.weight());
+            // removing an entry is rare, an unlinked node would be left in the clock until the next eviction otherwise
+            clock.remove(node);
+        }
+    }
+
+    private void evict() {
+        int evicted = 0;
+        synchronized (clock) {
+            // each entry is kept at most once by its reference, then the ones referenced again are evicted as well
+            int chances = entries.size();
+            while (entries.size() > maxEntries || weight.get() > maxWeight) {
+                Node node = clock.poll();
+                if (Objects.isNull(node)) {
+                    break;
+                }
+                if (node.referenced && chances-- > 0) {
+                    node.referenced = false;
+                    clock.add(node);
+                    continue;
+                }
+                if (entries.remove(node.key, node)) {
+                    weight.addAndGet(-node.entry.weight());
+                    evicted++;
+                }
+            }
+        }
+        if (evicted > 0) {
+            evictions.add(evicted);
+        }
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    void revalidated() {
+        revalidations.increment();
+    }
+
+    /**
+     * remove all entries
+     */
+    public void clear() {
+        synchronized (clock) {
+            Node node;
+            while (Objects.nonNull(node = clock.poll())) {
+                if (entries.remove(node.key, node)) {
+                    weight.addAndGet(-node.entry.weight());
+                }
+            }
+        }
+    }
+
+    /**
+     * the client name
+     *
+     * @return client name
+     */
+    public String getClientName() {
+        return clientName;
+    }
+
+    /**
+     * the number of invocations served from the cache without a request
+     *
+     * @return hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * the number of invocations which sent a request
+     *
+     * @return miss count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * the number of requests answered by {@code 304 Not Modified}
+     *
+     * @return revalidation count
+     */
+    public long getRevalidationCount() {
+        return revalidations.sum();
+    }
+
+    /**
+     * the number of entries evicted by the size or weight bound
+     *
+     * @return eviction count
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * the number of entries
+     *
+     * @return size
+     */
+    public int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * the sum of the body sizes of the entries in bytes
+     *
+     * @return weight
+     */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    /**
+     * the entry of a key in the map and in the clock
+     */
+    private static final class Node {
+
+        private final CacheKey key;
+
+        private volatile CacheEntry entry;
+
+        private volatile boolean referenced;
+
+        private Node(CacheKey key, CacheEntry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.llnancy.httpexchange.cache;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.NonNull;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * selects the cached variant of the request, sends the validators of the cached response and captures the
+ * request and response headers of the blocking transports, which execute on the invoking thread
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/24
+ */
+final class ResponseCacheClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    @NonNull
+    public ClientHttpResponse intercept(@NonNull HttpRequest request, @NonNull byte[] body, @NonNull ClientHttpRequestExecution execution) throws IOException {
+        CacheExchange exchange = (CacheExchange) HttpExchangeMethodContext.getAttribute(CacheExchange.ATTRIBUTE);
+        if (Objects.isNull(exchange)) {
+            return execution.execute(request, body);
+        }
+        if (exchange.select(request.getHeaders())) {
+            // the fresh variant of the request, answered as a revalidated entry without the request
+            return new NotModifiedClientHttpResponse();
+        }
+        exchange.applyValidators(request.getHeaders());
+        ClientHttpResponse response = execution.execute(request, body);
+        HttpStatusCode status = response.getStatusCode();
+        if (status.value() == HttpStatus.NOT_MODIFIED.value() && exchange.isConditional()) {
+            exchange.notModified(response.getHeaders());
+            return response;
+        }
+        if (status.is2xxSuccessful()) {
+            exchange.success(request.getHeaders(), response.getHeaders());
+            return new CountingClientHttpResponse(response, exchange);
+        }
+        return response;
+    }
+
+    /**
+     * the empty {@code 304} response of a request answered by the cache
+     */
+    private static final class NotModifiedClientHttpResponse implements ClientHttpResponse {
+
+        @Override
+        @NonNull
+        public HttpStatusCode getStatusCode() {
+            return HttpStatus.NOT_MODIFIED;
+        }
+
+        @Override
+        @NonNull
+        public String getStatusText() {
+            return HttpStatus.NOT_MODIFIED.getReasonPhrase();
+        }
+
+        @Override
+        @NonNull
+        public HttpHeaders getHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        @NonNull
+        public InputStream getBody() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * counts the body bytes as the weight of the cache entry
+     */
+    private static final class CountingClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+
+        private final CacheExchange exchange;
+
+        private CountingClientHttpResponse(ClientHttpResponse delegate, CacheExchange exchange) {
+            this.delegate = delegate;
+            this.exchange = exchange;
+        }
+
+        @Override
+        @NonNull
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        @NonNull
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        @NonNull
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        @NonNull
+        public InputStream getBody() throws IOException {
+            return new FilterInputStream(delegate.getBody()) {
+
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        exchange.addBytes(1);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(@NonNull byte[] b, int off, int len) throws IOException {
+                    int count = super.read(b, off, len);
+                    if (count > 0) {
+                        exchange.addBytes(count);
+                    }
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
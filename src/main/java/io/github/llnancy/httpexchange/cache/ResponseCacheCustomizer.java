@@ -0,0 +1,106 @@
+package io.github.llnancy.httpexchange.cache;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.core.BatchExchange;
+import io.github.llnancy.httpexchange.core.CacheableExchange;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * installs the response cache on a http exchange client which has {@link CacheableExchange} methods
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/24
+ */
+@Slf4j
+public final class ResponseCacheCustomizer implements HttpExchangeClientCustomizer {
+
+    private static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private static final DataSize DEFAULT_MAX_WEIGHT = DataSize.ofMegabytes(10);
+
+    private final ExchangeResponseCache cache;
+
+    private final Map<Method, ResponseCacheInterceptor.CachedMethod> methods;
+
+    private ResponseCacheCustomizer(ExchangeResponseCache cache, Map<Method, ResponseCacheInterceptor.CachedMethod> methods) {
+        this.cache = cache;
+        this.methods = methods;
+    }
+
+    /**
+     * create the customizer of a client
+     *
+     * @param metadata {@link HttpExchangeClientMetadata}
+     * @param registry {@link ResponseCacheRegistry}
+     * @return {@link ResponseCacheCustomizer}, or {@code null} if the client has no cacheable method
+     */
+    public static ResponseCacheCustomizer create(HttpExchangeClientMetadata metadata, ResponseCacheRegistry registry) {
+        ClientPropertiesResolver resolver = metadata.properties();
+        Map<Method, ResponseCacheInterceptor.CachedMethod> methods = new HashMap<>();
+        for (HttpExchangeMethod exchangeMethod : metadata.methods().values()) {
+            Method method = exchangeMethod.method();
+            CacheableExchange cacheable = AnnotatedElementUtils.findMergedAnnotation(method, CacheableExchange.class);
+            if (Objects.isNull(cacheable)) {
+                continue;
+            }
+            if (!HttpMethod.GET.name().equals(exchangeMethod.httpMethod())) {
+                log.warn("@CacheableExchange only supports GET methods, ignore {}.", method);
+                continue;
+            }
+            boolean reactive = Mono.class.isAssignableFrom(method.getReturnType());
+            if (!reactive && (method.getReturnType() == void.class || Objects.nonNull(ReactiveAdapterRegistry.getSharedInstance().getAdapter(method.getReturnType())))) {
+                log.warn("@CacheableExchange only supports methods returning Mono or a value, ignore {}.", method);
+                continue;
+            }
+            if (AnnotatedElementUtils.hasAnnotation(method, BatchExchange.class)) {
+                // the cache headers of the batch response do not describe the single items
+                log.warn("@CacheableExchange is not supported on @BatchExchange methods, cache the batch method instead, ignore {}.", method);
+                continue;
+            }
+            Duration ttl = resolver.resolveDuration(cacheable.ttl());
+            methods.put(method, new ResponseCacheInterceptor.CachedMethod(reactive, Objects.nonNull(ttl) ? ttl.toMillis() : 0, cacheable.staleWhileRevalidate()));
+        }
+        if (methods.isEmpty()) {
+            return null;
+        }
+        int maxEntries = resolver.resolve(p -> p.getCache().getMaxEntries(), null, DEFAULT_MAX_ENTRIES);
+        DataSize maxWeight = resolver.resolve(p -> p.getCache().getMaxWeight(), null, DEFAULT_MAX_WEIGHT);
+        ExchangeResponseCache cache = new ExchangeResponseCache(metadata.name(), maxEntries, maxWeight.toBytes());
+        registry.register(cache);
+        return new ResponseCacheCustomizer(cache, methods);
+    }
+
+    @Override
+    public void customizeWebClient(HttpExchangeClientMetadata metadata, WebClient.Builder builder) {
+        // the innermost filter, so the validators are not changed by the user filters
+        builder.filter(new ResponseCacheExchangeFilterFunction());
+    }
+
+    @Override
+    public void customizeRestClient(HttpExchangeClientMetadata metadata, RestClient.Builder builder) {
+        builder.requestInterceptor(new ResponseCacheClientHttpRequestInterceptor());
+    }
+
+    @Override
+    public void customizeInterceptors(HttpExchangeClientMetadata metadata, List<MethodInterceptor> interceptors) {
+        interceptors.add(new ResponseCacheInterceptor(cache, methods));
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.llnancy.httpexchange.cache;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+
+/**
+ * selects the cached variant of the request, sends the validators of the cached response and captures the
+ * request and response headers of the {@code WebClient} transport
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/24
+ */
+final class ResponseCacheExchangeFilterFunction implements ExchangeFilterFunction {
+
+    @Override
+    @NonNull
+    public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+        CacheExchange exchange = request.attributes().isEmpty()
+                ? null
+                : (CacheExchange) request.attributes().get(CacheExchange.ATTRIBUTE);
+        if (Objects.isNull(exchange)) {
+            return next.exchange(request);
+        }
+        if (exchange.select(request.headers())) {
+            // the fresh variant of the request, answered as a revalidated entry without the request
+            return Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+        }
+        ClientRequest conditional = exchange.isConditional()
+                ? ClientRequest.from(request).headers(exchange::applyValidators).build()
+                : request;
+        return next.exchange(conditional).map(response -> {
+            if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value() && exchange.isConditional()) {
+                exchange.notModified(response.headers().asHttpHeaders());
+                return response;
+            }
+            if (response.statusCode().is2xxSuccessful()) {
+                exchange.success(conditional.headers(), response.headers().asHttpHeaders());
+                return response.mutate()
+                        .body(body -> body.doOnNext(buffer -> exchange.addBytes(buffer.readableByteCount())))
+                        .build();
+            }
+            return response;
+        });
+    }
+}
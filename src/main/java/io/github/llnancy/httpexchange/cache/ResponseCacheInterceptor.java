@@ -0,0 +1,169 @@
+package io.github.llnancy.httpexchange.cache;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.lang.NonNull;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * serves the {@link io.github.llnancy.httpexchange.core.CacheableExchange} methods from the {@link ExchangeResponseCache}.
+ * <p>
+ * a fresh entry is returned without a request. otherwise the request is sent with the validators of the
+ * stale entry, a {@code 304} response refreshes the entry and returns its value without decoding.
+ * an entry with a variant is selected by the transport filters once the request headers are resolved, the request
+ * is not sent when the fresh variant matches. {@code Mono} methods look up the cache when subscribed.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/24
+ */
+@Slf4j
+final class ResponseCacheInterceptor implements MethodInterceptor {
+
+    private final ExchangeResponseCache cache;
+
+    private final Map<Method, CachedMethod> methods;
+
+    ResponseCacheInterceptor(ExchangeResponseCache cache, Map<Method, CachedMethod> methods) {
+        this.cache = cache;
+        this.methods = methods;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        CachedMethod method = methods.get(invocation.getMethod());
+        if (Objects.isNull(method)) {
+            return invocation.proceed();
+        }
+        CacheKey key = new CacheKey(invocation.getMethod(), invocation.getArguments());
+        if (method.reactive()) {
+            ProxyMethodInvocation proxyInvocation = (ProxyMethodInvocation) invocation;
+            return Mono.defer(() -> invokeReactive(method, key, proxyInvocation.invocableClone()));
+        }
+        return invokeBlocking(method, key, invocation);
+    }
+
+    private Mono<?> invokeReactive(CachedMethod method, CacheKey key, MethodInvocation invocation) {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = cache.get(key);
+        if (Objects.nonNull(entry) && entry.isSelectable() && (entry.isFresh(now) || serveStale(method, key, entry, invocation, now))) {
+            cache.hit();
+            return Mono.just(entry.value());
+        }
+        CacheExchange exchange = new CacheExchange(entry, cache);
+        Mono<?> response;
+        try {
+            response = (Mono<?>) proceed(invocation, exchange);
+        } catch (Throwable t) {
+            return Mono.error(t);
+        }
+        return response.map(value -> complete(method, key, exchange, value))
+                .switchIfEmpty(Mono.fromSupplier(() -> complete(method, key, exchange, null)));
+    }
+
+    private Object invokeBlocking(CachedMethod method, CacheKey key, MethodInvocation invocation) throws Throwable {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = cache.get(key);
+        if (Objects.nonNull(entry) && entry.isSelectable() && (entry.isFresh(now) || serveStale(method, key, entry, invocation, now))) {
+            cache.hit();
+            return entry.value();
+        }
+        CacheExchange exchange = new CacheExchange(entry, cache);
+        return complete(method, key, exchange, proceed(invocation, exchange));
+    }
+
+    /**
+     * return the stale value and revalidate it in background when it is within the stale-while-revalidate window,
+     * the invocation is not proceeded by the caller in this case, so it is handed over to the revalidation
+     */
+    private boolean serveStale(CachedMethod method, CacheKey key, CacheEntry entry, MethodInvocation invocation, long now) {
+        if (!method.staleWhileRevalidate() || !entry.isStaleUsable(now)) {
+            return false;
+        }
+        if (entry.startRevalidation()) {
+            // the caller is counted as a hit, not the revalidation
+            CacheExchange exchange = new CacheExchange(entry, null);
+            if (method.reactive()) {
+                Mono.defer(() -> {
+                            try {
+                                return (Mono<?>) proceed(invocation, exchange);
+                            } catch (Throwable t) {
+                                return Mono.error(t);
+                            }
+                        })
+                        .doFinally(signal -> entry.endRevalidation())
+                        .subscribe(value -> complete(method, key, exchange, value),
+                                error -> log.debug("Revalidate {} of client {} failed.", key, cache.getClientName(), error),
+                                () -> complete(method, key, exchange, null));
+            } else {
+                // the caller returns the stale value, so the revalidation proceeds a copy of the invocation with its attributes
+                MethodInvocation revalidation = ((ProxyMethodInvocation) invocation).invocableClone();
+                Map<String, Object> attributes = HttpExchangeMethodContext.captureAttributes();
+                Schedulers.boundedElastic().schedule(() -> {
+                    Map<String, Object> previous = HttpExchangeMethodContext.replaceAttributes(attributes);
+                    try {
+                        complete(method, key, exchange, proceed(revalidation, exchange));
+                    } catch (Throwable t) {
+                        log.debug("Revalidate {} of client {} failed.", key, cache.getClientName(), t);
+                    } finally {
+                        HttpExchangeMethodContext.replaceAttributes(previous);
+                        entry.endRevalidation();
+                    }
+                });
+            }
+        }
+        return true;
+    }
+
+    private static Object proceed(MethodInvocation invocation, CacheExchange exchange) throws Throwable {
+        Object previous = HttpExchangeMethodContext.setAttribute(CacheExchange.ATTRIBUTE, exchange);
+        try {
+            return invocation.proceed();
+        } finally {
+            HttpExchangeMethodContext.restoreAttribute(CacheExchange.ATTRIBUTE, previous);
+        }
+    }
+
+    /**
+     * store the decoded value, or refresh the stale entry when the server answered {@code 304}
+     *
+     * @return the value returned to the caller
+     */
+    private Object complete(CachedMethod method, CacheKey key, CacheExchange exchange, Object value) {
+        if (exchange.isHit()) {
+            return exchange.cached().value();
+        }
+        long now = System.currentTimeMillis();
+        if (exchange.isNotModified()) {
+            cache.revalidated();
+            cache.put(key, exchange.cached().revalidated(exchange.responseHeaders(), now));
+            return exchange.cached().value();
+        }
+        if (Objects.nonNull(value) && Objects.nonNull(exchange.responseHeaders())) {
+            CacheEntry entry = CacheEntry.of(value, exchange.requestHeaders(), exchange.responseHeaders(), exchange.bytes(), now, method.ttl());
+            if (Objects.nonNull(entry)) {
+                cache.put(key, entry);
+            } else {
+                cache.remove(key);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * the cache settings of a method
+     *
+     * @param reactive             whether the method returns {@code Mono}
+     * @param ttl                  the lifetime in millis of the responses without explicit freshness
+     * @param staleWhileRevalidate whether to serve stale values while revalidating
+     */
+    record CachedMethod(boolean reactive, long ttl, boolean staleWhileRevalidate) {
+    }
+}
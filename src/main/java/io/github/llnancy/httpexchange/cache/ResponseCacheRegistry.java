@@ -0,0 +1,61 @@
+package io.github.llnancy.httpexchange.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * registry of the {@link ExchangeResponseCache}s of the http exchange clients, keyed by client name
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/24
+ */
+public class ResponseCacheRegistry {
+
+    private final Map<String, ExchangeResponseCache> caches = new LinkedHashMap<>();
+
+    private final List<Consumer<ExchangeResponseCache>> listeners = new ArrayList<>();
+
+    /**
+     * register the cache of a client
+     *
+     * @param cache {@link ExchangeResponseCache}
+     */
+    public synchronized void register(ExchangeResponseCache cache) {
+        caches.put(cache.getClientName(), cache);
+        listeners.forEach(listener -> listener.accept(cache));
+    }
+
+    /**
+     * add a listener called with every registered cache, including the ones registered before
+     *
+     * @param listener the listener
+     */
+    public synchronized void addListener(Consumer<ExchangeResponseCache> listener) {
+        listeners.add(listener);
+        caches.values().forEach(listener);
+    }
+
+    /**
+     * the cache of a client
+     *
+     * @param clientName the client name
+     * @return {@link ExchangeResponseCache}, or {@code null} if the client has no cacheable method
+     */
+    public synchronized ExchangeResponseCache get(String clientName) {
+        return caches.get(clientName);
+    }
+
+    /**
+     * all registered caches
+     *
+     * @return {@link ExchangeResponseCache}s
+     */
+    public synchronized Collection<ExchangeResponseCache> getCaches() {
+        return Collections.unmodifiableList(new ArrayList<>(caches.values()));
+    }
+}
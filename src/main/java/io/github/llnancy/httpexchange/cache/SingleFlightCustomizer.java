@@ -0,0 +1,75 @@
+package io.github.llnancy.httpexchange.cache;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.github.llnancy.httpexchange.core.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpMethod;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * installs the in-flight request coalescing on a http exchange client which has {@link SingleFlight} methods
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/25
+ */
+@Slf4j
+public final class SingleFlightCustomizer implements HttpExchangeClientCustomizer {
+
+    private final Map<Method, Boolean> methods;
+
+    private SingleFlightCustomizer(Map<Method, Boolean> methods) {
+        this.methods = methods;
+    }
+
+    /**
+     * create the customizer of a client
+     *
+     * @param metadata      {@link HttpExchangeClientMetadata}
+     * @param headerSources the classes of the client which may add headers per request, the callers coalesced
+     *                      by the method arguments may get different headers from them
+     * @return {@link SingleFlightCustomizer}, or {@code null} if the client has no single-flight method
+     */
+    public static SingleFlightCustomizer create(HttpExchangeClientMetadata metadata, List<Class<?>> headerSources) {
+        Map<Method, Boolean> methods = new HashMap<>();
+        for (HttpExchangeMethod exchangeMethod : metadata.methods().values()) {
+            Method method = exchangeMethod.method();
+            SingleFlight singleFlight = AnnotatedElementUtils.findMergedAnnotation(method, SingleFlight.class);
+            if (Objects.isNull(singleFlight)) {
+                continue;
+            }
+            if (!headerSources.isEmpty() && !singleFlight.sharedHeaders()) {
+                log.warn("@SingleFlight does not coalesce the requests of client {} which may add headers per request by {}, "
+                                + "set sharedHeaders if they are the same for every caller, ignore {}.",
+                        metadata.name(), headerSources.stream().map(Class::getName).toList(), method);
+                continue;
+            }
+            if (!HttpMethod.GET.name().equals(exchangeMethod.httpMethod()) && !HttpMethod.HEAD.name().equals(exchangeMethod.httpMethod())) {
+                log.warn("@SingleFlight only supports GET and HEAD methods, ignore {}.", method);
+                continue;
+            }
+            boolean reactive = Mono.class.isAssignableFrom(method.getReturnType());
+            if (!reactive && Objects.nonNull(ReactiveAdapterRegistry.getSharedInstance().getAdapter(method.getReturnType()))) {
+                log.warn("@SingleFlight only supports methods returning Mono or a value, ignore {}.", method);
+                continue;
+            }
+            methods.put(method, reactive);
+        }
+        return methods.isEmpty() ? null : new SingleFlightCustomizer(methods);
+    }
+
+    @Override
+    public void customizeInterceptors(HttpExchangeClientMetadata metadata, List<MethodInterceptor> interceptors) {
+        interceptors.add(new SingleFlightInterceptor(methods));
+    }
+}
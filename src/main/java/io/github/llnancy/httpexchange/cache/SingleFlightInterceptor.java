@@ -0,0 +1,196 @@
+package io.github.llnancy.httpexchange.cache;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.lang.NonNull;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.ContextView;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * coalesces the concurrent invocations of the {@link io.github.llnancy.httpexchange.core.SingleFlight} methods.
+ * <p>
+ * the first invocation of a key puts its flight into the in-flight map by {@code putIfAbsent}, the following
+ * ones join it until it completes. a {@code Mono} flight is connected by its first subscriber with the reactor
+ * context of that subscriber, cancelled when its last subscriber cancels, and replays its result to the subscribers
+ * which join it after it terminated but before it is removed. the flights take no lock. a blocking flight runs on the
+ * thread of the first invocation.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/25
+ */
+final class SingleFlightInterceptor implements MethodInterceptor {
+
+    /**
+     * method to whether it returns {@code Mono}
+     */
+    private final Map<Method, Boolean> methods;
+
+    private final ConcurrentMap<CacheKey, Flight> flights = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<CacheKey, CompletableFuture<Object>> blockingFlights = new ConcurrentHashMap<>();
+
+    SingleFlightInterceptor(Map<Method, Boolean> methods) {
+        this.methods = methods;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        Boolean reactive = methods.get(invocation.getMethod());
+        if (Objects.isNull(reactive)) {
+            return invocation.proceed();
+        }
+        CacheKey key = new CacheKey(invocation.getMethod(), invocation.getArguments());
+        if (reactive) {
+            ProxyMethodInvocation proxyInvocation = (ProxyMethodInvocation) invocation;
+            return Mono.defer(() -> join(key, proxyInvocation));
+        }
+        return joinBlocking(key, invocation);
+    }
+
+    private Mono<Object> join(CacheKey key, ProxyMethodInvocation invocation) {
+        return Mono.deferContextual(context -> {
+            while (true) {
+                Flight flight = flights.get(key);
+                if (Objects.isNull(flight)) {
+                    Flight created = new Flight(key, invocation);
+                    flight = flights.putIfAbsent(key, created);
+                    if (Objects.isNull(flight)) {
+                        flight = created;
+                    }
+                }
+                Mono<Object> joined = flight.join(context);
+                if (Objects.nonNull(joined)) {
+                    return joined;
+                }
+                // the subscribers of the flight all cancelled, replace it
+                flights.remove(key, flight);
+            }
+        });
+    }
+
+    private Object joinBlocking(CacheKey key, MethodInvocation invocation) throws Throwable {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = blockingFlights.putIfAbsent(key, future);
+        if (Objects.nonNull(existing)) {
+            try {
+                return existing.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+        try {
+            Object value = invocation.proceed();
+            future.complete(value);
+            return value;
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            throw t;
+        } finally {
+            blockingFlights.remove(key, future);
+        }
+    }
+
+    /**
+     * a shared in-flight request, removed from the in-flight map before its result is signalled or when it is cancelled.
+     * the result is kept in a sink, so the subscribers which got the flight before its removal still receive it.
+     * <p>
+     * the subscriber count is closed when it drops to zero before the result, a closed flight is not joined again,
+     * so a flight is connected once by its first subscriber, with the reactor context of that subscriber.
+     */
+    private final class Flight {
+
+        private static final int CLOSED = -1;
+
+        private final CacheKey key;
+
+        private final ProxyMethodInvocation invocation;
+
+        private final Sinks.One<Object> result = Sinks.one();
+
+        private final AtomicInteger subscribers = new AtomicInteger();
+
+        private final AtomicBoolean connected = new AtomicBoolean();
+
+        private final AtomicBoolean terminated = new AtomicBoolean();
+
+        private volatile Disposable connection;
+
+        private Flight(CacheKey key, ProxyMethodInvocation invocation) {
+            this.key = key;
+            this.invocation = invocation;
+        }
+
+        /**
+         * join the flight, connect it if it is the first subscriber
+         *
+         * @param context the reactor context of the subscriber
+         * @return the result, or {@code null} if the flight is cancelled by all its subscribers
+         */
+        private Mono<Object> join(ContextView context) {
+            while (true) {
+                int count = subscribers.get();
+                if (count == CLOSED) {
+                    return terminated.get() ? result.asMono() : null;
+                }
+                if (subscribers.compareAndSet(count, count + 1)) {
+                    break;
+                }
+            }
+            if (connected.compareAndSet(false, true)) {
+                // the deadline and the observation of the first subscriber apply to the shared request
+                connection = proceed()
+                        .contextWrite(context)
+                        .subscribe(
+                                value -> terminate(() -> result.tryEmitValue(value)),
+                                error -> terminate(() -> result.tryEmitError(error)),
+                                () -> terminate(result::tryEmitEmpty)
+                        );
+            }
+            return result.asMono().doOnCancel(this::release);
+        }
+
+        private void release() {
+            if (terminated.get()) {
+                return;
+            }
+            // a subscriber which joins between the decrement and the close keeps the flight
+            if (subscribers.decrementAndGet() == 0 && subscribers.compareAndSet(0, CLOSED)) {
+                flights.remove(key, this);
+                Disposable disposable = connection;
+                if (Objects.nonNull(disposable)) {
+                    disposable.dispose();
+                }
+            }
+        }
+
+        private void terminate(Runnable signal) {
+            if (!terminated.compareAndSet(false, true)) {
+                return;
+            }
+            flights.remove(key, this);
+            signal.run();
+        }
+
+        @SuppressWarnings("unchecked")
+        private Mono<Object> proceed() {
+            try {
+                return (Mono<Object>) invocation.invocableClone().proceed();
+            } catch (Throwable t) {
+                return Mono.error(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.llnancy.httpexchange.codec;
+
+import io.github.llnancy.httpexchange.core.ClientCodecConfigurerConsumer;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * registry of the shared {@link ExchangeStrategies}, keyed by the {@link ClientCodecConfigurerConsumer} class
+ * and the max in memory size.
+ * <p>
+ * clients with the same codec settings share one {@link ExchangeStrategies}, and with it one set of codecs,
+ * the consumer of a class is only created and applied for the first client.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/26
+ */
+public class ExchangeStrategiesRegistry {
+
+    private final ConcurrentMap<Key, ExchangeStrategies> strategies = new ConcurrentHashMap<>();
+
+    /**
+     * get the shared {@link ExchangeStrategies}, create it if absent
+     *
+     * @param consumerClass   the {@link ClientCodecConfigurerConsumer} class, or {@code null}
+     * @param consumer        supplier of the {@link ClientCodecConfigurerConsumer}, called only on creation
+     * @param maxInMemorySize the max in memory size of the default codecs, {@code -1} for unlimited, or {@code null}
+     * @return {@link ExchangeStrategies}
+     * @throws IllegalArgumentException if the max in memory size is not {@code -1} and out of {@code [0, 2GB)}
+     */
+    public ExchangeStrategies getOrCreate(Class<? extends ClientCodecConfigurerConsumer> consumerClass,
+                                          Supplier<ClientCodecConfigurerConsumer> consumer,
+                                          DataSize maxInMemorySize) {
+        if (Objects.isNull(consumerClass) && Objects.isNull(maxInMemorySize)) {
+            return ExchangeStrategies.withDefaults();
+        }
+        if (Objects.nonNull(maxInMemorySize) && (maxInMemorySize.toBytes() < -1 || maxInMemorySize.toBytes() > Integer.MAX_VALUE)) {
+            // the codecs buffer a body in one int-indexed buffer
+            throw new IllegalArgumentException("Invalid codec max in memory size " + maxInMemorySize
+                    + ", it must be -1 for unlimited or between 0 and " + Integer.MAX_VALUE + " bytes.");
+        }
+        return strategies.computeIfAbsent(new Key(consumerClass, maxInMemorySize), key -> create(key, consumer));
+    }
+
+    private static ExchangeStrategies create(Key key, Supplier<ClientCodecConfigurerConsumer> consumerSupplier) {
+        ClientCodecConfigurerConsumer consumer = Objects.nonNull(key.consumerClass()) ? consumerSupplier.get() : null;
+        return ExchangeStrategies.builder()
+                .codecs(configurer -> {
+                    if (Objects.nonNull(key.maxInMemorySize())) {
+                        configurer.defaultCodecs().maxInMemorySize(Math.toIntExact(key.maxInMemorySize().toBytes()));
+                    }
+                    // the consumer may override the max in memory size
+                    if (Objects.nonNull(consumer)) {
+                        consumer.consumer().accept(configurer);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * number of the created {@link ExchangeStrategies}
+     *
+     * @return size
+     */
+    public int size() {
+        return strategies.size();
+    }
+
+    private record Key(Class<?> consumerClass, DataSize maxInMemorySize) {
+    }
+}
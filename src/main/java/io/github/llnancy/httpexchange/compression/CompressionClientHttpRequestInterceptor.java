@@ -0,0 +1,162 @@
+package io.github.llnancy.httpexchange.compression;
+
+import io.github.llnancy.httpexchange.core.Compression;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.NonNull;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * compresses the request bodies and decodes the response bodies of the blocking transports
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/29
+ */
+final class CompressionClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final CompressionStatistics statistics;
+
+    private final boolean response;
+
+    private final Compression.Coding request;
+
+    private final long requestMinSize;
+
+    CompressionClientHttpRequestInterceptor(CompressionStatistics statistics, boolean response, Compression.Coding request, long requestMinSize) {
+        this.statistics = statistics;
+        this.response = response;
+        this.request = request;
+        this.requestMinSize = requestMinSize;
+    }
+
+    @Override
+    @NonNull
+    public ClientHttpResponse intercept(@NonNull HttpRequest httpRequest, @NonNull byte[] body, @NonNull ClientHttpRequestExecution execution) throws IOException {
+        HttpHeaders headers = httpRequest.getHeaders();
+        if (request != Compression.Coding.NONE && body.length >= requestMinSize && body.length > 0 && !headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            byte[] compressed = ContentCodings.compress(body, request);
+            headers.set(HttpHeaders.CONTENT_ENCODING, ContentCodings.name(request));
+            headers.setContentLength(compressed.length);
+            statistics.recordRequest(body.length, compressed.length);
+            body = compressed;
+        }
+        boolean decode = response && !headers.containsKey(HttpHeaders.ACCEPT_ENCODING);
+        if (decode) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, ContentCodings.BLOCKING_ACCEPT_ENCODING);
+        }
+        ClientHttpResponse clientResponse = execution.execute(httpRequest, body);
+        if (!decode) {
+            return clientResponse;
+        }
+        String coding = clientResponse.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (Objects.isNull(coding) || !ContentCodings.isBlockingDecodable(coding)) {
+            return clientResponse;
+        }
+        return new DecodingClientHttpResponse(clientResponse, coding);
+    }
+
+    /**
+     * the response whose body is decoded while it is read
+     */
+    private final class DecodingClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+
+        private final String coding;
+
+        private final HttpHeaders headers;
+
+        private CountingInputStream compressed;
+
+        private CountingInputStream decoded;
+
+        private DecodingClientHttpResponse(ClientHttpResponse delegate, String coding) {
+            this.delegate = delegate;
+            this.coding = coding;
+            this.headers = new HttpHeaders();
+            this.headers.putAll(delegate.getHeaders());
+            this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+            this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+        }
+
+        @Override
+        @NonNull
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        @NonNull
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        @NonNull
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        @NonNull
+        public InputStream getBody() throws IOException {
+            if (Objects.isNull(decoded)) {
+                compressed = new CountingInputStream(delegate.getBody());
+                try {
+                    decoded = new CountingInputStream(ContentCodings.decode(compressed, coding));
+                } catch (EOFException e) {
+                    // no body
+                    decoded = new CountingInputStream(InputStream.nullInputStream());
+                }
+            }
+            return decoded;
+        }
+
+        @Override
+        public void close() {
+            if (Objects.nonNull(decoded) && decoded.count > 0) {
+                statistics.recordResponse(decoded.count, compressed.count);
+            }
+            delegate.close();
+        }
+    }
+
+    /**
+     * counts the bytes read
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(@NonNull byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.llnancy.httpexchange.compression;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.core.Compression;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Objects;
+
+/**
+ * installs the request and response compression on a http exchange client
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/29
+ */
+public final class CompressionCustomizer implements HttpExchangeClientCustomizer {
+
+    private static final DataSize DEFAULT_REQUEST_MIN_SIZE = DataSize.ofKilobytes(2);
+
+    private final CompressionStatistics statistics;
+
+    private final boolean response;
+
+    private final Compression.Coding request;
+
+    private final long requestMinSize;
+
+    private CompressionCustomizer(CompressionStatistics statistics, boolean response, Compression.Coding request, long requestMinSize) {
+        this.statistics = statistics;
+        this.response = response;
+        this.request = request;
+        this.requestMinSize = requestMinSize;
+    }
+
+    /**
+     * create the customizer of a client
+     *
+     * @param metadata    {@link HttpExchangeClientMetadata}
+     * @param compression the {@link Compression} of the client annotation
+     * @param registry    {@link CompressionRegistry}
+     * @return {@link CompressionCustomizer}, or {@code null} if the client compresses nothing
+     */
+    public static CompressionCustomizer create(HttpExchangeClientMetadata metadata, Compression compression, CompressionRegistry registry) {
+        ClientPropertiesResolver resolver = metadata.properties();
+        Boolean annotatedResponse = switch (compression.response()) {
+            case ENABLED -> Boolean.TRUE;
+            case DISABLED -> Boolean.FALSE;
+            default -> null;
+        };
+        boolean response = resolver.resolve(p -> p.getCompression().getResponseEnabled(), annotatedResponse, false);
+        Compression.Coding request = resolver.resolve(p -> p.getCompression().getRequestCoding(),
+                compression.request() == Compression.Coding.DEFAULT ? null : compression.request(), Compression.Coding.NONE);
+        if (request == Compression.Coding.DEFAULT) {
+            request = Compression.Coding.NONE;
+        }
+        if (!response && request == Compression.Coding.NONE) {
+            return null;
+        }
+        DataSize requestMinSize = resolver.resolveDataSize(p -> p.getCompression().getRequestMinSize(), compression.requestMinSize());
+        CompressionStatistics statistics = new CompressionStatistics(metadata.name());
+        registry.register(statistics);
+        return new CompressionCustomizer(statistics, response, request, (Objects.nonNull(requestMinSize) ? requestMinSize : DEFAULT_REQUEST_MIN_SIZE).toBytes());
+    }
+
+    @Override
+    public void customizeWebClient(HttpExchangeClientMetadata metadata, WebClient.Builder builder) {
+        builder.filter(new CompressionExchangeFilterFunction(statistics, response, request, requestMinSize));
+    }
+
+    @Override
+    public void customizeRestClient(HttpExchangeClientMetadata metadata, RestClient.Builder builder) {
+        builder.requestInterceptor(new CompressionClientHttpRequestInterceptor(statistics, response, request, requestMinSize));
+    }
+}
@@ -0,0 +1,253 @@
+package io.github.llnancy.httpexchange.compression;
+
+import io.github.llnancy.httpexchange.core.Compression;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * compresses the request bodies and decodes the response bodies of the {@code WebClient} transport.
+ * <p>
+ * the responses are decoded by netty decoders in an embedded channel, buffer by buffer, so the decoding
+ * streams like the body. the request bodies written at once are compressed into one buffer with a content length,
+ * the streamed request bodies are compressed buffer by buffer by netty encoders once their first buffers reach the
+ * minimum size.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/29
+ */
+final class CompressionExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private static final NettyDataBufferFactory BUFFER_FACTORY = new NettyDataBufferFactory(ByteBufAllocator.DEFAULT);
+
+    private final CompressionStatistics statistics;
+
+    private final boolean response;
+
+    private final Compression.Coding request;
+
+    private final long requestMinSize;
+
+    CompressionExchangeFilterFunction(CompressionStatistics statistics, boolean response, Compression.Coding request, long requestMinSize) {
+        this.statistics = statistics;
+        this.response = response;
+        this.request = request;
+        this.requestMinSize = requestMinSize;
+    }
+
+    @Override
+    @NonNull
+    public Mono<ClientResponse> filter(@NonNull ClientRequest clientRequest, @NonNull ExchangeFunction next) {
+        ClientRequest.Builder builder = null;
+        if (request != Compression.Coding.NONE && !clientRequest.headers().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            builder = ClientRequest.from(clientRequest)
+                    .body((outputMessage, context) -> clientRequest.body().insert(compressing(outputMessage), context));
+        }
+        boolean decode = response && !clientRequest.headers().containsKey(HttpHeaders.ACCEPT_ENCODING);
+        if (decode) {
+            builder = Objects.nonNull(builder) ? builder : ClientRequest.from(clientRequest);
+            builder.header(HttpHeaders.ACCEPT_ENCODING, ContentCodings.REACTIVE_ACCEPT_ENCODING);
+        }
+        Mono<ClientResponse> exchange = next.exchange(Objects.nonNull(builder) ? builder.build() : clientRequest);
+        return decode ? exchange.map(this::decode) : exchange;
+    }
+
+    private ClientHttpRequest compressing(ClientHttpRequest outputMessage) {
+        return outputMessage instanceof ZeroCopyHttpOutputMessage
+                ? new ZeroCopyCompressingRequest(outputMessage)
+                : new CompressingRequest(outputMessage);
+    }
+
+    private ClientResponse decode(ClientResponse clientResponse) {
+        String coding = clientResponse.headers().asHttpHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (Objects.isNull(coding) || Objects.isNull(ContentCodings.decoder(coding))) {
+            return clientResponse;
+        }
+        // a replaced body would be drained, so the body is transformed
+        return clientResponse.mutate()
+                .headers(headers -> {
+                    headers.remove(HttpHeaders.CONTENT_ENCODING);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                })
+                .body(body -> decode(body, coding))
+                .build();
+    }
+
+    private Flux<DataBuffer> decode(Flux<DataBuffer> body, String coding) {
+        return Flux.defer(() -> {
+            ChannelHandler decoder = ContentCodings.decoder(coding);
+            EmbeddedChannel channel = new EmbeddedChannel(decoder);
+            AtomicLong compressed = new AtomicLong();
+            AtomicLong original = new AtomicLong();
+            return body
+                    .concatMapIterable(buffer -> {
+                        compressed.addAndGet(buffer.readableByteCount());
+                        channel.writeInbound(toByteBuf(buffer));
+                        return drain(channel, original);
+                    })
+                    .concatWith(Flux.defer(() -> {
+                        channel.finish();
+                        List<DataBuffer> rest = drain(channel, original);
+                        statistics.recordResponse(original.get(), compressed.get());
+                        return Flux.fromIterable(rest);
+                    }))
+                    .doFinally(signal -> channel.finishAndReleaseAll());
+        });
+    }
+
+    private static ByteBuf toByteBuf(DataBuffer buffer) {
+        if (buffer instanceof NettyDataBuffer nettyBuffer) {
+            return nettyBuffer.getNativeBuffer();
+        }
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return Unpooled.wrappedBuffer(bytes);
+    }
+
+    private static List<DataBuffer> drain(EmbeddedChannel channel, AtomicLong original) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        ByteBuf decoded;
+        while ((decoded = channel.readInbound()) != null) {
+            add(buffers, decoded, original);
+        }
+        return buffers;
+    }
+
+    private static List<DataBuffer> drainOutbound(EmbeddedChannel channel, AtomicLong compressed) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        ByteBuf encoded;
+        while ((encoded = channel.readOutbound()) != null) {
+            add(buffers, encoded, compressed);
+        }
+        return buffers;
+    }
+
+    private static void add(List<DataBuffer> buffers, ByteBuf buffer, AtomicLong count) {
+        if (buffer.isReadable()) {
+            count.addAndGet(buffer.readableBytes());
+            buffers.add(BUFFER_FACTORY.wrap(buffer));
+        } else {
+            buffer.release();
+        }
+    }
+
+    /**
+     * compresses the body written at once or streamed
+     */
+    private class CompressingRequest extends ClientHttpRequestDecorator {
+
+        CompressingRequest(ClientHttpRequest delegate) {
+            super(delegate);
+        }
+
+        @Override
+        @NonNull
+        public Mono<Void> writeWith(@NonNull Publisher<? extends DataBuffer> body) {
+            if (!(body instanceof Mono<? extends DataBuffer> mono)) {
+                return writeStream(Flux.from(body));
+            }
+            // the headers are committed when the body is written, so the body is compressed first
+            return mono.map(this::compress)
+                    .map(Mono::just)
+                    .defaultIfEmpty(Mono.empty())
+                    .flatMap(super::writeWith);
+        }
+
+        private DataBuffer compress(DataBuffer buffer) {
+            int size = buffer.readableByteCount();
+            if (size < requestMinSize) {
+                return buffer;
+            }
+            byte[] bytes = new byte[size];
+            buffer.read(bytes);
+            DataBufferUtils.release(buffer);
+            byte[] compressed = ContentCodings.compress(bytes, request);
+            HttpHeaders headers = getHeaders();
+            headers.set(HttpHeaders.CONTENT_ENCODING, ContentCodings.name(request));
+            headers.setContentLength(compressed.length);
+            statistics.recordRequest(size, compressed.length);
+            return bufferFactory().wrap(compressed);
+        }
+
+        private Mono<Void> writeStream(Flux<? extends DataBuffer> body) {
+            // the headers are committed before a stream is written, so the first buffers are held until they reach
+            // the minimum size, a shorter body is sent as it is
+            AtomicLong head = new AtomicLong();
+            return body.<List<DataBuffer>>bufferUntil(buffer -> head.addAndGet(buffer.readableByteCount()) >= requestMinSize)
+                    .switchOnFirst((first, buffers) -> {
+                        Flux<DataBuffer> flattened = buffers.concatMapIterable(list -> list);
+                        if (head.get() < requestMinSize || head.get() == 0) {
+                            return super.writeWith(flattened);
+                        }
+                        HttpHeaders headers = getHeaders();
+                        headers.set(HttpHeaders.CONTENT_ENCODING, ContentCodings.name(request));
+                        headers.remove(HttpHeaders.CONTENT_LENGTH);
+                        return super.writeWith(encode(flattened));
+                    })
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .then();
+        }
+
+        private Flux<DataBuffer> encode(Flux<DataBuffer> body) {
+            return Flux.defer(() -> {
+                EmbeddedChannel channel = new EmbeddedChannel(ContentCodings.encoder(request));
+                AtomicLong original = new AtomicLong();
+                AtomicLong compressed = new AtomicLong();
+                return body
+                        .concatMapIterable(buffer -> {
+                            original.addAndGet(buffer.readableByteCount());
+                            channel.writeOutbound(toByteBuf(buffer));
+                            return drainOutbound(channel, compressed);
+                        })
+                        .concatWith(Flux.defer(() -> {
+                            channel.finish();
+                            List<DataBuffer> rest = drainOutbound(channel, compressed);
+                            statistics.recordRequest(original.get(), compressed.get());
+                            return Flux.fromIterable(rest);
+                        }))
+                        .doFinally(signal -> channel.finishAndReleaseAll());
+            });
+        }
+    }
+
+    /**
+     * keeps the zero-copy file transfer of the delegate, the files are sent as they are
+     */
+    private final class ZeroCopyCompressingRequest extends CompressingRequest implements ZeroCopyHttpOutputMessage {
+
+        ZeroCopyCompressingRequest(ClientHttpRequest delegate) {
+            super(delegate);
+        }
+
+        @Override
+        @NonNull
+        public Mono<Void> writeWith(@NonNull Path file, long position, long count) {
+            return ((ZeroCopyHttpOutputMessage) getDelegate()).writeWith(file, position, count);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.llnancy.httpexchange.compression;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * registry of the {@link CompressionStatistics} of the http exchange clients, keyed by client name
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/29
+ */
+public class CompressionRegistry {
+
+    private final Map<String, CompressionStatistics> statistics = new LinkedHashMap<>();
+
+    private final List<Consumer<CompressionStatistics>> listeners = new ArrayList<>();
+
+    /**
+     * register the statistics of a client
+     *
+     * @param clientStatistics {@link CompressionStatistics}
+     */
+    public synchronized void register(CompressionStatistics clientStatistics) {
+        statistics.put(clientStatistics.getClientName(), clientStatistics);
+        listeners.forEach(listener -> listener.accept(clientStatistics));
+    }
+
+    /**
+     * add a listener called with every registered statistics, including the ones registered before
+     *
+     * @param listener the listener
+     */
+    public synchronized void addListener(Consumer<CompressionStatistics> listener) {
+        listeners.add(listener);
+        statistics.values().forEach(listener);
+    }
+
+    /**
+     * the statistics of a client
+     *
+     * @param clientName the client name
+     * @return {@link CompressionStatistics}, or {@code null} if the client has no compression
+     */
+    public synchronized CompressionStatistics get(String clientName) {
+        return statistics.get(clientName);
+    }
+
+    /**
+     * all registered statistics
+     *
+     * @return {@link CompressionStatistics}
+     */
+    public synchronized Collection<CompressionStatistics> getStatistics() {
+        return Collections.unmodifiableList(new ArrayList<>(statistics.values()));
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.llnancy.httpexchange.compression;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the compressed and original body sizes of a http exchange client
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/29
+ */
+public class CompressionStatistics {
+
+    @Getter
+    private final String clientName;
+
+    private final LongAdder requestOriginalBytes = new LongAdder();
+
+    private final LongAdder requestCompressedBytes = new LongAdder();
+
+    private final LongAdder responseOriginalBytes = new LongAdder();
+
+    private final LongAdder responseCompressedBytes = new LongAdder();
+
+    CompressionStatistics(String clientName) {
+        this.clientName = clientName;
+    }
+
+    void recordRequest(long original, long compressed) {
+        requestOriginalBytes.add(original);
+        requestCompressedBytes.add(compressed);
+    }
+
+    void recordResponse(long original, long compressed) {
+        responseOriginalBytes.add(original);
+        responseCompressedBytes.add(compressed);
+    }
+
+    /**
+     * the sum of the compressed request bodies before compression
+     *
+     * @return bytes
+     */
+    public long getRequestOriginalBytes() {
+        return requestOriginalBytes.sum();
+    }
+
+    /**
+     * the sum of the compressed request bodies sent
+     *
+     * @return bytes
+     */
+    public long getRequestCompressedBytes() {
+        return requestCompressedBytes.sum();
+    }
+
+    /**
+     * the sum of the compressed response bodies after decoding
+     *
+     * @return bytes
+     */
+    public long getResponseOriginalBytes() {
+        return responseOriginalBytes.sum();
+    }
+
+    /**
+     * the sum of the compressed response bodies received
+     *
+     * @return bytes
+     */
+    public long getResponseCompressedBytes() {
+        return responseCompressedBytes.sum();
+    }
+
+    /**
+     * compressed bytes divided by original bytes of the requests
+     *
+     * @return ratio, {@code NaN} if nothing is compressed
+     */
+    public double getRequestRatio() {
+        return ratio(getRequestCompressedBytes(), getRequestOriginalBytes());
+    }
+
+    /**
+     * compressed bytes divided by original bytes of the responses
+     *
+     * @return ratio, {@code NaN} if nothing is compressed
+     */
+    public double getResponseRatio() {
+        return ratio(getResponseCompressedBytes(), getResponseOriginalBytes());
+    }
+
+    private static double ratio(long compressed, long original) {
+        return original == 0 ? Double.NaN : (double) compressed / original;
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.llnancy.httpexchange.compression;
+
+import io.github.llnancy.httpexchange.core.Compression;
+import io.netty.channel.ChannelHandler;
+import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.compression.BrotliDecoder;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import org.springframework.util.ClassUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * the content codings supported by the transports
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/29
+ */
+final class ContentCodings {
+
+    static final String GZIP = "gzip";
+
+    static final String DEFLATE = "deflate";
+
+    static final String BR = "br";
+
+    /**
+     * the accepted codings of the blocking transports
+     */
+    static final String BLOCKING_ACCEPT_ENCODING = GZIP + ", " + DEFLATE;
+
+    /**
+     * the accepted codings of the {@code WebClient} transport, brotli needs brotli4j at runtime
+     */
+    static final String REACTIVE_ACCEPT_ENCODING = isBrotliAvailable() ? BLOCKING_ACCEPT_ENCODING + ", " + BR : BLOCKING_ACCEPT_ENCODING;
+
+    private ContentCodings() {
+    }
+
+    private static boolean isBrotliAvailable() {
+        try {
+            return ClassUtils.isPresent("io.netty.handler.codec.compression.Brotli", ContentCodings.class.getClassLoader()) && Brotli.isAvailable();
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /**
+     * the name of a request coding
+     *
+     * @param coding {@link Compression.Coding}
+     * @return content coding
+     */
+    static String name(Compression.Coding coding) {
+        return coding == Compression.Coding.GZIP ? GZIP : DEFLATE;
+    }
+
+    /**
+     * compress a request body
+     *
+     * @param body   the body
+     * @param coding {@link Compression.Coding}
+     * @return compressed body
+     */
+    static byte[] compress(byte[] body, Compression.Coding coding) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (OutputStream compressing = coding == Compression.Coding.GZIP ? new GZIPOutputStream(out) : new DeflaterOutputStream(out)) {
+            compressing.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * the netty encoder of a streamed request coding
+     *
+     * @param coding {@link Compression.Coding}
+     * @return {@link ChannelHandler}
+     */
+    static ChannelHandler encoder(Compression.Coding coding) {
+        return ZlibCodecFactory.newZlibEncoder(coding == Compression.Coding.GZIP ? ZlibWrapper.GZIP : ZlibWrapper.ZLIB);
+    }
+
+    /**
+     * the netty decoder of a response coding
+     *
+     * @param coding content coding
+     * @return {@link ChannelHandler}, or {@code null} if not supported
+     */
+    static ChannelHandler decoder(String coding) {
+        return switch (coding.trim().toLowerCase()) {
+            case GZIP, "x-gzip" -> ZlibCodecFactory.newZlibDecoder(ZlibWrapper.GZIP);
+            case DEFLATE -> ZlibCodecFactory.newZlibDecoder(ZlibWrapper.ZLIB_OR_NONE);
+            case BR -> REACTIVE_ACCEPT_ENCODING.endsWith(BR) ? new BrotliDecoder() : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * whether a response coding is decoded by the blocking transports
+     *
+     * @param coding content coding
+     * @return whether it is supported
+     */
+    static boolean isBlockingDecodable(String coding) {
+        return switch (coding.trim().toLowerCase()) {
+            case GZIP, "x-gzip", DEFLATE -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * decode a response body of the blocking transports
+     *
+     * @param in     the body
+     * @param coding content coding
+     * @return decoded body, or {@code null} if not supported
+     * @throws IOException if the gzip header cannot be read
+     */
+    static InputStream decode(InputStream in, String coding) throws IOException {
+        return switch (coding.trim().toLowerCase()) {
+            case GZIP, "x-gzip" -> new GZIPInputStream(in);
+            case DEFLATE -> new InflaterInputStream(in);
+            default -> null;
+        };
+    }
+}
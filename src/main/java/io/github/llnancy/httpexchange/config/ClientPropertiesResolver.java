@@ -0,0 +1,185 @@
+package io.github.llnancy.httpexchange.config;
+
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.ClientProperties;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * resolve the settings of a http exchange client in the order of {@code httpexchange.clients.<name>.*},
+ * the annotation value and {@code httpexchange.default.*}.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/20
+ */
+public final class ClientPropertiesResolver {
+
+    private final String clientName;
+
+    private final ClientProperties defaults;
+
+    private final ClientProperties client;
+
+    private final Environment environment;
+
+    /**
+     * constructor
+     *
+     * @param properties  {@link HttpExchangeClientProperties}
+     * @param clientName  the client name
+     * @param environment {@link Environment}
+     */
+    public ClientPropertiesResolver(HttpExchangeClientProperties properties, String clientName, Environment environment) {
+        this.clientName = clientName;
+        this.defaults = properties.getDefault();
+        this.client = properties.getClients().get(clientName);
+        this.environment = environment;
+    }
+
+    /**
+     * the client name
+     *
+     * @return client name
+     */
+    public String clientName() {
+        return clientName;
+    }
+
+    /**
+     * resolve a value which only exists in properties
+     *
+     * @param getter the property getter
+     * @param <V>    value type
+     * @return resolved value, or {@code null}
+     */
+    public <V> V resolve(Function<ClientProperties, V> getter) {
+        return resolve(getter, null);
+    }
+
+    /**
+     * resolve a value
+     *
+     * @param getter          the property getter
+     * @param annotationValue the annotation value, {@code null} means not set
+     * @param <V>             value type
+     * @return resolved value, or {@code null}
+     */
+    public <V> V resolve(Function<ClientProperties, V> getter, V annotationValue) {
+        if (Objects.nonNull(client)) {
+            V value = getter.apply(client);
+            if (Objects.nonNull(value)) {
+                return value;
+            }
+        }
+        if (Objects.nonNull(annotationValue)) {
+            return annotationValue;
+        }
+        return Objects.nonNull(defaults) ? getter.apply(defaults) : null;
+    }
+
+    /**
+     * resolve a value, then fall back to the given default
+     *
+     * @param getter          the property getter
+     * @param annotationValue the annotation value, {@code null} means not set
+     * @param defaultValue    the default value
+     * @param <V>             value type
+     * @return resolved value
+     */
+    public <V> V resolve(Function<ClientProperties, V> getter, V annotationValue, V defaultValue) {
+        V value = resolve(getter, annotationValue);
+        return Objects.nonNull(value) ? value : defaultValue;
+    }
+
+    /**
+     * resolve an int value, negative annotation value means not set
+     *
+     * @param getter          the property getter
+     * @param annotationValue the annotation value
+     * @return resolved value, or {@code null}
+     */
+    public Integer resolveInt(Function<ClientProperties, Integer> getter, int annotationValue) {
+        return resolve(getter, annotationValue < 0 ? null : annotationValue);
+    }
+
+    /**
+     * resolve a string value, the annotation value supports placeholders
+     *
+     * @param getter          the property getter
+     * @param annotationValue the annotation value
+     * @return resolved value, or {@code null}
+     */
+    public String resolveString(Function<ClientProperties, String> getter, String annotationValue) {
+        return resolve(getter, resolvePlaceholders(annotationValue));
+    }
+
+    /**
+     * resolve a duration value, the annotation value supports placeholders and the formats of {@link DurationStyle}
+     *
+     * @param getter          the property getter
+     * @param annotationValue the annotation value
+     * @return resolved value, or {@code null}
+     */
+    public Duration resolveDuration(Function<ClientProperties, Duration> getter, String annotationValue) {
+        String value = resolvePlaceholders(annotationValue);
+        return resolve(getter, Objects.nonNull(value) ? DurationStyle.detectAndParse(value) : null);
+    }
+
+    /**
+     * resolve a duration annotation value which has no property, supports placeholders and the formats of {@link DurationStyle}
+     *
+     * @param annotationValue the annotation value
+     * @return resolved value, or {@code null}
+     */
+    public Duration resolveDuration(String annotationValue) {
+        String value = resolvePlaceholders(annotationValue);
+        return Objects.nonNull(value) ? DurationStyle.detectAndParse(value) : null;
+    }
+
+    /**
+     * resolve a data size value, the annotation value supports placeholders and the formats of {@link DataSize}
+     *
+     * @param getter          the property getter
+     * @param annotationValue the annotation value
+     * @return resolved value, or {@code null}
+     */
+    public DataSize resolveDataSize(Function<ClientProperties, DataSize> getter, String annotationValue) {
+        String value = resolvePlaceholders(annotationValue);
+        return resolve(getter, Objects.nonNull(value) ? DataSize.parse(value) : null);
+    }
+
+    /**
+     * merge a map value, the entries of {@code httpexchange.clients.<name>.*} override the annotation ones,
+     * which override the ones of {@code httpexchange.default.*}
+     *
+     * @param getter          the property getter
+     * @param annotationValue the annotation value, {@code null} means not set
+     * @param <K>             key type
+     * @param <V>             value type
+     * @return merged value, empty if not set
+     */
+    public <K, V> Map<K, V> merge(Function<ClientProperties, Map<K, V>> getter, Map<K, V> annotationValue) {
+        Map<K, V> merged = new LinkedHashMap<>();
+        if (Objects.nonNull(defaults) && Objects.nonNull(getter.apply(defaults))) {
+            merged.putAll(getter.apply(defaults));
+        }
+        if (Objects.nonNull(annotationValue)) {
+            merged.putAll(annotationValue);
+        }
+        if (Objects.nonNull(client) && Objects.nonNull(getter.apply(client))) {
+            merged.putAll(getter.apply(client));
+        }
+        return merged;
+    }
+
+    private String resolvePlaceholders(String value) {
+        return StringUtils.hasText(value) ? environment.resolveRequiredPlaceholders(value) : null;
+    }
+}
@@ -1,17 +1,46 @@
 package io.github.llnancy.httpexchange.config;
 
 import io.github.llnancy.httpexchange.aot.HttpExchangeClientBeanFactoryInitializationAotProcessor;
+import io.github.llnancy.httpexchange.cache.ResponseCacheRegistry;
+import io.github.llnancy.httpexchange.codec.ExchangeStrategiesRegistry;
+import io.github.llnancy.httpexchange.compression.CompressionRegistry;
+import io.github.llnancy.httpexchange.connector.ConnectionPrewarmer;
+import io.github.llnancy.httpexchange.connector.ConnectionProviderRegistry;
+import io.github.llnancy.httpexchange.connector.JdkHttpClientRegistry;
+import io.github.llnancy.httpexchange.connector.LoopResourcesRegistry;
 import io.github.llnancy.httpexchange.core.AutoConfiguredHttpExchangeClientScannerRegistrar;
+import io.github.llnancy.httpexchange.deadline.DeadlineServletFilter;
+import io.github.llnancy.httpexchange.deadline.DeadlineWebFilter;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientBootstrap;
 import io.github.llnancy.httpexchange.core.HttpExchangeClientFactoryBean;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientWarmUp;
+import io.github.llnancy.httpexchange.jfr.FlightRecorderCustomizer;
+import io.github.llnancy.httpexchange.metrics.CompressionMetrics;
+import io.github.llnancy.httpexchange.metrics.HttpExchangeClientMetricsCustomizer;
+import io.github.llnancy.httpexchange.metrics.HttpExchangeClientObservationCustomizer;
+import io.github.llnancy.httpexchange.metrics.RateLimiterMetrics;
+import io.github.llnancy.httpexchange.metrics.ResponseCacheMetrics;
+import io.github.llnancy.httpexchange.resilience.RateLimiterRegistry;
+import io.github.llnancy.httpexchange.util.ComponentRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.support.MergedBeanDefinitionPostProcessor;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -25,7 +54,8 @@ import org.springframework.util.ClassUtils;
  * @author llnancy admin@lilu.org.cn
  * @since JDK17 2023/6/29
  */
-@AutoConfiguration
+@AutoConfiguration(afterName = "org.springframework.boot.actuate.autoconfigure.observation.ObservationAutoConfiguration")
+@EnableConfigurationProperties(HttpExchangeClientProperties.class)
 @Slf4j
 public class HttpExchangeClientAutoConfiguration {
 
@@ -38,6 +68,163 @@ public class HttpExchangeClientAutoConfiguration {
     public static class HttpExchangeClientScannerRegistrarNotFoundConfiguration {
     }
 
+    /**
+     * per-method micrometer metrics of http exchange clients
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class HttpExchangeClientMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        HttpExchangeClientMetricsCustomizer httpExchangeClientMetricsCustomizer(ObjectProvider<MeterRegistry> meterRegistry) {
+            return new HttpExchangeClientMetricsCustomizer(meterRegistry.getIfUnique(() -> Metrics.globalRegistry));
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        ResponseCacheMetrics httpExchangeResponseCacheMetrics(ObjectProvider<MeterRegistry> meterRegistry, ResponseCacheRegistry responseCacheRegistry) {
+            return new ResponseCacheMetrics(meterRegistry.getIfUnique(() -> Metrics.globalRegistry), responseCacheRegistry);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        CompressionMetrics httpExchangeCompressionMetrics(ObjectProvider<MeterRegistry> meterRegistry, CompressionRegistry compressionRegistry) {
+            return new CompressionMetrics(meterRegistry.getIfUnique(() -> Metrics.globalRegistry), compressionRegistry);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        RateLimiterMetrics httpExchangeRateLimiterMetrics(ObjectProvider<MeterRegistry> meterRegistry, RateLimiterRegistry rateLimiterRegistry) {
+            return new RateLimiterMetrics(meterRegistry.getIfUnique(() -> Metrics.globalRegistry), rateLimiterRegistry);
+        }
+    }
+
+    /**
+     * micrometer observations of http exchange clients
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(ObservationRegistry.class)
+    @ConditionalOnBean(ObservationRegistry.class)
+    static class HttpExchangeClientObservationConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        HttpExchangeClientObservationCustomizer httpExchangeClientObservationCustomizer(ObservationRegistry observationRegistry) {
+            return new HttpExchangeClientObservationCustomizer(observationRegistry);
+        }
+    }
+
+    /**
+     * java flight recorder events of http exchange clients
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "jdk.jfr.FlightRecorder")
+    static class HttpExchangeClientFlightRecorderConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        FlightRecorderCustomizer httpExchangeFlightRecorderCustomizer() {
+            return new FlightRecorderCustomizer();
+        }
+    }
+
+    /**
+     * reads the deadlines of the inbound webflux requests
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnProperty(prefix = HttpExchangeClientProperties.PREFIX + ".inbound-deadline", name = "enabled", havingValue = "true")
+    static class HttpExchangeInboundDeadlineConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        DeadlineWebFilter httpExchangeDeadlineWebFilter() {
+            return new DeadlineWebFilter();
+        }
+    }
+
+    /**
+     * reads the deadlines of the inbound servlet requests
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(prefix = HttpExchangeClientProperties.PREFIX + ".inbound-deadline", name = "enabled", havingValue = "true")
+    static class HttpExchangeServletInboundDeadlineConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        DeadlineServletFilter httpExchangeDeadlineServletFilter() {
+            return new DeadlineServletFilter();
+        }
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    ComponentRegistry httpExchangeComponentRegistry(ApplicationContext applicationContext) {
+        return new ComponentRegistry(applicationContext);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    ConnectionProviderRegistry httpExchangeConnectionProviderRegistry() {
+        return new ConnectionProviderRegistry();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    LoopResourcesRegistry httpExchangeLoopResourcesRegistry() {
+        return new LoopResourcesRegistry();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    JdkHttpClientRegistry httpExchangeJdkHttpClientRegistry() {
+        return new JdkHttpClientRegistry();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    ExchangeStrategiesRegistry httpExchangeStrategiesRegistry() {
+        return new ExchangeStrategiesRegistry();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    ResponseCacheRegistry httpExchangeResponseCacheRegistry() {
+        return new ResponseCacheRegistry();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    CompressionRegistry httpExchangeCompressionRegistry() {
+        return new CompressionRegistry();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    RateLimiterRegistry httpExchangeRateLimiterRegistry() {
+        return new RateLimiterRegistry();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    HttpExchangeClientBootstrap httpExchangeClientBootstrap(HttpExchangeClientProperties properties, BeanFactory beanFactory) {
+        return new HttpExchangeClientBootstrap(properties.getBootstrap(), beanFactory);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    HttpExchangeClientWarmUp httpExchangeClientWarmUp() {
+        return new HttpExchangeClientWarmUp();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    ConnectionPrewarmer httpExchangeConnectionPrewarmer() {
+        return new ConnectionPrewarmer();
+    }
+
     @Bean
     static HttpExchangeClientBeanFactoryInitializationAotProcessor httpExchangeClientBeanFactoryInitializationAotProcessor(GenericApplicationContext applicationContext) {
         return new HttpExchangeClientBeanFactoryInitializationAotProcessor(applicationContext);
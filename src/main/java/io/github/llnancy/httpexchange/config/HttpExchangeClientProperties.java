@@ -0,0 +1,737 @@
+package io.github.llnancy.httpexchange.config;
+
+import io.github.llnancy.httpexchange.core.ConnectionPool;
+import io.github.llnancy.httpexchange.core.LoadBalancingStrategy;
+import io.github.llnancy.httpexchange.core.NativeTransport;
+import io.github.llnancy.httpexchange.core.Protocol;
+import io.github.llnancy.httpexchange.core.Transport;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * http exchange client properties.
+ * <p>
+ * the settings of a client are resolved in the order of {@code httpexchange.clients.<name>.*},
+ * the {@code @HttpExchangeClient} annotation and {@code httpexchange.default.*}.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/20
+ */
+@Data
+@ConfigurationProperties(prefix = HttpExchangeClientProperties.PREFIX)
+public class HttpExchangeClientProperties {
+
+    /**
+     * properties prefix
+     */
+    public static final String PREFIX = "httpexchange";
+
+    /**
+     * default settings of all clients, bound to {@code httpexchange.default.*}
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ClientProperties defaultClient = new ClientProperties();
+
+    /**
+     * settings per client name, bound to {@code httpexchange.clients.<name>.*}
+     */
+    private Map<String, ClientProperties> clients = new LinkedHashMap<>();
+
+    /**
+     * settings of the deadlines of the inbound requests, bound to {@code httpexchange.inbound-deadline.*}
+     */
+    private InboundDeadline inboundDeadline = new InboundDeadline();
+
+    /**
+     * settings of the bootstrap of the clients, bound to {@code httpexchange.bootstrap.*}
+     */
+    private Bootstrap bootstrap = new Bootstrap();
+
+    /**
+     * get the default settings of all clients
+     *
+     * @return {@link ClientProperties}
+     */
+    public ClientProperties getDefault() {
+        return defaultClient;
+    }
+
+    /**
+     * set the default settings of all clients
+     *
+     * @param defaultClient {@link ClientProperties}
+     */
+    public void setDefault(ClientProperties defaultClient) {
+        this.defaultClient = defaultClient;
+    }
+
+    /**
+     * settings of a single client, {@code null} means not set
+     */
+    @Data
+    public static class ClientProperties {
+
+        /**
+         * the base url
+         */
+        private String baseUrl;
+
+        /**
+         * the transport
+         */
+        private Transport transport;
+
+        /**
+         * the timeout to establish a connection
+         */
+        private Duration connectTimeout;
+
+        /**
+         * the timeout to receive the response headers after the request is sent
+         */
+        private Duration responseTimeout;
+
+        /**
+         * the maximum time without reading any data from the connection during an exchange
+         */
+        private Duration readTimeout;
+
+        /**
+         * the maximum time without writing any data to the connection during an exchange
+         */
+        private Duration writeTimeout;
+
+        /**
+         * the response timeouts per method name, override the {@code @ExchangeTimeout} annotations
+         */
+        private Map<String, Duration> methodTimeouts;
+
+        /**
+         * deadline propagation settings
+         */
+        private Deadline deadline = new Deadline();
+
+        /**
+         * the default headers, merged with the annotation header, the values of the same name are replaced
+         */
+        private Map<String, List<String>> headers;
+
+        /**
+         * the endpoints to balance the requests across, each one is a base url
+         */
+        private List<String> endpoints;
+
+        /**
+         * load balancer settings of the endpoints
+         */
+        private LoadBalancer loadBalancer = new LoadBalancer();
+
+        /**
+         * whether to inject a stub and build the client on its first invocation
+         */
+        private Boolean lazy;
+
+        /**
+         * whether to build the lazy client on a background thread after the application is ready
+         */
+        private Boolean warmUp;
+
+        /**
+         * connection prewarm settings
+         */
+        private Prewarm prewarm = new Prewarm();
+
+        /**
+         * the http protocols as a preference list
+         */
+        private List<Protocol> protocols;
+
+        /**
+         * connection pool settings
+         */
+        private Pool pool = new Pool();
+
+        /**
+         * dns resolver settings of the {@code WebClient} transport
+         */
+        private Dns dns = new Dns();
+
+        /**
+         * event loop settings of the {@code WebClient} transport
+         */
+        private Loop loop = new Loop();
+
+        /**
+         * metrics settings
+         */
+        private Metrics metrics = new Metrics();
+
+        /**
+         * compression settings
+         */
+        private Compression compression = new Compression();
+
+        /**
+         * response cache settings
+         */
+        private Cache cache = new Cache();
+
+        /**
+         * codec settings
+         */
+        private Codec codec = new Codec();
+
+        /**
+         * retry settings of the idempotent methods
+         */
+        private Retry retry = new Retry();
+
+        /**
+         * hedging settings of the idempotent methods
+         */
+        private Hedge hedge = new Hedge();
+
+        /**
+         * circuit breaker settings
+         */
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+        /**
+         * the own circuit breakers of the methods by method name, override the {@code @CircuitBreakerPolicy} annotations
+         * of the methods, the client circuit breaker settings do not apply to them
+         */
+        private Map<String, CircuitBreaker> methodCircuitBreakers;
+
+        /**
+         * bulkhead settings
+         */
+        private Bulkhead bulkhead = new Bulkhead();
+
+        /**
+         * the own bulkheads of the methods by method name, override the {@code @BulkheadPolicy} annotations
+         * of the methods, the client bulkhead settings do not apply to them
+         */
+        private Map<String, Bulkhead> methodBulkheads;
+
+        /**
+         * rate limiter settings
+         */
+        private RateLimiter rateLimiter = new RateLimiter();
+
+        /**
+         * the own rate limiters of the methods by method name, override the {@code @RateLimitPolicy} annotations
+         * of the methods, the client rate limiter settings do not apply to them
+         */
+        private Map<String, RateLimiter> methodRateLimiters;
+
+        /**
+         * java flight recorder settings
+         */
+        private FlightRecorder flightRecorder = new FlightRecorder();
+    }
+
+    /**
+     * rate limiter settings of the client or of a method
+     */
+    @Data
+    public static class RateLimiter {
+
+        /**
+         * whether to limit the rate of the client, or to give the method its own rate limiter
+         */
+        private Boolean enabled;
+
+        /**
+         * the permits refilled per second
+         */
+        private Double permitsPerSecond;
+
+        /**
+         * the maximum number of permits taken at once after an idle period
+         */
+        private Integer burst;
+
+        /**
+         * how long a call waits for a permit, 0 fails fast
+         */
+        private Duration maxWait;
+
+        /**
+         * whether to pause the limiter by the Retry-After and RateLimit-* response headers
+         */
+        private Boolean adaptive;
+    }
+
+    /**
+     * deadline propagation settings
+     */
+    @Data
+    public static class Deadline {
+
+        /**
+         * whether to limit the exchanges by the deadline of the inbound request and propagate it downstream
+         */
+        private Boolean propagationEnabled;
+    }
+
+    /**
+     * settings of the deadlines of the inbound requests
+     */
+    @Data
+    public static class InboundDeadline {
+
+        /**
+         * whether to read the deadline of the inbound webflux or servlet requests from the {@code X-Request-Timeout} header
+         */
+        private boolean enabled;
+    }
+
+    /**
+     * settings of the bootstrap of the clients
+     */
+    @Data
+    public static class Bootstrap {
+
+        /**
+         * whether to build the clients concurrently after the singletons are instantiated
+         */
+        private boolean parallel;
+
+        /**
+         * the threads of the bootstrap executor, defaults to the number of processors,
+         * unused if the context has a {@code bootstrapExecutor} bean
+         */
+        private Integer threads;
+    }
+
+    /**
+     * connection prewarm settings
+     */
+    @Data
+    public static class Prewarm {
+
+        /**
+         * the connections to open for each endpoint before the application accepts traffic
+         */
+        private Integer connections;
+
+        /**
+         * the path of the {@code HEAD} requests which open the connections, relative to the base url
+         */
+        private String path;
+
+        /**
+         * the max time to wait for the connections, defaults to 10s
+         */
+        private Duration timeout;
+    }
+
+    /**
+     * event loop settings
+     */
+    @Data
+    public static class Loop {
+
+        /**
+         * the group name, clients with the same name share the event loops
+         */
+        private String name;
+
+        /**
+         * the number of event loop threads of the group
+         */
+        private Integer threads;
+
+        /**
+         * the netty transport
+         */
+        private NativeTransport nativeTransport;
+    }
+
+    /**
+     * dns resolver settings
+     */
+    @Data
+    public static class Dns {
+
+        /**
+         * whether to resolve by the netty async dns resolver instead of the jdk resolver, defaults to false
+         */
+        private Boolean enabled;
+
+        /**
+         * the min time to live of the cached records, the ttl of the records is raised to it
+         */
+        private Duration minTtl;
+
+        /**
+         * the max time to live of the cached records, the ttl of the records is lowered to it
+         */
+        private Duration maxTtl;
+
+        /**
+         * the time to live of the cached failed resolutions
+         */
+        private Duration negativeTtl;
+
+        /**
+         * the timeout of each dns query
+         */
+        private Duration queryTimeout;
+
+        /**
+         * the search domains, defaults to the ones of /etc/resolv.conf
+         */
+        private List<String> searchDomains;
+
+        /**
+         * the name servers as host:port, the port defaults to 53, defaults to the ones of /etc/resolv.conf
+         */
+        private List<String> servers;
+
+        /**
+         * whether to pick a random address of the resolved ones for each new connection
+         */
+        private Boolean roundRobin;
+    }
+
+    /**
+     * connection pool settings
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * the pool name, clients with the same pool name share one connection pool.
+         * defaults to the origin of the resolved base url.
+         */
+        private String name;
+
+        /**
+         * the maximum number of connections per remote host
+         */
+        private Integer maxConnections;
+
+        /**
+         * the minimum number of http/2 connections per remote host kept in the pool, ignored by http/1.1 clients
+         */
+        private Integer minConnections;
+
+        /**
+         * the maximum number of concurrent streams per http/2 connection, ignored by http/1.1 clients
+         */
+        private Integer maxConcurrentStreams;
+
+        /**
+         * the maximum number of pending acquire requests
+         */
+        private Integer pendingAcquireMaxCount;
+
+        /**
+         * the maximum time to wait for a connection
+         */
+        private Duration pendingAcquireTimeout;
+
+        /**
+         * the time after which an idle connection is closed
+         */
+        private Duration maxIdleTime;
+
+        /**
+         * the time after which a connection is closed regardless of its state
+         */
+        private Duration maxLifeTime;
+
+        /**
+         * the interval of the background eviction
+         */
+        private Duration evictInBackground;
+
+        /**
+         * the leasing strategy
+         */
+        private ConnectionPool.Leasing leasing;
+
+        /**
+         * whether to register the pool gauges to micrometer when it is present
+         */
+        private Boolean metricsEnabled;
+    }
+
+    /**
+     * metrics settings, applied when micrometer is present
+     */
+    @Data
+    public static class Metrics {
+
+        /**
+         * whether to record the per-method request metrics
+         */
+        private Boolean enabled;
+
+        /**
+         * whether to publish the percentile histogram of the request timers
+         */
+        private Boolean percentileHistogram;
+    }
+
+    /**
+     * java flight recorder settings
+     */
+    @Data
+    public static class FlightRecorder {
+
+        /**
+         * whether to emit an event per exchange when a recording is running, defaults to true
+         */
+        private Boolean enabled;
+    }
+
+    /**
+     * compression settings
+     */
+    @Data
+    public static class Compression {
+
+        /**
+         * whether to accept and decode compressed responses
+         */
+        private Boolean responseEnabled;
+
+        /**
+         * the coding of the request bodies
+         */
+        private io.github.llnancy.httpexchange.core.Compression.Coding requestCoding;
+
+        /**
+         * the minimum size of the compressed request bodies
+         */
+        private DataSize requestMinSize;
+    }
+
+    /**
+     * response cache settings, applied to the clients which have {@code @CacheableExchange} methods
+     */
+    @Data
+    public static class Cache {
+
+        /**
+         * the maximum number of cached responses, defaults to 1000
+         */
+        private Integer maxEntries;
+
+        /**
+         * the maximum sum of the cached body sizes, defaults to 10MB
+         */
+        private DataSize maxWeight;
+    }
+
+    /**
+     * codec settings of the {@code WebClient} transport
+     */
+    @Data
+    public static class Codec {
+
+        /**
+         * the max bytes to buffer when decoding a response body, defaults to 256KB, {@code -1} for unlimited,
+         * at most {@code 2147483647B}. a {@code ClientCodecConfigurerConsumer} is applied after and may override it.
+         */
+        private DataSize maxInMemorySize;
+    }
+
+    /**
+     * retry settings, applied to the methods annotated by {@code @Idempotent}
+     */
+    @Data
+    public static class Retry {
+
+        /**
+         * whether to retry all idempotent methods, the methods annotated by {@code @RetryPolicy} are retried by default
+         */
+        private Boolean enabled;
+
+        /**
+         * the maximum number of attempts including the first one
+         */
+        private Integer maxAttempts;
+
+        /**
+         * the response status codes to retry
+         */
+        private Set<Integer> statuses;
+
+        /**
+         * the exceptions to retry
+         */
+        private List<Class<? extends Throwable>> exceptions;
+
+        /**
+         * the backoff of the first retry, doubled for every following retry
+         */
+        private Duration initialBackoff;
+
+        /**
+         * the maximum backoff
+         */
+        private Duration maxBackoff;
+
+        /**
+         * the jitter factor between 0 and 1 of the backoff
+         */
+        private Double jitter;
+
+        /**
+         * the ratio of retries and hedged requests to requests allowed by the retry budget of the client, defaults to 0.2
+         */
+        private Double budgetRatio;
+
+        /**
+         * the retries and hedged requests per second always allowed by the retry budget of the client, defaults to 10
+         */
+        private Integer budgetMinPerSecond;
+    }
+
+    /**
+     * hedging settings, applied to the methods annotated by {@code @Idempotent}
+     */
+    @Data
+    public static class Hedge {
+
+        /**
+         * whether to hedge all idempotent methods, the methods annotated by {@code @HedgePolicy} are hedged by default
+         */
+        private Boolean enabled;
+
+        /**
+         * the fixed latency threshold
+         */
+        private Duration delay;
+
+        /**
+         * the percentile between 0 and 1 of the latencies used as the threshold
+         */
+        private Double percentile;
+    }
+
+    /**
+     * circuit breaker settings, shared by all methods of the client, or of one method
+     */
+    @Data
+    public static class CircuitBreaker {
+
+        /**
+         * whether to install a circuit breaker on the client, the clients and methods annotated by {@code @CircuitBreakerPolicy} have one by default
+         */
+        private Boolean enabled;
+
+        /**
+         * the failure rate between 0 and 1 in the sliding window to open the circuit
+         */
+        private Double failureRateThreshold;
+
+        /**
+         * the slow call rate between 0 and 1 in the sliding window to open the circuit
+         */
+        private Double slowCallRateThreshold;
+
+        /**
+         * the duration above which a call is slow
+         */
+        private Duration slowCallDuration;
+
+        /**
+         * the number of the latest calls in the sliding window
+         */
+        private Integer slidingWindowSize;
+
+        /**
+         * the minimum number of calls in the sliding window before the rates are evaluated
+         */
+        private Integer minimumCalls;
+
+        /**
+         * how long the circuit stays open before probing
+         */
+        private Duration waitInOpenState;
+
+        /**
+         * the number of probing calls in the half-open state
+         */
+        private Integer permittedCallsInHalfOpenState;
+    }
+
+    /**
+     * bulkhead settings, shared by all methods of the client, or of one method
+     */
+    @Data
+    public static class Bulkhead {
+
+        /**
+         * whether to install a bulkhead on the client, the clients and methods annotated by {@code @BulkheadPolicy} have one by default
+         */
+        private Boolean enabled;
+
+        /**
+         * the maximum number of concurrent calls
+         */
+        private Integer maxConcurrentCalls;
+
+        /**
+         * how long a blocking call waits for a permit, reactive calls never wait
+         */
+        private Duration maxWait;
+    }
+
+    /**
+     * load balancer settings, applied when the client has more than one endpoint
+     */
+    @Data
+    public static class LoadBalancer {
+
+        /**
+         * the strategy to pick an endpoint for each request
+         */
+        private LoadBalancingStrategy strategy;
+
+        /**
+         * the failure rate between 0 and 1 of an endpoint in an interval to eject it
+         */
+        private Double ejectionFailureRate;
+
+        /**
+         * the average latency of an endpoint in an interval to eject it, not set means the latency is not evaluated
+         */
+        private Duration ejectionLatency;
+
+        /**
+         * the minimum number of requests of an endpoint in an interval before it is evaluated
+         */
+        private Integer ejectionMinRequests;
+
+        /**
+         * the interval of the evaluation
+         */
+        private Duration ejectionInterval;
+
+        /**
+         * how long an endpoint is ejected, multiplied by the number of its consecutive ejections
+         */
+        private Duration baseEjectionTime;
+
+        /**
+         * the maximum ratio between 0 and 1 of the endpoints ejected at the same time
+         */
+        private Double maxEjectionRatio;
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.llnancy.httpexchange.connector;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * opens the connections of a http exchange client before the application accepts traffic.
+ * <p>
+ * the pools have no api to open idle connections, so the customizer sends as many concurrent {@code HEAD}
+ * requests to the warm-up path of each endpoint as the connections to open, the status of the responses is ignored.
+ * the builder of the client is kept to build a client for the requests, which shares the connector of the client
+ * but not its filters and interceptors, so the requests are not measured, limited or balanced.
+ * <p>
+ * the concurrent requests of a client which negotiates http/2 multiplex onto the connections it has, so only the
+ * connections it opens for concurrent requests are prewarmed.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+@Slf4j
+public final class ConnectionPrewarmCustomizer implements HttpExchangeClientCustomizer {
+
+    private final String clientName;
+
+    private final int connections;
+
+    private final List<String> uris;
+
+    private final Duration timeout;
+
+    private volatile Runnable initializer;
+
+    private volatile Supplier<Function<String, Mono<?>>> requests;
+
+    private ConnectionPrewarmCustomizer(String clientName, int connections, List<String> uris, Duration timeout) {
+        this.clientName = clientName;
+        this.connections = connections;
+        this.uris = uris;
+        this.timeout = timeout;
+    }
+
+    /**
+     * create the customizer of a client, it is registered to the {@link ConnectionPrewarmer} after the client is created
+     *
+     * @param metadata         {@link HttpExchangeClientMetadata}
+     * @param endpoints        the endpoints of the client, the connections are opened for each one, the base url is used if empty
+     * @param http2Connections the connections the client opens to an endpoint for concurrent requests if it negotiates http/2, otherwise {@code null}
+     * @return {@link ConnectionPrewarmCustomizer}, or {@code null} if the client opens no connection
+     */
+    public static ConnectionPrewarmCustomizer create(HttpExchangeClientMetadata metadata, List<String> endpoints, Integer http2Connections) {
+        ClientPropertiesResolver resolver = metadata.properties();
+        int connections = resolver.resolve(p -> p.getPrewarm().getConnections(), null, 0);
+        if (connections <= 0) {
+            return null;
+        }
+        if (Objects.nonNull(http2Connections) && connections > http2Connections) {
+            log.warn("Http exchange client '{}' multiplexes http/2 requests onto {} connections of each endpoint, prewarm them instead of {}, set the min connections of the pool to open more.",
+                    metadata.name(), http2Connections, connections);
+            connections = http2Connections;
+        }
+        String path = resolver.resolve(p -> p.getPrewarm().getPath(), null, "");
+        List<String> uris = endpoints.isEmpty()
+                ? List.of(path)
+                : endpoints.stream().map(endpoint -> UriComponentsBuilder.fromUriString(endpoint).path(path).toUriString()).toList();
+        return new ConnectionPrewarmCustomizer(
+                metadata.name(),
+                connections,
+                uris,
+                resolver.resolve(p -> p.getPrewarm().getTimeout(), null, Duration.ofSeconds(10))
+        );
+    }
+
+    /**
+     * build the lazy client before the connections are opened
+     *
+     * @param initializer builds the client
+     */
+    public void initializer(Runnable initializer) {
+        this.initializer = initializer;
+    }
+
+    @Override
+    public void customizeWebClient(HttpExchangeClientMetadata metadata, WebClient.Builder builder) {
+        this.requests = () -> {
+            WebClient client = builder.clone().filters(List::clear).build();
+            return uri -> client.head().uri(uri).exchangeToMono(ClientResponse::releaseBody);
+        };
+    }
+
+    @Override
+    public void customizeRestClient(HttpExchangeClientMetadata metadata, RestClient.Builder builder) {
+        this.requests = () -> {
+            RestClient client = builder.clone().requestInterceptors(List::clear).build();
+            return uri -> Mono.fromCallable(() -> client.head().uri(uri).exchange((req, res) -> res.getStatusCode()))
+                    .subscribeOn(Schedulers.boundedElastic());
+        };
+    }
+
+    /**
+     * open the connections, the errors and the timeout are logged and ignored
+     *
+     * @return {@link Mono} completes when the connections are opened
+     */
+    Mono<Void> prewarm() {
+        return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    Runnable init = initializer;
+                    if (Objects.nonNull(init)) {
+                        init.run();
+                    }
+                    Supplier<Function<String, Mono<?>>> supplier = requests;
+                    if (Objects.isNull(supplier)) {
+                        return Mono.empty();
+                    }
+                    Function<String, Mono<?>> request = supplier.get();
+                    int total = connections * uris.size();
+                    return Flux.fromIterable(uris)
+                            .flatMap(uri -> Flux.range(0, connections).map(i -> uri))
+                            .flatMap(request, total)
+                            .then()
+                            .doOnSuccess(v -> log.debug("Prewarmed {} connections of http exchange client '{}' in {} ms.", total, clientName, (System.nanoTime() - start) / 1_000_000));
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    log.warn("Prewarm connections of http exchange client '{}' failed, they will be opened by the requests.", clientName, e);
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.llnancy.httpexchange.connector;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.lang.NonNull;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * opens the connections of the http exchange clients with {@code prewarm.connections} on the
+ * {@link ApplicationStartedEvent}.
+ * <p>
+ * the readiness turns to accepting traffic after the {@link ApplicationReadyEvent}, which is published after this
+ * listener returns, so the readiness is held until the connections are opened or each client times out.
+ * the clients created after the event open their connections in the background.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+@Slf4j
+public class ConnectionPrewarmer implements ApplicationListener<ApplicationStartedEvent> {
+
+    private final List<ConnectionPrewarmCustomizer> pending = new ArrayList<>();
+
+    private boolean started;
+
+    /**
+     * register the customizer of a created client
+     *
+     * @param customizer {@link ConnectionPrewarmCustomizer}
+     */
+    public synchronized void register(ConnectionPrewarmCustomizer customizer) {
+        if (started) {
+            customizer.prewarm().subscribe();
+            return;
+        }
+        pending.add(customizer);
+    }
+
+    @Override
+    public void onApplicationEvent(@NonNull ApplicationStartedEvent event) {
+        List<ConnectionPrewarmCustomizer> customizers;
+        synchronized (this) {
+            started = true;
+            customizers = new ArrayList<>(pending);
+            pending.clear();
+        }
+        if (customizers.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Flux.fromIterable(customizers)
+                .flatMap(ConnectionPrewarmCustomizer::prewarm)
+                .then()
+                .block();
+        log.info("Prewarmed the connections of {} http exchange clients in {} ms.", customizers.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
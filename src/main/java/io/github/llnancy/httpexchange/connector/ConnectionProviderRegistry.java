@@ -0,0 +1,143 @@
+package io.github.llnancy.httpexchange.connector;
+
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.Pool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.ClassUtils;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * registry of the shared reactor netty {@link ConnectionProvider}s, keyed by pool name.
+ * <p>
+ * the first client which uses a pool name creates the pool, the following clients reuse it.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/20
+ */
+@Slf4j
+public class ConnectionProviderRegistry implements DisposableBean {
+
+    private static final boolean MICROMETER_PRESENT = ClassUtils.isPresent("io.micrometer.core.instrument.Metrics", ConnectionProviderRegistry.class.getClassLoader());
+
+    private final ConcurrentMap<String, PooledProvider> providers = new ConcurrentHashMap<>();
+
+    /**
+     * get the shared {@link ConnectionProvider} of the pool, create it if absent
+     *
+     * @param pool the resolved pool settings, the name must not be null
+     * @return {@link ConnectionProvider}
+     */
+    public ConnectionProvider getOrCreate(Pool pool) {
+        return getOrCreate(pool, false);
+    }
+
+    /**
+     * get the shared {@link ConnectionProvider} of the pool, create it if absent
+     *
+     * @param pool  the resolved pool settings, the name must not be null
+     * @param http2 whether the clients of the pool negotiate h2 or h2c, the http/2 settings are only applied to them
+     * @return {@link ConnectionProvider}
+     */
+    public ConnectionProvider getOrCreate(Pool pool, boolean http2) {
+        PooledProvider provider = providers.computeIfAbsent(pool.getName(), name -> new PooledProvider(pool, http2, create(pool, http2)));
+        if (!provider.pool().equals(pool) || provider.http2() != http2) {
+            log.warn("Connection pool '{}' is already created with {} (http2={}), ignore the different settings {} (http2={}).",
+                    pool.getName(), provider.pool(), provider.http2(), pool, http2);
+        }
+        return provider.connectionProvider();
+    }
+
+    /**
+     * all created connection providers
+     *
+     * @return pool name to {@link ConnectionProvider}
+     */
+    public Map<String, ConnectionProvider> getConnectionProviders() {
+        Map<String, ConnectionProvider> result = new ConcurrentHashMap<>();
+        providers.forEach((name, provider) -> result.put(name, provider.connectionProvider()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    static ConnectionProvider create(Pool pool, boolean http2) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(pool.getName());
+        if (Objects.nonNull(pool.getMaxConnections())) {
+            builder.maxConnections(pool.getMaxConnections());
+        }
+        Http2AllocationStrategy strategy = http2AllocationStrategy(pool, http2);
+        if (Objects.nonNull(strategy)) {
+            builder.allocationStrategy(strategy);
+        }
+        if (Objects.nonNull(pool.getPendingAcquireMaxCount())) {
+            builder.pendingAcquireMaxCount(pool.getPendingAcquireMaxCount());
+        }
+        if (Objects.nonNull(pool.getPendingAcquireTimeout())) {
+            builder.pendingAcquireTimeout(pool.getPendingAcquireTimeout());
+        }
+        if (Objects.nonNull(pool.getMaxIdleTime())) {
+            builder.maxIdleTime(pool.getMaxIdleTime());
+        }
+        if (Objects.nonNull(pool.getMaxLifeTime())) {
+            builder.maxLifeTime(pool.getMaxLifeTime());
+        }
+        if (Objects.nonNull(pool.getEvictInBackground())) {
+            builder.evictInBackground(pool.getEvictInBackground());
+        }
+        if (Objects.nonNull(pool.getLeasing())) {
+            switch (pool.getLeasing()) {
+                case FIFO -> builder.fifo();
+                case LIFO -> builder.lifo();
+                default -> {
+                }
+            }
+        }
+        if (MICROMETER_PRESENT && !Boolean.FALSE.equals(pool.getMetricsEnabled())) {
+            // reactor.netty.connection.provider.* gauges
+            builder.metrics(true);
+        }
+        log.debug("Create connection pool {}.", pool);
+        return builder.build();
+    }
+
+    /**
+     * the allocation strategy replaces the max connections of the pool, it is only installed for http/2 pools, and
+     * the max connections defaults to the one of the pool instead of the unbounded default of the strategy
+     *
+     * @param pool  the resolved pool settings
+     * @param http2 whether the clients of the pool negotiate h2 or h2c
+     * @return {@link Http2AllocationStrategy}, or {@code null} if not needed
+     */
+    static Http2AllocationStrategy http2AllocationStrategy(Pool pool, boolean http2) {
+        if (Objects.isNull(pool.getMinConnections()) && Objects.isNull(pool.getMaxConcurrentStreams())) {
+            return null;
+        }
+        if (!http2) {
+            log.warn("Min connections and max concurrent streams of pool '{}' only apply to h2 and h2c, ignore them.", pool.getName());
+            return null;
+        }
+        Http2AllocationStrategy.Builder strategy = Http2AllocationStrategy.builder()
+                .maxConnections(Objects.nonNull(pool.getMaxConnections()) ? pool.getMaxConnections() : ConnectionProvider.DEFAULT_POOL_MAX_CONNECTIONS);
+        if (Objects.nonNull(pool.getMinConnections())) {
+            strategy.minConnections(pool.getMinConnections());
+        }
+        if (Objects.nonNull(pool.getMaxConcurrentStreams())) {
+            strategy.maxConcurrentStreams(pool.getMaxConcurrentStreams());
+        }
+        return strategy.build();
+    }
+
+    @Override
+    public void destroy() {
+        providers.values().forEach(provider -> provider.connectionProvider().dispose());
+        providers.clear();
+    }
+
+    private record PooledProvider(Pool pool, boolean http2, ConnectionProvider connectionProvider) {
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.llnancy.httpexchange.connector;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * registry of the shared jdk {@link HttpClient}s, keyed by pool name.
+ * <p>
+ * on JDK 21+ the clients run on virtual threads.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/21
+ */
+@Slf4j
+public class JdkHttpClientRegistry {
+
+    private final ConcurrentMap<String, PooledClient> clients = new ConcurrentHashMap<>();
+
+    private final Executor executor = createExecutor();
+
+    /**
+     * get the shared {@link HttpClient} of the pool, create it if absent
+     *
+     * @param poolName pool name
+     * @return {@link HttpClient}
+     */
+    public HttpClient getOrCreate(String poolName) {
+        return getOrCreate(poolName, null, null);
+    }
+
+    /**
+     * get the shared {@link HttpClient} of the pool, create it with the preferred http version and the connect timeout if absent
+     *
+     * @param poolName       pool name
+     * @param version        the preferred {@link HttpClient.Version}, {@code null} means the jdk default
+     * @param connectTimeout the connect timeout, {@code null} means no timeout
+     * @return {@link HttpClient}
+     */
+    public HttpClient getOrCreate(String poolName, HttpClient.Version version, Duration connectTimeout) {
+        PooledClient client = clients.computeIfAbsent(poolName, name -> {
+            HttpClient.Builder builder = HttpClient.newBuilder();
+            if (Objects.nonNull(executor)) {
+                builder.executor(executor);
+            }
+            if (Objects.nonNull(version)) {
+                builder.version(version);
+            }
+            if (Objects.nonNull(connectTimeout)) {
+                builder.connectTimeout(connectTimeout);
+            }
+            return new PooledClient(version, connectTimeout, builder.build());
+        });
+        if (!Objects.equals(client.version(), version) || !Objects.equals(client.connectTimeout(), connectTimeout)) {
+            log.warn("Jdk HttpClient '{}' is already created with version {} and connect timeout {}, ignore the different settings {} and {}.",
+                    poolName, client.version(), client.connectTimeout(), version, connectTimeout);
+        }
+        return client.httpClient();
+    }
+
+    private static Executor createExecutor() {
+        if (JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            return new VirtualThreadTaskExecutor("httpexchange-");
+        }
+        log.debug("Virtual threads are not supported on JDK {}, use the default executor of jdk HttpClient.", JavaVersion.getJavaVersion());
+        return null;
+    }
+
+    private record PooledClient(HttpClient.Version version, Duration connectTimeout, HttpClient httpClient) {
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.llnancy.httpexchange.connector;
+
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.Loop;
+import io.github.llnancy.httpexchange.core.NativeTransport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.ClassUtils;
+import reactor.netty.resources.LoopResources;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * registry of the dedicated reactor netty {@link LoopResources}, keyed by group name.
+ * <p>
+ * the first client which uses a group name creates the event loops, the following clients reuse them.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+@Slf4j
+public class LoopResourcesRegistry implements DisposableBean {
+
+    private static final boolean IO_URING_AVAILABLE = isAvailable("io.netty.incubator.channel.uring.IOUring");
+
+    private static final boolean EPOLL_AVAILABLE = isAvailable("io.netty.channel.epoll.Epoll");
+
+    private final ConcurrentMap<String, SharedLoop> loops = new ConcurrentHashMap<>();
+
+    /**
+     * get the shared {@link LoopResources} of the group, create it if absent
+     *
+     * @param loop the resolved loop settings, the name must not be null
+     * @return {@link LoopResources}
+     */
+    public LoopResources getOrCreate(Loop loop) {
+        SharedLoop shared = loops.computeIfAbsent(loop.getName(), name -> new SharedLoop(loop, create(loop)));
+        if (!Objects.equals(shared.loop().getThreads(), loop.getThreads())) {
+            log.warn("Event loop group '{}' is already created with {}, ignore the different settings {}.", loop.getName(), shared.loop(), loop);
+        }
+        return shared.loopResources();
+    }
+
+    /**
+     * all created loop resources
+     *
+     * @return group name to {@link LoopResources}
+     */
+    public Map<String, LoopResources> getLoopResources() {
+        Map<String, LoopResources> result = new ConcurrentHashMap<>();
+        loops.forEach((name, shared) -> result.put(name, shared.loopResources()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * whether the client prefers the native transport, the unavailable one falls back to nio
+     *
+     * @param clientName      client name
+     * @param nativeTransport the resolved {@link NativeTransport}, or {@code null}
+     * @return true to prefer the native transport
+     */
+    public static boolean preferNative(String clientName, NativeTransport nativeTransport) {
+        if (Objects.isNull(nativeTransport)) {
+            return LoopResources.DEFAULT_NATIVE;
+        }
+        return switch (nativeTransport) {
+            case DEFAULT -> LoopResources.DEFAULT_NATIVE;
+            case NIO -> false;
+            case IO_URING -> {
+                if (!IO_URING_AVAILABLE) {
+                    log.warn("Native transport io_uring of client {} is not available, fall back to nio.", clientName);
+                }
+                yield IO_URING_AVAILABLE;
+            }
+            case EPOLL -> {
+                if (!EPOLL_AVAILABLE) {
+                    log.warn("Native transport epoll of client {} is not available, fall back to nio.", clientName);
+                } else if (IO_URING_AVAILABLE) {
+                    log.warn("Native transport io_uring is available and preferred by reactor netty, client {} uses io_uring instead of epoll.", clientName);
+                }
+                yield EPOLL_AVAILABLE;
+            }
+        };
+    }
+
+    private static LoopResources create(Loop loop) {
+        int threads = Objects.nonNull(loop.getThreads()) ? loop.getThreads() : LoopResources.DEFAULT_IO_WORKER_COUNT;
+        log.debug("Create event loop group {}.", loop);
+        return LoopResources.create("httpexchange-" + loop.getName(), threads, true);
+    }
+
+    private static boolean isAvailable(String className) {
+        ClassLoader classLoader = LoopResourcesRegistry.class.getClassLoader();
+        if (!ClassUtils.isPresent(className, classLoader)) {
+            return false;
+        }
+        try {
+            return (boolean) ClassUtils.forName(className, classLoader).getMethod("isAvailable").invoke(null);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        loops.values().forEach(shared -> shared.loopResources().dispose());
+        loops.clear();
+    }
+
+    private record SharedLoop(Loop loop, LoopResources loopResources) {
+    }
+}
@@ -7,8 +7,10 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.context.EnvironmentAware;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.core.env.Environment;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.lang.NonNull;
@@ -23,7 +25,7 @@ import java.util.List;
  * @since JDK17 2023/6/29
  */
 @Slf4j
-public class AutoConfiguredHttpExchangeClientScannerRegistrar implements BeanFactoryAware, ImportBeanDefinitionRegistrar, ResourceLoaderAware, BeanClassLoaderAware {
+public class AutoConfiguredHttpExchangeClientScannerRegistrar implements BeanFactoryAware, ImportBeanDefinitionRegistrar, ResourceLoaderAware, BeanClassLoaderAware, EnvironmentAware {
 
     private ClassLoader classLoader;
 
@@ -31,6 +33,8 @@ public class AutoConfiguredHttpExchangeClientScannerRegistrar implements BeanFac
 
     private BeanFactory beanFactory;
 
+    private Environment environment;
+
     @Override
     public void setBeanClassLoader(@NonNull ClassLoader classLoader) {
         this.classLoader = classLoader;
@@ -46,6 +50,11 @@ public class AutoConfiguredHttpExchangeClientScannerRegistrar implements BeanFac
         this.resourceLoader = resourceLoader;
     }
 
+    @Override
+    public void setEnvironment(@NonNull Environment environment) {
+        this.environment = environment;
+    }
+
     @Override
     public void registerBeanDefinitions(@NonNull AnnotationMetadata importingClassMetadata, @NonNull BeanDefinitionRegistry registry) {
         if (!AutoConfigurationPackages.has(this.beanFactory)) {
@@ -58,6 +67,9 @@ public class AutoConfiguredHttpExchangeClientScannerRegistrar implements BeanFac
         if (resourceLoader != null) {
             scanner.setResourceLoader(resourceLoader);
         }
+        if (environment != null) {
+            scanner.setEnvironment(environment);
+        }
         String[] packageArr = packages.toArray(new String[0]);
         log.info("Scan the @HttpExchangeClient annotated interface using the auto-configuration package. packages={}", Arrays.toString(packageArr));
         scanner.registerFilters();
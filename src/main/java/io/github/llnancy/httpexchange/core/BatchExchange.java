@@ -0,0 +1,55 @@
+package io.github.llnancy.httpexchange.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * link a single-item exchange method to a batch exchange method of the same interface, the invocations of the
+ * single-item method are collected in a time and size window and sent as one batch request.
+ * <p>
+ * the single-item method has exactly one parameter, the item key. the batch method has exactly one parameter,
+ * a {@code List}, {@code Set} or {@code Collection} of the distinct keys, and returns a {@code Map} from key to item,
+ * or a {@code List} of items in the order of the keys, optionally wrapped in {@code Mono}. a key missing from the
+ * result completes its invocations with {@code null}, or an empty {@code Mono}.
+ * <pre>{@code
+ * @GetExchange("/items/{id}")
+ * @BatchExchange(method = "getItems", maxSize = 100, window = "5ms")
+ * Mono<Item> getItem(@PathVariable Long id);
+ *
+ * @GetExchange("/items")
+ * Mono<Map<Long, Item>> getItems(@RequestParam List<Long> ids);
+ * }</pre>
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/25
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface BatchExchange {
+
+    /**
+     * the name of the batch method
+     *
+     * @return batch method name
+     */
+    String method();
+
+    /**
+     * the maximum number of keys of a batch, a full batch is sent immediately
+     *
+     * @return max size
+     */
+    int maxSize() default 100;
+
+    /**
+     * the time to wait for more keys after the first one, supports placeholders and the formats of
+     * {@code org.springframework.boot.convert.DurationStyle}
+     *
+     * @return window
+     */
+    String window() default "10ms";
+}
@@ -0,0 +1,242 @@
+package io.github.llnancy.httpexchange.core;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * bridge the {@link ClientRequest} and {@link ClientResponse} based consumers to the blocking transports
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/21
+ */
+final class BlockingExchanges {
+
+    private static final ExchangeStrategies STRATEGIES = ExchangeStrategies.withDefaults();
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private BlockingExchanges() {
+    }
+
+    /**
+     * adapt a {@link ClientHttpResponse} to a {@link ClientResponse} which streams the body
+     *
+     * @param request  {@link HttpRequest}
+     * @param response {@link ClientHttpResponse}
+     * @return {@link ClientResponse}
+     * @throws IOException if the status code can't be read
+     */
+    static ClientResponse toClientResponse(HttpRequest request, ClientHttpResponse response) throws IOException {
+        return ClientResponse.create(response.getStatusCode(), STRATEGIES)
+                .request(request)
+                .headers(headers -> headers.addAll(response.getHeaders()))
+                .body(DataBufferUtils.readInputStream(response::getBody, DefaultDataBufferFactory.sharedInstance, BUFFER_SIZE))
+                .build();
+    }
+
+    /**
+     * adapt a {@link ClientRequest} to the {@link HttpRequest} to execute, the body of the original request is kept
+     *
+     * @param original the original {@link HttpRequest}
+     * @param request  the {@link ClientRequest} which may be mutated by filters
+     * @return {@link HttpRequest}
+     */
+    static HttpRequest toHttpRequest(HttpRequest original, ClientRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(request.headers());
+        MultiValueMap<String, String> cookies = request.cookies();
+        if (!cookies.isEmpty()) {
+            headers.add(HttpHeaders.COOKIE, cookieHeader(cookies));
+        }
+        return new HttpRequestWrapper(original) {
+
+            @Override
+            public HttpMethod getMethod() {
+                return request.method();
+            }
+
+            @Override
+            public URI getURI() {
+                return request.url();
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    /**
+     * format cookies as the value of a {@code Cookie} header
+     *
+     * @param cookies cookies map
+     * @return header value
+     */
+    static String cookieHeader(MultiValueMap<String, String> cookies) {
+        return cookies.entrySet()
+                .stream()
+                .flatMap(entry -> entry.getValue().stream().map(value -> entry.getKey() + "=" + value))
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * rethrow the exception thrown by {@code block()}, unwrapping the checked exceptions
+     *
+     * @param ex exception thrown by {@code block()}
+     * @return never returns
+     * @throws IOException the unwrapped {@link IOException}
+     */
+    static RuntimeException rethrow(RuntimeException ex) throws IOException {
+        Throwable cause = Exceptions.unwrap(ex);
+        if (cause instanceof IOException ioException) {
+            throw ioException;
+        }
+        throw ex;
+    }
+
+    /**
+     * an {@link InputStream} which reads the buffers of a body one at a time, closing it before the end
+     * cancels the body and releases the prefetched buffers
+     */
+    static final class StreamingBodyInputStream extends InputStream {
+
+        private final Stream<DataBuffer> buffers;
+
+        private final Iterator<DataBuffer> iterator;
+
+        private InputStream current = InputStream.nullInputStream();
+
+        StreamingBodyInputStream(Flux<DataBuffer> body) {
+            this.buffers = body.doOnDiscard(DataBuffer.class, DataBufferUtils::release).toStream(1);
+            this.iterator = buffers.iterator();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                int read = current.read(b, off, len);
+                if (read != -1) {
+                    return read;
+                }
+                current.close();
+                current = InputStream.nullInputStream();
+                if (!next()) {
+                    return -1;
+                }
+            }
+        }
+
+        @Override
+        public int available() throws IOException {
+            return current.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            current.close();
+            current = InputStream.nullInputStream();
+            buffers.close();
+        }
+
+        private boolean next() throws IOException {
+            try {
+                if (!iterator.hasNext()) {
+                    return false;
+                }
+                current = iterator.next().asInputStream(true);
+                return true;
+            } catch (RuntimeException ex) {
+                throw BlockingExchanges.rethrow(ex);
+            }
+        }
+    }
+
+    /**
+     * a {@link ClientHttpResponse} backed by a {@link ClientResponse}
+     */
+    static final class ClientResponseHttpResponse implements ClientHttpResponse {
+
+        private final ClientResponse response;
+
+        private final Closeable original;
+
+        private InputStream body;
+
+        ClientResponseHttpResponse(ClientResponse response, Closeable original) {
+            this.response = response;
+            this.original = original;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String getStatusText() {
+            HttpStatus status = HttpStatus.resolve(response.statusCode().value());
+            return Objects.nonNull(status) ? status.getReasonPhrase() : "";
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.headers().asHttpHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            if (Objects.isNull(body)) {
+                body = new StreamingBodyInputStream(response.body(BodyExtractors.toDataBuffers()));
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (Objects.nonNull(body)) {
+                    body.close();
+                }
+                if (Objects.nonNull(original)) {
+                    original.close();
+                }
+            } catch (IOException ignore) {
+                // ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.llnancy.httpexchange.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * limit the concurrent calls of the exchange methods by a semaphore, the calls over the limit are rejected.
+ * <p>
+ * on an interface, all methods share the bulkhead of the client; on a method, the method has its own.
+ * the settings of the interface are resolved in the order of {@code httpexchange.clients.<name>.bulkhead.*},
+ * the annotation and {@code httpexchange.default.bulkhead.*}, the ones of a method in the order of
+ * {@code httpexchange.clients.<name>.method-bulkheads.<method>.*}, the annotation and
+ * {@code httpexchange.default.method-bulkheads.<method>.*}. empty strings and negative numbers mean not set.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Documented
+public @interface BulkheadPolicy {
+
+    /**
+     * the maximum number of concurrent calls, defaults to 25
+     *
+     * @return max concurrent calls
+     */
+    int maxConcurrentCalls() default -1;
+
+    /**
+     * how long a blocking call waits for a permit, reactive calls never wait, defaults to 0
+     *
+     * @return max wait
+     */
+    String maxWait() default "";
+}
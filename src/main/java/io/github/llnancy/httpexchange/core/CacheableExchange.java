@@ -0,0 +1,44 @@
+package io.github.llnancy.httpexchange.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * cache the decoded response of a {@code GET} exchange method in memory.
+ * <p>
+ * the freshness follows the {@code Cache-Control} and {@code Expires} response headers, {@code no-store}
+ * responses are never cached. a stale entry is revalidated by {@code If-None-Match} or {@code If-Modified-Since}
+ * and reused when the server answers {@code 304 Not Modified}. the cache key is the method and its arguments,
+ * so the arguments should implement {@code equals} and {@code hashCode}.
+ * <p>
+ * only methods returning {@code Mono} or a plain value are supported. the size of the cache of each client is
+ * bounded by {@code httpexchange.clients.<name>.cache.max-entries} and {@code max-weight}.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/24
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface CacheableExchange {
+
+    /**
+     * the freshness lifetime of the responses without {@code Cache-Control: max-age} and {@code Expires},
+     * supports placeholders and the formats of {@code org.springframework.boot.convert.DurationStyle}.
+     * empty means such responses are only cached when they have a validator, and revalidated on every call.
+     *
+     * @return ttl
+     */
+    String ttl() default "";
+
+    /**
+     * whether to return the stale value within the {@code stale-while-revalidate} window of the response
+     * and revalidate it in background
+     *
+     * @return stale while revalidate
+     */
+    boolean staleWhileRevalidate() default false;
+}
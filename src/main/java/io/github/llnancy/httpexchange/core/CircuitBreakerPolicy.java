@@ -0,0 +1,77 @@
+package io.github.llnancy.httpexchange.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * guard the exchange methods by a circuit breaker, which opens when the failure rate or the slow call rate of
+ * the latest calls reaches its threshold, rejects the calls while open, and closes again after the probing calls
+ * of the half-open state succeed.
+ * <p>
+ * on an interface, all methods share the circuit breaker of the client; on a method, the method has its own.
+ * the settings of the interface are resolved in the order of {@code httpexchange.clients.<name>.circuit-breaker.*},
+ * the annotation and {@code httpexchange.default.circuit-breaker.*}, the ones of a method in the order of
+ * {@code httpexchange.clients.<name>.method-circuit-breakers.<method>.*}, the annotation and
+ * {@code httpexchange.default.method-circuit-breakers.<method>.*}. empty strings and negative numbers mean not set.
+ * server errors, i/o errors and timeouts are failures, client errors are not.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Documented
+public @interface CircuitBreakerPolicy {
+
+    /**
+     * the failure rate between 0 and 1 in the sliding window to open the circuit, defaults to 0.5
+     *
+     * @return failure rate threshold
+     */
+    double failureRateThreshold() default -1;
+
+    /**
+     * the slow call rate between 0 and 1 in the sliding window to open the circuit, defaults to 1
+     *
+     * @return slow call rate threshold
+     */
+    double slowCallRateThreshold() default -1;
+
+    /**
+     * the duration above which a call is slow, defaults to 60s
+     *
+     * @return slow call duration
+     */
+    String slowCallDuration() default "";
+
+    /**
+     * the number of the latest calls in the sliding window, defaults to 100
+     *
+     * @return sliding window size
+     */
+    int slidingWindowSize() default -1;
+
+    /**
+     * the minimum number of calls in the sliding window before the rates are evaluated, defaults to 20
+     *
+     * @return minimum calls
+     */
+    int minimumCalls() default -1;
+
+    /**
+     * how long the circuit stays open before probing, defaults to 30s
+     *
+     * @return wait in open state
+     */
+    String waitInOpenState() default "";
+
+    /**
+     * the number of probing calls in the half-open state, defaults to 5
+     *
+     * @return permitted calls in half-open state
+     */
+    int permittedCallsInHalfOpenState() default -1;
+}
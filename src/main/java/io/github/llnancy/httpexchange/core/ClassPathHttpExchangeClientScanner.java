@@ -1,25 +1,34 @@
 package io.github.llnancy.httpexchange.core;
 
+import io.github.llnancy.httpexchange.index.HttpExchangeClientIndex;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.scope.ScopedProxyFactoryBean;
 import org.springframework.aop.scope.ScopedProxyUtils;
 import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.annotation.ClassPathBeanDefinitionScanner;
+import org.springframework.context.annotation.ScannedGenericBeanDefinition;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.lang.NonNull;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
@@ -35,6 +44,10 @@ public class ClassPathHttpExchangeClientScanner extends ClassPathBeanDefinitionS
 
     private final ClassLoader classLoader;
 
+    private HttpExchangeClientIndex index;
+
+    private boolean indexLoaded;
+
     @SuppressWarnings("rawtypes")
     private Class<? extends HttpExchangeClientFactoryBean> httpExchangeClientFactoryBeanClass = HttpExchangeClientFactoryBean.class;
 
@@ -87,20 +100,68 @@ public class ClassPathHttpExchangeClientScanner extends ClassPathBeanDefinitionS
         return beanDefinitions;
     }
 
+    /**
+     * read the candidates from the {@link HttpExchangeClientIndex} when it covers the package, otherwise scan the classpath
+     *
+     * @param basePackage the package to check for annotated interfaces
+     * @return the candidate bean definitions
+     */
     @Override
-    protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
-        if (beanDefinition.getMetadata().isInterface()) {
-            try {
-                Class<?> target = ClassUtils.forName(
-                        beanDefinition.getMetadata().getClassName(),
-                        classLoader
-                );
-                return !target.isAnnotation();
-            } catch (Exception ex) {
-                log.error("load class exception:", ex);
+    @NonNull
+    public Set<BeanDefinition> findCandidateComponents(@NonNull String basePackage) {
+        HttpExchangeClientIndex index = getIndex();
+        if (Objects.isNull(index)) {
+            return super.findCandidateComponents(basePackage);
+        }
+        if (!index.covers(basePackage, getClassLoader())) {
+            log.debug("Package '{}' has classpath roots without the http exchange client index, scan the classpath.", basePackage);
+            return super.findCandidateComponents(basePackage);
+        }
+        Set<BeanDefinition> candidates = new LinkedHashSet<>();
+        try {
+            for (String interfaceName : index.getInterfaceNames(basePackage)) {
+                MetadataReader metadataReader = getMetadataReaderFactory().getMetadataReader(interfaceName);
+                if (isCandidateComponent(metadataReader)) {
+                    ScannedGenericBeanDefinition beanDefinition = new ScannedGenericBeanDefinition(metadataReader);
+                    beanDefinition.setSource(metadataReader.getResource());
+                    if (isCandidateComponent(beanDefinition)) {
+                        candidates.add(beanDefinition);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new BeanDefinitionStoreException("I/O failure while reading the http exchange client index", ex);
+        }
+        return candidates;
+    }
+
+    private HttpExchangeClientIndex getIndex() {
+        if (!indexLoaded) {
+            index = getEnvironment().getProperty(HttpExchangeClientIndex.IGNORE_PROPERTY, Boolean.class, false)
+                    ? null
+                    : HttpExchangeClientIndex.load(getClassLoader());
+            indexLoaded = true;
+            if (Objects.nonNull(index)) {
+                log.debug("Using the http exchange client index {}.", HttpExchangeClientIndex.LOCATION);
             }
         }
-        return false;
+        return index;
+    }
+
+    private ClassLoader getClassLoader() {
+        return Objects.nonNull(classLoader) ? classLoader : ClassUtils.getDefaultClassLoader();
+    }
+
+    /**
+     * interfaces which are not annotations, checked on the class metadata without loading the class
+     *
+     * @param beanDefinition the bean definition to check
+     * @return whether the bean definition qualifies as a candidate
+     */
+    @Override
+    protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+        AnnotationMetadata metadata = beanDefinition.getMetadata();
+        return metadata.isInterface() && !metadata.isAnnotation();
     }
 
     private void processBeanDefinitions(Set<BeanDefinitionHolder> beanDefinitions) {
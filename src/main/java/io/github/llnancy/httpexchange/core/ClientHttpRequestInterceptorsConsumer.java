@@ -0,0 +1,23 @@
+package io.github.llnancy.httpexchange.core;
+
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link RestClient.Builder#requestInterceptors(Consumer)} holder, only used by the blocking transports
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public interface ClientHttpRequestInterceptorsConsumer {
+
+    /**
+     * hold a consumer of {@link ClientHttpRequestInterceptor} list
+     *
+     * @return {@link Consumer<List<ClientHttpRequestInterceptor>>}
+     */
+    Consumer<List<ClientHttpRequestInterceptor>> consume();
+}
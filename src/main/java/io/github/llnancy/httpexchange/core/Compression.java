@@ -0,0 +1,93 @@
+package io.github.llnancy.httpexchange.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * compression settings of a http exchange client.
+ * <p>
+ * the decoded responses accept {@code gzip} and {@code deflate}, and {@code br} on the {@code WebClient}
+ * transport when netty finds brotli4j. the request bodies of at least {@link #requestMinSize()} bytes are compressed
+ * by {@link #request()}, unless they already have a {@code Content-Encoding}. the streamed bodies of the
+ * {@code WebClient} transport are compressed once their first buffers reach the minimum size and sent without a
+ * content length, the zero-copy file bodies are sent as they are. {@code zstd} is not supported.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/29
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({})
+@Documented
+public @interface Compression {
+
+    /**
+     * whether to accept and decode compressed responses
+     *
+     * @return {@link State}
+     */
+    State response() default State.DEFAULT;
+
+    /**
+     * the coding of the request bodies
+     *
+     * @return {@link Coding}
+     */
+    Coding request() default Coding.DEFAULT;
+
+    /**
+     * the minimum size of the compressed request bodies, supports placeholders and the formats of
+     * {@code org.springframework.util.unit.DataSize}, e.g. {@code 2KB}
+     *
+     * @return request min size
+     */
+    String requestMinSize() default "";
+
+    /**
+     * whether a setting is enabled
+     */
+    enum State {
+
+        /**
+         * use the configured setting, disabled if not configured
+         */
+        DEFAULT,
+
+        /**
+         * enabled
+         */
+        ENABLED,
+
+        /**
+         * disabled
+         */
+        DISABLED
+    }
+
+    /**
+     * content coding of the request bodies
+     */
+    enum Coding {
+
+        /**
+         * use the configured coding, {@link #NONE} if not configured
+         */
+        DEFAULT,
+
+        /**
+         * not compressed
+         */
+        NONE,
+
+        /**
+         * {@code gzip}
+         */
+        GZIP,
+
+        /**
+         * {@code deflate}, zlib format
+         */
+        DEFLATE
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.llnancy.httpexchange.core;
+
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * reactor netty {@link ConnectionProvider} settings of a http exchange client.
+ * <p>
+ * clients with the same pool name share one {@link ConnectionProvider}, when the name is empty,
+ * the origin (scheme, host and port) of the resolved base url is used as the pool name.
+ * <p>
+ * durations support placeholders and the formats of {@code org.springframework.boot.convert.DurationStyle},
+ * e.g. {@code 500ms}, {@code 30s}, {@code PT1M}. empty strings and negative numbers mean not set.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/20
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({})
+@Documented
+public @interface ConnectionPool {
+
+    /**
+     * the pool name
+     *
+     * @return pool name
+     */
+    String name() default "";
+
+    /**
+     * the maximum number of connections per remote host
+     *
+     * @return max connections
+     */
+    int maxConnections() default -1;
+
+    /**
+     * the minimum number of http/2 connections per remote host kept in the pool
+     *
+     * @return min connections
+     */
+    int minConnections() default -1;
+
+    /**
+     * the maximum number of concurrent streams per http/2 connection, the lower one of it and the
+     * server setting applies
+     *
+     * @return max concurrent streams
+     */
+    int maxConcurrentStreams() default -1;
+
+    /**
+     * the maximum number of pending acquire requests
+     *
+     * @return pending acquire max count
+     */
+    int pendingAcquireMaxCount() default -1;
+
+    /**
+     * the maximum time to wait for a connection
+     *
+     * @return pending acquire timeout
+     */
+    String pendingAcquireTimeout() default "";
+
+    /**
+     * the time after which an idle connection is closed
+     *
+     * @return max idle time
+     */
+    String maxIdleTime() default "";
+
+    /**
+     * the time after which a connection is closed regardless of its state
+     *
+     * @return max life time
+     */
+    String maxLifeTime() default "";
+
+    /**
+     * the interval of the background eviction
+     *
+     * @return eviction interval
+     */
+    String evictInBackground() default "";
+
+    /**
+     * the leasing strategy
+     *
+     * @return {@link Leasing}
+     */
+    Leasing leasing() default Leasing.DEFAULT;
+
+    /**
+     * connection leasing strategy
+     */
+    enum Leasing {
+
+        /**
+         * use the configured or reactor netty default strategy
+         */
+        DEFAULT,
+
+        /**
+         * first in first out, reuse the least recently used connection
+         */
+        FIFO,
+
+        /**
+         * last in first out, reuse the most recently used connection
+         */
+        LIFO
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.llnancy.httpexchange.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * the {@code Path} or {@code File} parameter of an exchange method returning {@code Path}, {@code File} or
+ * a {@code Mono} of them, the successful response body is streamed to it and it is returned.
+ * <p>
+ * without this parameter, or when its argument is {@code null}, the body is streamed to a temporary file created
+ * at invocation, which is deleted if the exchange fails and owned by the caller otherwise. the parameter is not
+ * sent with the request.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+@Documented
+public @interface DownloadTarget {
+}
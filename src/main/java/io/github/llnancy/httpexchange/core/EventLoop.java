@@ -0,0 +1,45 @@
+package io.github.llnancy.httpexchange.core;
+
+import reactor.netty.resources.LoopResources;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * reactor netty {@link LoopResources} settings of a http exchange client.
+ * <p>
+ * clients with the same group name share dedicated event loops, when the name is empty and the threads are set,
+ * the client name is used as the group name. clients without a group use the global event loops of reactor netty.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({})
+@Documented
+public @interface EventLoop {
+
+    /**
+     * the group name
+     *
+     * @return group name
+     */
+    String name() default "";
+
+    /**
+     * the number of event loop threads of the group, defaults to the number of processors, at least 4
+     *
+     * @return threads
+     */
+    int threads() default -1;
+
+    /**
+     * the netty transport
+     *
+     * @return {@link NativeTransport}
+     */
+    NativeTransport nativeTransport() default NativeTransport.DEFAULT;
+}
@@ -0,0 +1,69 @@
+package io.github.llnancy.httpexchange.core;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * run {@link ExchangeFilterFunction}s on the blocking transports.
+ * <p>
+ * filters may change the method, url, headers and cookies of the request and map the response,
+ * the request body is always the original one. the filter chain is subscribed by {@code block()} on the
+ * calling thread, the response body is never buffered: the response of the transport is returned as is
+ * when the filters pass it through, otherwise the body of the mapped response is streamed buffer by buffer.
+ * <p>
+ * each request still allocates the reactive chain of the filters, the {@link ClientHttpRequestInterceptor}s of a
+ * {@link ClientHttpRequestInterceptorsConsumer} run without it.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/21
+ */
+final class ExchangeFilterFunctionInterceptor implements ClientHttpRequestInterceptor {
+
+    private final ExchangeFilterFunction filter;
+
+    ExchangeFilterFunctionInterceptor(ExchangeFilterFunction filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    @SuppressWarnings("NullableProblems")
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        AtomicReference<ClientHttpResponse> original = new AtomicReference<>();
+        AtomicReference<ClientResponse> adapted = new AtomicReference<>();
+        ClientRequest clientRequest = ClientRequest.create(request.getMethod(), request.getURI())
+                .headers(headers -> headers.addAll(request.getHeaders()))
+                .build();
+        ExchangeFunction exchange = filtered -> Mono.fromCallable(() -> {
+            HttpRequest httpRequest = BlockingExchanges.toHttpRequest(request, filtered);
+            ClientHttpResponse response = execution.execute(httpRequest, body);
+            original.set(response);
+            ClientResponse clientResponse = BlockingExchanges.toClientResponse(httpRequest, response);
+            adapted.set(clientResponse);
+            return clientResponse;
+        });
+        ClientResponse response;
+        try {
+            response = filter.filter(clientRequest, exchange).block();
+        } catch (RuntimeException ex) {
+            throw BlockingExchanges.rethrow(ex);
+        }
+        if (Objects.isNull(response)) {
+            throw new IllegalStateException("The exchange filter function completed without a response.");
+        }
+        if (response == adapted.get()) {
+            return original.get();
+        }
+        return new BlockingExchanges.ClientResponseHttpResponse(response, original.get());
+    }
+}
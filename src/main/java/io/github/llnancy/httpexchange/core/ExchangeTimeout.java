@@ -0,0 +1,30 @@
+package io.github.llnancy.httpexchange.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * the response timeout of an exchange method, or of all methods of an interface, overrides the response timeout
+ * of the client for that exchange only.
+ * <p>
+ * overridden by {@code httpexchange.clients.<name>.method-timeouts.<method name>}, every attempt of a retried
+ * method has its own timeout.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Documented
+public @interface ExchangeTimeout {
+
+    /**
+     * the timeout, supports placeholders and the formats of {@code org.springframework.boot.convert.DurationStyle}
+     *
+     * @return timeout
+     */
+    String value();
+}
@@ -0,0 +1,38 @@
+package io.github.llnancy.httpexchange.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * send a hedged request when an invocation of an {@link Idempotent} exchange method has not been answered within
+ * a latency threshold, and take whichever answer arrives first.
+ * <p>
+ * the threshold is the fixed {@link #delay()}, or the {@link #percentile()} of the latencies of the method when set,
+ * falling back to the delay until enough latencies are recorded. the hedged requests of a client share its
+ * retry budget. blocking methods send their requests on the bounded elastic scheduler.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/27
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Documented
+public @interface HedgePolicy {
+
+    /**
+     * the fixed latency threshold, defaults to 100ms
+     *
+     * @return delay
+     */
+    String delay() default "";
+
+    /**
+     * the percentile between 0 and 1 of the latencies used as the threshold, e.g. 0.95
+     *
+     * @return percentile
+     */
+    double percentile() default -1;
+}
@@ -26,6 +26,14 @@ import java.util.Map;
 @Inherited
 public @interface HttpExchangeClient {
 
+    /**
+     * the client name, used to look up {@code httpexchange.clients.<name>.*} properties.
+     * defaults to the decapitalized simple name of the interface.
+     *
+     * @return client name
+     */
+    String name() default "";
+
     /**
      * the base url string
      *
@@ -33,6 +41,14 @@ public @interface HttpExchangeClient {
      */
     String baseUrl() default "";
 
+    /**
+     * the endpoints to balance the requests across, each one is a base url, overrides {@link #baseUrl()}.
+     * supports placeholders, a placeholder may resolve to comma separated endpoints.
+     *
+     * @return endpoints
+     */
+    String[] endpoints() default {};
+
     /**
      * {@link WebClient.Builder#defaultUriVariables(Map)} supplier
      *
@@ -117,6 +133,14 @@ public @interface HttpExchangeClient {
      */
     Class<? extends ExchangeFilterFunctionsConsumer> filtersConsumer() default ExchangeFilterFunctionsConsumer.class;
 
+    /**
+     * the class which hold list of {@link ClientHttpRequestInterceptorsConsumer}, only used by the blocking transports,
+     * the interceptors run on the calling thread without the reactive filter chain
+     *
+     * @return class of {@link ClientHttpRequestInterceptorsConsumer}
+     */
+    Class<? extends ClientHttpRequestInterceptorsConsumer> requestInterceptorsConsumer() default ClientHttpRequestInterceptorsConsumer.class;
+
     /**
      * the class which hold a {@link ClientCodecConfigurer}
      *
@@ -124,4 +148,68 @@ public @interface HttpExchangeClient {
      */
     Class<? extends ClientCodecConfigurerConsumer> codecConfigurerConsumer() default ClientCodecConfigurerConsumer.class;
 
+    /**
+     * the transport, {@link Transport#DEFAULT} means {@code httpexchange.default.transport} or {@link Transport#WEBCLIENT}
+     *
+     * @return {@link Transport}
+     */
+    Transport transport() default Transport.DEFAULT;
+
+    /**
+     * the http protocols, empty means {@code httpexchange.clients.<name>.protocols} or http/1.1
+     *
+     * @return an array of {@link Protocol}
+     */
+    Protocol[] protocols() default {};
+
+    /**
+     * the timeout to establish a connection, supports placeholders and the formats of
+     * {@code org.springframework.boot.convert.DurationStyle}
+     *
+     * @return connect timeout
+     */
+    String connectTimeout() default "";
+
+    /**
+     * the timeout to receive the response headers after the request is sent
+     *
+     * @return response timeout
+     */
+    String responseTimeout() default "";
+
+    /**
+     * the maximum time without reading any data from the connection during an exchange
+     *
+     * @return read timeout
+     */
+    String readTimeout() default "";
+
+    /**
+     * the maximum time without writing any data to the connection during an exchange
+     *
+     * @return write timeout
+     */
+    String writeTimeout() default "";
+
+    /**
+     * the connection pool settings
+     *
+     * @return {@link ConnectionPool}
+     */
+    ConnectionPool pool() default @ConnectionPool;
+
+    /**
+     * the event loop settings
+     *
+     * @return {@link EventLoop}
+     */
+    EventLoop loop() default @EventLoop;
+
+    /**
+     * the compression settings
+     *
+     * @return {@link Compression}
+     */
+    Compression compression() default @Compression;
+
 }
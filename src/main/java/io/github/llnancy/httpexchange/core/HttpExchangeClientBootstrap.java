@@ -0,0 +1,130 @@
+package io.github.llnancy.httpexchange.core;
+
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.Bootstrap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * builds the http exchange clients concurrently when {@code httpexchange.bootstrap.parallel} is enabled.
+ * <p>
+ * the factory beans register the clients as lazy ones, they are built on the bootstrap executor after the singletons
+ * are instantiated, when no bean is being created, so the builds do not wait for the singleton lock of the main thread.
+ * a client invoked before is built on the invoking thread. the failures are thrown in the order of the registration,
+ * which fails the refresh of the context.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+@Slf4j
+public class HttpExchangeClientBootstrap implements SmartInitializingSingleton {
+
+    /**
+     * the bean name of the executor shared with the background initialization of spring
+     */
+    public static final String BOOTSTRAP_EXECUTOR_BEAN_NAME = "bootstrapExecutor";
+
+    private final Bootstrap settings;
+
+    private final BeanFactory beanFactory;
+
+    private final Map<String, LazyClientTargetSource> clients = new LinkedHashMap<>();
+
+    private boolean bootstrapped;
+
+    /**
+     * constructor
+     *
+     * @param settings    {@link Bootstrap}
+     * @param beanFactory {@link BeanFactory} to look up the {@code bootstrapExecutor}
+     */
+    public HttpExchangeClientBootstrap(Bootstrap settings, BeanFactory beanFactory) {
+        this.settings = settings;
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * whether the clients are built concurrently
+     *
+     * @return true if parallel
+     */
+    public boolean isParallel() {
+        return settings.isParallel();
+    }
+
+    /**
+     * register a client to build
+     *
+     * @param clientName   client name
+     * @param targetSource the lazy target source of the client
+     * @return false if the clients are bootstrapped, the client is built on its first invocation
+     */
+    synchronized boolean register(String clientName, LazyClientTargetSource targetSource) {
+        if (bootstrapped) {
+            return false;
+        }
+        clients.put(clientName, targetSource);
+        return true;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<Map.Entry<String, LazyClientTargetSource>> pending;
+        synchronized (this) {
+            bootstrapped = true;
+            pending = new ArrayList<>(clients.entrySet());
+            clients.clear();
+        }
+        pending.removeIf(entry -> entry.getValue().isInitialized());
+        if (pending.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        ExecutorService ownExecutor = null;
+        Executor executor = bootstrapExecutor();
+        if (Objects.isNull(executor)) {
+            int threads = Objects.nonNull(settings.getThreads()) ? settings.getThreads() : Runtime.getRuntime().availableProcessors();
+            ownExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, pending.size())), new CustomizableThreadFactory("httpexchange-bootstrap-"));
+            executor = ownExecutor;
+        }
+        try {
+            List<CompletableFuture<Object>> futures = new ArrayList<>(pending.size());
+            for (Map.Entry<String, LazyClientTargetSource> entry : pending) {
+                futures.add(CompletableFuture.supplyAsync(entry.getValue()::getTarget, executor));
+            }
+            for (int i = 0; i < pending.size(); i++) {
+                try {
+                    futures.get(i).join();
+                } catch (CompletionException e) {
+                    String clientName = pending.get(i).getKey();
+                    throw new BeanCreationException(clientName, "Failed to build http exchange client '" + clientName + "'", Objects.nonNull(e.getCause()) ? e.getCause() : e);
+                }
+            }
+        } finally {
+            if (Objects.nonNull(ownExecutor)) {
+                ownExecutor.shutdownNow();
+            }
+        }
+        log.debug("Built {} http exchange clients in parallel in {} ms.", pending.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Executor bootstrapExecutor() {
+        if (beanFactory.containsBean(BOOTSTRAP_EXECUTOR_BEAN_NAME) && beanFactory.isTypeMatch(BOOTSTRAP_EXECUTOR_BEAN_NAME, Executor.class)) {
+            return beanFactory.getBean(BOOTSTRAP_EXECUTOR_BEAN_NAME, Executor.class);
+        }
+        return null;
+    }
+}
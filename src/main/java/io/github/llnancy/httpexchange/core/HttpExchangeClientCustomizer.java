@@ -0,0 +1,81 @@
+package io.github.llnancy.httpexchange.core;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+/**
+ * callback to customize the clients built by {@link HttpExchangeClientFactoryBean},
+ * all beans of this type are applied in order.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/23
+ */
+public interface HttpExchangeClientCustomizer {
+
+    /**
+     * customize the {@link WebClient.Builder} of the {@link Transport#WEBCLIENT} transport
+     *
+     * @param metadata {@link HttpExchangeClientMetadata}
+     * @param builder  {@link WebClient.Builder}
+     */
+    default void customizeWebClient(HttpExchangeClientMetadata metadata, WebClient.Builder builder) {
+    }
+
+    /**
+     * customize the reactor netty {@link HttpClient} of the {@link Transport#WEBCLIENT} transport
+     *
+     * @param metadata   {@link HttpExchangeClientMetadata}
+     * @param httpClient {@link HttpClient}
+     * @return the customized {@link HttpClient}
+     */
+    default HttpClient customizeHttpClient(HttpExchangeClientMetadata metadata, HttpClient httpClient) {
+        return httpClient;
+    }
+
+    /**
+     * customize the {@link RestClient.Builder} of the blocking transports
+     *
+     * @param metadata {@link HttpExchangeClientMetadata}
+     * @param builder  {@link RestClient.Builder}
+     */
+    default void customizeRestClient(HttpExchangeClientMetadata metadata, RestClient.Builder builder) {
+    }
+
+    /**
+     * customize the {@link ClientHttpRequestFactory} of the blocking transports, the requests are created by it
+     * after the {@link ClientHttpRequestInterceptor}s of the {@link RestClient}
+     *
+     * @param metadata       {@link HttpExchangeClientMetadata}
+     * @param requestFactory {@link ClientHttpRequestFactory}
+     * @return the customized {@link ClientHttpRequestFactory}
+     */
+    default ClientHttpRequestFactory customizeRequestFactory(HttpExchangeClientMetadata metadata, ClientHttpRequestFactory requestFactory) {
+        return requestFactory;
+    }
+
+    /**
+     * customize the {@link HttpServiceProxyFactory.Builder} of the client, e.g. add argument resolvers
+     *
+     * @param metadata {@link HttpExchangeClientMetadata}
+     * @param builder  {@link HttpServiceProxyFactory.Builder}
+     */
+    default void customizeProxyFactory(HttpExchangeClientMetadata metadata, HttpServiceProxyFactory.Builder builder) {
+    }
+
+    /**
+     * add {@link MethodInterceptor}s to the client proxy, they are applied in order and outside the interceptor
+     * which exposes the invoked method by {@link HttpExchangeMethodContext}
+     *
+     * @param metadata     {@link HttpExchangeClientMetadata}
+     * @param interceptors the {@link MethodInterceptor}s
+     */
+    default void customizeInterceptors(HttpExchangeClientMetadata metadata, List<MethodInterceptor> interceptors) {
+    }
+}
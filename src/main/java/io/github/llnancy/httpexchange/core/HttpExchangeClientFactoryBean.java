@@ -1,7 +1,29 @@
 package io.github.llnancy.httpexchange.core;
 
-import io.github.llnancy.httpexchange.util.ApplicationContextUtils;
+import io.github.llnancy.httpexchange.batch.MicroBatchCustomizer;
+import io.github.llnancy.httpexchange.cache.ResponseCacheCustomizer;
+import io.github.llnancy.httpexchange.cache.ResponseCacheRegistry;
+import io.github.llnancy.httpexchange.cache.SingleFlightCustomizer;
+import io.github.llnancy.httpexchange.compression.CompressionCustomizer;
+import io.github.llnancy.httpexchange.compression.CompressionRegistry;
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.ClientProperties;
+import io.github.llnancy.httpexchange.connector.ConnectionPrewarmCustomizer;
+import io.github.llnancy.httpexchange.connector.ConnectionPrewarmer;
+import io.github.llnancy.httpexchange.deadline.DeadlineCustomizer;
+import io.github.llnancy.httpexchange.loadbalancer.LoadBalancerCustomizer;
+import io.github.llnancy.httpexchange.resilience.CircuitBreakerCustomizer;
+import io.github.llnancy.httpexchange.resilience.RateLimiterCustomizer;
+import io.github.llnancy.httpexchange.resilience.RateLimiterRegistry;
+import io.github.llnancy.httpexchange.resilience.RetryCustomizer;
+import io.github.llnancy.httpexchange.transfer.FileTransferCustomizer;
+import io.github.llnancy.httpexchange.util.ComponentRegistry;
 import lombok.Setter;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.target.SingletonTargetSource;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.context.ApplicationContext;
@@ -9,15 +31,25 @@ import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.env.Environment;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
-import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.support.WebClientAdapter;
+import org.springframework.web.service.invoker.HttpExchangeAdapter;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
-import org.springframework.web.util.UriBuilderFactory;
 
+import java.beans.Introspector;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 /**
  * http exchange client factory bean
@@ -55,20 +87,175 @@ public class HttpExchangeClientFactoryBean<T> implements FactoryBean<T>, Environ
 
     @Override
     public T getObject() {
-        return createHttpServiceProxyFactory().createClient(httpExchangeClientInterface);
+        HttpExchangeClient httpExchangeClient = AnnotatedElementUtils.findMergedAnnotation(httpExchangeClientInterface, HttpExchangeClient.class);
+        ClientPropertiesResolver resolver = new ClientPropertiesResolver(getProperties(), clientName(httpExchangeClient), environment);
+        HttpExchangeClientMetadata metadata = createMetadata(httpExchangeClient, resolver);
+        List<HttpExchangeClientCustomizer> customizers = getCustomizers(httpExchangeClient, metadata);
+        boolean lazy = resolver.resolve(ClientProperties::getLazy, null, false);
+        HttpExchangeClientBootstrap bootstrap = lazy ? null : applicationContext.getBeanProvider(HttpExchangeClientBootstrap.class).getIfAvailable();
+        if (lazy || (Objects.nonNull(bootstrap) && bootstrap.isParallel())) {
+            LazyClientTargetSource targetSource = new LazyClientTargetSource(httpExchangeClientInterface,
+                    () -> createHttpServiceProxyFactory(httpExchangeClient, resolver, metadata, customizers).createClient(httpExchangeClientInterface));
+            if (lazy && resolver.resolve(ClientProperties::getWarmUp, null, false)) {
+                applicationContext.getBeanProvider(HttpExchangeClientWarmUp.class).ifAvailable(warmUp -> warmUp.register(metadata.name(), targetSource));
+            }
+            if (!lazy && !bootstrap.register(metadata.name(), targetSource)) {
+                // created after the bootstrap, build it on the current thread as an eager client
+                targetSource.getTarget();
+            }
+            prewarm(customizers, targetSource::getTarget);
+            return createClientProxy(targetSource, metadata, customizers);
+        }
+        T client = createHttpServiceProxyFactory(httpExchangeClient, resolver, metadata, customizers).createClient(httpExchangeClientInterface);
+        prewarm(customizers, null);
+        return createClientProxy(new SingletonTargetSource(client), metadata, customizers);
     }
 
-    private HttpServiceProxyFactory createHttpServiceProxyFactory() {
-        return HttpServiceProxyFactory.builderFor(createWebClientAdapter()).build();
+    /**
+     * register the {@link ConnectionPrewarmCustomizer} of the created client
+     *
+     * @param customizers {@link HttpExchangeClientCustomizer}s
+     * @param initializer builds the lazy client, {@code null} if the client is built
+     */
+    private void prewarm(List<HttpExchangeClientCustomizer> customizers, Runnable initializer) {
+        ConnectionPrewarmer prewarmer = applicationContext.getBeanProvider(ConnectionPrewarmer.class).getIfAvailable();
+        if (Objects.isNull(prewarmer)) {
+            return;
+        }
+        customizers.stream()
+                .filter(ConnectionPrewarmCustomizer.class::isInstance)
+                .map(ConnectionPrewarmCustomizer.class::cast)
+                .forEach(customizer -> {
+                    customizer.initializer(initializer);
+                    prewarmer.register(customizer);
+                });
     }
 
-    private WebClientAdapter createWebClientAdapter() {
-        return WebClientAdapter.create(createWebClient());
+    private HttpExchangeClientMetadata createMetadata(HttpExchangeClient httpExchangeClient, ClientPropertiesResolver resolver) {
+        Transport transport = resolver.resolve(ClientProperties::getTransport, httpExchangeClient.transport() == Transport.DEFAULT ? null : httpExchangeClient.transport(), Transport.WEBCLIENT);
+        Map<Method, HttpExchangeMethod> methods = new HashMap<>();
+        for (Method method : httpExchangeClientInterface.getMethods()) {
+            HttpExchangeMethod exchangeMethod = HttpExchangeMethod.of(resolver.clientName(), httpExchangeClientInterface, method);
+            if (Objects.nonNull(exchangeMethod)) {
+                methods.put(method, exchangeMethod);
+            }
+        }
+        return new HttpExchangeClientMetadata(resolver.clientName(), httpExchangeClientInterface, transport, Collections.unmodifiableMap(methods), resolver);
     }
 
-    private WebClient createWebClient() {
-        HttpExchangeClient httpExchangeClient = AnnotatedElementUtils.findMergedAnnotation(httpExchangeClientInterface, HttpExchangeClient.class);
-        WebClientConfigure configure = new WebClientConfigure(httpExchangeClient, WebClient.builder(), applicationContext, environment);
+    /**
+     * the customizer beans in order, followed by the built-in customizers of the client,
+     * the interceptors of which are applied from the outermost to the innermost:
+     * <ol>
+     *     <li>single-flight, concurrent callers share one cache lookup</li>
+     *     <li>response cache</li>
+     *     <li>micro-batching, the batched methods are not cached, their batch methods may be</li>
+     *     <li>retries and hedging, every attempt is a new request</li>
+     *     <li>rate limiters, every attempt takes a permit</li>
+     *     <li>circuit breakers and bulkheads, every attempt is a call</li>
+     *     <li>file downloads, every attempt rewrites the target</li>
+     * </ol>
+     * the timeouts, the compression, the load balancer and the connection prewarm have no interceptor, the filter of the load balancer is the innermost one.
+     *
+     * @param httpExchangeClient {@link HttpExchangeClient}
+     * @param metadata           {@link HttpExchangeClientMetadata}
+     * @return {@link HttpExchangeClientCustomizer}s
+     */
+    private List<HttpExchangeClientCustomizer> getCustomizers(HttpExchangeClient httpExchangeClient, HttpExchangeClientMetadata metadata) {
+        List<String> endpoints = WebClientConfigure.resolveEndpoints(httpExchangeClient, metadata.properties(), environment);
+        List<HttpExchangeClientCustomizer> customizers = new ArrayList<>(applicationContext.getBeanProvider(HttpExchangeClientCustomizer.class).orderedStream().toList());
+        Stream.<HttpExchangeClientCustomizer>of(
+                        SingleFlightCustomizer.create(metadata, headerSources(httpExchangeClient)),
+                        ResponseCacheCustomizer.create(metadata, applicationContext.getBeanProvider(ResponseCacheRegistry.class).getIfAvailable(ResponseCacheRegistry::new)),
+                        MicroBatchCustomizer.create(metadata),
+                        RetryCustomizer.create(metadata),
+                        RateLimiterCustomizer.create(metadata, applicationContext.getBeanProvider(RateLimiterRegistry.class).getIfAvailable(RateLimiterRegistry::new)),
+                        CircuitBreakerCustomizer.create(metadata),
+                        DeadlineCustomizer.create(metadata),
+                        FileTransferCustomizer.create(metadata),
+                        CompressionCustomizer.create(metadata, httpExchangeClient.compression(), applicationContext.getBeanProvider(CompressionRegistry.class).getIfAvailable(CompressionRegistry::new)),
+                        LoadBalancerCustomizer.create(metadata, endpoints),
+                        ConnectionPrewarmCustomizer.create(metadata, endpoints, http2Connections(httpExchangeClient, metadata))
+                )
+                .filter(Objects::nonNull)
+                .forEach(customizers::add);
+        return customizers;
+    }
+
+    /**
+     * the classes of a client which may add request headers per request, the default headers are fixed when the client is built
+     *
+     * @param httpExchangeClient {@link HttpExchangeClient}
+     * @return the configured filter, interceptor and request consumer classes
+     */
+    private static List<Class<?>> headerSources(HttpExchangeClient httpExchangeClient) {
+        return Stream.<Class<?>>of(
+                        httpExchangeClient.filter() != ExchangeFilterFunction.class ? httpExchangeClient.filter() : null,
+                        httpExchangeClient.filtersConsumer() != ExchangeFilterFunctionsConsumer.class ? httpExchangeClient.filtersConsumer() : null,
+                        httpExchangeClient.requestInterceptorsConsumer() != ClientHttpRequestInterceptorsConsumer.class ? httpExchangeClient.requestInterceptorsConsumer() : null,
+                        httpExchangeClient.requestHeadersSpecConsumer() != RequestHeadersSpecConsumer.class ? httpExchangeClient.requestHeadersSpecConsumer() : null
+                )
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * the connections a client which negotiates http/2 opens to an endpoint for concurrent requests
+     *
+     * @param httpExchangeClient {@link HttpExchangeClient}
+     * @param metadata           {@link HttpExchangeClientMetadata}
+     * @return connections, or {@code null} if the client does not negotiate http/2
+     */
+    private Integer http2Connections(HttpExchangeClient httpExchangeClient, HttpExchangeClientMetadata metadata) {
+        List<Protocol> protocols = WebClientConfigure.resolveProtocols(httpExchangeClient, metadata.properties());
+        if (!protocols.contains(Protocol.H2) && !protocols.contains(Protocol.H2C)) {
+            return null;
+        }
+        if (metadata.transport() == Transport.WEBCLIENT) {
+            // the http/2 pool opens a connection for each acquire until it has the min connections
+            Integer minConnections = WebClientConfigure.resolvePool(httpExchangeClient, metadata.properties(), environment).getMinConnections();
+            return Objects.nonNull(minConnections) ? Math.max(minConnections, 1) : 1;
+        }
+        // the jdk http client keeps one connection for each origin, the other blocking clients do not negotiate http/2
+        return metadata.transport() == Transport.JDK_HTTP_CLIENT ? 1 : null;
+    }
+
+    private HttpServiceProxyFactory createHttpServiceProxyFactory(HttpExchangeClient httpExchangeClient, ClientPropertiesResolver resolver, HttpExchangeClientMetadata metadata, List<HttpExchangeClientCustomizer> customizers) {
+        HttpServiceProxyFactory.Builder builder = HttpServiceProxyFactory.builderFor(createHttpExchangeAdapter(httpExchangeClient, resolver, metadata, customizers));
+        customizers.forEach(customizer -> customizer.customizeProxyFactory(metadata, builder));
+        return builder.build();
+    }
+
+    private HttpExchangeAdapter createHttpExchangeAdapter(HttpExchangeClient httpExchangeClient, ClientPropertiesResolver resolver, HttpExchangeClientMetadata metadata, List<HttpExchangeClientCustomizer> customizers) {
+        return switch (metadata.transport()) {
+            case REST_CLIENT, JDK_HTTP_CLIENT -> RestClientAdapter.create(createRestClient(httpExchangeClient, resolver, metadata, customizers));
+            default -> WebClientAdapter.create(createWebClient(httpExchangeClient, resolver, metadata, customizers));
+        };
+    }
+
+    /**
+     * wrap the client created by {@link HttpServiceProxyFactory}, the proxy interfaces are the same as
+     * the ones registered by {@code HttpExchangeClientBeanFactoryInitializationAotProcessor}
+     *
+     * @param targetSource the client created by {@link HttpServiceProxyFactory}, or the lazy one
+     * @param metadata     {@link HttpExchangeClientMetadata}
+     * @param customizers  {@link HttpExchangeClientCustomizer}s
+     * @return client proxy
+     */
+    @SuppressWarnings("unchecked")
+    private T createClientProxy(TargetSource targetSource, HttpExchangeClientMetadata metadata, List<HttpExchangeClientCustomizer> customizers) {
+        ProxyFactory proxyFactory = new ProxyFactory();
+        proxyFactory.setTargetSource(targetSource);
+        proxyFactory.addInterface(httpExchangeClientInterface);
+        List<MethodInterceptor> interceptors = new ArrayList<>();
+        customizers.forEach(customizer -> customizer.customizeInterceptors(metadata, interceptors));
+        interceptors.forEach(proxyFactory::addAdvice);
+        proxyFactory.addAdvice(new HttpExchangeMethodInterceptor(metadata.methods()));
+        return (T) proxyFactory.getProxy(httpExchangeClientInterface.getClassLoader());
+    }
+
+    private WebClient createWebClient(HttpExchangeClient httpExchangeClient, ClientPropertiesResolver resolver, HttpExchangeClientMetadata metadata, List<HttpExchangeClientCustomizer> customizers) {
+        WebClientConfigure configure = new WebClientConfigure(httpExchangeClient, WebClient.builder(), resolver, metadata, customizers, getComponents(), applicationContext, environment);
         return configure.baseUrl()
                 .defaultUriVariables()
                 .uriBuilderFactory()
@@ -76,175 +263,50 @@ public class HttpExchangeClientFactoryBean<T> implements FactoryBean<T>, Environ
                 .defaultHeaders()
                 .defaultCookie()
                 .defaultCookies()
+                .exchangeMethodAttribute()
                 .requestHeadersSpec()
                 .filter()
                 .filters()
+                .requestInterceptors()
                 .defaultStatusHandler()
                 .exchangeStrategies()
+                .clientConnector()
+                .clientCustomizers()
                 .build();
     }
 
-    private record WebClientConfigure(HttpExchangeClient httpExchangeClient,
-                                      WebClient.Builder builder,
-                                      ApplicationContext applicationContext,
-                                      Environment environment) {
-
-        /**
-         * convert base url
-         *
-         * @param baseUrl     source baseUrl
-         * @param environment {@link Environment}
-         * @return target baseUrl
-         */
-        private static String convertBaseUrl(String baseUrl, Environment environment) {
-            if (StringUtils.hasText(baseUrl)) {
-                baseUrl = environment.resolveRequiredPlaceholders(baseUrl);
-                // 解析 baseUrl 占位符
-                if (!baseUrl.endsWith("/")) {
-                    baseUrl += "/";
-                }
-            }
-            return baseUrl;
-        }
-
-        public WebClientConfigure baseUrl() {
-            builder.baseUrl(convertBaseUrl(httpExchangeClient.baseUrl(), environment));
-            return this;
-        }
-
-        public WebClientConfigure defaultUriVariables() {
-            Class<? extends DefaultUriVariablesSupplier> clazz = httpExchangeClient.defaultUriVariablesSupplier();
-            DefaultUriVariablesSupplier supplier = null;
-            if (clazz != DefaultUriVariablesSupplier.class) {
-                supplier = ApplicationContextUtils.getBeanOrReflect(applicationContext, clazz);
-            }
-            if (Objects.nonNull(supplier)) {
-                builder.defaultUriVariables(supplier.supply());
-            }
-            return this;
-        }
-
-        public WebClientConfigure uriBuilderFactory() {
-            Class<? extends UriBuilderFactory> clazz = httpExchangeClient.uriBuilderFactory();
-            UriBuilderFactory uriBuilderFactory = null;
-            if (clazz != UriBuilderFactory.class) {
-                uriBuilderFactory = ApplicationContextUtils.getBeanOrReflect(applicationContext, clazz);
-            }
-            if (Objects.nonNull(uriBuilderFactory)) {
-                builder.uriBuilderFactory(uriBuilderFactory);
-            }
-            return this;
-        }
-
-        public WebClientConfigure filter() {
-            Class<? extends ExchangeFilterFunction> clazz = httpExchangeClient.filter();
-            ExchangeFilterFunction filterFunction = null;
-            if (clazz != ExchangeFilterFunction.class) {
-                filterFunction = ApplicationContextUtils.getBeanOrReflect(applicationContext, clazz);
-            }
-            if (Objects.nonNull(filterFunction)) {
-                builder.filter(filterFunction);
-            }
-            return this;
-        }
-
-        public WebClientConfigure filters() {
-            Class<? extends ExchangeFilterFunctionsConsumer> clazz = httpExchangeClient.filtersConsumer();
-            ExchangeFilterFunctionsConsumer functionsConsumer = null;
-            if (clazz != ExchangeFilterFunctionsConsumer.class) {
-                functionsConsumer = ApplicationContextUtils.getBeanOrReflect(applicationContext, clazz);
-            }
-            if (Objects.nonNull(functionsConsumer)) {
-                builder.filters(functionsConsumer.consume());
-            }
-            return this;
-        }
-
-        public WebClientConfigure defaultHeader() {
-            String headerKey = httpExchangeClient.defaultHeaderKey();
-            String[] headerValues = httpExchangeClient.defaultHeaderValues();
-            if (StringUtils.hasText(headerKey) && Objects.nonNull(headerValues) && headerValues.length != 0) {
-                builder.defaultHeader(headerKey, headerValues);
-            }
-            return this;
-        }
-
-        public WebClientConfigure defaultHeaders() {
-            Class<? extends HttpHeadersConsumer> clazz = httpExchangeClient.httpHeadersConsumer();
-            HttpHeadersConsumer consumer = null;
-            if (clazz != HttpHeadersConsumer.class) {
-                consumer = ApplicationContextUtils.getBeanOrReflect(applicationContext, clazz);
-            }
-            if (Objects.nonNull(consumer)) {
-                builder.defaultHeaders(consumer.consume());
-            }
-            return this;
-        }
-
-        public WebClientConfigure defaultCookie() {
-            String cookieKey = httpExchangeClient.defaultCookieKey();
-            String[] cookieValues = httpExchangeClient.defaultCookieValues();
-            if (StringUtils.hasText(cookieKey) && Objects.nonNull(cookieValues) && cookieValues.length != 0) {
-                builder.defaultCookie(cookieKey, cookieValues);
-            }
-            return this;
-        }
-
-        public WebClientConfigure defaultCookies() {
-            Class<? extends CookiesConsumer> clazz = httpExchangeClient.cookiesConsumer();
-            CookiesConsumer consumer = null;
-            if (clazz != CookiesConsumer.class) {
-                consumer = ApplicationContextUtils.getBeanOrReflect(applicationContext, clazz);
-            }
-            if (Objects.nonNull(consumer)) {
-                builder.defaultCookies(consumer.consume());
-            }
-            return this;
-        }
-
-        public WebClientConfigure requestHeadersSpec() {
-            Class<? extends RequestHeadersSpecConsumer> clazz = httpExchangeClient.requestHeadersSpecConsumer();
-            RequestHeadersSpecConsumer consumer = null;
-            if (clazz != RequestHeadersSpecConsumer.class) {
-                consumer = ApplicationContextUtils.getBeanOrReflect(applicationContext, clazz);
-            }
-            if (Objects.nonNull(consumer)) {
-                builder.defaultRequest(consumer.consume());
-            }
-            return this;
-        }
+    private RestClient createRestClient(HttpExchangeClient httpExchangeClient, ClientPropertiesResolver resolver, HttpExchangeClientMetadata metadata, List<HttpExchangeClientCustomizer> customizers) {
+        RestClientConfigure configure = new RestClientConfigure(httpExchangeClient, RestClient.builder(), resolver, metadata, customizers, getComponents(), applicationContext, environment);
+        return configure.baseUrl()
+                .defaultUriVariables()
+                .uriBuilderFactory()
+                .defaultHeader()
+                .defaultHeaders()
+                .defaultCookies()
+                .requestHeadersSpec()
+                .filter()
+                .filters()
+                .requestInterceptors()
+                .defaultStatusHandler()
+                .messageConverters()
+                .requestFactory()
+                .clientCustomizers()
+                .build();
+    }
 
-        public WebClientConfigure defaultStatusHandler() {
-            Class<? extends DefaultStatusHandlerHolder> clazz = httpExchangeClient.defaultStatusHandlerHolder();
-            DefaultStatusHandlerHolder defaultStatusHandlerHolder = null;
-            if (clazz != DefaultStatusHandlerHolder.class) {
-                defaultStatusHandlerHolder = ApplicationContextUtils.getBeanOrReflect(applicationContext, clazz);
-            }
-            if (Objects.nonNull(defaultStatusHandlerHolder)) {
-                builder.defaultStatusHandler(defaultStatusHandlerHolder.statusPredicate(), defaultStatusHandlerHolder.exceptionFunction());
-            }
-            return this;
-        }
+    private ComponentRegistry getComponents() {
+        return applicationContext.getBeanProvider(ComponentRegistry.class).getIfAvailable(() -> new ComponentRegistry(applicationContext));
+    }
 
-        public WebClientConfigure exchangeStrategies() {
-            Class<? extends ClientCodecConfigurerConsumer> clazz = httpExchangeClient.codecConfigurerConsumer();
-            ClientCodecConfigurerConsumer consumer = null;
-            if (clazz != ClientCodecConfigurerConsumer.class) {
-                consumer = ApplicationContextUtils.getBeanOrReflect(applicationContext, clazz);
-            }
-            if (Objects.nonNull(consumer)) {
-                builder.exchangeStrategies(
-                        ExchangeStrategies.builder()
-                                .codecs(consumer.consumer())
-                                .build()
-                );
-            }
-            return this;
-        }
+    private HttpExchangeClientProperties getProperties() {
+        return applicationContext.getBeanProvider(HttpExchangeClientProperties.class).getIfAvailable(HttpExchangeClientProperties::new);
+    }
 
-        public WebClient build() {
-            return builder.build();
+    private String clientName(HttpExchangeClient httpExchangeClient) {
+        if (Objects.nonNull(httpExchangeClient) && StringUtils.hasText(httpExchangeClient.name())) {
+            return environment.resolveRequiredPlaceholders(httpExchangeClient.name());
         }
+        return Introspector.decapitalize(ClassUtils.getShortName(httpExchangeClientInterface));
     }
 
     @Override
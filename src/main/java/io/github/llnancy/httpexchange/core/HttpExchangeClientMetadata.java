@@ -0,0 +1,24 @@
+package io.github.llnancy.httpexchange.core;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * metadata of a http exchange client, passed to the {@link HttpExchangeClientCustomizer}s
+ *
+ * @param name            the client name
+ * @param clientInterface the interface annotated by {@link HttpExchangeClient}
+ * @param transport       the resolved {@link Transport}
+ * @param methods         the exchange methods of the interface
+ * @param properties      the resolver of the client properties
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/23
+ */
+public record HttpExchangeClientMetadata(String name,
+                                         Class<?> clientInterface,
+                                         Transport transport,
+                                         Map<Method, HttpExchangeMethod> methods,
+                                         ClientPropertiesResolver properties) {
+}
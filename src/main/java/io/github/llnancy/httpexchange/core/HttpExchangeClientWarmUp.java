@@ -0,0 +1,55 @@
+package io.github.llnancy.httpexchange.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * builds the lazy http exchange clients with {@code warm-up} enabled on a background thread
+ * after the {@link ApplicationReadyEvent}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/26
+ */
+@Slf4j
+public class HttpExchangeClientWarmUp implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final Map<String, LazyClientTargetSource> clients = new LinkedHashMap<>();
+
+    synchronized void register(String clientName, LazyClientTargetSource targetSource) {
+        clients.put(clientName, targetSource);
+    }
+
+    @Override
+    public void onApplicationEvent(@NonNull ApplicationReadyEvent event) {
+        List<Map.Entry<String, LazyClientTargetSource>> pending;
+        synchronized (this) {
+            pending = new ArrayList<>(clients.entrySet());
+            clients.clear();
+        }
+        pending.removeIf(entry -> entry.getValue().isInitialized());
+        if (pending.isEmpty()) {
+            return;
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("httpexchange-warm-up-");
+        executor.setDaemon(true);
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            for (Map.Entry<String, LazyClientTargetSource> entry : pending) {
+                try {
+                    entry.getValue().getTarget();
+                } catch (Exception e) {
+                    log.warn("Warm up http exchange client '{}' failed, it will be built on the first invocation.", entry.getKey(), e);
+                }
+            }
+            log.debug("Warmed up {} http exchange clients in {} ms.", pending.size(), (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+}
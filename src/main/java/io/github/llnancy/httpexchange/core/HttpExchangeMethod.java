@@ -0,0 +1,71 @@
+package io.github.llnancy.httpexchange.core;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.service.annotation.HttpExchange;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+
+/**
+ * precomputed metadata of a {@link HttpExchange} method of a http exchange client,
+ * created once per method when the client is built.
+ *
+ * @param clientName      the client name
+ * @param clientInterface the interface annotated by {@link HttpExchangeClient}
+ * @param method          the exchange method
+ * @param httpMethod      the http method, {@code NONE} if not declared
+ * @param uriTemplate     the uri template combined from the type and method level {@link HttpExchange}
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/23
+ */
+public record HttpExchangeMethod(String clientName,
+                                 Class<?> clientInterface,
+                                 Method method,
+                                 String httpMethod,
+                                 String uriTemplate) {
+
+    /**
+     * the http method tag when {@link HttpExchange#method()} is not declared
+     */
+    public static final String NONE = "NONE";
+
+    /**
+     * create the metadata of an exchange method
+     *
+     * @param clientName      the client name
+     * @param clientInterface the interface annotated by {@link HttpExchangeClient}
+     * @param method          the method
+     * @return {@link HttpExchangeMethod}, or {@code null} if the method is not annotated by {@link HttpExchange}
+     */
+    public static HttpExchangeMethod of(String clientName, Class<?> clientInterface, Method method) {
+        HttpExchange methodExchange = AnnotatedElementUtils.findMergedAnnotation(method, HttpExchange.class);
+        if (Objects.isNull(methodExchange)) {
+            return null;
+        }
+        HttpExchange typeExchange = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), HttpExchange.class);
+        String httpMethod = methodExchange.method();
+        String typeUrl = "";
+        if (Objects.nonNull(typeExchange)) {
+            httpMethod = StringUtils.hasText(httpMethod) ? httpMethod : typeExchange.method();
+            typeUrl = typeExchange.url();
+        }
+        return new HttpExchangeMethod(
+                clientName,
+                clientInterface,
+                method,
+                StringUtils.hasText(httpMethod) ? httpMethod.toUpperCase() : NONE,
+                combineUrl(typeUrl, methodExchange.url())
+        );
+    }
+
+    private static String combineUrl(String typeUrl, String methodUrl) {
+        if (!StringUtils.hasText(typeUrl)) {
+            return methodUrl;
+        }
+        if (!StringUtils.hasText(methodUrl)) {
+            return typeUrl;
+        }
+        return typeUrl + (!typeUrl.endsWith("/") && !methodUrl.startsWith("/") ? "/" : "") + methodUrl;
+    }
+}
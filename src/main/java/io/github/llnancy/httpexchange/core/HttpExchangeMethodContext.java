@@ -0,0 +1,140 @@
+package io.github.llnancy.httpexchange.core;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * holds the {@link HttpExchangeMethod} being invoked on the current thread, and the invocation attributes
+ * set by the interceptors of the client proxy.
+ * <p>
+ * the client proxy sets them around the invocation, the {@link ClientRequest}s built by
+ * {@code WebClient} transport carry the method in the {@link #ATTRIBUTE} attribute and the invocation
+ * attributes under their own names, so filters can read them after a thread switch.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/23
+ */
+public final class HttpExchangeMethodContext {
+
+    /**
+     * the {@link ClientRequest} attribute name of the invoked {@link HttpExchangeMethod}
+     */
+    public static final String ATTRIBUTE = HttpExchangeMethod.class.getName();
+
+    private static final ThreadLocal<HttpExchangeMethod> CURRENT = new ThreadLocal<>();
+
+    private static final ThreadLocal<Map<String, Object>> ATTRIBUTES = new ThreadLocal<>();
+
+    private HttpExchangeMethodContext() {
+    }
+
+    /**
+     * the method being invoked on the current thread
+     *
+     * @return {@link HttpExchangeMethod}, or {@code null}
+     */
+    public static HttpExchangeMethod current() {
+        return CURRENT.get();
+    }
+
+    static HttpExchangeMethod set(HttpExchangeMethod method) {
+        HttpExchangeMethod previous = CURRENT.get();
+        CURRENT.set(method);
+        return previous;
+    }
+
+    static void restore(HttpExchangeMethod previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * get an invocation attribute of the current thread
+     *
+     * @param name attribute name
+     * @return attribute value, or {@code null}
+     */
+    public static Object getAttribute(String name) {
+        Map<String, Object> attributes = ATTRIBUTES.get();
+        return Objects.nonNull(attributes) ? attributes.get(name) : null;
+    }
+
+    /**
+     * set an invocation attribute of the current thread, the caller must restore the previous value
+     * by {@link #restoreAttribute(String, Object)} after the invocation
+     *
+     * @param name  attribute name
+     * @param value attribute value
+     * @return the previous value, or {@code null}
+     */
+    public static Object setAttribute(String name, Object value) {
+        Map<String, Object> attributes = ATTRIBUTES.get();
+        if (Objects.isNull(attributes)) {
+            attributes = new HashMap<>(4);
+            ATTRIBUTES.set(attributes);
+        }
+        return attributes.put(name, value);
+    }
+
+    /**
+     * restore an invocation attribute of the current thread
+     *
+     * @param name     attribute name
+     * @param previous the value returned by {@link #setAttribute(String, Object)}
+     */
+    public static void restoreAttribute(String name, Object previous) {
+        Map<String, Object> attributes = ATTRIBUTES.get();
+        if (Objects.isNull(attributes)) {
+            return;
+        }
+        if (Objects.nonNull(previous)) {
+            attributes.put(name, previous);
+            return;
+        }
+        attributes.remove(name);
+        if (attributes.isEmpty()) {
+            ATTRIBUTES.remove();
+        }
+    }
+
+    /**
+     * copy the invocation attributes of the current thread, to continue the invocation on another thread
+     *
+     * @return the attributes, or {@code null} if there is none
+     */
+    public static Map<String, Object> captureAttributes() {
+        Map<String, Object> attributes = ATTRIBUTES.get();
+        return Objects.nonNull(attributes) ? new HashMap<>(attributes) : null;
+    }
+
+    /**
+     * replace the invocation attributes of the current thread by a copy of the captured ones, the caller must
+     * restore the previous attributes by calling this method again after the invocation
+     *
+     * @param attributes the attributes returned by {@link #captureAttributes()}
+     * @return the previous attributes, or {@code null}
+     */
+    public static Map<String, Object> replaceAttributes(Map<String, Object> attributes) {
+        Map<String, Object> previous = ATTRIBUTES.get();
+        if (Objects.isNull(attributes)) {
+            ATTRIBUTES.remove();
+        } else {
+            ATTRIBUTES.set(new HashMap<>(attributes));
+        }
+        return previous;
+    }
+
+    static void forEachAttribute(BiConsumer<String, Object> consumer) {
+        Map<String, Object> attributes = ATTRIBUTES.get();
+        if (Objects.nonNull(attributes)) {
+            attributes.forEach(consumer);
+        }
+    }
+}
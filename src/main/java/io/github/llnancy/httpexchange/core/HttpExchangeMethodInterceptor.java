@@ -0,0 +1,39 @@
+package io.github.llnancy.httpexchange.core;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.lang.NonNull;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * the innermost interceptor of a client proxy, exposes the invoked {@link HttpExchangeMethod}
+ * through {@link HttpExchangeMethodContext} while the request is built.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/23
+ */
+final class HttpExchangeMethodInterceptor implements MethodInterceptor {
+
+    private final Map<Method, HttpExchangeMethod> methods;
+
+    HttpExchangeMethodInterceptor(Map<Method, HttpExchangeMethod> methods) {
+        this.methods = methods;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        HttpExchangeMethod method = methods.get(invocation.getMethod());
+        if (Objects.isNull(method)) {
+            return invocation.proceed();
+        }
+        HttpExchangeMethod previous = HttpExchangeMethodContext.set(method);
+        try {
+            return invocation.proceed();
+        } finally {
+            HttpExchangeMethodContext.restore(previous);
+        }
+    }
+}
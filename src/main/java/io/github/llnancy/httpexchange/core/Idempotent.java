@@ -0,0 +1,20 @@
+package io.github.llnancy.httpexchange.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * mark an exchange method, or all methods of an interface, as idempotent, so that it can be sent more than once.
+ * {@link RetryPolicy} and {@link HedgePolicy} only apply to idempotent methods.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/27
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Documented
+public @interface Idempotent {
+}
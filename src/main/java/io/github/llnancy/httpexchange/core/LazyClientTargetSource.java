@@ -0,0 +1,55 @@
+package io.github.llnancy.httpexchange.core;
+
+import org.springframework.aop.TargetSource;
+import org.springframework.lang.NonNull;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * {@link TargetSource} which builds the client created by {@code HttpServiceProxyFactory} on its first invocation.
+ * <p>
+ * the client is built exactly once, the invocations after the build only read a volatile field.
+ * a failed build is thrown to the invoker and retried by the next invocation.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/26
+ */
+final class LazyClientTargetSource implements TargetSource {
+
+    private final Class<?> targetClass;
+
+    private final Supplier<Object> factory;
+
+    private volatile Object target;
+
+    LazyClientTargetSource(Class<?> targetClass, Supplier<Object> factory) {
+        this.targetClass = targetClass;
+        this.factory = factory;
+    }
+
+    @Override
+    public Class<?> getTargetClass() {
+        return targetClass;
+    }
+
+    @Override
+    @NonNull
+    public Object getTarget() {
+        Object result = target;
+        if (Objects.isNull(result)) {
+            synchronized (this) {
+                result = target;
+                if (Objects.isNull(result)) {
+                    result = factory.get();
+                    target = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    boolean isInitialized() {
+        return Objects.nonNull(target);
+    }
+}
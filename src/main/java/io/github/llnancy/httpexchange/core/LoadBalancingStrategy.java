@@ -0,0 +1,20 @@
+package io.github.llnancy.httpexchange.core;
+
+/**
+ * the strategy to pick one of the endpoints of a http exchange client for each request
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+public enum LoadBalancingStrategy {
+
+    /**
+     * pick two random endpoints and use the one with fewer outstanding requests
+     */
+    POWER_OF_TWO_CHOICES,
+
+    /**
+     * use the endpoint with the fewest outstanding requests
+     */
+    LEAST_REQUESTS
+}
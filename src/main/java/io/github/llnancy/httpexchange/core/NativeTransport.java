@@ -0,0 +1,33 @@
+package io.github.llnancy.httpexchange.core;
+
+/**
+ * the netty transport of the event loops of a http exchange client.
+ * <p>
+ * reactor netty selects one native transport for the jvm, io_uring if its incubator is on the classpath and available,
+ * then epoll, then kqueue, a client can only choose between it and nio.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public enum NativeTransport {
+
+    /**
+     * not set, the native transport when available, unless {@code -Dreactor.netty.native=false}
+     */
+    DEFAULT,
+
+    /**
+     * epoll, falls back to nio if it is not available
+     */
+    EPOLL,
+
+    /**
+     * io_uring, requires {@code netty-incubator-transport-native-io_uring}, falls back to nio if it is not available
+     */
+    IO_URING,
+
+    /**
+     * java nio
+     */
+    NIO
+}
@@ -0,0 +1,25 @@
+package io.github.llnancy.httpexchange.core;
+
+/**
+ * the http protocol of a http exchange client, configure several ones as a preference list
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/29
+ */
+public enum Protocol {
+
+    /**
+     * http/1.1
+     */
+    HTTP11,
+
+    /**
+     * http/2 over tls, negotiated by alpn, falls back to {@link #HTTP11} if it is also configured
+     */
+    H2,
+
+    /**
+     * http/2 over cleartext with prior knowledge, or by the upgrade from {@link #HTTP11} if it is also configured
+     */
+    H2C
+}
@@ -0,0 +1,55 @@
+package io.github.llnancy.httpexchange.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * limit the rate of the exchange methods by a token bucket, every attempt of a retried method takes a permit.
+ * <p>
+ * on an interface, all methods share the rate limiter of the client; on a method, the method has its own as well,
+ * and a call takes a permit of both. the settings of the interface are resolved in the order of
+ * {@code httpexchange.clients.<name>.rate-limiter.*}, the annotation and {@code httpexchange.default.rate-limiter.*},
+ * the ones of a method in the order of {@code httpexchange.clients.<name>.method-rate-limiters.<method>.*},
+ * the annotation and {@code httpexchange.default.method-rate-limiters.<method>.*}. empty strings and negative
+ * numbers mean not set.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Documented
+public @interface RateLimitPolicy {
+
+    /**
+     * the permits refilled per second, defaults to 10
+     *
+     * @return permits per second
+     */
+    double permitsPerSecond() default -1;
+
+    /**
+     * the maximum number of permits taken at once after an idle period, defaults to the permits per second
+     *
+     * @return burst
+     */
+    int burst() default -1;
+
+    /**
+     * how long a call waits for a permit, the calls which would wait longer are rejected, defaults to 0 that fails fast
+     *
+     * @return max wait
+     */
+    String maxWait() default "";
+
+    /**
+     * whether to pause the limiter by the {@code Retry-After} and {@code RateLimit-Remaining}/{@code RateLimit-Reset}
+     * response headers
+     *
+     * @return adaptive
+     */
+    boolean adaptive() default false;
+}
@@ -0,0 +1,294 @@
+package io.github.llnancy.httpexchange.core;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.ClientProperties;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.Loop;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.Pool;
+import io.github.llnancy.httpexchange.connector.JdkHttpClientRegistry;
+import io.github.llnancy.httpexchange.deadline.DeadlineClientHttpRequestFactory;
+import io.github.llnancy.httpexchange.deadline.DeadlineJdkClientHttpRequestFactory;
+import io.github.llnancy.httpexchange.deadline.ExchangeTimeouts;
+import io.github.llnancy.httpexchange.util.ComponentRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.util.UriBuilderFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link RestClient} configure of a http exchange client, used by the blocking transports
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/21
+ */
+@Slf4j
+record RestClientConfigure(HttpExchangeClient httpExchangeClient,
+                           RestClient.Builder builder,
+                           ClientPropertiesResolver resolver,
+                           HttpExchangeClientMetadata metadata,
+                           List<HttpExchangeClientCustomizer> customizers,
+                           ComponentRegistry components,
+                           ApplicationContext applicationContext,
+                           Environment environment,
+                           List<ExchangeFilterFunction> filterFunctions) {
+
+    RestClientConfigure(HttpExchangeClient httpExchangeClient,
+                        RestClient.Builder builder,
+                        ClientPropertiesResolver resolver,
+                        HttpExchangeClientMetadata metadata,
+                        List<HttpExchangeClientCustomizer> customizers,
+                        ComponentRegistry components,
+                        ApplicationContext applicationContext,
+                        Environment environment) {
+        this(httpExchangeClient, builder, resolver, metadata, customizers, components, applicationContext, environment, new ArrayList<>());
+    }
+
+    public RestClientConfigure baseUrl() {
+        builder.baseUrl(WebClientConfigure.resolveBaseUrl(httpExchangeClient, resolver, environment));
+        return this;
+    }
+
+    public RestClientConfigure defaultUriVariables() {
+        Class<? extends DefaultUriVariablesSupplier> clazz = httpExchangeClient.defaultUriVariablesSupplier();
+        DefaultUriVariablesSupplier supplier = null;
+        if (clazz != DefaultUriVariablesSupplier.class) {
+            supplier = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(supplier)) {
+            builder.defaultUriVariables(supplier.supply());
+        }
+        return this;
+    }
+
+    public RestClientConfigure uriBuilderFactory() {
+        Class<? extends UriBuilderFactory> clazz = httpExchangeClient.uriBuilderFactory();
+        UriBuilderFactory uriBuilderFactory = null;
+        if (clazz != UriBuilderFactory.class) {
+            uriBuilderFactory = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(uriBuilderFactory)) {
+            builder.uriBuilderFactory(uriBuilderFactory);
+        }
+        return this;
+    }
+
+    public RestClientConfigure defaultHeader() {
+        WebClientConfigure.resolveHeaders(httpExchangeClient, resolver).forEach((name, values) -> builder.defaultHeader(name, values.toArray(String[]::new)));
+        return this;
+    }
+
+    public RestClientConfigure defaultHeaders() {
+        Class<? extends HttpHeadersConsumer> clazz = httpExchangeClient.httpHeadersConsumer();
+        HttpHeadersConsumer consumer = null;
+        if (clazz != HttpHeadersConsumer.class) {
+            consumer = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(consumer)) {
+            builder.defaultHeaders(consumer.consume());
+        }
+        return this;
+    }
+
+    /**
+     * {@link RestClient.Builder} has no default cookies, send them as a {@code Cookie} header
+     *
+     * @return this
+     */
+    public RestClientConfigure defaultCookies() {
+        MultiValueMap<String, String> cookies = new LinkedMultiValueMap<>();
+        String cookieKey = httpExchangeClient.defaultCookieKey();
+        String[] cookieValues = httpExchangeClient.defaultCookieValues();
+        if (StringUtils.hasText(cookieKey) && Objects.nonNull(cookieValues) && cookieValues.length != 0) {
+            cookies.addAll(cookieKey, Arrays.asList(cookieValues));
+        }
+        Class<? extends CookiesConsumer> clazz = httpExchangeClient.cookiesConsumer();
+        CookiesConsumer consumer = null;
+        if (clazz != CookiesConsumer.class) {
+            consumer = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(consumer)) {
+            consumer.consume().accept(cookies);
+        }
+        if (!cookies.isEmpty()) {
+            builder.defaultHeader(HttpHeaders.COOKIE, BlockingExchanges.cookieHeader(cookies));
+        }
+        return this;
+    }
+
+    public RestClientConfigure requestHeadersSpec() {
+        if (httpExchangeClient.requestHeadersSpecConsumer() != RequestHeadersSpecConsumer.class) {
+            log.warn("RequestHeadersSpecConsumer is not supported by transport {}, ignore {}, use a ClientHttpRequestInterceptorsConsumer instead.",
+                    metadata.transport(), httpExchangeClient.requestHeadersSpecConsumer().getName());
+        }
+        return this;
+    }
+
+    public RestClientConfigure filter() {
+        Class<? extends ExchangeFilterFunction> clazz = httpExchangeClient.filter();
+        ExchangeFilterFunction filterFunction = null;
+        if (clazz != ExchangeFilterFunction.class) {
+            filterFunction = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(filterFunction)) {
+            filterFunctions.add(filterFunction);
+        }
+        return this;
+    }
+
+    public RestClientConfigure filters() {
+        Class<? extends ExchangeFilterFunctionsConsumer> clazz = httpExchangeClient.filtersConsumer();
+        ExchangeFilterFunctionsConsumer functionsConsumer = null;
+        if (clazz != ExchangeFilterFunctionsConsumer.class) {
+            functionsConsumer = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(functionsConsumer)) {
+            functionsConsumer.consume().accept(filterFunctions);
+        }
+        // the first filter is the outermost one, the same as WebClient
+        filterFunctions.stream()
+                .reduce(ExchangeFilterFunction::andThen)
+                .ifPresent(filterFunction -> builder.requestInterceptor(new ExchangeFilterFunctionInterceptor(filterFunction)));
+        return this;
+    }
+
+    /**
+     * the interceptors run inside the filters, without the reactive adaption of each request
+     *
+     * @return this
+     */
+    public RestClientConfigure requestInterceptors() {
+        Class<? extends ClientHttpRequestInterceptorsConsumer> clazz = httpExchangeClient.requestInterceptorsConsumer();
+        ClientHttpRequestInterceptorsConsumer consumer = null;
+        if (clazz != ClientHttpRequestInterceptorsConsumer.class) {
+            consumer = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(consumer)) {
+            builder.requestInterceptors(consumer.consume());
+        }
+        return this;
+    }
+
+    public RestClientConfigure defaultStatusHandler() {
+        Class<? extends DefaultStatusHandlerHolder> clazz = httpExchangeClient.defaultStatusHandlerHolder();
+        DefaultStatusHandlerHolder defaultStatusHandlerHolder = null;
+        if (clazz != DefaultStatusHandlerHolder.class) {
+            defaultStatusHandlerHolder = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(defaultStatusHandlerHolder)) {
+            builder.defaultStatusHandler(defaultStatusHandlerHolder.statusPredicate(), new StatusHandlerErrorHandler(defaultStatusHandlerHolder.exceptionFunction()));
+        }
+        return this;
+    }
+
+    public RestClientConfigure messageConverters() {
+        if (httpExchangeClient.codecConfigurerConsumer() != ClientCodecConfigurerConsumer.class) {
+            log.warn("ClientCodecConfigurerConsumer is not supported by transport {}, ignore {}.", metadata.transport(), httpExchangeClient.codecConfigurerConsumer().getName());
+        }
+        return this;
+    }
+
+    /**
+     * the blocking transports have no write timeout, the jdk {@link HttpClient} times out the response headers
+     * by the response timeout or the read timeout, and by the timeout of each exchange if any, the others time out
+     * each socket read by the read timeout or the response timeout
+     *
+     * @return this
+     */
+    public RestClientConfigure requestFactory() {
+        Duration connectTimeout = resolver.resolveDuration(ClientProperties::getConnectTimeout, httpExchangeClient.connectTimeout());
+        Duration responseTimeout = resolver.resolveDuration(ClientProperties::getResponseTimeout, httpExchangeClient.responseTimeout());
+        Duration readTimeout = resolver.resolveDuration(ClientProperties::getReadTimeout, httpExchangeClient.readTimeout());
+        Duration writeTimeout = resolver.resolveDuration(ClientProperties::getWriteTimeout, httpExchangeClient.writeTimeout());
+        if (Objects.nonNull(writeTimeout)) {
+            log.warn("Write timeout is not supported by transport {}, ignore {}.", metadata.transport(), writeTimeout);
+        }
+        Loop loop = WebClientConfigure.resolveLoop(httpExchangeClient, resolver);
+        if (Objects.nonNull(loop.getName()) || Objects.nonNull(loop.getNativeTransport())) {
+            log.warn("Event loops are not supported by transport {}, ignore {}.", metadata.transport(), loop);
+        }
+        if (resolver.resolve(p -> p.getDns().getEnabled(), null, false)) {
+            log.warn("Dns resolver is not supported by transport {}, ignore the dns settings of client {}.", metadata.transport(), metadata.name());
+        }
+        Pool pool = WebClientConfigure.resolvePool(httpExchangeClient, resolver, environment);
+        Pool named = new Pool();
+        named.setName(pool.getName());
+        if (!named.equals(pool)) {
+            // only the name is used, to share the jdk http client of the pool
+            log.warn("Connection pool settings are not supported by transport {}, ignore {}.", metadata.transport(), pool);
+        }
+        ClientHttpRequestFactory factory;
+        if (metadata.transport() == Transport.JDK_HTTP_CLIENT) {
+            JdkHttpClientRegistry registry = applicationContext.getBeanProvider(JdkHttpClientRegistry.class).getIfAvailable(JdkHttpClientRegistry::new);
+            HttpClient httpClient = registry.getOrCreate(pool.getName(), httpVersion(), connectTimeout);
+            JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+            Duration timeout = Objects.nonNull(responseTimeout) ? responseTimeout : readTimeout;
+            if (Objects.nonNull(timeout)) {
+                requestFactory.setReadTimeout(timeout);
+            }
+            ExchangeTimeouts timeouts = ExchangeTimeouts.create(metadata);
+            factory = Objects.nonNull(timeouts) ? new DeadlineJdkClientHttpRequestFactory(httpClient, requestFactory, timeouts) : requestFactory;
+        } else {
+            List<Protocol> protocols = WebClientConfigure.resolveProtocols(httpExchangeClient, resolver);
+            if (!protocols.isEmpty()) {
+                log.warn("Protocols are not supported by transport {}, ignore {}.", metadata.transport(), protocols);
+            }
+            ClientHttpRequestFactorySettings settings = ClientHttpRequestFactorySettings.DEFAULTS
+                    .withConnectTimeout(connectTimeout)
+                    .withReadTimeout(Objects.nonNull(readTimeout) ? readTimeout : responseTimeout);
+            factory = ClientHttpRequestFactories.get(settings);
+            ExchangeTimeouts timeouts = ExchangeTimeouts.create(metadata);
+            if (Objects.nonNull(timeouts)) {
+                if (DeadlineClientHttpRequestFactory.supports(factory)) {
+                    factory = new DeadlineClientHttpRequestFactory(factory, settings, timeouts);
+                } else if (timeouts.hasMethodTimeouts()) {
+                    log.warn("Per-method timeouts are not supported by {} of transport {}, ignore them of client {}.",
+                            factory.getClass().getSimpleName(), metadata.transport(), metadata.name());
+                }
+            }
+        }
+        for (HttpExchangeClientCustomizer customizer : customizers) {
+            factory = customizer.customizeRequestFactory(metadata, factory);
+        }
+        builder.requestFactory(factory);
+        return this;
+    }
+
+    /**
+     * jdk {@link HttpClient} prefers http/2 when h2 or h2c is configured, h2c is negotiated by the upgrade
+     * as jdk {@link HttpClient} does not support the prior knowledge
+     *
+     * @return {@link HttpClient.Version}, or {@code null} if not configured
+     */
+    private HttpClient.Version httpVersion() {
+        List<Protocol> protocols = WebClientConfigure.resolveProtocols(httpExchangeClient, resolver);
+        if (protocols.isEmpty()) {
+            return null;
+        }
+        return protocols.contains(Protocol.H2) || protocols.contains(Protocol.H2C) ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1;
+    }
+
+    public RestClientConfigure clientCustomizers() {
+        customizers.forEach(customizer -> customizer.customizeRestClient(metadata, builder));
+        return this;
+    }
+
+    public RestClient build() {
+        return builder.build();
+    }
+}
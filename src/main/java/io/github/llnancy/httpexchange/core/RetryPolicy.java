@@ -0,0 +1,67 @@
+package io.github.llnancy.httpexchange.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * retry the failed invocations of an {@link Idempotent} exchange method, or all idempotent methods of an interface,
+ * with exponential backoff and jitter.
+ * <p>
+ * the settings are resolved in the order of {@code httpexchange.clients.<name>.retry.*}, the annotation of the method,
+ * the annotation of the interface and {@code httpexchange.default.retry.*}. empty arrays and strings and negative
+ * numbers mean not set. the retries of a client share its retry budget.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/27
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Documented
+public @interface RetryPolicy {
+
+    /**
+     * the maximum number of attempts including the first one, defaults to 3
+     *
+     * @return max attempts
+     */
+    int maxAttempts() default -1;
+
+    /**
+     * the response status codes to retry, defaults to 502, 503 and 504
+     *
+     * @return statuses
+     */
+    int[] statuses() default {};
+
+    /**
+     * the exceptions to retry, including their subclasses and the exceptions caused by them,
+     * defaults to the i/o errors and timeouts
+     *
+     * @return exceptions
+     */
+    Class<? extends Throwable>[] exceptions() default {};
+
+    /**
+     * the backoff of the first retry, doubled for every following retry, defaults to 100ms
+     *
+     * @return initial backoff
+     */
+    String initialBackoff() default "";
+
+    /**
+     * the maximum backoff, defaults to 2s
+     *
+     * @return max backoff
+     */
+    String maxBackoff() default "";
+
+    /**
+     * the jitter factor between 0 and 1 of the backoff, defaults to 0.5
+     *
+     * @return jitter
+     */
+    double jitter() default -1;
+}
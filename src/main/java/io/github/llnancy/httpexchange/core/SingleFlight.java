@@ -0,0 +1,36 @@
+package io.github.llnancy.httpexchange.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * coalesce the concurrent invocations of a {@code GET} or {@code HEAD} exchange method with equal arguments
+ * into one request, all of them get the same decoded result, which should not be mutated.
+ * <p>
+ * the arguments determine the uri and the headers of the request, so they should implement {@code equals}
+ * and {@code hashCode}. for {@code Mono} methods the request is cancelled only when all subscribers cancel.
+ * only methods returning {@code Mono} or a plain value are supported.
+ * <p>
+ * the headers added per request by the filters, the interceptors or the {@link RequestHeadersSpecConsumer} of
+ * the client are not known when the invocations are coalesced, the annotation is ignored on such clients unless
+ * {@link #sharedHeaders()} declares that they add the same headers for every caller.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/25
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface SingleFlight {
+
+    /**
+     * whether the per-request header sources of the client add the same headers for every caller,
+     * for example no credentials of the caller
+     *
+     * @return {@code true} to coalesce the invocations of a client with per-request header sources
+     */
+    boolean sharedHeaders() default false;
+}
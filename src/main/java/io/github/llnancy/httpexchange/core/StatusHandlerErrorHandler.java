@@ -0,0 +1,51 @@
+package io.github.llnancy.httpexchange.core;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * run the exception function of a {@link DefaultStatusHandlerHolder} on the blocking transports
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/21
+ */
+final class StatusHandlerErrorHandler implements RestClient.ResponseSpec.ErrorHandler {
+
+    private final Function<ClientResponse, Mono<? extends Throwable>> exceptionFunction;
+
+    StatusHandlerErrorHandler(Function<ClientResponse, Mono<? extends Throwable>> exceptionFunction) {
+        this.exceptionFunction = exceptionFunction;
+    }
+
+    @Override
+    @SuppressWarnings("NullableProblems")
+    public void handle(HttpRequest request, ClientHttpResponse response) throws IOException {
+        Throwable ex;
+        try {
+            ex = exceptionFunction.apply(BlockingExchanges.toClientResponse(request, response)).block();
+        } catch (RuntimeException e) {
+            throw BlockingExchanges.rethrow(e);
+        }
+        if (Objects.isNull(ex)) {
+            return;
+        }
+        if (ex instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (ex instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (ex instanceof Error error) {
+            throw error;
+        }
+        throw new RestClientException(ex.getMessage(), ex);
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.llnancy.httpexchange.core;
+
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.http.HttpClient;
+
+/**
+ * the transport of a http exchange client
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/21
+ */
+public enum Transport {
+
+    /**
+     * use the configured transport, or {@link #WEBCLIENT} if not configured
+     */
+    DEFAULT,
+
+    /**
+     * reactive {@link WebClient} over reactor netty
+     */
+    WEBCLIENT,
+
+    /**
+     * blocking {@link RestClient} over the detected blocking request factory
+     * (apache http client 5, jetty client, okhttp or {@link java.net.HttpURLConnection})
+     */
+    REST_CLIENT,
+
+    /**
+     * blocking {@link RestClient} over the jdk {@link HttpClient}, running on virtual threads on JDK 21+
+     */
+    JDK_HTTP_CLIENT
+}
@@ -0,0 +1,555 @@
+package io.github.llnancy.httpexchange.core;
+
+import io.github.llnancy.httpexchange.codec.ExchangeStrategiesRegistry;
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.ClientProperties;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.Loop;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.Pool;
+import io.github.llnancy.httpexchange.connector.ConnectionProviderRegistry;
+import io.github.llnancy.httpexchange.connector.LoopResourcesRegistry;
+import io.github.llnancy.httpexchange.util.ComponentRegistry;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import io.netty.resolver.dns.DefaultDnsCache;
+import io.netty.resolver.dns.DnsAddressResolverGroup;
+import io.netty.resolver.dns.DnsCache;
+import io.netty.resolver.dns.DnsServerAddressStreamProvider;
+import io.netty.resolver.dns.RoundRobinDnsAddressResolverGroup;
+import io.netty.resolver.dns.SequentialDnsServerAddressStreamProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriBuilderFactory;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.HttpResources;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WebClient} configure of a http exchange client
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2023/6/29
+ */
+@Slf4j
+record WebClientConfigure(HttpExchangeClient httpExchangeClient,
+                          WebClient.Builder builder,
+                          ClientPropertiesResolver resolver,
+                          HttpExchangeClientMetadata metadata,
+                          List<HttpExchangeClientCustomizer> customizers,
+                          ComponentRegistry components,
+                          ApplicationContext applicationContext,
+                          Environment environment) {
+
+    /**
+     * convert base url
+     *
+     * @param baseUrl     source baseUrl
+     * @param environment {@link Environment}
+     * @return target baseUrl
+     */
+    static String convertBaseUrl(String baseUrl, Environment environment) {
+        if (StringUtils.hasText(baseUrl)) {
+            baseUrl = environment.resolveRequiredPlaceholders(baseUrl);
+            // 解析 baseUrl 占位符
+            if (!baseUrl.endsWith("/")) {
+                baseUrl += "/";
+            }
+        }
+        return baseUrl;
+    }
+
+    /**
+     * resolve the endpoints of a http exchange client, each one is converted as a base url
+     *
+     * @param httpExchangeClient {@link HttpExchangeClient}
+     * @param resolver           {@link ClientPropertiesResolver}
+     * @param environment        {@link Environment}
+     * @return endpoints, empty if not set
+     */
+    static List<String> resolveEndpoints(HttpExchangeClient httpExchangeClient, ClientPropertiesResolver resolver, Environment environment) {
+        List<String> annotated = Arrays.stream(httpExchangeClient.endpoints())
+                .filter(StringUtils::hasText)
+                .map(environment::resolveRequiredPlaceholders)
+                .flatMap(value -> Arrays.stream(StringUtils.commaDelimitedListToStringArray(value)))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .toList();
+        List<String> endpoints = resolver.resolve(ClientProperties::getEndpoints, annotated.isEmpty() ? null : annotated);
+        if (Objects.isNull(endpoints)) {
+            return List.of();
+        }
+        return endpoints.stream().map(endpoint -> convertBaseUrl(endpoint, environment)).toList();
+    }
+
+    /**
+     * resolve the base url of a http exchange client, the first endpoint if it has endpoints
+     *
+     * @param httpExchangeClient {@link HttpExchangeClient}
+     * @param resolver           {@link ClientPropertiesResolver}
+     * @param environment        {@link Environment}
+     * @return base url
+     */
+    static String resolveBaseUrl(HttpExchangeClient httpExchangeClient, ClientPropertiesResolver resolver, Environment environment) {
+        List<String> endpoints = resolveEndpoints(httpExchangeClient, resolver, environment);
+        return endpoints.isEmpty() ? convertBaseUrl(resolver.resolveString(ClientProperties::getBaseUrl, httpExchangeClient.baseUrl()), environment) : endpoints.get(0);
+    }
+
+    /**
+     * resolve the default headers of a http exchange client, the annotation header is merged with the
+     * {@code headers} properties
+     *
+     * @param httpExchangeClient {@link HttpExchangeClient}
+     * @param resolver           {@link ClientPropertiesResolver}
+     * @return header name to values, empty if not set
+     */
+    static Map<String, List<String>> resolveHeaders(HttpExchangeClient httpExchangeClient, ClientPropertiesResolver resolver) {
+        String headerKey = httpExchangeClient.defaultHeaderKey();
+        String[] headerValues = httpExchangeClient.defaultHeaderValues();
+        Map<String, List<String>> annotated = null;
+        if (StringUtils.hasText(headerKey) && Objects.nonNull(headerValues) && headerValues.length != 0) {
+            annotated = Map.of(headerKey, Arrays.asList(headerValues));
+        }
+        return resolver.merge(ClientProperties::getHeaders, annotated);
+    }
+
+    /**
+     * the default pool name of a base url, clients with the same origin share one pool
+     *
+     * @param baseUrl resolved baseUrl
+     * @return pool name
+     */
+    static String defaultPoolName(String baseUrl) {
+        if (!StringUtils.hasText(baseUrl)) {
+            return "default";
+        }
+        UriComponents uri = UriComponentsBuilder.fromUriString(baseUrl).build();
+        if (!StringUtils.hasText(uri.getHost())) {
+            return baseUrl;
+        }
+        int port = uri.getPort();
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return uri.getScheme() + "://" + uri.getHost() + ":" + port;
+    }
+
+    public WebClientConfigure baseUrl() {
+        builder.baseUrl(resolveBaseUrl(httpExchangeClient, resolver, environment));
+        return this;
+    }
+
+    public WebClientConfigure defaultUriVariables() {
+        Class<? extends DefaultUriVariablesSupplier> clazz = httpExchangeClient.defaultUriVariablesSupplier();
+        DefaultUriVariablesSupplier supplier = null;
+        if (clazz != DefaultUriVariablesSupplier.class) {
+            supplier = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(supplier)) {
+            builder.defaultUriVariables(supplier.supply());
+        }
+        return this;
+    }
+
+    public WebClientConfigure uriBuilderFactory() {
+        Class<? extends UriBuilderFactory> clazz = httpExchangeClient.uriBuilderFactory();
+        UriBuilderFactory uriBuilderFactory = null;
+        if (clazz != UriBuilderFactory.class) {
+            uriBuilderFactory = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(uriBuilderFactory)) {
+            builder.uriBuilderFactory(uriBuilderFactory);
+        }
+        return this;
+    }
+
+    public WebClientConfigure filter() {
+        Class<? extends ExchangeFilterFunction> clazz = httpExchangeClient.filter();
+        ExchangeFilterFunction filterFunction = null;
+        if (clazz != ExchangeFilterFunction.class) {
+            filterFunction = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(filterFunction)) {
+            builder.filter(filterFunction);
+        }
+        return this;
+    }
+
+    public WebClientConfigure filters() {
+        Class<? extends ExchangeFilterFunctionsConsumer> clazz = httpExchangeClient.filtersConsumer();
+        ExchangeFilterFunctionsConsumer functionsConsumer = null;
+        if (clazz != ExchangeFilterFunctionsConsumer.class) {
+            functionsConsumer = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(functionsConsumer)) {
+            builder.filters(functionsConsumer.consume());
+        }
+        return this;
+    }
+
+    public WebClientConfigure requestInterceptors() {
+        if (httpExchangeClient.requestInterceptorsConsumer() != ClientHttpRequestInterceptorsConsumer.class) {
+            log.warn("ClientHttpRequestInterceptorsConsumer is not supported by transport {}, ignore {}.", metadata.transport(), httpExchangeClient.requestInterceptorsConsumer().getName());
+        }
+        return this;
+    }
+
+    public WebClientConfigure defaultHeader() {
+        resolveHeaders(httpExchangeClient, resolver).forEach((name, values) -> builder.defaultHeader(name, values.toArray(String[]::new)));
+        return this;
+    }
+
+    public WebClientConfigure defaultHeaders() {
+        Class<? extends HttpHeadersConsumer> clazz = httpExchangeClient.httpHeadersConsumer();
+        HttpHeadersConsumer consumer = null;
+        if (clazz != HttpHeadersConsumer.class) {
+            consumer = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(consumer)) {
+            builder.defaultHeaders(consumer.consume());
+        }
+        return this;
+    }
+
+    public WebClientConfigure defaultCookie() {
+        String cookieKey = httpExchangeClient.defaultCookieKey();
+        String[] cookieValues = httpExchangeClient.defaultCookieValues();
+        if (StringUtils.hasText(cookieKey) && Objects.nonNull(cookieValues) && cookieValues.length != 0) {
+            builder.defaultCookie(cookieKey, cookieValues);
+        }
+        return this;
+    }
+
+    public WebClientConfigure defaultCookies() {
+        Class<? extends CookiesConsumer> clazz = httpExchangeClient.cookiesConsumer();
+        CookiesConsumer consumer = null;
+        if (clazz != CookiesConsumer.class) {
+            consumer = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(consumer)) {
+            builder.defaultCookies(consumer.consume());
+        }
+        return this;
+    }
+
+    /**
+     * copy the invoked {@link HttpExchangeMethod} and the invocation attributes into the request attributes,
+     * the default request consumer runs on the invoking thread while the request is built
+     *
+     * @return this
+     */
+    public WebClientConfigure exchangeMethodAttribute() {
+        builder.defaultRequest(spec -> {
+            HttpExchangeMethod method = HttpExchangeMethodContext.current();
+            if (Objects.nonNull(method)) {
+                spec.attribute(HttpExchangeMethodContext.ATTRIBUTE, method);
+                HttpExchangeMethodContext.forEachAttribute(spec::attribute);
+            }
+        });
+        return this;
+    }
+
+    public WebClientConfigure requestHeadersSpec() {
+        Class<? extends RequestHeadersSpecConsumer> clazz = httpExchangeClient.requestHeadersSpecConsumer();
+        RequestHeadersSpecConsumer consumer = null;
+        if (clazz != RequestHeadersSpecConsumer.class) {
+            consumer = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(consumer)) {
+            builder.defaultRequest(consumer.consume());
+        }
+        return this;
+    }
+
+    public WebClientConfigure defaultStatusHandler() {
+        Class<? extends DefaultStatusHandlerHolder> clazz = httpExchangeClient.defaultStatusHandlerHolder();
+        DefaultStatusHandlerHolder defaultStatusHandlerHolder = null;
+        if (clazz != DefaultStatusHandlerHolder.class) {
+            defaultStatusHandlerHolder = components.getOrCreate(clazz);
+        }
+        if (Objects.nonNull(defaultStatusHandlerHolder)) {
+            builder.defaultStatusHandler(defaultStatusHandlerHolder.statusPredicate(), defaultStatusHandlerHolder.exceptionFunction());
+        }
+        return this;
+    }
+
+    /**
+     * clients with the same {@link ClientCodecConfigurerConsumer} class and max in memory size share one {@link ExchangeStrategies}
+     *
+     * @return this
+     */
+    public WebClientConfigure exchangeStrategies() {
+        Class<? extends ClientCodecConfigurerConsumer> clazz = httpExchangeClient.codecConfigurerConsumer();
+        ExchangeStrategiesRegistry registry = applicationContext.getBeanProvider(ExchangeStrategiesRegistry.class).getIfAvailable(ExchangeStrategiesRegistry::new);
+        builder.exchangeStrategies(registry.getOrCreate(
+                clazz != ClientCodecConfigurerConsumer.class ? clazz : null,
+                () -> components.getOrCreate(clazz),
+                resolver.resolve(p -> p.getCodec().getMaxInMemorySize())
+        ));
+        return this;
+    }
+
+    /**
+     * clients with the same pool name share one pool of the {@link ConnectionProviderRegistry}, without the registry
+     * the client runs on the global pool of reactor netty and only the pool settings are ignored
+     *
+     * @return this
+     */
+    public WebClientConfigure clientConnector() {
+        ConnectionProviderRegistry registry = applicationContext.getBeanProvider(ConnectionProviderRegistry.class).getIfAvailable();
+        List<Protocol> protocols = resolveProtocols(httpExchangeClient, resolver);
+        boolean http2 = protocols.contains(Protocol.H2) || protocols.contains(Protocol.H2C);
+        Pool pool = resolvePool(httpExchangeClient, resolver, environment);
+        HttpClient httpClient;
+        if (Objects.nonNull(registry)) {
+            httpClient = HttpClient.create(registry.getOrCreate(pool, http2));
+        } else {
+            Pool unset = new Pool();
+            unset.setName(pool.getName());
+            if (!unset.equals(pool)) {
+                log.warn("No ConnectionProviderRegistry bean, ignore the connection pool settings {} of client {}, use the global pool.", pool, metadata.name());
+            }
+            httpClient = HttpClient.create();
+        }
+        httpClient = timeouts(protocol(dns(resolver, loop(httpClient))));
+        for (HttpExchangeClientCustomizer customizer : customizers) {
+            httpClient = customizer.customizeHttpClient(metadata, httpClient);
+        }
+        builder.clientConnector(new ReactorClientHttpConnector(httpClient));
+        return this;
+    }
+
+    /**
+     * the read and write timeout handlers are added for each request, they are removed when the connection
+     * is released, so the idle connections in the pool are not closed by them
+     *
+     * @param httpClient {@link HttpClient}
+     * @return configured {@link HttpClient}
+     */
+    private HttpClient timeouts(HttpClient httpClient) {
+        Duration connectTimeout = resolver.resolveDuration(ClientProperties::getConnectTimeout, httpExchangeClient.connectTimeout());
+        if (Objects.nonNull(connectTimeout)) {
+            httpClient = httpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis());
+        }
+        Duration responseTimeout = resolver.resolveDuration(ClientProperties::getResponseTimeout, httpExchangeClient.responseTimeout());
+        if (Objects.nonNull(responseTimeout)) {
+            httpClient = httpClient.responseTimeout(responseTimeout);
+        }
+        Duration readTimeout = resolver.resolveDuration(ClientProperties::getReadTimeout, httpExchangeClient.readTimeout());
+        Duration writeTimeout = resolver.resolveDuration(ClientProperties::getWriteTimeout, httpExchangeClient.writeTimeout());
+        if (Objects.nonNull(readTimeout) || Objects.nonNull(writeTimeout)) {
+            httpClient = httpClient.doOnRequest((request, connection) -> {
+                if (Objects.nonNull(readTimeout)) {
+                    connection.addHandlerLast(new ReadTimeoutHandler(readTimeout.toMillis(), TimeUnit.MILLISECONDS));
+                }
+                if (Objects.nonNull(writeTimeout)) {
+                    connection.addHandlerLast(new WriteTimeoutHandler(writeTimeout.toMillis(), TimeUnit.MILLISECONDS));
+                }
+            });
+        }
+        return httpClient;
+    }
+
+    /**
+     * run the client on the event loops of its group, or on the global ones of reactor netty
+     *
+     * @param httpClient {@link HttpClient}
+     * @return configured {@link HttpClient}
+     */
+    private HttpClient loop(HttpClient httpClient) {
+        Loop loop = resolveLoop(httpExchangeClient, resolver);
+        if (Objects.isNull(loop.getName()) && Objects.isNull(loop.getNativeTransport())) {
+            return httpClient;
+        }
+        boolean preferNative = LoopResourcesRegistry.preferNative(metadata.name(), loop.getNativeTransport());
+        LoopResourcesRegistry registry = applicationContext.getBeanProvider(LoopResourcesRegistry.class).getIfAvailable();
+        if (Objects.nonNull(loop.getName()) && Objects.nonNull(registry)) {
+            return httpClient.runOn(registry.getOrCreate(loop), preferNative);
+        }
+        return httpClient.runOn(HttpResources.get(), preferNative);
+    }
+
+    /**
+     * resolve the event loop settings of a http exchange client
+     *
+     * @param httpExchangeClient {@link HttpExchangeClient}
+     * @param resolver           {@link ClientPropertiesResolver}
+     * @return resolved {@link Loop}, the name is {@code null} if the client has no dedicated event loops
+     */
+    static Loop resolveLoop(HttpExchangeClient httpExchangeClient, ClientPropertiesResolver resolver) {
+        EventLoop annotation = httpExchangeClient.loop();
+        Loop loop = new Loop();
+        loop.setName(resolver.resolveString(p -> p.getLoop().getName(), annotation.name()));
+        loop.setThreads(resolver.resolveInt(p -> p.getLoop().getThreads(), annotation.threads()));
+        loop.setNativeTransport(resolver.resolve(p -> p.getLoop().getNativeTransport(), annotation.nativeTransport() == NativeTransport.DEFAULT ? null : annotation.nativeTransport()));
+        if (!StringUtils.hasText(loop.getName())) {
+            loop.setName(Objects.nonNull(loop.getThreads()) ? resolver.clientName() : null);
+        }
+        return loop;
+    }
+
+    /**
+     * resolve the addresses by the netty async dns resolver when enabled, the resolved records are cached
+     * per client within the configured time to live
+     *
+     * @param resolver   {@link ClientPropertiesResolver}
+     * @param httpClient {@link HttpClient}
+     * @return configured {@link HttpClient}
+     */
+    static HttpClient dns(ClientPropertiesResolver resolver, HttpClient httpClient) {
+        if (!resolver.resolve(p -> p.getDns().getEnabled(), null, false)) {
+            return httpClient;
+        }
+        Duration minTtl = resolver.resolve(p -> p.getDns().getMinTtl());
+        Duration maxTtl = resolver.resolve(p -> p.getDns().getMaxTtl());
+        Duration negativeTtl = resolver.resolve(p -> p.getDns().getNegativeTtl());
+        Duration queryTimeout = resolver.resolve(p -> p.getDns().getQueryTimeout());
+        List<String> searchDomains = resolver.resolve(p -> p.getDns().getSearchDomains());
+        List<String> servers = resolver.resolve(p -> p.getDns().getServers());
+        boolean roundRobin = resolver.resolve(p -> p.getDns().getRoundRobin(), null, false);
+        // the resolvers of the event loops share the cache, otherwise each event loop caches the records on its own
+        DnsCache cache = new DefaultDnsCache(ttlSeconds(minTtl, 0), ttlSeconds(maxTtl, Integer.MAX_VALUE), ttlSeconds(negativeTtl, 0));
+        return httpClient.resolver(spec -> {
+            spec.resolveCache(cache);
+            if (Objects.nonNull(queryTimeout)) {
+                spec.queryTimeout(queryTimeout);
+            }
+            if (Objects.nonNull(searchDomains)) {
+                spec.searchDomains(searchDomains);
+            }
+            spec.roundRobinSelection(roundRobin);
+            if (Objects.nonNull(servers) && !servers.isEmpty()) {
+                DnsServerAddressStreamProvider nameServers = new SequentialDnsServerAddressStreamProvider(
+                        servers.stream().map(WebClientConfigure::nameServer).toArray(InetSocketAddress[]::new));
+                spec.dnsAddressResolverGroupProvider(builder -> {
+                    builder.nameServerProvider(nameServers);
+                    return roundRobin ? new RoundRobinDnsAddressResolverGroup(builder) : new DnsAddressResolverGroup(builder);
+                });
+            }
+        });
+    }
+
+    private static int ttlSeconds(Duration ttl, int defaultSeconds) {
+        return Objects.nonNull(ttl) ? (int) Math.min(Math.max(ttl.getSeconds(), 0), Integer.MAX_VALUE) : defaultSeconds;
+    }
+
+    /**
+     * parse a name server address
+     *
+     * @param server host:port, [ipv6]:port or host
+     * @return {@link InetSocketAddress}, the port defaults to 53
+     */
+    private static InetSocketAddress nameServer(String server) {
+        String host = server.trim();
+        int port = 53;
+        int colon = host.lastIndexOf(':');
+        if (host.startsWith("[")) {
+            int end = host.indexOf(']');
+            if (colon > end) {
+                port = Integer.parseInt(host.substring(colon + 1));
+            }
+            host = host.substring(1, end);
+        } else if (colon > 0 && colon == host.indexOf(':')) {
+            port = Integer.parseInt(host.substring(colon + 1));
+            host = host.substring(0, colon);
+        }
+        return new InetSocketAddress(host, port);
+    }
+
+    /**
+     * negotiate h2 by alpn when the client prefers h2 and its endpoints are https,
+     * h2 requests of a http endpoint fail, so h2 alone needs https endpoints
+     *
+     * @param httpClient {@link HttpClient}
+     * @return configured {@link HttpClient}
+     */
+    private HttpClient protocol(HttpClient httpClient) {
+        List<Protocol> protocols = resolveProtocols(httpExchangeClient, resolver);
+        if (protocols.isEmpty()) {
+            return httpClient;
+        }
+        httpClient = httpClient.protocol(protocols.stream().map(protocol -> switch (protocol) {
+            case HTTP11 -> HttpProtocol.HTTP11;
+            case H2 -> HttpProtocol.H2;
+            case H2C -> HttpProtocol.H2C;
+        }).toArray(HttpProtocol[]::new));
+        if (protocols.contains(Protocol.H2)) {
+            String baseUrl = resolveBaseUrl(httpExchangeClient, resolver, environment);
+            if (StringUtils.startsWithIgnoreCase(baseUrl, "https:")) {
+                httpClient = httpClient.secure(spec -> spec.sslContext(Http2SslContextSpec.forClient()));
+            } else if (protocols.size() == 1) {
+                log.warn("Protocol H2 of client {} requires a https base url, use H2C for cleartext, base url {}.", metadata.name(), baseUrl);
+            }
+        }
+        return httpClient;
+    }
+
+    /**
+     * resolve the http protocols of a http exchange client
+     *
+     * @param httpExchangeClient {@link HttpExchangeClient}
+     * @param resolver           {@link ClientPropertiesResolver}
+     * @return distinct protocols in the order of preference, empty if not set
+     */
+    static List<Protocol> resolveProtocols(HttpExchangeClient httpExchangeClient, ClientPropertiesResolver resolver) {
+        List<Protocol> annotated = Arrays.asList(httpExchangeClient.protocols());
+        List<Protocol> protocols = resolver.resolve(ClientProperties::getProtocols, annotated.isEmpty() ? null : annotated);
+        return Objects.isNull(protocols) ? List.of() : protocols.stream().distinct().toList();
+    }
+
+    /**
+     * resolve the connection pool settings of a http exchange client
+     *
+     * @param httpExchangeClient {@link HttpExchangeClient}
+     * @param resolver           {@link ClientPropertiesResolver}
+     * @param environment        {@link Environment}
+     * @return resolved {@link Pool}
+     */
+    static Pool resolvePool(HttpExchangeClient httpExchangeClient, ClientPropertiesResolver resolver, Environment environment) {
+        ConnectionPool annotation = httpExchangeClient.pool();
+        Pool pool = new Pool();
+        pool.setName(resolver.resolveString(p -> p.getPool().getName(), annotation.name()));
+        if (!StringUtils.hasText(pool.getName())) {
+            // the pooled connections are bound to the event loops which open them, so each group has its own pools
+            String group = resolveLoop(httpExchangeClient, resolver).getName();
+            String poolName = defaultPoolName(resolveBaseUrl(httpExchangeClient, resolver, environment));
+            pool.setName(Objects.nonNull(group) ? poolName + "@" + group : poolName);
+        }
+        pool.setMaxConnections(resolver.resolveInt(p -> p.getPool().getMaxConnections(), annotation.maxConnections()));
+        pool.setMinConnections(resolver.resolveInt(p -> p.getPool().getMinConnections(), annotation.minConnections()));
+        pool.setMaxConcurrentStreams(resolver.resolveInt(p -> p.getPool().getMaxConcurrentStreams(), annotation.maxConcurrentStreams()));
+        pool.setPendingAcquireMaxCount(resolver.resolveInt(p -> p.getPool().getPendingAcquireMaxCount(), annotation.pendingAcquireMaxCount()));
+        pool.setPendingAcquireTimeout(resolver.resolveDuration(p -> p.getPool().getPendingAcquireTimeout(), annotation.pendingAcquireTimeout()));
+        pool.setMaxIdleTime(resolver.resolveDuration(p -> p.getPool().getMaxIdleTime(), annotation.maxIdleTime()));
+        pool.setMaxLifeTime(resolver.resolveDuration(p -> p.getPool().getMaxLifeTime(), annotation.maxLifeTime()));
+        pool.setEvictInBackground(resolver.resolveDuration(p -> p.getPool().getEvictInBackground(), annotation.evictInBackground()));
+        pool.setLeasing(resolver.resolve(p -> p.getPool().getLeasing(), annotation.leasing() == ConnectionPool.Leasing.DEFAULT ? null : annotation.leasing()));
+        pool.setMetricsEnabled(resolver.resolve(p -> p.getPool().getMetricsEnabled()));
+        return pool;
+    }
+
+    public WebClientConfigure clientCustomizers() {
+        customizers.forEach(customizer -> customizer.customizeWebClient(metadata, builder));
+        return this;
+    }
+
+    public WebClient build() {
+        return builder.build();
+    }
+}
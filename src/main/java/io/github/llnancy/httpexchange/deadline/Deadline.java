@@ -0,0 +1,125 @@
+package io.github.llnancy.httpexchange.deadline;
+
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * the point in time after which nobody waits for the result of the current work.
+ * <p>
+ * a deadline is carried in the reactor context under {@link #CONTEXT_KEY}, or made current on the invoking thread
+ * by {@link #makeCurrent()}, and crosses services as the remaining milliseconds in the {@link #HEADER} header.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public final class Deadline {
+
+    /**
+     * the header which carries the remaining milliseconds of the deadline
+     */
+    public static final String HEADER = "X-Request-Timeout";
+
+    /**
+     * the reactor context key of the deadline
+     */
+    public static final String CONTEXT_KEY = Deadline.class.getName();
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long nanoTime;
+
+    private Deadline(long nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * a deadline after the timeout from now
+     *
+     * @param timeout the timeout
+     * @return {@link Deadline}
+     */
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * parse the value of the {@link #HEADER} header
+     *
+     * @param header the header value
+     * @return {@link Deadline}, or {@code null} if the value is not a number of milliseconds
+     */
+    public static Deadline parse(String header) {
+        if (!StringUtils.hasText(header)) {
+            return null;
+        }
+        try {
+            return after(Duration.ofMillis(Long.parseLong(header.trim())));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * the deadline made current on the current thread
+     *
+     * @return {@link Deadline}, or {@code null}
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * make this deadline current on the current thread until the returned scope is closed
+     *
+     * @return {@link Scope}
+     */
+    public Scope makeCurrent() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (Objects.isNull(previous)) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * the remaining time, negative if expired
+     *
+     * @return remaining time
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(nanoTime - System.nanoTime());
+    }
+
+    /**
+     * whether the deadline has passed
+     *
+     * @return {@code true} if expired
+     */
+    public boolean isExpired() {
+        return nanoTime - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[remaining=" + remaining() + "]";
+    }
+
+    /**
+     * the scope of a current deadline
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        /**
+         * restore the previous deadline of the current thread
+         */
+        @Override
+        void close();
+    }
+}
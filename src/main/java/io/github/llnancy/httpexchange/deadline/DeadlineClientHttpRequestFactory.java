@@ -0,0 +1,122 @@
+package io.github.llnancy.httpexchange.deadline;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ReactorNettyClientRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.lang.NonNull;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * creates the requests of the {@code REST_CLIENT} transport limited by the timeout of each exchange.
+ * <p>
+ * the jdk {@code HttpURLConnection} requests are created by one factory with the settings of the default factory,
+ * which sets the read timeout of each connection. the reactor netty exchanges without a timeout use the default factory,
+ * the others share one {@link HttpClient}. the exchange timeout is a setting of the spring factory, so a factory which
+ * only holds the settings wraps the shared client for each of them.
+ * the other factories are not supported, see {@link #supports(ClientHttpRequestFactory)}.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public final class DeadlineClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private static final Duration MIN_TIMEOUT = Duration.ofMillis(1);
+
+    private final ClientHttpRequestFactory defaultFactory;
+
+    private final ExchangeTimeouts timeouts;
+
+    private final SimpleClientHttpRequestFactory simpleFactory;
+
+    private final HttpClient httpClient;
+
+    /**
+     * constructor
+     *
+     * @param defaultFactory the factory of the exchanges without a timeout
+     * @param settings       the settings the default factory was created with
+     * @param timeouts       {@link ExchangeTimeouts}
+     */
+    public DeadlineClientHttpRequestFactory(ClientHttpRequestFactory defaultFactory, ClientHttpRequestFactorySettings settings, ExchangeTimeouts timeouts) {
+        this.defaultFactory = defaultFactory;
+        this.timeouts = timeouts;
+        if (defaultFactory instanceof ReactorNettyClientRequestFactory) {
+            this.simpleFactory = null;
+            // the same global resources and compression as the spring factory
+            HttpClient client = HttpClient.create().compress(true);
+            if (Objects.nonNull(settings.connectTimeout())) {
+                client = client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.connectTimeout().toMillis());
+            }
+            this.httpClient = client;
+        } else {
+            this.simpleFactory = new TimeoutSimpleClientHttpRequestFactory();
+            if (Objects.nonNull(settings.connectTimeout())) {
+                this.simpleFactory.setConnectTimeout(settings.connectTimeout());
+            }
+            if (Objects.nonNull(settings.readTimeout())) {
+                this.simpleFactory.setReadTimeout(settings.readTimeout());
+            }
+            this.httpClient = null;
+        }
+    }
+
+    /**
+     * whether the timeouts of the exchanges are supported by a factory
+     *
+     * @param factory {@link ClientHttpRequestFactory}
+     * @return {@code true} for the jdk {@code HttpURLConnection} and the reactor netty factories
+     */
+    public static boolean supports(ClientHttpRequestFactory factory) {
+        return factory instanceof SimpleClientHttpRequestFactory || factory instanceof ReactorNettyClientRequestFactory;
+    }
+
+    @Override
+    @NonNull
+    public ClientHttpRequest createRequest(@NonNull URI uri, @NonNull HttpMethod httpMethod) throws IOException {
+        if (Objects.nonNull(simpleFactory)) {
+            return simpleFactory.createRequest(uri, httpMethod);
+        }
+        Duration timeout = timeout();
+        if (Objects.isNull(timeout)) {
+            return defaultFactory.createRequest(uri, httpMethod);
+        }
+        ReactorNettyClientRequestFactory factory = new ReactorNettyClientRequestFactory(httpClient);
+        // the response headers are awaited by the exchange timeout, the read timeout only limits the body
+        factory.setExchangeTimeout(timeout);
+        factory.setReadTimeout(timeout);
+        return factory.createRequest(uri, httpMethod);
+    }
+
+    private Duration timeout() {
+        Duration timeout = timeouts.timeout(HttpExchangeMethodContext.current(), Deadline.current());
+        // the timeouts are in milliseconds, a zero one means infinite
+        return Objects.nonNull(timeout) && timeout.compareTo(MIN_TIMEOUT) < 0 ? MIN_TIMEOUT : timeout;
+    }
+
+    /**
+     * sets the timeout of the exchange as the read timeout of its connection, the connection is prepared
+     * on the invoking thread
+     */
+    private final class TimeoutSimpleClientHttpRequestFactory extends SimpleClientHttpRequestFactory {
+
+        @Override
+        protected void prepareConnection(@NonNull HttpURLConnection connection, @NonNull String httpMethod) throws IOException {
+            super.prepareConnection(connection, httpMethod);
+            Duration timeout = timeout();
+            if (Objects.nonNull(timeout)) {
+                connection.setReadTimeout((int) Math.min(timeout.toMillis(), Integer.MAX_VALUE));
+            }
+        }
+    }
+}
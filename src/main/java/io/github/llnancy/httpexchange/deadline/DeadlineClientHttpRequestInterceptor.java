@@ -0,0 +1,40 @@
+package io.github.llnancy.httpexchange.deadline;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * fails the exchanges of the blocking transports whose deadline has passed, and propagates the timeout in the
+ * {@link Deadline#HEADER} header, the deadline is the current one of the invoking thread.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+final class DeadlineClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final ExchangeTimeouts timeouts;
+
+    DeadlineClientHttpRequestInterceptor(ExchangeTimeouts timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    @Override
+    @NonNull
+    public ClientHttpResponse intercept(@NonNull HttpRequest request, @NonNull byte[] body, @NonNull ClientHttpRequestExecution execution) throws IOException {
+        if (timeouts.propagation()) {
+            Duration timeout = timeouts.timeout(HttpExchangeMethodContext.current(), Deadline.current());
+            if (Objects.nonNull(timeout)) {
+                request.getHeaders().set(Deadline.HEADER, String.valueOf(timeout.toMillis()));
+            }
+        }
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.llnancy.httpexchange.deadline;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Objects;
+
+/**
+ * installs the per-method timeouts and the deadline propagation on a http exchange client
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public final class DeadlineCustomizer implements HttpExchangeClientCustomizer {
+
+    private final ExchangeTimeouts timeouts;
+
+    private DeadlineCustomizer(ExchangeTimeouts timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * create the customizer of a client
+     *
+     * @param metadata {@link HttpExchangeClientMetadata}
+     * @return {@link DeadlineCustomizer}, or {@code null} if the client has no method timeout and does not propagate deadlines
+     */
+    public static DeadlineCustomizer create(HttpExchangeClientMetadata metadata) {
+        ExchangeTimeouts timeouts = ExchangeTimeouts.create(metadata);
+        return Objects.nonNull(timeouts) ? new DeadlineCustomizer(timeouts) : null;
+    }
+
+    @Override
+    public void customizeWebClient(HttpExchangeClientMetadata metadata, WebClient.Builder builder) {
+        if (timeouts.propagation()) {
+            // the default request consumer runs on the invoking thread
+            builder.defaultRequest(spec -> {
+                Deadline deadline = Deadline.current();
+                if (Objects.nonNull(deadline)) {
+                    spec.attribute(Deadline.CONTEXT_KEY, deadline);
+                }
+            });
+        }
+        builder.filter(new DeadlineExchangeFilterFunction(timeouts));
+    }
+
+    @Override
+    public void customizeRestClient(HttpExchangeClientMetadata metadata, RestClient.Builder builder) {
+        builder.requestInterceptor(new DeadlineClientHttpRequestInterceptor(timeouts));
+    }
+}
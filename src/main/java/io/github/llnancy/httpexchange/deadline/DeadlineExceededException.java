@@ -0,0 +1,21 @@
+package io.github.llnancy.httpexchange.deadline;
+
+/**
+ * thrown when the deadline of an exchange has passed before the request is sent.
+ * <p>
+ * it has no stack trace and no suppressed exceptions.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    /**
+     * constructor
+     *
+     * @param method the exchange method
+     */
+    public DeadlineExceededException(Object method) {
+        super("Deadline exceeded before sending the request of " + method + ".", null, false, false);
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.llnancy.httpexchange.deadline;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * applies the timeout of each exchange as the reactor netty response timeout of the request, and propagates it
+ * in the {@link Deadline#HEADER} header.
+ * <p>
+ * the deadline is read from the reactor context of the subscriber, or from the request attribute copied from the
+ * invoking thread.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+final class DeadlineExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final ExchangeTimeouts timeouts;
+
+    DeadlineExchangeFilterFunction(ExchangeTimeouts timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    @Override
+    @NonNull
+    public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+        Object method = request.attributes().get(HttpExchangeMethodContext.ATTRIBUTE);
+        return Mono.deferContextual(context -> {
+            Deadline deadline = null;
+            if (timeouts.propagation()) {
+                deadline = context.getOrDefault(Deadline.CONTEXT_KEY, (Deadline) request.attributes().get(Deadline.CONTEXT_KEY));
+            }
+            Duration timeout = timeouts.timeout(method, deadline);
+            if (Objects.isNull(timeout)) {
+                return next.exchange(request);
+            }
+            ClientRequest.Builder builder = ClientRequest.from(request).httpRequest(httpRequest -> {
+                if (httpRequest.getNativeRequest() instanceof HttpClientRequest reactorRequest) {
+                    reactorRequest.responseTimeout(timeout);
+                }
+            });
+            if (timeouts.propagation()) {
+                builder.header(Deadline.HEADER, String.valueOf(timeout.toMillis()));
+            }
+            return next.exchange(builder.build());
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.llnancy.httpexchange.deadline;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * creates the requests of the jdk {@link HttpClient} transport with the timeout of each exchange as the request timeout,
+ * the exchanges without a timeout use the default factory.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public final class DeadlineJdkClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final HttpClient httpClient;
+
+    private final Executor executor;
+
+    private final ClientHttpRequestFactory defaultFactory;
+
+    private final ExchangeTimeouts timeouts;
+
+    /**
+     * constructor
+     *
+     * @param httpClient     the shared jdk {@link HttpClient}
+     * @param defaultFactory the factory of the exchanges without a timeout
+     * @param timeouts       {@link ExchangeTimeouts}
+     */
+    public DeadlineJdkClientHttpRequestFactory(HttpClient httpClient, ClientHttpRequestFactory defaultFactory, ExchangeTimeouts timeouts) {
+        this.httpClient = httpClient;
+        this.executor = httpClient.executor().orElseGet(SimpleAsyncTaskExecutor::new);
+        this.defaultFactory = defaultFactory;
+        this.timeouts = timeouts;
+    }
+
+    @Override
+    @NonNull
+    public ClientHttpRequest createRequest(@NonNull URI uri, @NonNull HttpMethod httpMethod) throws IOException {
+        Duration timeout = timeouts.timeout(HttpExchangeMethodContext.current(), Deadline.current());
+        if (Objects.isNull(timeout)) {
+            return defaultFactory.createRequest(uri, httpMethod);
+        }
+        // the factory only holds the settings, the connections belong to the shared client
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient, executor);
+        factory.setReadTimeout(timeout);
+        return factory.createRequest(uri, httpMethod);
+    }
+}
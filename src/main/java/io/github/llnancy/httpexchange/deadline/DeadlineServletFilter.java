@@ -0,0 +1,42 @@
+package io.github.llnancy.httpexchange.deadline;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * makes the deadline of the {@link Deadline#HEADER} header of an inbound servlet request current on the handling thread,
+ * so the blocking outbound exchanges of the clients which propagate deadlines are limited by it
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public class DeadlineServletFilter extends OncePerRequestFilter implements Ordered {
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Deadline deadline = Deadline.parse(request.getHeader(Deadline.HEADER));
+        if (Objects.isNull(deadline)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Deadline.Scope scope = deadline.makeCurrent();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.llnancy.httpexchange.deadline;
+
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+
+/**
+ * puts the deadline of the {@link Deadline#HEADER} header of an inbound webflux request into the reactor context,
+ * so the outbound exchanges of the clients which propagate deadlines are limited by it
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public class DeadlineWebFilter implements WebFilter, Ordered {
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        Deadline deadline = Deadline.parse(exchange.getRequest().getHeaders().getFirst(Deadline.HEADER));
+        if (Objects.isNull(deadline)) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).contextWrite(context -> context.put(Deadline.CONTEXT_KEY, deadline));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
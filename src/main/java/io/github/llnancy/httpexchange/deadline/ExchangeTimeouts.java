@@ -0,0 +1,98 @@
+package io.github.llnancy.httpexchange.deadline;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.core.ExchangeTimeout;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * the per-method timeouts and the deadline propagation of a http exchange client.
+ * <p>
+ * the timeout of an exchange is the lower one of the method timeout and the remaining time of the propagated deadline.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public final class ExchangeTimeouts {
+
+    private final Map<HttpExchangeMethod, Duration> timeouts;
+
+    private final boolean propagation;
+
+    private ExchangeTimeouts(Map<HttpExchangeMethod, Duration> timeouts, boolean propagation) {
+        this.timeouts = timeouts;
+        this.propagation = propagation;
+    }
+
+    /**
+     * create the timeouts of a client
+     *
+     * @param metadata {@link HttpExchangeClientMetadata}
+     * @return {@link ExchangeTimeouts}, or {@code null} if the client has no method timeout and does not propagate deadlines
+     */
+    public static ExchangeTimeouts create(HttpExchangeClientMetadata metadata) {
+        ClientPropertiesResolver resolver = metadata.properties();
+        Map<HttpExchangeMethod, Duration> timeouts = new IdentityHashMap<>();
+        for (HttpExchangeMethod method : metadata.methods().values()) {
+            ExchangeTimeout annotation = AnnotatedElementUtils.findMergedAnnotation(method.method(), ExchangeTimeout.class);
+            if (Objects.isNull(annotation)) {
+                annotation = AnnotatedElementUtils.findMergedAnnotation(metadata.clientInterface(), ExchangeTimeout.class);
+            }
+            String name = method.method().getName();
+            Duration timeout = resolver.resolve(p -> Objects.nonNull(p.getMethodTimeouts()) ? p.getMethodTimeouts().get(name) : null,
+                    Objects.nonNull(annotation) ? resolver.resolveDuration(annotation.value()) : null);
+            if (Objects.nonNull(timeout) && timeout.compareTo(Duration.ZERO) > 0) {
+                timeouts.put(method, timeout);
+            }
+        }
+        boolean propagation = resolver.resolve(p -> p.getDeadline().getPropagationEnabled(), null, false);
+        if (timeouts.isEmpty() && !propagation) {
+            return null;
+        }
+        return new ExchangeTimeouts(timeouts, propagation);
+    }
+
+    /**
+     * whether the client has method timeouts
+     *
+     * @return {@code true} if any method has a timeout
+     */
+    public boolean hasMethodTimeouts() {
+        return !timeouts.isEmpty();
+    }
+
+    /**
+     * whether the client propagates deadlines
+     *
+     * @return {@code true} if propagated
+     */
+    public boolean propagation() {
+        return propagation;
+    }
+
+    /**
+     * the timeout of an exchange
+     *
+     * @param method   the {@link HttpExchangeMethod}, or {@code null}
+     * @param deadline the propagated {@link Deadline}, or {@code null}, ignored if the client does not propagate deadlines
+     * @return timeout, or {@code null} if not limited
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public Duration timeout(Object method, Deadline deadline) {
+        Duration timeout = Objects.nonNull(method) ? timeouts.get(method) : null;
+        if (!propagation || Objects.isNull(deadline)) {
+            return timeout;
+        }
+        Duration remaining = deadline.remaining();
+        if (remaining.compareTo(Duration.ZERO) <= 0) {
+            throw new DeadlineExceededException(method);
+        }
+        return Objects.isNull(timeout) || remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.llnancy.httpexchange.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * the build-time index of the {@code @HttpExchangeClient} interfaces written by {@link HttpExchangeClientIndexProcessor},
+ * one fully qualified interface name per line in {@value #LOCATION}.
+ * <p>
+ * each index file only lists the interfaces of its own classpath root, e.g. a jar or a classes directory, so a
+ * package is only covered by the index when all the roots which contain the package have an index file.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/26
+ */
+public final class HttpExchangeClientIndex {
+
+    /**
+     * the location of the index files
+     */
+    public static final String LOCATION = "META-INF/httpexchange.clients";
+
+    /**
+     * the property to ignore the index files and scan the classpath, {@value}
+     */
+    public static final String IGNORE_PROPERTY = "httpexchange.index.ignore";
+
+    private final Set<String> interfaceNames;
+
+    private final Set<String> roots;
+
+    private HttpExchangeClientIndex(Set<String> interfaceNames, Set<String> roots) {
+        this.interfaceNames = interfaceNames;
+        this.roots = roots;
+    }
+
+    /**
+     * load the index files of the class loader
+     *
+     * @param classLoader {@link ClassLoader}
+     * @return {@link HttpExchangeClientIndex}, or {@code null} if there is no index file
+     */
+    public static HttpExchangeClientIndex load(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> urls = classLoader.getResources(LOCATION);
+            if (!urls.hasMoreElements()) {
+                return null;
+            }
+            Set<String> interfaceNames = new TreeSet<>();
+            Set<String> roots = new HashSet<>();
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                roots.add(root(url, LOCATION));
+                try (InputStream in = url.openStream()) {
+                    interfaceNames.addAll(read(in));
+                }
+            }
+            return new HttpExchangeClientIndex(Collections.unmodifiableSet(interfaceNames), Collections.unmodifiableSet(roots));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to load the http exchange client index from " + LOCATION, e);
+        }
+    }
+
+    /**
+     * the indexed interfaces in a package or its sub packages
+     *
+     * @param basePackage the base package
+     * @return fully qualified interface names
+     */
+    public Set<String> getInterfaceNames(String basePackage) {
+        Set<String> result = new TreeSet<>();
+        String prefix = basePackage + ".";
+        for (String interfaceName : interfaceNames) {
+            if (basePackage.isEmpty() || interfaceName.startsWith(prefix)) {
+                result.add(interfaceName);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * whether all the classpath roots which contain the package have an index file, the interfaces of the
+     * package are only read from the index when it is covered
+     *
+     * @param basePackage the base package
+     * @param classLoader {@link ClassLoader}
+     * @return whether the package is covered by the index
+     */
+    public boolean covers(String basePackage, ClassLoader classLoader) {
+        if (basePackage.isEmpty()) {
+            return false;
+        }
+        String path = basePackage.replace('.', '/') + "/";
+        try {
+            Enumeration<URL> urls = classLoader.getResources(path);
+            while (urls.hasMoreElements()) {
+                String root = root(urls.nextElement(), path);
+                if (Objects.isNull(root) || !roots.contains(root)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static String root(URL url, String path) {
+        String value = url.toString();
+        return value.endsWith(path) ? value.substring(0, value.length() - path.length()) : null;
+    }
+
+    static Set<String> read(InputStream in) throws IOException {
+        Set<String> interfaceNames = new TreeSet<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                interfaceNames.add(line);
+            }
+        }
+        return interfaceNames;
+    }
+}
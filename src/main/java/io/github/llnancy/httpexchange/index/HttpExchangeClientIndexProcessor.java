@@ -0,0 +1,126 @@
+package io.github.llnancy.httpexchange.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * annotation processor which writes the {@link HttpExchangeClientIndex} of the compiled {@code @HttpExchangeClient}
+ * interfaces, including the ones annotated by a composed annotation.
+ * <p>
+ * the entries of a previous index in the class output are kept when their interfaces are still annotated,
+ * so the incremental compilation only recompiling part of the sources keeps a complete index.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/26
+ */
+@SupportedAnnotationTypes("*")
+public class HttpExchangeClientIndexProcessor extends AbstractProcessor {
+
+    private static final String HTTP_EXCHANGE_CLIENT = "io.github.llnancy.httpexchange.core.HttpExchangeClient";
+
+    private final Set<String> interfaceNames = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            if (isHttpExchangeClient(annotation, new HashSet<>())) {
+                for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                    if (element.getKind() == ElementKind.INTERFACE) {
+                        interfaceNames.add(((TypeElement) element).getQualifiedName().toString());
+                    }
+                }
+            }
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    /**
+     * whether the annotation is {@code @HttpExchangeClient} or meta-annotated by it
+     */
+    private boolean isHttpExchangeClient(TypeElement annotation, Set<String> visited) {
+        String name = annotation.getQualifiedName().toString();
+        if (HTTP_EXCHANGE_CLIENT.equals(name)) {
+            return true;
+        }
+        if (name.startsWith("java.lang.") || !visited.add(name)) {
+            return false;
+        }
+        for (AnnotationMirror mirror : annotation.getAnnotationMirrors()) {
+            if (isHttpExchangeClient((TypeElement) mirror.getAnnotationType().asElement(), visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        Set<String> index = new TreeSet<>(interfaceNames);
+        index.addAll(readPreviousIndex());
+        if (index.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", HttpExchangeClientIndex.LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String interfaceName : index) {
+                    writer.write(interfaceName);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + HttpExchangeClientIndex.LOCATION + ": " + e);
+        }
+    }
+
+    private Set<String> readPreviousIndex() {
+        Set<String> previous = new TreeSet<>();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", HttpExchangeClientIndex.LOCATION);
+            try (InputStream in = file.openInputStream()) {
+                for (String interfaceName : HttpExchangeClientIndex.read(in)) {
+                    TypeElement element = processingEnv.getElementUtils().getTypeElement(interfaceName);
+                    if (element != null && element.getKind() == ElementKind.INTERFACE && isAnnotated(element)) {
+                        previous.add(interfaceName);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // no previous index
+        }
+        return previous;
+    }
+
+    private boolean isAnnotated(TypeElement element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (isHttpExchangeClient((TypeElement) mirror.getAnnotationType().asElement(), new HashSet<>())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.llnancy.httpexchange.jfr;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+
+import java.net.SocketAddress;
+import java.util.Objects;
+
+/**
+ * the resolve, connect and tls handshake durations of a new connection.
+ * <p>
+ * reactor netty initializes the channel, resolves the address, then connects, and fires the connected state after
+ * the tls handshake. the {@link Recorder} is the first handler of the pipeline, it sees the tcp connection become
+ * active before the ssl handler, and is removed when the connection is connected.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+record ConnectionPhases(long resolve, long connect, long tlsHandshake) {
+
+    private static final AttributeKey<ConnectionPhases> KEY = AttributeKey.valueOf(ConnectionPhases.class.getName());
+
+    /**
+     * the phases of the exchanges after the first one of a connection
+     */
+    static final ConnectionPhases REUSED = new ConnectionPhases(0, 0, 0);
+
+    /**
+     * take the phases of an exchange, the first exchange of a connection replaces them by {@link #REUSED}
+     *
+     * @param channel the channel of the exchange, or its http/2 stream
+     * @return {@link ConnectionPhases}, {@link #REUSED} if the connection is reused, or {@code null} if it was not instrumented
+     */
+    static ConnectionPhases take(Channel channel) {
+        Attribute<ConnectionPhases> attribute = channel.attr(KEY);
+        if (Objects.isNull(attribute.get()) && Objects.nonNull(channel.parent())) {
+            attribute = channel.parent().attr(KEY);
+        }
+        ConnectionPhases phases = attribute.get();
+        if (Objects.isNull(phases) || phases == REUSED) {
+            return phases;
+        }
+        return attribute.compareAndSet(phases, REUSED) ? phases : REUSED;
+    }
+
+    /**
+     * records the phases of a new connection
+     */
+    static final class Recorder extends ChannelDuplexHandler {
+
+        private final long init = System.nanoTime();
+
+        private long connectStart;
+
+        private long active;
+
+        @Override
+        public void connect(ChannelHandlerContext ctx, SocketAddress remoteAddress, SocketAddress localAddress, ChannelPromise promise) throws Exception {
+            connectStart = System.nanoTime();
+            super.connect(ctx, remoteAddress, localAddress, promise);
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            active = System.nanoTime();
+            super.channelActive(ctx);
+        }
+
+        /**
+         * the connection is connected, store the phases and remove the recorder
+         *
+         * @param channel the channel
+         */
+        void connected(Channel channel) {
+            long now = System.nanoTime();
+            if (connectStart > 0 && active > 0) {
+                channel.attr(KEY).set(new ConnectionPhases(connectStart - init, active - connectStart, now - active));
+            }
+            channel.pipeline().remove(this);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.llnancy.httpexchange.jfr;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.Objects;
+
+/**
+ * emits a {@link HttpExchangeEvent} per exchange of the {@code WebClient} transport while a flight recording
+ * enables it, with the resolve, connect, tls handshake, pool acquire, time to first byte and body durations.
+ * <p>
+ * the blocking transports do not expose the connection phases, they do not emit the event.
+ * disabled by {@code httpexchange.default.flight-recorder.enabled=false} or
+ * {@code httpexchange.clients.<name>.flight-recorder.enabled=false}.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public class FlightRecorderCustomizer implements HttpExchangeClientCustomizer {
+
+    @Override
+    public void customizeWebClient(HttpExchangeClientMetadata metadata, WebClient.Builder builder) {
+        if (isEnabled(metadata)) {
+            builder.filter(new FlightRecorderExchangeFilterFunction(metadata.name()));
+        }
+    }
+
+    @Override
+    public HttpClient customizeHttpClient(HttpExchangeClientMetadata metadata, HttpClient httpClient) {
+        if (!isEnabled(metadata)) {
+            return httpClient;
+        }
+        return httpClient
+                .doOnChannelInit((observer, channel, remoteAddress) -> {
+                    // the connections opened while no recording enables the event are not instrumented
+                    if (FlightRecorderExchangeFilterFunction.isEnabled()) {
+                        channel.pipeline().addFirst(new ConnectionPhases.Recorder());
+                    }
+                })
+                .doOnConnected(connection -> {
+                    ConnectionPhases.Recorder recorder = connection.channel().pipeline().get(ConnectionPhases.Recorder.class);
+                    if (Objects.nonNull(recorder)) {
+                        recorder.connected(connection.channel());
+                    }
+                });
+    }
+
+    private static boolean isEnabled(HttpExchangeClientMetadata metadata) {
+        return metadata.properties().resolve(p -> p.getFlightRecorder().getEnabled(), null, true);
+    }
+}
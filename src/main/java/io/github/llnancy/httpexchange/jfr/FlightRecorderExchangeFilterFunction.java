@@ -0,0 +1,141 @@
+package io.github.llnancy.httpexchange.jfr;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import io.netty.channel.Channel;
+import jdk.jfr.EventType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * emits a {@link HttpExchangeEvent} per exchange of the {@code WebClient} transport.
+ * <p>
+ * when no recording enables the event, the exchange is passed through after a single check.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+final class FlightRecorderExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(HttpExchangeEvent.class);
+
+    private final String clientName;
+
+    FlightRecorderExchangeFilterFunction(String clientName) {
+        this.clientName = clientName;
+    }
+
+    /**
+     * whether a running recording enables the {@link HttpExchangeEvent}
+     *
+     * @return true if enabled
+     */
+    static boolean isEnabled() {
+        return EVENT_TYPE.isEnabled();
+    }
+
+    @Override
+    @NonNull
+    public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+        if (!isEnabled()) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            Exchange exchange = new Exchange(request);
+            ClientRequest timed = ClientRequest.from(request)
+                    .httpRequest(httpRequest -> exchange.sending(httpRequest.getNativeRequest()))
+                    .build();
+            return next.exchange(timed)
+                    .map(exchange::received)
+                    .doOnError(exchange::failed)
+                    .doOnCancel(() -> exchange.commit("cancelled"));
+        });
+    }
+
+    /**
+     * the phases of a single exchange
+     */
+    private final class Exchange {
+
+        private final HttpExchangeEvent event = new HttpExchangeEvent();
+
+        private final AtomicBoolean committed = new AtomicBoolean();
+
+        private final long start;
+
+        private long sending;
+
+        private long received;
+
+        private Exchange(ClientRequest request) {
+            event.begin();
+            start = System.nanoTime();
+            event.client = clientName;
+            event.httpMethod = request.method().name();
+            if (request.attribute(HttpExchangeMethodContext.ATTRIBUTE).orElse(null) instanceof HttpExchangeMethod method) {
+                event.clientInterface = method.clientInterface().getName();
+                event.method = method.method().getName();
+                event.uri = method.uriTemplate();
+            } else {
+                event.uri = request.url().getPath();
+            }
+        }
+
+        private void sending(Object nativeRequest) {
+            sending = System.nanoTime();
+            long acquire = sending - start;
+            if (nativeRequest instanceof Connection connection) {
+                Channel channel = connection.channel();
+                event.remoteAddress = String.valueOf(Objects.nonNull(channel.parent()) ? channel.parent().remoteAddress() : channel.remoteAddress());
+                ConnectionPhases phases = ConnectionPhases.take(channel);
+                if (Objects.isNull(phases)) {
+                    // opened while no recording enabled the event, it may be new or reused
+                    event.connection = HttpExchangeEvent.UNKNOWN;
+                } else if (phases == ConnectionPhases.REUSED) {
+                    event.connection = HttpExchangeEvent.REUSED;
+                } else {
+                    event.connection = HttpExchangeEvent.NEW;
+                    event.resolve = phases.resolve();
+                    event.connect = phases.connect();
+                    event.tlsHandshake = phases.tlsHandshake();
+                    acquire -= phases.resolve() + phases.connect() + phases.tlsHandshake();
+                }
+            } else {
+                event.connection = HttpExchangeEvent.UNKNOWN;
+            }
+            event.poolAcquire = Math.max(acquire, 0);
+        }
+
+        private ClientResponse received(ClientResponse response) {
+            received = System.nanoTime();
+            event.timeToFirstByte = sending > 0 ? received - sending : received - start;
+            event.status = response.statusCode().value();
+            return response.mutate()
+                    .body(body -> body.doFinally(signal -> commit(null)))
+                    .build();
+        }
+
+        private void failed(Throwable error) {
+            commit(error.getClass().getName());
+        }
+
+        private void commit(String error) {
+            if (!committed.compareAndSet(false, true)) {
+                return;
+            }
+            if (received > 0) {
+                event.body = System.nanoTime() - received;
+            }
+            event.error = error;
+            event.commit();
+        }
+    }
+}
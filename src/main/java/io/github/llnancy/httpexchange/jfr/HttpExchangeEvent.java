@@ -0,0 +1,101 @@
+package io.github.llnancy.httpexchange.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * the flight recorder event of an exchange of the {@code WebClient} transport, the duration is from the subscription
+ * of the exchange to the end of the response body.
+ * <p>
+ * the resolve, connect and tls handshake phases are only recorded for the first exchange of a new connection,
+ * they are 0 when the connection is reused, or unknown as it was opened while no recording enabled the event.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+@Name(HttpExchangeEvent.NAME)
+@Label("HTTP Exchange")
+@Category({"HTTP Exchange", "Client"})
+@Description("An exchange of a http exchange client with the duration of each phase")
+@StackTrace(false)
+public final class HttpExchangeEvent extends Event {
+
+    /**
+     * the event name
+     */
+    public static final String NAME = "io.github.llnancy.httpexchange.Exchange";
+
+    /**
+     * the connection is opened by the exchange
+     */
+    public static final String NEW = "new";
+
+    /**
+     * the connection is opened by an earlier exchange
+     */
+    public static final String REUSED = "reused";
+
+    /**
+     * the connection was opened while no recording enabled the event
+     */
+    public static final String UNKNOWN = "unknown";
+
+    @Label("Client")
+    String client;
+
+    @Label("Interface")
+    String clientInterface;
+
+    @Label("Method")
+    String method;
+
+    @Label("HTTP Method")
+    String httpMethod;
+
+    @Label("URI Template")
+    String uri;
+
+    @Label("Remote Address")
+    String remoteAddress;
+
+    @Label("Status")
+    int status;
+
+    @Label("Connection")
+    @Description("new, reused, or unknown if the connection was opened while no recording enabled the event")
+    String connection;
+
+    @Label("Resolve")
+    @Timespan(Timespan.NANOSECONDS)
+    long resolve;
+
+    @Label("Connect")
+    @Timespan(Timespan.NANOSECONDS)
+    long connect;
+
+    @Label("TLS Handshake")
+    @Timespan(Timespan.NANOSECONDS)
+    long tlsHandshake;
+
+    @Label("Pool Acquire")
+    @Timespan(Timespan.NANOSECONDS)
+    long poolAcquire;
+
+    @Label("Time To First Byte")
+    @Description("From sending the request to receiving the response headers")
+    @Timespan(Timespan.NANOSECONDS)
+    long timeToFirstByte;
+
+    @Label("Body")
+    @Description("From receiving the response headers to the end of reading and decoding the body")
+    @Timespan(Timespan.NANOSECONDS)
+    long body;
+
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,152 @@
+package io.github.llnancy.httpexchange.loadbalancer;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * an endpoint of a http exchange client, with its outstanding requests and the statistics of the current interval
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+final class Endpoint {
+
+    private final String prefix;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder latency = new LongAdder();
+
+    private volatile boolean ejected;
+
+    private volatile long ejectedUntil;
+
+    /**
+     * the number of consecutive ejections, only accessed by the evaluating thread
+     */
+    private int ejections;
+
+    Endpoint(String prefix) {
+        this.prefix = prefix;
+    }
+
+    String prefix() {
+        return prefix;
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+
+    boolean isEjected(long now) {
+        return ejected && now - ejectedUntil < 0;
+    }
+
+    /**
+     * a request is sent to the endpoint
+     */
+    void start() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * the request is answered or failed
+     *
+     * @param nanos   the latency
+     * @param failure whether it failed
+     */
+    void finish(long nanos, boolean failure) {
+        outstanding.decrementAndGet();
+        requests.increment();
+        latency.add(nanos);
+        if (failure) {
+            failures.increment();
+        }
+    }
+
+    /**
+     * the request is cancelled
+     */
+    void cancel() {
+        outstanding.decrementAndGet();
+    }
+
+    /**
+     * evaluate the statistics of the interval and reset them
+     *
+     * @param now      the current time
+     * @param settings {@link OutlierSettings}
+     * @param canEject whether the maximum ejection ratio allows ejecting one more endpoint
+     * @return {@code 1} if the endpoint is ejected, {@code -1} if it is re-admitted, otherwise {@code 0}
+     */
+    int evaluate(long now, OutlierSettings settings, boolean canEject) {
+        long requestCount = requests.sumThenReset();
+        long failureCount = failures.sumThenReset();
+        long latencySum = latency.sumThenReset();
+        if (ejected) {
+            if (now - ejectedUntil < 0) {
+                return 0;
+            }
+            ejected = false;
+            return -1;
+        }
+        if (requestCount < settings.minRequests() || requestCount == 0) {
+            return 0;
+        }
+        boolean outlier = failureCount >= settings.failureRate() * requestCount
+                || (settings.latency() > 0 && latencySum / requestCount >= settings.latency());
+        if (!outlier) {
+            ejections = Math.max(0, ejections - 1);
+            return 0;
+        }
+        if (!canEject) {
+            return 0;
+        }
+        ejections = Math.min(ejections + 1, 10);
+        ejectedUntil = now + settings.baseEjectionTime() * ejections;
+        ejected = true;
+        return 1;
+    }
+
+    /**
+     * replace the prefix of the uri by the one of this endpoint
+     *
+     * @param uri    the request uri
+     * @param origin the prefix the uri starts with
+     * @return rewritten uri
+     */
+    URI rewrite(URI uri, String origin) {
+        if (prefix.equals(origin)) {
+            return uri;
+        }
+        return URI.create(prefix + uri.toString().substring(origin.length()));
+    }
+
+    @Override
+    public String toString() {
+        return prefix;
+    }
+
+    /**
+     * resolved outlier ejection settings
+     *
+     * @param failureRate      the failure rate to eject
+     * @param latency          the average latency in nanoseconds to eject, {@code 0} means not evaluated
+     * @param minRequests      the minimum number of requests to evaluate
+     * @param interval         the evaluation interval in nanoseconds
+     * @param baseEjectionTime the base ejection time in nanoseconds
+     * @param maxEjectionRatio the maximum ratio of ejected endpoints
+     */
+    record OutlierSettings(double failureRate,
+                           long latency,
+                           int minRequests,
+                           long interval,
+                           long baseEjectionTime,
+                           double maxEjectionRatio) {
+    }
+}
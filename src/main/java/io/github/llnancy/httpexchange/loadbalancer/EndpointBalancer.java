@@ -0,0 +1,149 @@
+package io.github.llnancy.httpexchange.loadbalancer;
+
+import io.github.llnancy.httpexchange.core.LoadBalancingStrategy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * picks an endpoint of a http exchange client for each request.
+ * <p>
+ * the ejected endpoints are skipped unless all endpoints are ejected. the outliers are evaluated by the first
+ * request after each interval, so no background thread is needed: an endpoint whose failure rate or average
+ * latency in the interval reaches the threshold is ejected for the base ejection time multiplied by its
+ * consecutive ejections, and re-admitted by the first evaluation after that.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+@Slf4j
+final class EndpointBalancer {
+
+    private final String name;
+
+    private final Endpoint[] endpoints;
+
+    private final LoadBalancingStrategy strategy;
+
+    private final Endpoint.OutlierSettings settings;
+
+    private final int maxEjected;
+
+    private final AtomicLong evaluatedAt = new AtomicLong(System.nanoTime());
+
+    private int ejected;
+
+    EndpointBalancer(String name, List<String> prefixes, LoadBalancingStrategy strategy, Endpoint.OutlierSettings settings) {
+        this.name = name;
+        this.endpoints = prefixes.stream().map(Endpoint::new).toArray(Endpoint[]::new);
+        this.strategy = strategy;
+        this.settings = settings;
+        this.maxEjected = (int) (endpoints.length * settings.maxEjectionRatio());
+    }
+
+    /**
+     * the prefix of the request uris built by the client, the one of the first endpoint
+     *
+     * @return prefix
+     */
+    String origin() {
+        return endpoints[0].prefix();
+    }
+
+    /**
+     * whether the uri is built from the base url of the client
+     *
+     * @param uri the request uri
+     * @return whether the request is balanced
+     */
+    boolean matches(URI uri) {
+        String value = uri.toString();
+        String origin = origin();
+        if (!value.startsWith(origin)) {
+            return false;
+        }
+        if (value.length() == origin.length()) {
+            return true;
+        }
+        char next = value.charAt(origin.length());
+        return next == '/' || next == '?' || next == '#';
+    }
+
+    /**
+     * pick an endpoint
+     *
+     * @return {@link Endpoint}
+     */
+    Endpoint choose() {
+        long now = System.nanoTime();
+        long last = evaluatedAt.get();
+        if (now - last >= settings.interval() && evaluatedAt.compareAndSet(last, now)) {
+            evaluate(now);
+        }
+        if (endpoints.length == 1) {
+            return endpoints[0];
+        }
+        if (strategy == LoadBalancingStrategy.LEAST_REQUESTS) {
+            return leastRequests(now);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(endpoints.length);
+        int j = random.nextInt(endpoints.length - 1);
+        if (j >= i) {
+            j++;
+        }
+        Endpoint a = endpoints[i];
+        Endpoint b = endpoints[j];
+        boolean aEjected = a.isEjected(now);
+        boolean bEjected = b.isEjected(now);
+        if (aEjected && bEjected) {
+            return leastRequests(now);
+        }
+        if (aEjected) {
+            return b;
+        }
+        if (bEjected) {
+            return a;
+        }
+        return a.outstanding() <= b.outstanding() ? a : b;
+    }
+
+    /**
+     * the endpoint with the fewest outstanding requests, scanned from a random offset so that the ties are spread
+     */
+    private Endpoint leastRequests(long now) {
+        int offset = ThreadLocalRandom.current().nextInt(endpoints.length);
+        Endpoint best = null;
+        Endpoint fallback = null;
+        for (int k = 0; k < endpoints.length; k++) {
+            Endpoint endpoint = endpoints[(offset + k) % endpoints.length];
+            if (endpoint.isEjected(now)) {
+                if (fallback == null || endpoint.outstanding() < fallback.outstanding()) {
+                    fallback = endpoint;
+                }
+            } else if (best == null || endpoint.outstanding() < best.outstanding()) {
+                best = endpoint;
+            }
+        }
+        return best != null ? best : fallback;
+    }
+
+    /**
+     * only run by the thread which won the interval
+     */
+    private void evaluate(long now) {
+        for (Endpoint endpoint : endpoints) {
+            int result = endpoint.evaluate(now, settings, ejected < maxEjected);
+            if (result > 0) {
+                ejected++;
+                log.warn("Endpoint {} of http exchange client '{}' is ejected as an outlier.", endpoint, name);
+            } else if (result < 0) {
+                ejected--;
+                log.info("Endpoint {} of http exchange client '{}' is re-admitted.", endpoint, name);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.llnancy.httpexchange.loadbalancer;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * routes the requests of the blocking transports to the picked endpoints
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+final class LoadBalancerClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final EndpointBalancer balancer;
+
+    LoadBalancerClientHttpRequestInterceptor(EndpointBalancer balancer) {
+        this.balancer = balancer;
+    }
+
+    @Override
+    @NonNull
+    public ClientHttpResponse intercept(@NonNull HttpRequest request, @NonNull byte[] body, @NonNull ClientHttpRequestExecution execution) throws IOException {
+        if (!balancer.matches(request.getURI())) {
+            return execution.execute(request, body);
+        }
+        Endpoint endpoint = balancer.choose();
+        URI uri = endpoint.rewrite(request.getURI(), balancer.origin());
+        HttpRequest routed = uri == request.getURI() ? request : new HttpRequestWrapper(request) {
+
+            @Override
+            @NonNull
+            public URI getURI() {
+                return uri;
+            }
+        };
+        endpoint.start();
+        long start = System.nanoTime();
+        try {
+            ClientHttpResponse response = execution.execute(routed, body);
+            endpoint.finish(System.nanoTime() - start, response.getStatusCode().is5xxServerError());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            endpoint.finish(System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+}
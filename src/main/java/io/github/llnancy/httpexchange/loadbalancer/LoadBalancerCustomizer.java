@@ -0,0 +1,68 @@
+package io.github.llnancy.httpexchange.loadbalancer;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.LoadBalancingStrategy;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * balances the requests of a http exchange client across its endpoints
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+public final class LoadBalancerCustomizer implements HttpExchangeClientCustomizer {
+
+    private final EndpointBalancer balancer;
+
+    private LoadBalancerCustomizer(EndpointBalancer balancer) {
+        this.balancer = balancer;
+    }
+
+    /**
+     * create the customizer of a client
+     *
+     * @param metadata  {@link HttpExchangeClientMetadata}
+     * @param endpoints the resolved endpoints, the first one is the base url of the client
+     * @return {@link LoadBalancerCustomizer}, or {@code null} if the client has less than two endpoints
+     */
+    public static LoadBalancerCustomizer create(HttpExchangeClientMetadata metadata, List<String> endpoints) {
+        if (Objects.isNull(endpoints) || endpoints.size() < 2) {
+            return null;
+        }
+        ClientPropertiesResolver resolver = metadata.properties();
+        Duration latency = resolver.resolve(p -> p.getLoadBalancer().getEjectionLatency());
+        Endpoint.OutlierSettings settings = new Endpoint.OutlierSettings(
+                resolver.resolve(p -> p.getLoadBalancer().getEjectionFailureRate(), null, 0.5),
+                Objects.nonNull(latency) ? latency.toNanos() : 0,
+                resolver.resolve(p -> p.getLoadBalancer().getEjectionMinRequests(), null, 10),
+                resolver.resolve(p -> p.getLoadBalancer().getEjectionInterval(), null, Duration.ofSeconds(10)).toNanos(),
+                resolver.resolve(p -> p.getLoadBalancer().getBaseEjectionTime(), null, Duration.ofSeconds(30)).toNanos(),
+                resolver.resolve(p -> p.getLoadBalancer().getMaxEjectionRatio(), null, 0.5)
+        );
+        List<String> prefixes = endpoints.stream().map(LoadBalancerCustomizer::prefix).toList();
+        LoadBalancingStrategy strategy = resolver.resolve(p -> p.getLoadBalancer().getStrategy(), null, LoadBalancingStrategy.POWER_OF_TWO_CHOICES);
+        return new LoadBalancerCustomizer(new EndpointBalancer(metadata.name(), prefixes, strategy, settings));
+    }
+
+    private static String prefix(String endpoint) {
+        return endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
+    }
+
+    @Override
+    public void customizeWebClient(HttpExchangeClientMetadata metadata, WebClient.Builder builder) {
+        // the innermost filter, the uri is final after the user filters
+        builder.filter(new LoadBalancerExchangeFilterFunction(balancer));
+    }
+
+    @Override
+    public void customizeRestClient(HttpExchangeClientMetadata metadata, RestClient.Builder builder) {
+        builder.requestInterceptor(new LoadBalancerClientHttpRequestInterceptor(balancer));
+    }
+}
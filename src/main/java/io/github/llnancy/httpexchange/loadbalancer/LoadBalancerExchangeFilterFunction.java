@@ -0,0 +1,59 @@
+package io.github.llnancy.httpexchange.loadbalancer;
+
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * routes the requests of the {@code WebClient} transport to the picked endpoints
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+final class LoadBalancerExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final EndpointBalancer balancer;
+
+    LoadBalancerExchangeFilterFunction(EndpointBalancer balancer) {
+        this.balancer = balancer;
+    }
+
+    @Override
+    @NonNull
+    public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+        if (!balancer.matches(request.url())) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            Endpoint endpoint = balancer.choose();
+            URI uri = endpoint.rewrite(request.url(), balancer.origin());
+            ClientRequest routed = uri == request.url() ? request : ClientRequest.from(request).url(uri).build();
+            endpoint.start();
+            long start = System.nanoTime();
+            // a cancel may follow the response, the outstanding request is released only once
+            AtomicBoolean released = new AtomicBoolean();
+            return next.exchange(routed)
+                    .doOnNext(response -> {
+                        if (released.compareAndSet(false, true)) {
+                            endpoint.finish(System.nanoTime() - start, response.statusCode().is5xxServerError());
+                        }
+                    })
+                    .doOnError(error -> {
+                        if (released.compareAndSet(false, true)) {
+                            endpoint.finish(System.nanoTime() - start, true);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (released.compareAndSet(false, true)) {
+                            endpoint.cancel();
+                        }
+                    });
+        });
+    }
+}
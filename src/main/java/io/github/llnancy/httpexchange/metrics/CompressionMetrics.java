@@ -0,0 +1,64 @@
+package io.github.llnancy.httpexchange.metrics;
+
+import io.github.llnancy.httpexchange.compression.CompressionRegistry;
+import io.github.llnancy.httpexchange.compression.CompressionStatistics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * binds every {@link CompressionStatistics} to micrometer, tagged with client and direction ({@code request} or {@code response}):
+ * <ul>
+ *     <li>{@code httpexchange.client.compression.original} counter of the body bytes before compression</li>
+ *     <li>{@code httpexchange.client.compression.compressed} counter of the body bytes on the wire</li>
+ *     <li>{@code httpexchange.client.compression.ratio} gauge of the compressed bytes divided by the original bytes</li>
+ * </ul>
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/29
+ */
+public class CompressionMetrics {
+
+    private final MeterRegistry registry;
+
+    /**
+     * constructor
+     *
+     * @param registry            {@link MeterRegistry}
+     * @param compressionRegistry {@link CompressionRegistry}
+     */
+    public CompressionMetrics(MeterRegistry registry, CompressionRegistry compressionRegistry) {
+        this.registry = registry;
+        compressionRegistry.addListener(this::bind);
+    }
+
+    private void bind(CompressionStatistics statistics) {
+        bind(statistics, "request", CompressionStatistics::getRequestOriginalBytes, CompressionStatistics::getRequestCompressedBytes, CompressionStatistics::getRequestRatio);
+        bind(statistics, "response", CompressionStatistics::getResponseOriginalBytes, CompressionStatistics::getResponseCompressedBytes, CompressionStatistics::getResponseRatio);
+    }
+
+    private void bind(CompressionStatistics statistics,
+                      String direction,
+                      ToDoubleFunction<CompressionStatistics> original,
+                      ToDoubleFunction<CompressionStatistics> compressed,
+                      ToDoubleFunction<CompressionStatistics> ratio) {
+        Tags tags = Tags.of("client", statistics.getClientName(), "direction", direction);
+        FunctionCounter.builder("httpexchange.client.compression.original", statistics, original)
+                .description("Compressed body bytes before compression")
+                .tags(tags)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("httpexchange.client.compression.compressed", statistics, compressed)
+                .description("Compressed body bytes on the wire")
+                .tags(tags)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("httpexchange.client.compression.ratio", statistics, ratio)
+                .description("Compressed body bytes divided by the bytes before compression")
+                .tags(tags)
+                .register(registry);
+    }
+}
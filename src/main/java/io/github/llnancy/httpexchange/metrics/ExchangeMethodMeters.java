@@ -0,0 +1,164 @@
+package io.github.llnancy.httpexchange.metrics;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * the per-method meters of a http exchange client.
+ * <p>
+ * the tags of every method are computed once when the client is built, the timers of each
+ * status code or exception type are created on first use and cached, so recording a request
+ * only looks up the table.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/23
+ */
+final class ExchangeMethodMeters {
+
+    static final String REQUESTS = "httpexchange.client.requests";
+
+    static final String ACTIVE_REQUESTS = "httpexchange.client.requests.active";
+
+    private final Map<HttpExchangeMethod, MethodMeters> table = new IdentityHashMap<>();
+
+    ExchangeMethodMeters(MeterRegistry registry, HttpExchangeClientMetadata metadata, boolean percentileHistogram) {
+        for (HttpExchangeMethod method : metadata.methods().values()) {
+            Tags tags = Tags.of(
+                    "client", method.clientName(),
+                    "interface", method.clientInterface().getName(),
+                    "method", method.method().getName(),
+                    "http.method", method.httpMethod(),
+                    "uri", method.uriTemplate()
+            );
+            table.put(method, new MethodMeters(registry, tags, percentileHistogram));
+        }
+    }
+
+    /**
+     * the meters of the method
+     *
+     * @param method the {@link HttpExchangeMethod}
+     * @return {@link MethodMeters}, or {@code null} if the method is not of this client
+     */
+    MethodMeters get(Object method) {
+        return table.get(method);
+    }
+
+    /**
+     * meters of a single method
+     */
+    static final class MethodMeters {
+
+        private final MeterRegistry registry;
+
+        private final Clock clock;
+
+        private final Tags tags;
+
+        private final boolean percentileHistogram;
+
+        private final AtomicInteger active = new AtomicInteger();
+
+        private final ConcurrentMap<Integer, Timer> statusTimers = new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<Class<?>, Timer> exceptionTimers = new ConcurrentHashMap<>();
+
+        private final Timer cancelledTimer;
+
+        private MethodMeters(MeterRegistry registry, Tags tags, boolean percentileHistogram) {
+            this.registry = registry;
+            this.clock = registry.config().clock();
+            this.tags = tags;
+            this.percentileHistogram = percentileHistogram;
+            Gauge.builder(ACTIVE_REQUESTS, active, AtomicInteger::get)
+                    .description("In-flight requests of the http exchange client method")
+                    .tags(tags)
+                    .register(registry);
+            this.cancelledTimer = timer("CANCELLED", "UNKNOWN", "none");
+        }
+
+        /**
+         * start a request
+         *
+         * @return the start time
+         */
+        long start() {
+            active.incrementAndGet();
+            return clock.monotonicTime();
+        }
+
+        /**
+         * a response is received
+         *
+         * @param start  the start time
+         * @param status the status code
+         */
+        void success(long start, int status) {
+            record(statusTimers.computeIfAbsent(status, code -> timer(String.valueOf(code), outcome(code), "none")), start);
+        }
+
+        /**
+         * the request failed without a response
+         *
+         * @param start the start time
+         * @param error the error
+         */
+        void error(long start, Throwable error) {
+            record(exceptionTimers.computeIfAbsent(error.getClass(), type -> timer("CLIENT_ERROR", "UNKNOWN", type.getSimpleName())), start);
+        }
+
+        /**
+         * the request is cancelled
+         *
+         * @param start the start time
+         */
+        void cancel(long start) {
+            record(cancelledTimer, start);
+        }
+
+        private void record(Timer timer, long start) {
+            timer.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+            active.decrementAndGet();
+        }
+
+        private Timer timer(String status, String outcome, String exception) {
+            return Timer.builder(REQUESTS)
+                    .description("Requests of the http exchange client method")
+                    .tags(tags)
+                    .tags("status", status, "outcome", outcome, "exception", exception)
+                    .publishPercentileHistogram(percentileHistogram)
+                    .register(registry);
+        }
+
+        private static String outcome(int status) {
+            if (status >= 100 && status < 200) {
+                return "INFORMATIONAL";
+            }
+            if (status >= 200 && status < 300) {
+                return "SUCCESS";
+            }
+            if (status >= 300 && status < 400) {
+                return "REDIRECTION";
+            }
+            if (status >= 400 && status < 500) {
+                return "CLIENT_ERROR";
+            }
+            if (status >= 500 && status < 600) {
+                return "SERVER_ERROR";
+            }
+            return "UNKNOWN";
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.llnancy.httpexchange.metrics;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * installs the per-method micrometer metrics on every http exchange client:
+ * <ul>
+ *     <li>{@code httpexchange.client.requests} timer tagged with client, interface, method, http.method, uri, status, outcome and exception</li>
+ *     <li>{@code httpexchange.client.requests.active} gauge of the in-flight requests</li>
+ *     <li>reactor netty {@code reactor.netty.http.client.*} byte and connection metrics, the uri tag is the client name</li>
+ * </ul>
+ * disabled by {@code httpexchange.default.metrics.enabled=false} or {@code httpexchange.clients.<name>.metrics.enabled=false}.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/23
+ */
+public class HttpExchangeClientMetricsCustomizer implements HttpExchangeClientCustomizer {
+
+    private final MeterRegistry registry;
+
+    /**
+     * constructor
+     *
+     * @param registry {@link MeterRegistry}
+     */
+    public HttpExchangeClientMetricsCustomizer(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void customizeWebClient(HttpExchangeClientMetadata metadata, WebClient.Builder builder) {
+        if (isEnabled(metadata)) {
+            // the outermost filter, so the time spent in the user filters is included
+            builder.filters(filters -> filters.add(0, new MetricsExchangeFilterFunction(createMeters(metadata))));
+        }
+    }
+
+    @Override
+    public HttpClient customizeHttpClient(HttpExchangeClientMetadata metadata, HttpClient httpClient) {
+        if (isEnabled(metadata)) {
+            String clientName = metadata.name();
+            return httpClient.metrics(true, uri -> clientName);
+        }
+        return httpClient;
+    }
+
+    @Override
+    public void customizeRestClient(HttpExchangeClientMetadata metadata, RestClient.Builder builder) {
+        if (isEnabled(metadata)) {
+            builder.requestInterceptors(interceptors -> interceptors.add(0, new MetricsClientHttpRequestInterceptor(createMeters(metadata))));
+        }
+    }
+
+    private ExchangeMethodMeters createMeters(HttpExchangeClientMetadata metadata) {
+        boolean percentileHistogram = metadata.properties().resolve(p -> p.getMetrics().getPercentileHistogram(), null, false);
+        return new ExchangeMethodMeters(registry, metadata, percentileHistogram);
+    }
+
+    private static boolean isEnabled(HttpExchangeClientMetadata metadata) {
+        return metadata.properties().resolve(p -> p.getMetrics().getEnabled(), null, true);
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.llnancy.httpexchange.metrics;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.lang.NonNull;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * installs the {@link ObservationRegistry} on every http exchange client, the {@code http.client.requests}
+ * observations get the low cardinality keys {@code exchange.client}, {@code exchange.interface} and {@code exchange.method}.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/23
+ */
+public class HttpExchangeClientObservationCustomizer implements HttpExchangeClientCustomizer {
+
+    private final ObservationRegistry registry;
+
+    /**
+     * constructor
+     *
+     * @param registry {@link ObservationRegistry}
+     */
+    public HttpExchangeClientObservationCustomizer(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void customizeWebClient(HttpExchangeClientMetadata metadata, WebClient.Builder builder) {
+        builder.observationRegistry(registry)
+                .observationConvention(new WebClientObservationConvention(keyValues(metadata)));
+    }
+
+    @Override
+    public void customizeRestClient(HttpExchangeClientMetadata metadata, RestClient.Builder builder) {
+        builder.observationRegistry(registry)
+                .observationConvention(new RestClientObservationConvention(keyValues(metadata)));
+    }
+
+    private static Map<HttpExchangeMethod, KeyValues> keyValues(HttpExchangeClientMetadata metadata) {
+        Map<HttpExchangeMethod, KeyValues> table = new IdentityHashMap<>();
+        for (HttpExchangeMethod method : metadata.methods().values()) {
+            table.put(method, KeyValues.of(
+                    "exchange.client", method.clientName(),
+                    "exchange.interface", method.clientInterface().getName(),
+                    "exchange.method", method.method().getName()
+            ));
+        }
+        return table;
+    }
+
+    private static final class WebClientObservationConvention extends org.springframework.web.reactive.function.client.DefaultClientRequestObservationConvention {
+
+        private final Map<HttpExchangeMethod, KeyValues> table;
+
+        private WebClientObservationConvention(Map<HttpExchangeMethod, KeyValues> table) {
+            this.table = table;
+        }
+
+        @Override
+        @NonNull
+        public KeyValues getLowCardinalityKeyValues(@NonNull org.springframework.web.reactive.function.client.ClientRequestObservationContext context) {
+            KeyValues keyValues = super.getLowCardinalityKeyValues(context);
+            ClientRequest request = context.getRequest();
+            KeyValues methodKeyValues = Objects.nonNull(request) ? table.get(request.attributes().get(HttpExchangeMethodContext.ATTRIBUTE)) : null;
+            return Objects.nonNull(methodKeyValues) ? keyValues.and(methodKeyValues) : keyValues;
+        }
+    }
+
+    private static final class RestClientObservationConvention extends org.springframework.http.client.observation.DefaultClientRequestObservationConvention {
+
+        private final Map<HttpExchangeMethod, KeyValues> table;
+
+        private RestClientObservationConvention(Map<HttpExchangeMethod, KeyValues> table) {
+            this.table = table;
+        }
+
+        @Override
+        @NonNull
+        public KeyValues getLowCardinalityKeyValues(@NonNull org.springframework.http.client.observation.ClientRequestObservationContext context) {
+            KeyValues keyValues = super.getLowCardinalityKeyValues(context);
+            HttpExchangeMethod method = HttpExchangeMethodContext.current();
+            KeyValues methodKeyValues = Objects.nonNull(method) ? table.get(method) : null;
+            return Objects.nonNull(methodKeyValues) ? keyValues.and(methodKeyValues) : keyValues;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.llnancy.httpexchange.metrics;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * records the per-method request metrics of the blocking transports, which execute on the invoking thread
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/23
+ */
+final class MetricsClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final ExchangeMethodMeters meters;
+
+    MetricsClientHttpRequestInterceptor(ExchangeMethodMeters meters) {
+        this.meters = meters;
+    }
+
+    @Override
+    @NonNull
+    public ClientHttpResponse intercept(@NonNull HttpRequest request, @NonNull byte[] body, @NonNull ClientHttpRequestExecution execution) throws IOException {
+        ExchangeMethodMeters.MethodMeters methodMeters = meters.get(HttpExchangeMethodContext.current());
+        if (Objects.isNull(methodMeters)) {
+            return execution.execute(request, body);
+        }
+        long start = methodMeters.start();
+        ClientHttpResponse response = null;
+        int status;
+        try {
+            response = execution.execute(request, body);
+            // reading the status may fail on the connection as well
+            status = response.getStatusCode().value();
+        } catch (IOException | RuntimeException ex) {
+            methodMeters.error(start, ex);
+            if (Objects.nonNull(response)) {
+                response.close();
+            }
+            throw ex;
+        }
+        methodMeters.success(start, status);
+        return response;
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.llnancy.httpexchange.metrics;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * records the per-method request metrics of the {@code WebClient} transport
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/23
+ */
+final class MetricsExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final ExchangeMethodMeters meters;
+
+    MetricsExchangeFilterFunction(ExchangeMethodMeters meters) {
+        this.meters = meters;
+    }
+
+    @Override
+    @NonNull
+    public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+        ExchangeMethodMeters.MethodMeters methodMeters = request.attributes().isEmpty()
+                ? null
+                : meters.get(request.attributes().get(HttpExchangeMethodContext.ATTRIBUTE));
+        if (Objects.isNull(methodMeters)) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            long start = methodMeters.start();
+            // a cancel after the response, e.g. by a downstream timeout or take, is already recorded as success
+            AtomicBoolean responseReceived = new AtomicBoolean();
+            return next.exchange(request)
+                    .doOnNext(response -> {
+                        responseReceived.set(true);
+                        methodMeters.success(start, response.statusCode().value());
+                    })
+                    .doOnError(error -> methodMeters.error(start, error))
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL && !responseReceived.get()) {
+                            methodMeters.cancel(start);
+                        }
+                    });
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.llnancy.httpexchange.metrics;
+
+import io.github.llnancy.httpexchange.resilience.RateLimiter;
+import io.github.llnancy.httpexchange.resilience.RateLimiterRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * binds every {@link RateLimiter} to micrometer, tagged with client and name:
+ * <ul>
+ *     <li>{@code httpexchange.client.ratelimiter.wait} timer of the time waited for the permits, apart from the request time</li>
+ *     <li>{@code httpexchange.client.ratelimiter.rejected} counter of the calls without a permit within the max wait</li>
+ * </ul>
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public class RateLimiterMetrics {
+
+    private final MeterRegistry registry;
+
+    /**
+     * constructor
+     *
+     * @param registry            {@link MeterRegistry}
+     * @param rateLimiterRegistry {@link RateLimiterRegistry}
+     */
+    public RateLimiterMetrics(MeterRegistry registry, RateLimiterRegistry rateLimiterRegistry) {
+        this.registry = registry;
+        rateLimiterRegistry.addListener(this::bind);
+    }
+
+    private void bind(RateLimiter rateLimiter) {
+        Tags tags = Tags.of("client", rateLimiter.getClientName(), "name", rateLimiter.getName());
+        FunctionTimer.builder("httpexchange.client.ratelimiter.wait", rateLimiter, RateLimiter::getPermits, RateLimiter::getWaitNanos, TimeUnit.NANOSECONDS)
+                .description("Time waited for the permits of the rate limiter")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("httpexchange.client.ratelimiter.rejected", rateLimiter, RateLimiter::getRejections)
+                .description("Calls rejected by the rate limiter")
+                .tags(tags)
+                .register(registry);
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.llnancy.httpexchange.metrics;
+
+import io.github.llnancy.httpexchange.cache.ExchangeResponseCache;
+import io.github.llnancy.httpexchange.cache.ResponseCacheRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * binds the statistics of every {@link ExchangeResponseCache} to micrometer:
+ * <ul>
+ *     <li>{@code httpexchange.client.cache.requests} counter tagged with client and result ({@code hit} or {@code miss})</li>
+ *     <li>{@code httpexchange.client.cache.revalidations} counter of the {@code 304 Not Modified} responses</li>
+ *     <li>{@code httpexchange.client.cache.evictions} counter</li>
+ *     <li>{@code httpexchange.client.cache.size} and {@code httpexchange.client.cache.weight} gauges</li>
+ * </ul>
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/24
+ */
+public class ResponseCacheMetrics {
+
+    private final MeterRegistry registry;
+
+    /**
+     * constructor
+     *
+     * @param registry              {@link MeterRegistry}
+     * @param responseCacheRegistry {@link ResponseCacheRegistry}
+     */
+    public ResponseCacheMetrics(MeterRegistry registry, ResponseCacheRegistry responseCacheRegistry) {
+        this.registry = registry;
+        responseCacheRegistry.addListener(this::bind);
+    }
+
+    private void bind(ExchangeResponseCache cache) {
+        Tags tags = Tags.of("client", cache.getClientName());
+        FunctionCounter.builder("httpexchange.client.cache.requests", cache, ExchangeResponseCache::getHitCount)
+                .description("Invocations served from the response cache")
+                .tags(tags)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("httpexchange.client.cache.requests", cache, ExchangeResponseCache::getMissCount)
+                .description("Invocations which sent a request")
+                .tags(tags)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("httpexchange.client.cache.revalidations", cache, ExchangeResponseCache::getRevalidationCount)
+                .description("Cached responses revalidated by 304 Not Modified")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("httpexchange.client.cache.evictions", cache, ExchangeResponseCache::getEvictionCount)
+                .description("Cached responses evicted by the size or weight bound")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("httpexchange.client.cache.size", cache, ExchangeResponseCache::getSize)
+                .description("Number of cached responses")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder("httpexchange.client.cache.weight", cache, ExchangeResponseCache::getWeight)
+                .description("Sum of the cached body sizes")
+                .tags(tags)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
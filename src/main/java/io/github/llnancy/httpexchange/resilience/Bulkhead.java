@@ -0,0 +1,61 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * a semaphore bulkhead, the non-waiting acquisition only compares and sets the permits
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+final class Bulkhead {
+
+    private final Semaphore semaphore;
+
+    private final long maxWait;
+
+    private final BulkheadFullException rejection;
+
+    private final Mono<Object> rejected;
+
+    Bulkhead(String name, int maxConcurrentCalls, long maxWait) {
+        this.semaphore = new Semaphore(maxConcurrentCalls);
+        this.maxWait = maxWait;
+        this.rejection = new BulkheadFullException(name);
+        this.rejected = Mono.error(rejection);
+    }
+
+    /**
+     * acquire a permit without waiting
+     *
+     * @return whether the call is permitted
+     */
+    boolean tryAcquire() {
+        return semaphore.tryAcquire();
+    }
+
+    /**
+     * acquire a permit, waiting up to the max wait
+     *
+     * @return whether the call is permitted
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean tryAcquireBlocking() throws InterruptedException {
+        return semaphore.tryAcquire() || (maxWait > 0 && semaphore.tryAcquire(maxWait, TimeUnit.NANOSECONDS));
+    }
+
+    void release() {
+        semaphore.release();
+    }
+
+    BulkheadFullException rejection() {
+        return rejection;
+    }
+
+    Mono<Object> rejected() {
+        return rejected;
+    }
+}
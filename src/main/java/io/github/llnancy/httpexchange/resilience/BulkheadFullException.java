@@ -0,0 +1,21 @@
+package io.github.llnancy.httpexchange.resilience;
+
+/**
+ * thrown when the bulkhead of a http exchange client is full.
+ * <p>
+ * one instance is shared by all rejections of a bulkhead, it has no stack trace and no suppressed exceptions.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    /**
+     * constructor
+     *
+     * @param name the name of the bulkhead
+     */
+    public BulkheadFullException(String name) {
+        super("Bulkhead '" + name + "' is full and does not permit further calls.", null, false, false);
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.llnancy.httpexchange.resilience;
+
+/**
+ * thrown when the circuit breaker of a http exchange client rejects a call.
+ * <p>
+ * one instance is shared by all rejections of a circuit breaker, it has no stack trace and no suppressed exceptions.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+public class CallNotPermittedException extends RuntimeException {
+
+    /**
+     * constructor
+     *
+     * @param name the name of the circuit breaker
+     */
+    public CallNotPermittedException(String name) {
+        super("Circuit breaker '" + name + "' is open and does not permit further calls.", null, false, false);
+    }
+}
@@ -0,0 +1,252 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * a count-based sliding window circuit breaker.
+ * <p>
+ * the state and the window are atomics updated by compare and set, no lock is held. the outcome of every call
+ * replaces the oldest one in the ring, and the counters are adjusted by the difference, so the rates are read
+ * without scanning the window. a rejection only reads the state and the time it was opened, and returns the
+ * preallocated exception.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+@Slf4j
+final class CircuitBreaker {
+
+    private static final int CLOSED = 0;
+
+    private static final int OPEN = 1;
+
+    private static final int HALF_OPEN = 2;
+
+    private static final int RECORDED = 1;
+
+    private static final int FAILURE = 2;
+
+    private static final int SLOW = 4;
+
+    private static final long NOT_OPENED = Long.MIN_VALUE;
+
+    private final String name;
+
+    private final Settings settings;
+
+    private final AtomicIntegerArray window;
+
+    private final AtomicLong index = new AtomicLong();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private final AtomicInteger slowCalls = new AtomicInteger();
+
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    private final AtomicLong openedAt = new AtomicLong(NOT_OPENED);
+
+    private final CallNotPermittedException rejection;
+
+    private final Mono<Object> rejected;
+
+    CircuitBreaker(String name, Settings settings) {
+        this.name = name;
+        this.settings = settings;
+        this.window = new AtomicIntegerArray(settings.slidingWindowSize());
+        this.rejection = new CallNotPermittedException(name);
+        this.rejected = Mono.error(rejection);
+    }
+
+    /**
+     * whether the circuit is open and not yet due for probing
+     *
+     * @return whether the calls are rejected
+     */
+    boolean isOpen() {
+        return state.get() == OPEN && !isDue(openedAt.get());
+    }
+
+    /**
+     * acquire a permission to call, the caller must report the outcome by {@link #onSuccess(long)},
+     * {@link #onError(long, Throwable)} or {@link #onCancel()}
+     *
+     * @return whether the call is permitted
+     */
+    boolean tryAcquire() {
+        int current = state.get();
+        if (current == CLOSED) {
+            return true;
+        }
+        if (current == OPEN) {
+            long opened = openedAt.get();
+            if (!isDue(opened)) {
+                return false;
+            }
+            // the open time is claimed, so a caller which read it before the circuit was opened again cannot probe
+            if (openedAt.compareAndSet(opened, NOT_OPENED)) {
+                halfOpenSuccesses.set(0);
+                halfOpenPermits.set(settings.permittedCallsInHalfOpenState());
+                state.set(HALF_OPEN);
+                log.info("Circuit breaker '{}' is half-open.", name);
+            }
+        }
+        while (true) {
+            current = state.get();
+            if (current != HALF_OPEN) {
+                return current == CLOSED;
+            }
+            int permits = halfOpenPermits.get();
+            if (permits <= 0) {
+                return false;
+            }
+            if (halfOpenPermits.compareAndSet(permits, permits - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * the call succeeded
+     *
+     * @param nanos the duration
+     */
+    void onSuccess(long nanos) {
+        onResult(nanos, false);
+    }
+
+    /**
+     * the call failed
+     *
+     * @param nanos the duration
+     * @param error the error
+     */
+    void onError(long nanos, Throwable error) {
+        onResult(nanos, isFailure(error));
+    }
+
+    /**
+     * the call was cancelled or not sent, its probing permit is given back
+     */
+    void onCancel() {
+        if (state.get() == HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    CallNotPermittedException rejection() {
+        return rejection;
+    }
+
+    Mono<Object> rejected() {
+        return rejected;
+    }
+
+    private void onResult(long nanos, boolean failure) {
+        boolean slow = nanos >= settings.slowCallDuration();
+        int current = state.get();
+        if (current == HALF_OPEN) {
+            if (failure || slow) {
+                open(HALF_OPEN);
+            } else if (halfOpenSuccesses.incrementAndGet() >= settings.permittedCallsInHalfOpenState() && state.compareAndSet(HALF_OPEN, CLOSED)) {
+                clear();
+                log.info("Circuit breaker '{}' is closed.", name);
+            }
+            return;
+        }
+        if (current != CLOSED) {
+            return;
+        }
+        int outcome = RECORDED | (failure ? FAILURE : 0) | (slow ? SLOW : 0);
+        int previous = window.getAndSet((int) (index.getAndIncrement() % window.length()), outcome);
+        int total = previous == 0 ? calls.incrementAndGet() : calls.get();
+        int failed = failures.addAndGet(bit(outcome, FAILURE) - bit(previous, FAILURE));
+        int slowed = slowCalls.addAndGet(bit(outcome, SLOW) - bit(previous, SLOW));
+        if (total >= settings.minimumCalls()
+                && (failed >= settings.failureRateThreshold() * total || slowed >= settings.slowCallRateThreshold() * total)) {
+            open(CLOSED);
+        }
+    }
+
+    /**
+     * the open time is written after the state, the callers reading the state in between see no open time and are rejected
+     */
+    private void open(int from) {
+        long now = System.nanoTime();
+        if (state.compareAndSet(from, OPEN)) {
+            openedAt.set(now == NOT_OPENED ? now + 1 : now);
+            log.warn("Circuit breaker '{}' is open.", name);
+        }
+    }
+
+    private boolean isDue(long opened) {
+        return opened != NOT_OPENED && System.nanoTime() - opened >= settings.waitInOpenState();
+    }
+
+    /**
+     * empty the window, the counters are adjusted slot by slot to stay consistent with the concurrent writers
+     */
+    private void clear() {
+        for (int i = 0; i < window.length(); i++) {
+            int previous = window.getAndSet(i, 0);
+            if (previous != 0) {
+                calls.decrementAndGet();
+                failures.addAndGet(-bit(previous, FAILURE));
+                slowCalls.addAndGet(-bit(previous, SLOW));
+            }
+        }
+    }
+
+    private static int bit(int outcome, int flag) {
+        return (outcome & flag) != 0 ? 1 : 0;
+    }
+
+    /**
+     * client errors are caused by the request, not by the server
+     */
+    private static boolean isFailure(Throwable error) {
+        for (Throwable cause = error; Objects.nonNull(cause); cause = cause.getCause()) {
+            if (cause instanceof WebClientResponseException e) {
+                return !e.getStatusCode().is4xxClientError();
+            }
+            if (cause instanceof RestClientResponseException e) {
+                return !e.getStatusCode().is4xxClientError();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * resolved circuit breaker settings
+     *
+     * @param failureRateThreshold          the failure rate to open the circuit
+     * @param slowCallRateThreshold         the slow call rate to open the circuit
+     * @param slowCallDuration              the slow call duration in nanoseconds
+     * @param slidingWindowSize             the number of calls in the window
+     * @param minimumCalls                  the minimum number of calls before the rates are evaluated
+     * @param waitInOpenState               the open duration in nanoseconds
+     * @param permittedCallsInHalfOpenState the number of probing calls
+     */
+    record Settings(double failureRateThreshold,
+                    double slowCallRateThreshold,
+                    long slowCallDuration,
+                    int slidingWindowSize,
+                    int minimumCalls,
+                    long waitInOpenState,
+                    int permittedCallsInHalfOpenState) {
+    }
+}
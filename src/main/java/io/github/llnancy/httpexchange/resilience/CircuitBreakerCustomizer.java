@@ -0,0 +1,153 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.ClientProperties;
+import io.github.llnancy.httpexchange.core.BulkheadPolicy;
+import io.github.llnancy.httpexchange.core.CircuitBreakerPolicy;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * installs the circuit breakers and the bulkheads on a http exchange client.
+ * <p>
+ * the client has one circuit breaker and one bulkhead shared by its methods when enabled by the properties or
+ * the annotations of the interface. the methods enabled by {@code method-circuit-breakers.<method>}
+ * ({@code method-bulkheads.<method>}) or annotated have their own instead, resolved from the properties of
+ * the method and its annotation only.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+@Slf4j
+public final class CircuitBreakerCustomizer implements HttpExchangeClientCustomizer {
+
+    private static final HttpExchangeClientProperties.CircuitBreaker NO_BREAKER_PROPERTIES = new HttpExchangeClientProperties.CircuitBreaker();
+
+    private static final HttpExchangeClientProperties.Bulkhead NO_BULKHEAD_PROPERTIES = new HttpExchangeClientProperties.Bulkhead();
+
+    private final Map<Method, CircuitBreakerInterceptor.GuardedMethod> methods;
+
+    private CircuitBreakerCustomizer(Map<Method, CircuitBreakerInterceptor.GuardedMethod> methods) {
+        this.methods = methods;
+    }
+
+    /**
+     * create the customizer of a client
+     *
+     * @param metadata {@link HttpExchangeClientMetadata}
+     * @return {@link CircuitBreakerCustomizer}, or {@code null} if the client has no circuit breaker nor bulkhead
+     */
+    public static CircuitBreakerCustomizer create(HttpExchangeClientMetadata metadata) {
+        ClientPropertiesResolver resolver = metadata.properties();
+        CircuitBreakerPolicy clientBreakerPolicy = AnnotatedElementUtils.findMergedAnnotation(metadata.clientInterface(), CircuitBreakerPolicy.class);
+        BulkheadPolicy clientBulkheadPolicy = AnnotatedElementUtils.findMergedAnnotation(metadata.clientInterface(), BulkheadPolicy.class);
+        CircuitBreaker clientBreaker = createBreaker(metadata.name(), resolver, ClientProperties::getCircuitBreaker, clientBreakerPolicy);
+        Bulkhead clientBulkhead = createBulkhead(metadata.name(), resolver, ClientProperties::getBulkhead, clientBulkheadPolicy);
+        Map<Method, CircuitBreakerInterceptor.GuardedMethod> methods = new HashMap<>();
+        for (HttpExchangeMethod exchangeMethod : metadata.methods().values()) {
+            Method method = exchangeMethod.method();
+            String methodName = method.getName();
+            String name = metadata.name() + "." + methodName;
+            CircuitBreaker methodBreaker = createBreaker(name, resolver,
+                    p -> Objects.nonNull(p.getMethodCircuitBreakers()) ? p.getMethodCircuitBreakers().getOrDefault(methodName, NO_BREAKER_PROPERTIES) : NO_BREAKER_PROPERTIES,
+                    AnnotatedElementUtils.findMergedAnnotation(method, CircuitBreakerPolicy.class));
+            Bulkhead methodBulkhead = createBulkhead(name, resolver,
+                    p -> Objects.nonNull(p.getMethodBulkheads()) ? p.getMethodBulkheads().getOrDefault(methodName, NO_BULKHEAD_PROPERTIES) : NO_BULKHEAD_PROPERTIES,
+                    AnnotatedElementUtils.findMergedAnnotation(method, BulkheadPolicy.class));
+            CircuitBreaker breaker = Objects.nonNull(methodBreaker) ? methodBreaker : clientBreaker;
+            Bulkhead bulkhead = Objects.nonNull(methodBulkhead) ? methodBulkhead : clientBulkhead;
+            if (Objects.isNull(breaker) && Objects.isNull(bulkhead)) {
+                continue;
+            }
+            if (!isMonoOrValue(method)) {
+                log.warn("Circuit breakers and bulkheads only support methods returning Mono or a value, ignore {}.", method);
+                continue;
+            }
+            methods.put(method, new CircuitBreakerInterceptor.GuardedMethod(Mono.class.isAssignableFrom(method.getReturnType()), breaker, bulkhead));
+        }
+        return methods.isEmpty() ? null : new CircuitBreakerCustomizer(methods);
+    }
+
+    /**
+     * create the circuit breaker of the client or of a method
+     *
+     * @param name       the circuit breaker name
+     * @param resolver   {@link ClientPropertiesResolver}
+     * @param properties the circuit breaker properties of the client or of the method
+     * @param policy     the {@link CircuitBreakerPolicy} of the interface or of the method, or {@code null}
+     * @return {@link CircuitBreaker}, or {@code null} if not enabled
+     */
+    private static CircuitBreaker createBreaker(String name, ClientPropertiesResolver resolver,
+                                                Function<ClientProperties, HttpExchangeClientProperties.CircuitBreaker> properties,
+                                                CircuitBreakerPolicy policy) {
+        boolean annotated = Objects.nonNull(policy);
+        if (!resolver.resolve(p -> properties.apply(p).getEnabled(), annotated ? Boolean.TRUE : null, false)) {
+            return null;
+        }
+        double failureRateThreshold = resolver.resolve(p -> properties.apply(p).getFailureRateThreshold(),
+                annotated && policy.failureRateThreshold() >= 0 ? policy.failureRateThreshold() : null, 0.5);
+        double slowCallRateThreshold = resolver.resolve(p -> properties.apply(p).getSlowCallRateThreshold(),
+                annotated && policy.slowCallRateThreshold() >= 0 ? policy.slowCallRateThreshold() : null, 1.0);
+        Duration slowCallDuration = resolver.resolve(p -> properties.apply(p).getSlowCallDuration(),
+                annotated ? resolver.resolveDuration(policy.slowCallDuration()) : null, Duration.ofSeconds(60));
+        Integer slidingWindowSize = resolver.resolveInt(p -> properties.apply(p).getSlidingWindowSize(), annotated ? policy.slidingWindowSize() : -1);
+        Integer minimumCalls = resolver.resolveInt(p -> properties.apply(p).getMinimumCalls(), annotated ? policy.minimumCalls() : -1);
+        Duration waitInOpenState = resolver.resolve(p -> properties.apply(p).getWaitInOpenState(),
+                annotated ? resolver.resolveDuration(policy.waitInOpenState()) : null, Duration.ofSeconds(30));
+        Integer permittedCalls = resolver.resolveInt(p -> properties.apply(p).getPermittedCallsInHalfOpenState(), annotated ? policy.permittedCallsInHalfOpenState() : -1);
+        int windowSize = Math.max(1, Objects.nonNull(slidingWindowSize) ? slidingWindowSize : 100);
+        return new CircuitBreaker(name, new CircuitBreaker.Settings(failureRateThreshold,
+                slowCallRateThreshold,
+                slowCallDuration.toNanos(),
+                windowSize,
+                Math.max(1, Math.min(windowSize, Objects.nonNull(minimumCalls) ? minimumCalls : 20)),
+                waitInOpenState.toNanos(),
+                Math.max(1, Objects.nonNull(permittedCalls) ? permittedCalls : 5)));
+    }
+
+    /**
+     * create the bulkhead of the client or of a method
+     *
+     * @param name       the bulkhead name
+     * @param resolver   {@link ClientPropertiesResolver}
+     * @param properties the bulkhead properties of the client or of the method
+     * @param policy     the {@link BulkheadPolicy} of the interface or of the method, or {@code null}
+     * @return {@link Bulkhead}, or {@code null} if not enabled
+     */
+    private static Bulkhead createBulkhead(String name, ClientPropertiesResolver resolver,
+                                           Function<ClientProperties, HttpExchangeClientProperties.Bulkhead> properties,
+                                           BulkheadPolicy policy) {
+        boolean annotated = Objects.nonNull(policy);
+        if (!resolver.resolve(p -> properties.apply(p).getEnabled(), annotated ? Boolean.TRUE : null, false)) {
+            return null;
+        }
+        Integer maxConcurrentCalls = resolver.resolveInt(p -> properties.apply(p).getMaxConcurrentCalls(), annotated ? policy.maxConcurrentCalls() : -1);
+        Duration maxWait = resolver.resolve(p -> properties.apply(p).getMaxWait(), annotated ? resolver.resolveDuration(policy.maxWait()) : null, Duration.ZERO);
+        return new Bulkhead(name, Math.max(1, Objects.nonNull(maxConcurrentCalls) ? maxConcurrentCalls : 25), maxWait.toNanos());
+    }
+
+    private static boolean isMonoOrValue(Method method) {
+        return Mono.class.isAssignableFrom(method.getReturnType())
+                || Objects.isNull(ReactiveAdapterRegistry.getSharedInstance().getAdapter(method.getReturnType()));
+    }
+
+    @Override
+    public void customizeInterceptors(HttpExchangeClientMetadata metadata, List<MethodInterceptor> interceptors) {
+        interceptors.add(new CircuitBreakerInterceptor(methods));
+    }
+}
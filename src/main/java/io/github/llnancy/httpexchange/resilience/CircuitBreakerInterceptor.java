@@ -0,0 +1,134 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.lang.NonNull;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * guards the invocations by the circuit breakers and the bulkheads.
+ * <p>
+ * the {@code Mono} of a reactive method is created by the invocation, the permits are acquired when it is
+ * subscribed, so every subscription of a retry is a call. an open circuit is checked first, so the rejected
+ * invocations return the preallocated error without allocating.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+final class CircuitBreakerInterceptor implements MethodInterceptor {
+
+    private final Map<Method, GuardedMethod> methods;
+
+    CircuitBreakerInterceptor(Map<Method, GuardedMethod> methods) {
+        this.methods = methods;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        GuardedMethod method = methods.get(invocation.getMethod());
+        if (Objects.isNull(method)) {
+            return invocation.proceed();
+        }
+        CircuitBreaker breaker = method.breaker();
+        if (method.reactive()) {
+            if (Objects.nonNull(breaker) && breaker.isOpen()) {
+                return breaker.rejected();
+            }
+            return invokeReactive(method, invocation);
+        }
+        if (Objects.nonNull(breaker) && !breaker.tryAcquire()) {
+            throw breaker.rejection();
+        }
+        Bulkhead bulkhead = method.bulkhead();
+        if (Objects.nonNull(bulkhead) && !acquire(bulkhead, breaker)) {
+            throw bulkhead.rejection();
+        }
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            if (Objects.nonNull(breaker)) {
+                breaker.onSuccess(System.nanoTime() - start);
+            }
+            return result;
+        } catch (Throwable t) {
+            if (Objects.nonNull(breaker)) {
+                breaker.onError(System.nanoTime() - start, t);
+            }
+            throw t;
+        } finally {
+            if (Objects.nonNull(bulkhead)) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Mono<Object> invokeReactive(GuardedMethod method, MethodInvocation invocation) throws Throwable {
+        Mono<Object> call = (Mono<Object>) invocation.proceed();
+        CircuitBreaker breaker = method.breaker();
+        Bulkhead bulkhead = method.bulkhead();
+        return Mono.defer(() -> {
+            if (Objects.nonNull(breaker) && !breaker.tryAcquire()) {
+                return breaker.rejected();
+            }
+            if (Objects.nonNull(bulkhead) && !bulkhead.tryAcquire()) {
+                if (Objects.nonNull(breaker)) {
+                    breaker.onCancel();
+                }
+                return bulkhead.rejected();
+            }
+            long start = System.nanoTime();
+            Mono<Object> guarded = call;
+            if (Objects.nonNull(breaker)) {
+                // a cancel racing the outcome must not give back the probing permit of a reported call
+                AtomicBoolean reported = new AtomicBoolean();
+                guarded = guarded.doOnSuccess(value -> {
+                            if (reported.compareAndSet(false, true)) {
+                                breaker.onSuccess(System.nanoTime() - start);
+                            }
+                        })
+                        .doOnError(error -> {
+                            if (reported.compareAndSet(false, true)) {
+                                breaker.onError(System.nanoTime() - start, error);
+                            }
+                        })
+                        .doOnCancel(() -> {
+                            if (reported.compareAndSet(false, true)) {
+                                breaker.onCancel();
+                            }
+                        });
+            }
+            if (Objects.nonNull(bulkhead)) {
+                guarded = guarded.doFinally(signal -> bulkhead.release());
+            }
+            return guarded;
+        });
+    }
+
+    private static boolean acquire(Bulkhead bulkhead, CircuitBreaker breaker) throws InterruptedException {
+        boolean acquired = false;
+        try {
+            acquired = bulkhead.tryAcquireBlocking();
+            return acquired;
+        } finally {
+            if (!acquired && Objects.nonNull(breaker)) {
+                breaker.onCancel();
+            }
+        }
+    }
+
+    /**
+     * the guards of a method
+     *
+     * @param reactive whether the method returns {@code Mono}
+     * @param breaker  the circuit breaker, or {@code null}
+     * @param bulkhead the bulkhead, or {@code null}
+     */
+    record GuardedMethod(boolean reactive, CircuitBreaker breaker, Bulkhead bulkhead) {
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * tracks a percentile of the recent latencies of a method as its hedging threshold.
+ * <p>
+ * the latencies are recorded into a ring buffer without locking, the percentile is recomputed from
+ * a copy of the buffer at most every 100 milliseconds, by the first reader after the interval.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/27
+ */
+final class LatencyTracker {
+
+    private static final int SIZE = 1024;
+
+    private static final int MIN_SAMPLES = 100;
+
+    private static final long REFRESH_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong refreshedAt = new AtomicLong(System.nanoTime());
+
+    private final double percentile;
+
+    private final long fallback;
+
+    private volatile long threshold;
+
+    LatencyTracker(double percentile, long fallback) {
+        this.percentile = percentile;
+        this.fallback = fallback;
+        this.threshold = fallback;
+    }
+
+    void record(long nanos) {
+        samples.set((int) (count.getAndIncrement() & (SIZE - 1)), nanos);
+    }
+
+    /**
+     * the threshold in nanoseconds
+     *
+     * @return threshold
+     */
+    long threshold() {
+        long now = System.nanoTime();
+        long last = refreshedAt.get();
+        if (now - last >= REFRESH_INTERVAL && refreshedAt.compareAndSet(last, now)) {
+            threshold = compute();
+        }
+        return threshold;
+    }
+
+    private long compute() {
+        int n = (int) Math.min(count.get(), SIZE);
+        if (n < MIN_SAMPLES) {
+            return fallback;
+        }
+        long[] copy = new long[n];
+        for (int i = 0; i < n; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(percentile * n) - 1;
+        return copy[Math.max(0, Math.min(n - 1, index))];
+    }
+}
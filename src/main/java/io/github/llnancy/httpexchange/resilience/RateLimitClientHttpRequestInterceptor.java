@@ -0,0 +1,42 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * pauses the adaptive rate limiters of the blocking transports by the response headers
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+final class RateLimitClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Map<Object, List<RateLimiter>> rateLimiters;
+
+    RateLimitClientHttpRequestInterceptor(Map<Object, List<RateLimiter>> rateLimiters) {
+        this.rateLimiters = rateLimiters;
+    }
+
+    @Override
+    @NonNull
+    public ClientHttpResponse intercept(@NonNull HttpRequest request, @NonNull byte[] body, @NonNull ClientHttpRequestExecution execution) throws IOException {
+        ClientHttpResponse response = execution.execute(request, body);
+        List<RateLimiter> adaptive = rateLimiters.get(HttpExchangeMethodContext.current());
+        if (Objects.nonNull(adaptive)) {
+            long pause = RateLimitHeaders.pauseNanos(response.getStatusCode().value(), response.getHeaders());
+            if (pause > 0) {
+                adaptive.forEach(rateLimiter -> rateLimiter.pause(pause));
+            }
+        }
+        return response;
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * pauses the adaptive rate limiters of the {@code WebClient} transport by the response headers
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+final class RateLimitExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final Map<Object, List<RateLimiter>> rateLimiters;
+
+    RateLimitExchangeFilterFunction(Map<Object, List<RateLimiter>> rateLimiters) {
+        this.rateLimiters = rateLimiters;
+    }
+
+    @Override
+    @NonNull
+    public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+        List<RateLimiter> adaptive = rateLimiters.get(request.attributes().get(HttpExchangeMethodContext.ATTRIBUTE));
+        if (Objects.isNull(adaptive)) {
+            return next.exchange(request);
+        }
+        return next.exchange(request).doOnNext(response -> {
+            long pause = RateLimitHeaders.pauseNanos(response.statusCode().value(), response.headers().asHttpHeaders());
+            if (pause > 0) {
+                adaptive.forEach(rateLimiter -> rateLimiter.pause(pause));
+            }
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * reads the pause asked by the server from the response headers:
+ * <ul>
+ *     <li>{@code Retry-After} of a 429 or 503 response, in seconds or as a http date</li>
+ *     <li>{@code RateLimit-Reset} seconds when {@code RateLimit-Remaining} is 0</li>
+ * </ul>
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+final class RateLimitHeaders {
+
+    static final String RATE_LIMIT_REMAINING = "RateLimit-Remaining";
+
+    static final String RATE_LIMIT_RESET = "RateLimit-Reset";
+
+    private RateLimitHeaders() {
+    }
+
+    /**
+     * the pause of a response
+     *
+     * @param status  the status code
+     * @param headers the response headers
+     * @return the pause in nanoseconds, 0 if none
+     */
+    static long pauseNanos(int status, HttpHeaders headers) {
+        if (status == 429 || status == 503) {
+            long retryAfter = retryAfterNanos(headers.getFirst(HttpHeaders.RETRY_AFTER));
+            if (retryAfter > 0) {
+                return retryAfter;
+            }
+        }
+        if ("0".equals(trim(headers.getFirst(RATE_LIMIT_REMAINING)))) {
+            return secondsNanos(headers.getFirst(RATE_LIMIT_RESET));
+        }
+        return 0;
+    }
+
+    private static long retryAfterNanos(String value) {
+        if (!StringUtils.hasText(value)) {
+            return 0;
+        }
+        long seconds = secondsNanos(value);
+        if (seconds > 0) {
+            return seconds;
+        }
+        try {
+            return Math.max(0, Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)).toNanos());
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    private static long secondsNanos(String value) {
+        String seconds = trim(value);
+        if (!StringUtils.hasText(seconds) || !seconds.chars().allMatch(Character::isDigit)) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(seconds));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String trim(String value) {
+        return StringUtils.hasText(value) ? value.trim() : value;
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * a lock-free token bucket.
+ * <p>
+ * the state is the time at which the next permit is refilled, the bucket is full when it is a burst behind now.
+ * a call reserves a permit by moving the time forward by one interval with a single compare and set, then waits
+ * until the reserved permit is refilled, so the waiting calls are served in order without a queue.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public final class RateLimiter {
+
+    @Getter
+    private final String clientName;
+
+    @Getter
+    private final String name;
+
+    private final long interval;
+
+    private final long burstWindow;
+
+    private final long maxWait;
+
+    private final AtomicLong next;
+
+    private final LongAdder permits = new LongAdder();
+
+    private final LongAdder waitNanos = new LongAdder();
+
+    private final LongAdder rejections = new LongAdder();
+
+    private final RequestNotPermittedException rejection;
+
+    RateLimiter(String clientName, String name, double permitsPerSecond, int burst, long maxWait) {
+        this.clientName = clientName;
+        this.name = name;
+        this.interval = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstWindow = (burst - 1) * interval;
+        this.maxWait = maxWait;
+        this.next = new AtomicLong(System.nanoTime() - burstWindow);
+        this.rejection = new RequestNotPermittedException(name);
+    }
+
+    /**
+     * reserve a permit
+     *
+     * @return the nanoseconds to wait for the permit, or {@code -1} if it is not refilled within the max wait
+     */
+    long reserve() {
+        for (; ; ) {
+            long now = System.nanoTime();
+            long current = next.get();
+            long full = now - burstWindow;
+            long available = current - full > 0 ? current : full;
+            long wait = available - now;
+            if (wait > maxWait) {
+                rejections.increment();
+                return -1;
+            }
+            if (next.compareAndSet(current, available + interval)) {
+                wait = Math.max(0, wait);
+                permits.increment();
+                waitNanos.add(wait);
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * give back a permit reserved by {@link #reserve()} which is not used, the permits reserved after it
+     * become available one interval earlier
+     *
+     * @param wait the nanoseconds returned by {@link #reserve()}
+     */
+    void cancel(long wait) {
+        next.addAndGet(-interval);
+        permits.decrement();
+        waitNanos.add(-wait);
+    }
+
+    /**
+     * refill no permit until the pause elapses
+     *
+     * @param pauseNanos the pause
+     */
+    void pause(long pauseNanos) {
+        long until = System.nanoTime() + pauseNanos;
+        next.accumulateAndGet(until, (current, target) -> current - target > 0 ? current : target);
+    }
+
+    RequestNotPermittedException rejection() {
+        return rejection;
+    }
+
+    /**
+     * the number of permits taken
+     *
+     * @return permits
+     */
+    public long getPermits() {
+        return permits.sum();
+    }
+
+    /**
+     * the total time waited for the permits
+     *
+     * @return nanoseconds
+     */
+    public long getWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    /**
+     * the number of rejected calls
+     *
+     * @return rejections
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+}
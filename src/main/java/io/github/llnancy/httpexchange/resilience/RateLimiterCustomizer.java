@@ -0,0 +1,149 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.ClientProperties;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.github.llnancy.httpexchange.core.RateLimitPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * installs the rate limiters on a http exchange client.
+ * <p>
+ * the client has one rate limiter shared by its methods when enabled by the properties or the annotation of
+ * the interface. the methods enabled by {@code method-rate-limiters.<method>} or annotated have their own as well,
+ * resolved from the properties of the method and its annotation only, a call takes a permit of both.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+@Slf4j
+public final class RateLimiterCustomizer implements HttpExchangeClientCustomizer {
+
+    private final Map<Method, RateLimiterInterceptor.LimitedMethod> methods;
+
+    private static final HttpExchangeClientProperties.RateLimiter NO_PROPERTIES = new HttpExchangeClientProperties.RateLimiter();
+
+    private final Map<Object, List<RateLimiter>> adaptive;
+
+    private RateLimiterCustomizer(Map<Method, RateLimiterInterceptor.LimitedMethod> methods, Map<Object, List<RateLimiter>> adaptive) {
+        this.methods = methods;
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * create the customizer of a client
+     *
+     * @param metadata {@link HttpExchangeClientMetadata}
+     * @param registry {@link RateLimiterRegistry}
+     * @return {@link RateLimiterCustomizer}, or {@code null} if the client has no rate limiter
+     */
+    public static RateLimiterCustomizer create(HttpExchangeClientMetadata metadata, RateLimiterRegistry registry) {
+        ClientPropertiesResolver resolver = metadata.properties();
+        RateLimitPolicy clientPolicy = AnnotatedElementUtils.findMergedAnnotation(metadata.clientInterface(), RateLimitPolicy.class);
+        AdaptiveRateLimiter clientRateLimiter = createRateLimiter(metadata.name(), metadata.name(), resolver, ClientProperties::getRateLimiter, clientPolicy, registry);
+        Map<Method, RateLimiterInterceptor.LimitedMethod> methods = new HashMap<>();
+        Map<Object, List<RateLimiter>> adaptive = new IdentityHashMap<>();
+        for (HttpExchangeMethod exchangeMethod : metadata.methods().values()) {
+            Method method = exchangeMethod.method();
+            String methodName = method.getName();
+            RateLimitPolicy policy = AnnotatedElementUtils.findMergedAnnotation(method, RateLimitPolicy.class);
+            AdaptiveRateLimiter methodRateLimiter = createRateLimiter(metadata.name(), metadata.name() + "." + methodName, resolver,
+                    p -> Objects.nonNull(p.getMethodRateLimiters()) ? p.getMethodRateLimiters().getOrDefault(methodName, NO_PROPERTIES) : NO_PROPERTIES,
+                    policy, registry);
+            List<AdaptiveRateLimiter> rateLimiters = Stream.of(methodRateLimiter, clientRateLimiter).filter(Objects::nonNull).toList();
+            if (rateLimiters.isEmpty()) {
+                continue;
+            }
+            if (!isMonoOrValue(method)) {
+                log.warn("Rate limiters only support methods returning Mono or a value, ignore {}.", method);
+                continue;
+            }
+            methods.put(method, new RateLimiterInterceptor.LimitedMethod(Mono.class.isAssignableFrom(method.getReturnType()),
+                    rateLimiters.stream().map(AdaptiveRateLimiter::rateLimiter).toList()));
+            List<RateLimiter> adaptiveRateLimiters = rateLimiters.stream().filter(AdaptiveRateLimiter::adaptive).map(AdaptiveRateLimiter::rateLimiter).toList();
+            if (!adaptiveRateLimiters.isEmpty()) {
+                adaptive.put(exchangeMethod, adaptiveRateLimiters);
+            }
+        }
+        return methods.isEmpty() ? null : new RateLimiterCustomizer(methods, adaptive);
+    }
+
+    /**
+     * create the rate limiter of the client or of a method
+     *
+     * @param clientName the client name
+     * @param name       the rate limiter name
+     * @param resolver   {@link ClientPropertiesResolver}
+     * @param properties the rate limiter properties of the client or of the method
+     * @param policy     the {@link RateLimitPolicy} of the interface or of the method, or {@code null}
+     * @param registry   {@link RateLimiterRegistry}
+     * @return {@link AdaptiveRateLimiter}, or {@code null} if not enabled
+     */
+    private static AdaptiveRateLimiter createRateLimiter(String clientName, String name, ClientPropertiesResolver resolver,
+                                                         Function<ClientProperties, HttpExchangeClientProperties.RateLimiter> properties,
+                                                         RateLimitPolicy policy, RateLimiterRegistry registry) {
+        boolean annotated = Objects.nonNull(policy);
+        if (!resolver.resolve(p -> properties.apply(p).getEnabled(), annotated ? Boolean.TRUE : null, false)) {
+            return null;
+        }
+        double permitsPerSecond = resolver.resolve(p -> properties.apply(p).getPermitsPerSecond(),
+                annotated && policy.permitsPerSecond() > 0 ? policy.permitsPerSecond() : null, 10.0);
+        if (permitsPerSecond <= 0) {
+            log.warn("Rate limiter '{}' has no positive permits per second {}, ignore it.", name, permitsPerSecond);
+            return null;
+        }
+        Integer burst = resolver.resolveInt(p -> properties.apply(p).getBurst(), annotated ? policy.burst() : -1);
+        Duration maxWait = resolver.resolve(p -> properties.apply(p).getMaxWait(), annotated ? resolver.resolveDuration(policy.maxWait()) : null, Duration.ZERO);
+        boolean adaptive = resolver.resolve(p -> properties.apply(p).getAdaptive(), annotated && policy.adaptive() ? Boolean.TRUE : null, false);
+        RateLimiter rateLimiter = new RateLimiter(clientName, name, permitsPerSecond,
+                Math.max(1, Objects.nonNull(burst) ? burst : (int) Math.ceil(permitsPerSecond)), maxWait.toNanos());
+        registry.register(rateLimiter);
+        return new AdaptiveRateLimiter(rateLimiter, adaptive);
+    }
+
+    private static boolean isMonoOrValue(Method method) {
+        return Mono.class.isAssignableFrom(method.getReturnType())
+                || Objects.isNull(ReactiveAdapterRegistry.getSharedInstance().getAdapter(method.getReturnType()));
+    }
+
+    @Override
+    public void customizeWebClient(HttpExchangeClientMetadata metadata, WebClient.Builder builder) {
+        if (!adaptive.isEmpty()) {
+            builder.filter(new RateLimitExchangeFilterFunction(adaptive));
+        }
+    }
+
+    @Override
+    public void customizeRestClient(HttpExchangeClientMetadata metadata, RestClient.Builder builder) {
+        if (!adaptive.isEmpty()) {
+            builder.requestInterceptor(new RateLimitClientHttpRequestInterceptor(adaptive));
+        }
+    }
+
+    @Override
+    public void customizeInterceptors(HttpExchangeClientMetadata metadata, List<MethodInterceptor> interceptors) {
+        interceptors.add(new RateLimiterInterceptor(methods));
+    }
+
+    private record AdaptiveRateLimiter(RateLimiter rateLimiter, boolean adaptive) {
+    }
+}
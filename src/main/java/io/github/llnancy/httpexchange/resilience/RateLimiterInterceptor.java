@@ -0,0 +1,97 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.lang.NonNull;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * takes a permit of every rate limiter of the method for every invocation, a method with its own rate limiter
+ * is limited by it and by the rate limiter of the client.
+ * <p>
+ * the {@code Mono} of a reactive method is created by the invocation, the permit is reserved when it is subscribed
+ * and the subscription to the request is delayed until the permit is refilled, so no thread is blocked. a blocking
+ * invocation sleeps until the permit is refilled.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+final class RateLimiterInterceptor implements MethodInterceptor {
+
+    private final Map<Method, LimitedMethod> methods;
+
+    RateLimiterInterceptor(Map<Method, LimitedMethod> methods) {
+        this.methods = methods;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        LimitedMethod method = methods.get(invocation.getMethod());
+        if (Objects.isNull(method)) {
+            return invocation.proceed();
+        }
+        List<RateLimiter> rateLimiters = method.rateLimiters();
+        if (method.reactive()) {
+            return invokeReactive(rateLimiters, invocation);
+        }
+        long wait = reserve(rateLimiters);
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        return invocation.proceed();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Mono<Object> invokeReactive(List<RateLimiter> rateLimiters, MethodInvocation invocation) throws Throwable {
+        Mono<Object> call = (Mono<Object>) invocation.proceed();
+        return Mono.defer(() -> {
+            long wait;
+            try {
+                wait = reserve(rateLimiters);
+            } catch (RequestNotPermittedException e) {
+                return Mono.error(e);
+            }
+            return wait == 0 ? call : Mono.delay(Duration.ofNanos(wait)).then(call);
+        });
+    }
+
+    /**
+     * reserve a permit of every rate limiter, the reserved permits are given back when one of them rejects the call
+     *
+     * @param rateLimiters the rate limiters of the method
+     * @return the nanoseconds to wait for all permits
+     * @throws RequestNotPermittedException if a permit is not refilled within the max wait of its rate limiter
+     */
+    private static long reserve(List<RateLimiter> rateLimiters) {
+        long[] waits = new long[rateLimiters.size()];
+        long wait = 0;
+        for (int i = 0; i < waits.length; i++) {
+            RateLimiter rateLimiter = rateLimiters.get(i);
+            waits[i] = rateLimiter.reserve();
+            if (waits[i] < 0) {
+                for (int j = 0; j < i; j++) {
+                    rateLimiters.get(j).cancel(waits[j]);
+                }
+                throw rateLimiter.rejection();
+            }
+            wait = Math.max(wait, waits[i]);
+        }
+        return wait;
+    }
+
+    /**
+     * the rate limiters of a method
+     *
+     * @param reactive     whether the method returns {@code Mono}
+     * @param rateLimiters the own {@link RateLimiter} of the method if any, then the one of the client if any
+     */
+    record LimitedMethod(boolean reactive, List<RateLimiter> rateLimiters) {
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * registry of the {@link RateLimiter}s of the http exchange clients, keyed by rate limiter name
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public class RateLimiterRegistry {
+
+    private final Map<String, RateLimiter> rateLimiters = new LinkedHashMap<>();
+
+    private final List<Consumer<RateLimiter>> listeners = new ArrayList<>();
+
+    /**
+     * register a rate limiter
+     *
+     * @param rateLimiter {@link RateLimiter}
+     */
+    public synchronized void register(RateLimiter rateLimiter) {
+        rateLimiters.put(rateLimiter.getName(), rateLimiter);
+        listeners.forEach(listener -> listener.accept(rateLimiter));
+    }
+
+    /**
+     * add a listener called with every registered rate limiter, including the ones registered before
+     *
+     * @param listener the listener
+     */
+    public synchronized void addListener(Consumer<RateLimiter> listener) {
+        listeners.add(listener);
+        rateLimiters.values().forEach(listener);
+    }
+
+    /**
+     * the rate limiter of the name
+     *
+     * @param name the client name, or the client name and the method name joined by a dot
+     * @return {@link RateLimiter}, or {@code null}
+     */
+    public synchronized RateLimiter get(String name) {
+        return rateLimiters.get(name);
+    }
+
+    /**
+     * all registered rate limiters
+     *
+     * @return {@link RateLimiter}s
+     */
+    public synchronized Collection<RateLimiter> getRateLimiters() {
+        return Collections.unmodifiableList(new ArrayList<>(rateLimiters.values()));
+    }
+}
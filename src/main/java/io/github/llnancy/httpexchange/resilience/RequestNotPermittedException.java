@@ -0,0 +1,21 @@
+package io.github.llnancy.httpexchange.resilience;
+
+/**
+ * thrown when the rate limiter of a http exchange client has no permit within the max wait.
+ * <p>
+ * one instance is shared by all rejections of a rate limiter, it has no stack trace and no suppressed exceptions.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+public class RequestNotPermittedException extends RuntimeException {
+
+    /**
+     * constructor
+     *
+     * @param name the name of the rate limiter
+     */
+    public RequestNotPermittedException(String name) {
+        super("Rate limiter '" + name + "' does not permit further calls.", null, false, false);
+    }
+}
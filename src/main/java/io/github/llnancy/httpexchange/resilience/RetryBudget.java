@@ -0,0 +1,81 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * the retry budget of a http exchange client, shared by its retries and hedged requests.
+ * <p>
+ * every invocation deposits {@code ratio} of a token and every retry withdraws one, so the retries can not exceed
+ * the ratio of the invocations when the downstream fails. {@code minPerSecond} tokens are deposited every second
+ * to allow the retries of a client with low traffic. the balance is capped at 10 seconds of the minimum, or 10 tokens.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/27
+ */
+final class RetryBudget {
+
+    private static final long TOKEN = 1000;
+
+    private static final long REFILL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final long deposit;
+
+    private final long minPerSecond;
+
+    private final long cap;
+
+    private final AtomicLong balance;
+
+    private final AtomicLong refilledAt = new AtomicLong(System.nanoTime());
+
+    RetryBudget(double ratio, int minPerSecond) {
+        this.deposit = (long) (ratio * TOKEN);
+        this.minPerSecond = minPerSecond * TOKEN;
+        this.cap = Math.max(10 * TOKEN, 10 * this.minPerSecond);
+        this.balance = new AtomicLong(this.minPerSecond);
+    }
+
+    /**
+     * an invocation is started
+     */
+    void deposit() {
+        add(deposit);
+    }
+
+    /**
+     * try to withdraw a token for a retry or a hedged request
+     *
+     * @return whether the retry is allowed
+     */
+    boolean tryWithdraw() {
+        refill();
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        long last = refilledAt.get();
+        long elapsed = now - last;
+        if (elapsed >= REFILL_INTERVAL && refilledAt.compareAndSet(last, now)) {
+            add(minPerSecond * elapsed / TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    private void add(long amount) {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= cap) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(cap, current + amount)));
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.core.HedgePolicy;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.github.llnancy.httpexchange.core.Idempotent;
+import io.github.llnancy.httpexchange.core.RetryPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * installs the retries and hedging on a http exchange client which has {@link Idempotent} methods
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/27
+ */
+@Slf4j
+public final class RetryCustomizer implements HttpExchangeClientCustomizer {
+
+    private static final Set<Integer> DEFAULT_STATUSES = Set.of(502, 503, 504);
+
+    private static final List<Class<? extends Throwable>> DEFAULT_EXCEPTIONS = List.of(
+            WebClientRequestException.class, ResourceAccessException.class, IOException.class, TimeoutException.class);
+
+    private final Map<Method, RetryInterceptor.RetryMethod> methods;
+
+    private final RetryBudget budget;
+
+    private RetryCustomizer(Map<Method, RetryInterceptor.RetryMethod> methods, RetryBudget budget) {
+        this.methods = methods;
+        this.budget = budget;
+    }
+
+    /**
+     * create the customizer of a client
+     *
+     * @param metadata {@link HttpExchangeClientMetadata}
+     * @return {@link RetryCustomizer}, or {@code null} if the client has no retried or hedged method
+     */
+    public static RetryCustomizer create(HttpExchangeClientMetadata metadata) {
+        ClientPropertiesResolver resolver = metadata.properties();
+        Map<Method, RetryInterceptor.RetryMethod> methods = new HashMap<>();
+        for (HttpExchangeMethod exchangeMethod : metadata.methods().values()) {
+            Method method = exchangeMethod.method();
+            RetryPolicy retryPolicy = findAnnotation(metadata, method, RetryPolicy.class);
+            HedgePolicy hedgePolicy = findAnnotation(metadata, method, HedgePolicy.class);
+            if (Objects.isNull(findAnnotation(metadata, method, Idempotent.class))) {
+                if (Objects.nonNull(retryPolicy) || Objects.nonNull(hedgePolicy)) {
+                    log.warn("@RetryPolicy and @HedgePolicy only apply to @Idempotent methods, ignore {}.", method);
+                }
+                continue;
+            }
+            boolean retry = resolver.resolve(p -> p.getRetry().getEnabled(), Objects.nonNull(retryPolicy) ? Boolean.TRUE : null, false);
+            boolean hedge = resolver.resolve(p -> p.getHedge().getEnabled(), Objects.nonNull(hedgePolicy) ? Boolean.TRUE : null, false);
+            if (!retry && !hedge) {
+                continue;
+            }
+            if (!isMonoOrValue(method)) {
+                log.warn("Retries and hedging only support methods returning Mono or a value, ignore {}.", method);
+                continue;
+            }
+            RetryInterceptor.RetrySettings retrySettings = retry ? retrySettings(resolver, retryPolicy) : null;
+            Duration delay = null;
+            LatencyTracker tracker = null;
+            if (hedge) {
+                delay = resolver.resolve(p -> p.getHedge().getDelay(), Objects.nonNull(hedgePolicy) ? resolver.resolveDuration(hedgePolicy.delay()) : null, Duration.ofMillis(100));
+                Double percentile = resolver.resolve(p -> p.getHedge().getPercentile(), Objects.nonNull(hedgePolicy) && hedgePolicy.percentile() >= 0 ? hedgePolicy.percentile() : null);
+                if (Objects.nonNull(percentile) && percentile > 0 && percentile < 1) {
+                    tracker = new LatencyTracker(percentile, delay.toNanos());
+                }
+            }
+            methods.put(method, new RetryInterceptor.RetryMethod(Mono.class.isAssignableFrom(method.getReturnType()), retrySettings, delay, tracker));
+        }
+        if (methods.isEmpty()) {
+            return null;
+        }
+        RetryBudget budget = new RetryBudget(resolver.resolve(p -> p.getRetry().getBudgetRatio(), null, 0.2),
+                resolver.resolve(p -> p.getRetry().getBudgetMinPerSecond(), null, 10));
+        return new RetryCustomizer(methods, budget);
+    }
+
+    private static RetryInterceptor.RetrySettings retrySettings(ClientPropertiesResolver resolver, RetryPolicy policy) {
+        boolean annotated = Objects.nonNull(policy);
+        Integer maxAttempts = resolver.resolveInt(p -> p.getRetry().getMaxAttempts(), annotated ? policy.maxAttempts() : -1);
+        Set<Integer> statuses = resolver.resolve(p -> p.getRetry().getStatuses(),
+                annotated && policy.statuses().length > 0 ? Arrays.stream(policy.statuses()).boxed().collect(Collectors.toUnmodifiableSet()) : null,
+                DEFAULT_STATUSES);
+        List<Class<? extends Throwable>> exceptions = resolver.resolve(p -> p.getRetry().getExceptions(),
+                annotated && policy.exceptions().length > 0 ? List.of(policy.exceptions()) : null,
+                DEFAULT_EXCEPTIONS);
+        Duration initialBackoff = resolver.resolve(p -> p.getRetry().getInitialBackoff(), annotated ? resolver.resolveDuration(policy.initialBackoff()) : null, Duration.ofMillis(100));
+        Duration maxBackoff = resolver.resolve(p -> p.getRetry().getMaxBackoff(), annotated ? resolver.resolveDuration(policy.maxBackoff()) : null, Duration.ofSeconds(2));
+        Double jitter = resolver.resolve(p -> p.getRetry().getJitter(), annotated && policy.jitter() >= 0 ? policy.jitter() : null, 0.5);
+        return new RetryInterceptor.RetrySettings(Math.max(1, Objects.nonNull(maxAttempts) ? maxAttempts : 3),
+                statuses,
+                exceptions,
+                initialBackoff,
+                maxBackoff.compareTo(initialBackoff) < 0 ? initialBackoff : maxBackoff,
+                Math.max(0, Math.min(1, jitter)));
+    }
+
+    /**
+     * the annotation of the method, or of the client interface
+     */
+    private static <A extends Annotation> A findAnnotation(HttpExchangeClientMetadata metadata, Method method, Class<A> annotationType) {
+        A annotation = AnnotatedElementUtils.findMergedAnnotation(method, annotationType);
+        return Objects.nonNull(annotation) ? annotation : AnnotatedElementUtils.findMergedAnnotation(metadata.clientInterface(), annotationType);
+    }
+
+    private static boolean isMonoOrValue(Method method) {
+        return Mono.class.isAssignableFrom(method.getReturnType())
+                || Objects.isNull(ReactiveAdapterRegistry.getSharedInstance().getAdapter(method.getReturnType()));
+    }
+
+    @Override
+    public void customizeInterceptors(HttpExchangeClientMetadata metadata, List<MethodInterceptor> interceptors) {
+        interceptors.add(new RetryInterceptor(methods, budget));
+    }
+}
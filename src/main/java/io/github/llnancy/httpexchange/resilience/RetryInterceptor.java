@@ -0,0 +1,227 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.lang.NonNull;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * retries and hedges the invocations of the idempotent methods.
+ * <p>
+ * every attempt proceeds a clone of the invocation, with the invocation attributes captured from the invoking thread.
+ * a hedged attempt sends a second request when the first one is not answered within the threshold, the first
+ * answer wins and the other request is cancelled. the retries wrap the hedged attempts.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/27
+ */
+final class RetryInterceptor implements MethodInterceptor {
+
+    private final Map<Method, RetryMethod> methods;
+
+    private final RetryBudget budget;
+
+    RetryInterceptor(Map<Method, RetryMethod> methods, RetryBudget budget) {
+        this.methods = methods;
+        this.budget = budget;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        RetryMethod method = methods.get(invocation.getMethod());
+        if (Objects.isNull(method)) {
+            return invocation.proceed();
+        }
+        budget.deposit();
+        ProxyMethodInvocation proxyInvocation = (ProxyMethodInvocation) invocation;
+        Map<String, Object> attributes = HttpExchangeMethodContext.captureAttributes();
+        if (method.reactive()) {
+            return invokeReactive(method, proxyInvocation, attributes);
+        }
+        return invokeBlocking(method, proxyInvocation, attributes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mono<Object> invokeReactive(RetryMethod method, ProxyMethodInvocation invocation, Map<String, Object> attributes) {
+        Mono<Object> attempt = Mono.defer(() -> {
+            try {
+                return (Mono<Object>) proceed(invocation, attributes);
+            } catch (Throwable t) {
+                return Mono.error(t);
+            }
+        });
+        if (Objects.nonNull(method.hedge())) {
+            attempt = hedge(method, timed(method, attempt));
+        }
+        RetrySettings retry = method.retry();
+        if (Objects.isNull(retry)) {
+            return attempt;
+        }
+        return attempt.retryWhen(Retry.backoff(retry.maxAttempts() - 1, retry.initialBackoff())
+                .maxBackoff(retry.maxBackoff())
+                .jitter(retry.jitter())
+                .filter(error -> retry.isRetryable(error) && budget.tryWithdraw())
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private Object invokeBlocking(RetryMethod method, ProxyMethodInvocation invocation, Map<String, Object> attributes) throws Throwable {
+        RetrySettings retry = method.retry();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (Objects.isNull(method.hedge())) {
+                    return invocation.invocableClone().proceed();
+                }
+                Mono<Object> blocking = Mono.fromCallable(() -> {
+                    try {
+                        return proceed(invocation, attributes);
+                    } catch (Exception | Error e) {
+                        throw e;
+                    } catch (Throwable t) {
+                        throw new IllegalStateException(t);
+                    }
+                }).subscribeOn(Schedulers.boundedElastic());
+                try {
+                    return hedge(method, timed(method, blocking)).block();
+                } catch (RuntimeException e) {
+                    throw Exceptions.unwrap(e);
+                }
+            } catch (Throwable t) {
+                if (Objects.isNull(retry) || attempt >= retry.maxAttempts() || !retry.isRetryable(t) || !budget.tryWithdraw()) {
+                    throw t;
+                }
+                Thread.sleep(retry.backoff(attempt).toMillis());
+            }
+        }
+    }
+
+    private static Object proceed(ProxyMethodInvocation invocation, Map<String, Object> attributes) throws Throwable {
+        Map<String, Object> previous = HttpExchangeMethodContext.replaceAttributes(attributes);
+        try {
+            return invocation.invocableClone().proceed();
+        } finally {
+            HttpExchangeMethodContext.replaceAttributes(previous);
+        }
+    }
+
+    private static Mono<Object> timed(RetryMethod method, Mono<Object> attempt) {
+        LatencyTracker tracker = method.tracker();
+        if (Objects.isNull(tracker)) {
+            return attempt;
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return attempt.doOnSuccess(value -> tracker.record(System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * subscribe to the attempt, and to a second one after the threshold, the first answer wins
+     */
+    private Mono<Object> hedge(RetryMethod method, Mono<Object> attempt) {
+        return Mono.create(sink -> {
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicInteger pending = new AtomicInteger(1);
+            Disposable.Composite disposables = Disposables.composite();
+            Runnable subscribe = () -> disposables.add(attempt.subscribe(
+                    value -> {
+                        if (done.compareAndSet(false, true)) {
+                            sink.success(value);
+                            disposables.dispose();
+                        }
+                    },
+                    error -> {
+                        if (pending.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+                            sink.error(error);
+                        }
+                    },
+                    () -> {
+                        if (done.compareAndSet(false, true)) {
+                            sink.success();
+                            disposables.dispose();
+                        }
+                    }));
+            sink.onDispose(disposables);
+            subscribe.run();
+            long threshold = Objects.nonNull(method.tracker()) ? method.tracker().threshold() : method.hedge().toNanos();
+            disposables.add(Schedulers.parallel().schedule(() -> {
+                if (!done.get() && budget.tryWithdraw()) {
+                    pending.incrementAndGet();
+                    subscribe.run();
+                }
+            }, threshold, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * the retry and hedging settings of a method
+     *
+     * @param reactive whether the method returns {@code Mono}
+     * @param retry    the retry settings, or {@code null}
+     * @param hedge    the fixed hedging threshold, or {@code null}
+     * @param tracker  the percentile hedging threshold, or {@code null}
+     */
+    record RetryMethod(boolean reactive, RetrySettings retry, Duration hedge, LatencyTracker tracker) {
+    }
+
+    /**
+     * resolved retry settings
+     *
+     * @param maxAttempts    the maximum number of attempts
+     * @param statuses       the status codes to retry
+     * @param exceptions     the exceptions to retry
+     * @param initialBackoff the backoff of the first retry
+     * @param maxBackoff     the maximum backoff
+     * @param jitter         the jitter factor
+     */
+    record RetrySettings(int maxAttempts,
+                         Set<Integer> statuses,
+                         List<Class<? extends Throwable>> exceptions,
+                         Duration initialBackoff,
+                         Duration maxBackoff,
+                         double jitter) {
+
+        boolean isRetryable(Throwable error) {
+            for (Throwable cause = error; Objects.nonNull(cause); cause = cause.getCause()) {
+                if (cause instanceof WebClientResponseException e) {
+                    return statuses.contains(e.getStatusCode().value());
+                }
+                if (cause instanceof RestClientResponseException e) {
+                    return statuses.contains(e.getStatusCode().value());
+                }
+                for (Class<? extends Throwable> exception : exceptions) {
+                    if (exception.isInstance(cause)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        Duration backoff(int attempt) {
+            long backoff = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 30));
+            long spread = (long) (backoff * jitter);
+            long jittered = spread > 0 ? backoff + ThreadLocalRandom.current().nextLong(-spread, spread + 1) : backoff;
+            return Duration.ofMillis(Math.max(0, Math.min(maxBackoff.toMillis(), jittered)));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.llnancy.httpexchange.transfer;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * streams the successful response bodies of the blocking transports to the download targets,
+ * and passes on the responses without body
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+final class FileDownloadClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    @NonNull
+    public ClientHttpResponse intercept(@NonNull HttpRequest request, @NonNull byte[] body, @NonNull ClientHttpRequestExecution execution) throws IOException {
+        Path target = (Path) HttpExchangeMethodContext.getAttribute(FileDownloadInterceptor.ATTRIBUTE);
+        ClientHttpResponse response = execution.execute(request, body);
+        if (target == null || !response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        try (InputStream in = response.getBody()) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            throw e;
+        }
+        return new DownloadedClientHttpResponse(response);
+    }
+
+    /**
+     * the response whose body has been streamed to the target
+     */
+    private static final class DownloadedClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+
+        private final HttpHeaders headers;
+
+        private DownloadedClientHttpResponse(ClientHttpResponse delegate) {
+            this.delegate = delegate;
+            this.headers = new HttpHeaders();
+            this.headers.putAll(delegate.getHeaders());
+            this.headers.remove(HttpHeaders.CONTENT_TYPE);
+            this.headers.setContentLength(0);
+        }
+
+        @Override
+        @NonNull
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        @NonNull
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        @NonNull
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        @NonNull
+        public InputStream getBody() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
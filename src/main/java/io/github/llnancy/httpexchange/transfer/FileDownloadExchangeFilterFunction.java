@@ -0,0 +1,48 @@
+package io.github.llnancy.httpexchange.transfer;
+
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * streams the successful response bodies of the {@code WebClient} transport to the download targets with
+ * backpressure, and passes on the responses without body
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+final class FileDownloadExchangeFilterFunction implements ExchangeFilterFunction {
+
+    @Override
+    @NonNull
+    public Mono<ClientResponse> filter(@NonNull ClientRequest request, @NonNull ExchangeFunction next) {
+        Path target = (Path) request.attributes().get(FileDownloadInterceptor.ATTRIBUTE);
+        if (target == null) {
+            return next.exchange(request);
+        }
+        return next.exchange(request).flatMap(response -> {
+            if (!response.statusCode().is2xxSuccessful()) {
+                return Mono.just(response);
+            }
+            return DataBufferUtils.write(response.body(BodyExtractors.toDataBuffers()), target,
+                            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)
+                    .then(Mono.fromSupplier(() -> response.mutate()
+                            .headers(headers -> {
+                                headers.remove(HttpHeaders.CONTENT_TYPE);
+                                headers.setContentLength(0);
+                            })
+                            .body(Flux.empty())
+                            .build()));
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.llnancy.httpexchange.transfer;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.lang.NonNull;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * exposes the download target of the invocation to the transport, and returns it as the result
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+final class FileDownloadInterceptor implements MethodInterceptor {
+
+    /**
+     * the invocation attribute name of the target {@link Path}
+     */
+    static final String ATTRIBUTE = FileDownloadInterceptor.class.getName() + ".target";
+
+    private final Map<Method, DownloadMethod> methods;
+
+    FileDownloadInterceptor(Map<Method, DownloadMethod> methods) {
+        this.methods = methods;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        DownloadMethod method = methods.get(invocation.getMethod());
+        if (Objects.isNull(method)) {
+            return invocation.proceed();
+        }
+        Object argument = method.targetIndex() >= 0 ? invocation.getArguments()[method.targetIndex()] : null;
+        boolean temporary = Objects.isNull(argument);
+        Path target = temporary
+                ? Files.createTempFile("httpexchange-", ".download")
+                : argument instanceof File file ? file.toPath() : (Path) argument;
+        Object value = method.file() ? target.toFile() : target;
+        Object previous = HttpExchangeMethodContext.setAttribute(ATTRIBUTE, target);
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable t) {
+            if (temporary) {
+                deleteQuietly(target);
+            }
+            throw t;
+        } finally {
+            HttpExchangeMethodContext.restoreAttribute(ATTRIBUTE, previous);
+        }
+        if (!method.reactive()) {
+            return value;
+        }
+        Mono<Object> download = ((Mono<?>) result).then(Mono.just(value));
+        return temporary ? download.doOnError(error -> deleteQuietly(target)) : download;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // the temporary file is left for the os to clean up
+        }
+    }
+
+    /**
+     * a download method
+     *
+     * @param reactive    whether the method returns {@code Mono}
+     * @param file        whether the result is a {@link File} instead of a {@link Path}
+     * @param targetIndex the index of the {@link io.github.llnancy.httpexchange.core.DownloadTarget} parameter, or {@code -1}
+     */
+    record DownloadMethod(boolean reactive, boolean file, int targetIndex) {
+    }
+}
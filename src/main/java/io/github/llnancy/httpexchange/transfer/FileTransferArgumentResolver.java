@@ -0,0 +1,48 @@
+package io.github.llnancy.httpexchange.transfer;
+
+import io.github.llnancy.httpexchange.core.DownloadTarget;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.service.invoker.HttpRequestValues;
+import org.springframework.web.service.invoker.HttpServiceArgumentResolver;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * skips the {@link DownloadTarget} parameters, and sends the {@code Path} or {@code File} request bodies as
+ * {@link FileSystemResource}, which the reactor netty transport sends by zero-copy file transfer.
+ * the blocking transports skip the request bodies too, they are streamed by {@link FileUploadClientHttpRequestFactory}.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+final class FileTransferArgumentResolver implements HttpServiceArgumentResolver {
+
+    private final boolean blocking;
+
+    FileTransferArgumentResolver(boolean blocking) {
+        this.blocking = blocking;
+    }
+
+    @Override
+    public boolean resolve(Object argument, @NonNull MethodParameter parameter, @NonNull HttpRequestValues.Builder requestValues) {
+        if (parameter.hasParameterAnnotation(DownloadTarget.class)) {
+            return true;
+        }
+        if (!parameter.hasParameterAnnotation(RequestBody.class) || !isFile(parameter.getParameterType())) {
+            return false;
+        }
+        if (!blocking && Objects.nonNull(argument)) {
+            requestValues.setBodyValue(argument instanceof File file ? new FileSystemResource(file) : new FileSystemResource((Path) argument));
+        }
+        return true;
+    }
+
+    static boolean isFile(Class<?> type) {
+        return Path.class.isAssignableFrom(type) || File.class == type;
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.llnancy.httpexchange.transfer;
+
+import io.github.llnancy.httpexchange.core.DownloadTarget;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientCustomizer;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.github.llnancy.httpexchange.core.Transport;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * installs the file streaming on a http exchange client which has methods returning {@code Path} or {@code File},
+ * or taking them as the request body
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+@Slf4j
+public final class FileTransferCustomizer implements HttpExchangeClientCustomizer {
+
+    private final Map<Method, FileDownloadInterceptor.DownloadMethod> methods;
+
+    private final Map<Method, Integer> uploads;
+
+    private FileTransferCustomizer(Map<Method, FileDownloadInterceptor.DownloadMethod> methods, Map<Method, Integer> uploads) {
+        this.methods = methods;
+        this.uploads = uploads;
+    }
+
+    /**
+     * create the customizer of a client
+     *
+     * @param metadata {@link HttpExchangeClientMetadata}
+     * @return {@link FileTransferCustomizer}, or {@code null} if the client transfers no file
+     */
+    public static FileTransferCustomizer create(HttpExchangeClientMetadata metadata) {
+        Map<Method, FileDownloadInterceptor.DownloadMethod> methods = new HashMap<>();
+        Map<Method, Integer> uploads = new HashMap<>();
+        for (HttpExchangeMethod exchangeMethod : metadata.methods().values()) {
+            Method method = exchangeMethod.method();
+            int targetIndex = -1;
+            for (int i = 0; i < method.getParameterCount(); i++) {
+                MethodParameter parameter = new MethodParameter(method, i);
+                if (parameter.hasParameterAnnotation(DownloadTarget.class)) {
+                    if (!FileTransferArgumentResolver.isFile(parameter.getParameterType())) {
+                        log.warn("@DownloadTarget only supports Path or File parameters, ignore {}.", method);
+                    }
+                    targetIndex = i;
+                } else if (parameter.hasParameterAnnotation(RequestBody.class) && FileTransferArgumentResolver.isFile(parameter.getParameterType())) {
+                    uploads.put(method, i);
+                }
+            }
+            boolean reactive = Mono.class.isAssignableFrom(method.getReturnType());
+            Class<?> resultType = reactive ? ResolvableType.forMethodReturnType(method).getGeneric(0).toClass() : method.getReturnType();
+            if (!FileTransferArgumentResolver.isFile(resultType)) {
+                if (targetIndex >= 0) {
+                    log.warn("@DownloadTarget only applies to methods returning Path, File or a Mono of them, ignore {}.", method);
+                }
+                continue;
+            }
+            if (targetIndex >= 0 && !FileTransferArgumentResolver.isFile(method.getParameterTypes()[targetIndex])) {
+                targetIndex = -1;
+            }
+            methods.put(method, new FileDownloadInterceptor.DownloadMethod(reactive, resultType == File.class, targetIndex));
+        }
+        return methods.isEmpty() && uploads.isEmpty() ? null : new FileTransferCustomizer(methods, uploads);
+    }
+
+    @Override
+    public void customizeWebClient(HttpExchangeClientMetadata metadata, WebClient.Builder builder) {
+        if (!methods.isEmpty()) {
+            // the outermost filter, so the other filters see the response before the body is streamed
+            builder.filters(filters -> filters.add(0, new FileDownloadExchangeFilterFunction()));
+        }
+    }
+
+    @Override
+    public void customizeRestClient(HttpExchangeClientMetadata metadata, RestClient.Builder builder) {
+        if (!methods.isEmpty()) {
+            builder.requestInterceptors(interceptors -> interceptors.add(0, new FileDownloadClientHttpRequestInterceptor()));
+        }
+    }
+
+    @Override
+    public ClientHttpRequestFactory customizeRequestFactory(HttpExchangeClientMetadata metadata, ClientHttpRequestFactory requestFactory) {
+        return uploads.isEmpty() ? requestFactory : new FileUploadClientHttpRequestFactory(requestFactory);
+    }
+
+    @Override
+    public void customizeProxyFactory(HttpExchangeClientMetadata metadata, HttpServiceProxyFactory.Builder builder) {
+        builder.customArgumentResolver(new FileTransferArgumentResolver(metadata.transport() != Transport.WEBCLIENT));
+    }
+
+    @Override
+    public void customizeInterceptors(HttpExchangeClientMetadata metadata, List<MethodInterceptor> interceptors) {
+        if (!methods.isEmpty()) {
+            interceptors.add(new FileDownloadInterceptor(methods));
+        }
+        if (!uploads.isEmpty() && metadata.transport() != Transport.WEBCLIENT) {
+            interceptors.add(new FileUploadInterceptor(uploads));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.llnancy.httpexchange.transfer;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * streams the file request bodies of the blocking transports.
+ * <p>
+ * the {@code RestClient} buffers the whole request body in memory as soon as an interceptor is registered, so the
+ * file is not written as the body of the request: the interceptors see an empty body, and the request created by
+ * this factory streams the file when it is executed.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+final class FileUploadClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final ClientHttpRequestFactory delegate;
+
+    FileUploadClientHttpRequestFactory(ClientHttpRequestFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    @NonNull
+    public ClientHttpRequest createRequest(@NonNull URI uri, @NonNull HttpMethod httpMethod) throws IOException {
+        ClientHttpRequest request = delegate.createRequest(uri, httpMethod);
+        Resource body = (Resource) HttpExchangeMethodContext.getAttribute(FileUploadInterceptor.ATTRIBUTE);
+        return Objects.isNull(body) ? request : new FileUploadClientHttpRequest(request, body);
+    }
+
+    /**
+     * the request which writes the file as its body when executed
+     */
+    private static final class FileUploadClientHttpRequest implements ClientHttpRequest {
+
+        private final ClientHttpRequest delegate;
+
+        private final Resource body;
+
+        private FileUploadClientHttpRequest(ClientHttpRequest delegate, Resource body) {
+            this.delegate = delegate;
+            this.body = body;
+        }
+
+        @Override
+        @NonNull
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        @NonNull
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        @NonNull
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        @NonNull
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        @NonNull
+        public ClientHttpResponse execute() throws IOException {
+            HttpHeaders headers = delegate.getHeaders();
+            if (Objects.isNull(headers.getContentType())) {
+                headers.setContentType(MediaTypeFactory.getMediaType(body).orElse(MediaType.APPLICATION_OCTET_STREAM));
+            }
+            headers.setContentLength(body.contentLength());
+            if (delegate instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(this::writeTo);
+            } else {
+                writeTo(delegate.getBody());
+            }
+            return delegate.execute();
+        }
+
+        private void writeTo(OutputStream out) throws IOException {
+            try (InputStream in = body.getInputStream()) {
+                in.transferTo(out);
+            }
+        }
+    }
+}
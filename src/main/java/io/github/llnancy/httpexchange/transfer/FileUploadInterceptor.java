@@ -0,0 +1,49 @@
+package io.github.llnancy.httpexchange.transfer;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.lang.NonNull;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * exposes the file request body of the invocation to the {@link FileUploadClientHttpRequestFactory} of the blocking
+ * transports, the other invocations of the client clear it so a nested exchange never sends it
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+final class FileUploadInterceptor implements MethodInterceptor {
+
+    /**
+     * the invocation attribute name of the body {@link FileSystemResource}
+     */
+    static final String ATTRIBUTE = FileUploadInterceptor.class.getName() + ".body";
+
+    private final Map<Method, Integer> methods;
+
+    FileUploadInterceptor(Map<Method, Integer> methods) {
+        this.methods = methods;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        Integer index = methods.get(invocation.getMethod());
+        Object argument = Objects.nonNull(index) ? invocation.getArguments()[index] : null;
+        FileSystemResource body = Objects.isNull(argument)
+                ? null
+                : argument instanceof File file ? new FileSystemResource(file) : new FileSystemResource((Path) argument);
+        Object previous = HttpExchangeMethodContext.setAttribute(ATTRIBUTE, body);
+        try {
+            return invocation.proceed();
+        } finally {
+            HttpExchangeMethodContext.restoreAttribute(ATTRIBUTE, previous);
+        }
+    }
+}
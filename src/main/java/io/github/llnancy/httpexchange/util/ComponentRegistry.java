@@ -0,0 +1,89 @@
+package io.github.llnancy.httpexchange.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationContext;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * resolves the components referenced by the {@code HttpExchangeClient} annotations, e.g. filters and consumers.
+ * <p>
+ * the unique bean of the class is preferred, the bean is looked up without throwing and is not cached, so the
+ * scope of the bean applies. otherwise the instance is created by the no-arg constructor or the no-arg static
+ * {@code create} method once, and shared by all clients referencing the class.
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+@Slf4j
+public class ComponentRegistry {
+
+    private final ApplicationContext applicationContext;
+
+    private final ConcurrentMap<Class<?>, Object> instances = new ConcurrentHashMap<>();
+
+    /**
+     * constructor
+     *
+     * @param applicationContext {@link ApplicationContext}
+     */
+    public ComponentRegistry(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * get the bean of the class, or the shared instance created by reflection
+     *
+     * @param clazz the component class
+     * @param <T>   the component type
+     * @return the component
+     * @throws IllegalStateException if the class has no bean, no no-arg constructor and no static create method
+     */
+    public <T> T getOrCreate(Class<T> clazz) {
+        T bean = applicationContext.getBeanProvider(clazz).getIfUnique();
+        if (Objects.nonNull(bean)) {
+            return bean;
+        }
+        return clazz.cast(instances.computeIfAbsent(clazz, ComponentRegistry::create));
+    }
+
+    /**
+     * number of the components created by reflection
+     *
+     * @return size
+     */
+    public int size() {
+        return instances.size();
+    }
+
+    /**
+     * create an instance by the no-arg constructor, or the no-arg static create method
+     *
+     * @param clazz the component class
+     * @param <T>   the component type
+     * @return the instance
+     * @throws IllegalStateException if the class has neither
+     */
+    static <T> T create(Class<T> clazz) {
+        for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+            if (constructor.getParameterCount() == 0) {
+                log.debug("Create component {} by the no-arg constructor.", clazz.getName());
+                return clazz.cast(BeanUtils.instantiateClass(constructor));
+            }
+        }
+        Method method = ReflectionUtils.findMethod(clazz, "create");
+        if (Objects.nonNull(method) && Modifier.isStatic(method.getModifiers())) {
+            log.debug("Create component {} by the static create method.", clazz.getName());
+            ReflectionUtils.makeAccessible(method);
+            return clazz.cast(ReflectionUtils.invokeMethod(method, null));
+        }
+        throw new IllegalStateException("No bean, no-arg constructor or static create method of component " + clazz.getName() + ".");
+    }
+}
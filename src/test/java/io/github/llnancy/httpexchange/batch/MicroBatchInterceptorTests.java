@@ -0,0 +1,64 @@
+package io.github.llnancy.httpexchange.batch;
+
+import io.github.llnancy.httpexchange.deadline.Deadline;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * tests of {@link MicroBatchInterceptor}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class MicroBatchInterceptorTests {
+
+    @Test
+    void blockingCallerWaitsAtMostTheTimeoutOfTheBatch() throws Exception {
+        ItemClient client = client(Duration.ofMillis(100));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> client.getItem(1L))
+                .isInstanceOf(ResourceAccessException.class)
+                .hasMessageContaining("did not complete within");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void blockingCallerWaitsAtMostItsDeadline() throws Exception {
+        ItemClient client = client(Duration.ofHours(1));
+
+        long start = System.nanoTime();
+        Deadline.Scope scope = Deadline.after(Duration.ofMillis(100)).makeCurrent();
+        try {
+            assertThatThrownBy(() -> client.getItem(1L)).isInstanceOf(ResourceAccessException.class);
+        } finally {
+            scope.close();
+        }
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+    }
+
+    private ItemClient client(Duration timeout) throws NoSuchMethodException {
+        // the window never elapses, the batch is never sent
+        MicroBatcher batcher = new MicroBatcher(ItemClient.class.getMethod("getItems", List.class), false, false, 100, Duration.ofHours(1));
+        ProxyFactory factory = new ProxyFactory();
+        factory.setInterfaces(ItemClient.class);
+        factory.addAdvice(new MicroBatchInterceptor(Map.of(ItemClient.class.getMethod("getItem", Long.class),
+                new MicroBatchInterceptor.BatchedMethod(false, batcher, timeout))));
+        return (ItemClient) factory.getProxy();
+    }
+
+    public interface ItemClient {
+
+        String getItem(Long id);
+
+        Map<Long, String> getItems(List<Long> ids);
+    }
+}
@@ -0,0 +1,179 @@
+package io.github.llnancy.httpexchange.batch;
+
+import io.github.llnancy.httpexchange.deadline.Deadline;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * tests of {@link MicroBatcher}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class MicroBatcherTests {
+
+    private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+
+    private final List<Deadline> deadlines = new CopyOnWriteArrayList<>();
+
+    @Test
+    void windowIsFlushedWhenItElapses() throws Exception {
+        ItemClient client = client(ids -> Mono.just(Map.of(1L, "item-1", 2L, "item-2")), null);
+        MicroBatcher batcher = reactiveBatcher(100, Duration.ofMillis(100));
+
+        CompletableFuture<Object> first = batcher.add(client, 1L, null);
+        CompletableFuture<Object> second = batcher.add(client, 2L, null);
+
+        assertThat(first).isNotDone();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("item-1");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("item-2");
+        assertThat(batches).containsExactly(List.of(1L, 2L));
+    }
+
+    @Test
+    void fullWindowIsFlushedAtOnce() throws Exception {
+        ItemClient client = client(ids -> Mono.just(Map.of(1L, "item-1", 2L, "item-2", 3L, "item-3")), null);
+        MicroBatcher batcher = reactiveBatcher(2, Duration.ofHours(1));
+
+        CompletableFuture<Object> first = batcher.add(client, 1L, null);
+        CompletableFuture<Object> second = batcher.add(client, 2L, null);
+        CompletableFuture<Object> third = batcher.add(client, 3L, null);
+
+        assertThat(first).isCompletedWithValue("item-1");
+        assertThat(second).isCompletedWithValue("item-2");
+        assertThat(third).isNotDone();
+        assertThat(batches).containsExactly(List.of(1L, 2L));
+    }
+
+    @Test
+    void mapResultIsSplitByKey() throws Exception {
+        ItemClient client = client(ids -> Mono.just(Map.of(1L, "item-1")), null);
+        MicroBatcher batcher = reactiveBatcher(3, Duration.ofHours(1));
+
+        CompletableFuture<Object> first = batcher.add(client, 1L, null);
+        CompletableFuture<Object> duplicate = batcher.add(client, 1L, null);
+        CompletableFuture<Object> missing = batcher.add(client, 2L, null);
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("item-1");
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo("item-1");
+        assertThat(missing.get(5, TimeUnit.SECONDS)).isNull();
+        // the keys are distinct
+        assertThat(batches).containsExactly(List.of(1L, 2L));
+    }
+
+    @Test
+    void listResultIsSplitInTheOrderOfTheKeys() throws Exception {
+        ItemClient client = client(null, ids -> ids.stream().map(id -> "item-" + id).toList());
+        MicroBatcher batcher = blockingBatcher(3);
+
+        CompletableFuture<Object> first = batcher.add(client, 2L, null);
+        CompletableFuture<Object> second = batcher.add(client, 1L, null);
+        CompletableFuture<Object> duplicate = batcher.add(client, 2L, null);
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("item-2");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("item-1");
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo("item-2");
+        assertThat(batches).containsExactly(List.of(2L, 1L));
+    }
+
+    @Test
+    void listResultOfAnotherLengthFailsEveryCaller() throws Exception {
+        ItemClient client = client(null, ids -> List.of("item"));
+        MicroBatcher batcher = blockingBatcher(2);
+
+        CompletableFuture<Object> first = batcher.add(client, 1L, null);
+        CompletableFuture<Object> second = batcher.add(client, 2L, null);
+
+        for (CompletableFuture<Object> future : List.of(first, second)) {
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause()
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("returned 1 items for 2 keys");
+        }
+    }
+
+    @Test
+    void errorOfTheBatchFailsEveryCaller() throws Exception {
+        IllegalArgumentException error = new IllegalArgumentException("boom");
+        ItemClient reactive = client(ids -> Mono.error(error), null);
+        ItemClient blocking = client(null, ids -> {
+            throw error;
+        });
+        MicroBatcher reactiveBatcher = reactiveBatcher(2, Duration.ofHours(1));
+        MicroBatcher blockingBatcher = blockingBatcher(2);
+
+        List<CompletableFuture<Object>> futures = List.of(
+                reactiveBatcher.add(reactive, 1L, null), reactiveBatcher.add(reactive, 2L, null),
+                blockingBatcher.add(blocking, 1L, null), blockingBatcher.add(blocking, 2L, null));
+
+        for (CompletableFuture<Object> future : futures) {
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause()
+                    .isSameAs(error);
+        }
+    }
+
+    @Test
+    void batchIsInvokedWithTheLatestDeadlineOfItsCallers() throws Exception {
+        ItemClient client = client(null, ids -> {
+            deadlines.add(Deadline.current());
+            return ids.stream().map(String::valueOf).toList();
+        });
+        MicroBatcher batcher = blockingBatcher(2);
+
+        batcher.add(client, 1L, Deadline.after(Duration.ofSeconds(1)));
+        batcher.add(client, 2L, Deadline.after(Duration.ofMinutes(1))).get(5, TimeUnit.SECONDS);
+        batcher.add(client, 3L, Deadline.after(Duration.ofMinutes(1)));
+        batcher.add(client, 4L, null).get(5, TimeUnit.SECONDS);
+
+        assertThat(deadlines).hasSize(2);
+        assertThat(deadlines.get(0).remaining()).isGreaterThan(Duration.ofSeconds(30));
+        assertThat(deadlines.get(1)).isNull();
+    }
+
+    private MicroBatcher reactiveBatcher(int maxSize, Duration window) throws NoSuchMethodException {
+        return new MicroBatcher(ItemClient.class.getMethod("getItems", List.class), true, false, maxSize, window);
+    }
+
+    private MicroBatcher blockingBatcher(int maxSize) throws NoSuchMethodException {
+        return new MicroBatcher(ItemClient.class.getMethod("getItemList", List.class), false, false, maxSize, Duration.ofHours(1));
+    }
+
+    private ItemClient client(Function<List<Long>, Mono<Map<Long, String>>> items, Function<List<Long>, List<String>> itemList) {
+        return new ItemClient() {
+
+            @Override
+            public Mono<Map<Long, String>> getItems(List<Long> ids) {
+                batches.add(List.copyOf(ids));
+                return items.apply(ids);
+            }
+
+            @Override
+            public List<String> getItemList(List<Long> ids) {
+                batches.add(List.copyOf(ids));
+                return itemList.apply(ids);
+            }
+        };
+    }
+
+    public interface ItemClient {
+
+        Mono<Map<Long, String>> getItems(List<Long> ids);
+
+        List<String> getItemList(List<Long> ids);
+    }
+}
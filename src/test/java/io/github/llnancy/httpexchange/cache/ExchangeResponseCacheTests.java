@@ -0,0 +1,112 @@
+package io.github.llnancy.httpexchange.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link ExchangeResponseCache}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class ExchangeResponseCacheTests {
+
+    @Test
+    void unreferencedEntriesAreEvictedFirst() {
+        ExchangeResponseCache cache = new ExchangeResponseCache("client", 2, 1024);
+        cache.put(key(1), entry(10));
+        cache.put(key(2), entry(10));
+        assertThat(cache.get(key(1))).isNotNull();
+
+        cache.put(key(3), entry(10));
+
+        assertThat(cache.get(key(1))).isNotNull();
+        assertThat(cache.get(key(2))).isNull();
+        assertThat(cache.get(key(3))).isNotNull();
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void entriesAreEvictedByWeight() {
+        ExchangeResponseCache cache = new ExchangeResponseCache("client", 100, 100);
+        cache.put(key(1), entry(60));
+        cache.put(key(2), entry(60));
+
+        assertThat(cache.getSize()).isEqualTo(1);
+        assertThat(cache.getWeight()).isEqualTo(60);
+        assertThat(cache.get(key(2))).isNotNull();
+
+        cache.put(key(3), entry(101));
+
+        assertThat(cache.get(key(3))).isNull();
+        assertThat(cache.getWeight()).isEqualTo(60);
+    }
+
+    @Test
+    void replacedEntryUpdatesTheWeight() {
+        ExchangeResponseCache cache = new ExchangeResponseCache("client", 100, 1024);
+        cache.put(key(1), entry(10));
+        cache.put(key(1), entry(30));
+
+        assertThat(cache.getSize()).isEqualTo(1);
+        assertThat(cache.getWeight()).isEqualTo(30);
+
+        cache.remove(key(1));
+        cache.clear();
+
+        assertThat(cache.getSize()).isZero();
+        assertThat(cache.getWeight()).isZero();
+    }
+
+    @Test
+    void concurrentAccessKeepsTheBounds() {
+        ExchangeResponseCache cache = new ExchangeResponseCache("client", 50, 2000);
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            workers.add(CompletableFuture.runAsync(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int n = 0; n < 20_000; n++) {
+                    CacheKey key = key(random.nextInt(200));
+                    switch (random.nextInt(10)) {
+                        case 0, 1 -> cache.put(key, entry(random.nextInt(1, 100)));
+                        case 2 -> cache.remove(key);
+                        default -> cache.get(key);
+                    }
+                }
+            }));
+        }
+        workers.forEach(CompletableFuture::join);
+
+        assertThat(cache.getSize()).isLessThanOrEqualTo(50);
+        assertThat(cache.getWeight()).isLessThanOrEqualTo(2000);
+        long weight = 0;
+        for (int i = 0; i < 200; i++) {
+            CacheEntry entry = cache.get(key(i));
+            if (entry != null) {
+                weight += entry.weight();
+            }
+        }
+        assertThat(cache.getWeight()).isEqualTo(weight);
+    }
+
+    private static CacheKey key(int id) {
+        try {
+            return new CacheKey(Object.class.getMethod("hashCode"), new Object[]{id});
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CacheEntry entry(long weight) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("max-age=60");
+        return CacheEntry.of("value", new HttpHeaders(), headers, weight, System.currentTimeMillis(), 0);
+    }
+}
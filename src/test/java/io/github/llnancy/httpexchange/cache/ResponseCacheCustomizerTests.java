@@ -0,0 +1,72 @@
+package io.github.llnancy.httpexchange.cache;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties;
+import io.github.llnancy.httpexchange.core.BatchExchange;
+import io.github.llnancy.httpexchange.core.CacheableExchange;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.github.llnancy.httpexchange.core.Transport;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.service.annotation.GetExchange;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link ResponseCacheCustomizer}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class ResponseCacheCustomizerTests {
+
+    @Test
+    void batchedMethodsAreNotCached() {
+        assertThat(ResponseCacheCustomizer.create(metadata(BatchedClient.class), new ResponseCacheRegistry())).isNull();
+    }
+
+    @Test
+    void batchMethodsAreCached() {
+        assertThat(ResponseCacheCustomizer.create(metadata(CachedBatchClient.class), new ResponseCacheRegistry())).isNotNull();
+    }
+
+    private static HttpExchangeClientMetadata metadata(Class<?> clientInterface) {
+        Map<Method, HttpExchangeMethod> methods = Arrays.stream(clientInterface.getMethods())
+                .collect(Collectors.toMap(Function.identity(), method -> Objects.requireNonNull(HttpExchangeMethod.of("client", clientInterface, method))));
+        ClientPropertiesResolver resolver = new ClientPropertiesResolver(new HttpExchangeClientProperties(), "client", new MockEnvironment());
+        return new HttpExchangeClientMetadata("client", clientInterface, Transport.WEBCLIENT, methods, resolver);
+    }
+
+    interface BatchedClient {
+
+        @GetExchange("/items/{id}")
+        @CacheableExchange(ttl = "30s")
+        @BatchExchange(method = "getItems")
+        String getItem(@PathVariable Long id);
+
+        @GetExchange("/items")
+        Map<Long, String> getItems(@RequestParam List<Long> ids);
+    }
+
+    interface CachedBatchClient {
+
+        @GetExchange("/items/{id}")
+        @BatchExchange(method = "getItems")
+        String getItem(@PathVariable Long id);
+
+        @GetExchange("/items")
+        @CacheableExchange(ttl = "30s")
+        Map<Long, String> getItems(@RequestParam List<Long> ids);
+    }
+}
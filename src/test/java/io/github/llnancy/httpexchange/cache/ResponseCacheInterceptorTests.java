@@ -0,0 +1,185 @@
+package io.github.llnancy.httpexchange.cache;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link ResponseCacheInterceptor}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class ResponseCacheInterceptorTests {
+
+    private static final String MARKER = "marker";
+
+    private final BlockingQueue<Object> markers = new LinkedBlockingQueue<>();
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    private final ThreadLocal<String> caller = new ThreadLocal<>();
+
+    private final AtomicReference<String> tenant = new AtomicReference<>();
+
+    @Test
+    void blockingRevalidationKeepsTheInvocationAttributes() throws Exception {
+        ItemClient client = client();
+
+        assertThat(client.getItem(1L)).isEqualTo("item-1");
+        assertThat(markers.poll(5, TimeUnit.SECONDS)).isEqualTo("caller");
+
+        // the stale value is served, and revalidated on another thread with the attributes of the caller
+        assertThat(client.getItem(1L)).isEqualTo("item-1");
+        assertThat(markers.poll(5, TimeUnit.SECONDS)).isEqualTo("caller");
+        assertThat(requests.get()).isEqualTo(2);
+        assertThat(HttpExchangeMethodContext.getAttribute(MARKER)).isNull();
+    }
+
+    @Test
+    void authorizedResponsesAreNotSharedBetweenCallers() throws Exception {
+        HttpHeaders response = new HttpHeaders();
+        response.setCacheControl("max-age=60");
+        ItemClient client = transportClient(response);
+
+        assertThat(as("alice", () -> client.getItem(1L))).isEqualTo("item-1-alice");
+        assertThat(as("alice", () -> client.getItem(1L))).isEqualTo("item-1-alice");
+        assertThat(requests).hasValue(1);
+
+        assertThat(as("bob", () -> client.getItem(1L))).isEqualTo("item-1-bob");
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void varyHeadersSelectTheVariant() throws Exception {
+        HttpHeaders response = new HttpHeaders();
+        response.setCacheControl("max-age=60");
+        response.setVary(List.of(HttpHeaders.ACCEPT_ENCODING, "X-Tenant"));
+        ItemClient client = transportClient(response);
+
+        assertThat(client.getItem(1L)).isEqualTo("item-1-none");
+        assertThat(client.getItem(1L)).isEqualTo("item-1-none");
+        assertThat(requests).hasValue(1);
+
+        tenant.set("tenant");
+        assertThat(client.getItem(1L)).isEqualTo("item-1-none");
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void responsesWithoutVariantAreServedBeforeTheRequestIsBuilt() throws Exception {
+        HttpHeaders response = new HttpHeaders();
+        response.setCacheControl("max-age=60");
+        response.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        ItemClient client = transportClient(response);
+
+        assertThat(client.getItem(1L)).isEqualTo("item-1-none");
+        assertThat(client.getItem(1L)).isEqualTo("item-1-none");
+
+        assertThat(invocations).hasValue(1);
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void varyStarIsNotStored() throws Exception {
+        HttpHeaders response = new HttpHeaders();
+        response.setCacheControl("max-age=60");
+        response.setVary(List.of("*"));
+        ItemClient client = transportClient(response);
+
+        client.getItem(1L);
+        client.getItem(1L);
+
+        assertThat(requests).hasValue(2);
+    }
+
+    private String as(String caller, Supplier<String> invocation) {
+        this.caller.set(caller);
+        try {
+            return invocation.get();
+        } finally {
+            this.caller.remove();
+        }
+    }
+
+    /**
+     * a client whose target resolves the request headers and selects the cached variant as the transport filters do
+     */
+    private ItemClient transportClient(HttpHeaders responseHeaders) throws NoSuchMethodException {
+        ExchangeResponseCache cache = new ExchangeResponseCache("itemClient", 100, 1024 * 1024);
+        ResponseCacheInterceptor interceptor = new ResponseCacheInterceptor(cache,
+                Map.of(ItemClient.class.getMethod("getItem", Long.class), new ResponseCacheInterceptor.CachedMethod(false, 0, false)));
+        ItemClient target = id -> {
+            invocations.incrementAndGet();
+            HttpHeaders requestHeaders = new HttpHeaders();
+            if (Objects.nonNull(caller.get())) {
+                requestHeaders.setBearerAuth(caller.get());
+            }
+            if (Objects.nonNull(tenant.get())) {
+                requestHeaders.set("X-Tenant", tenant.get());
+            }
+            CacheExchange exchange = (CacheExchange) HttpExchangeMethodContext.getAttribute(CacheExchange.ATTRIBUTE);
+            if (exchange.select(requestHeaders)) {
+                // the empty 304 response is decoded as null
+                return null;
+            }
+            requests.incrementAndGet();
+            exchange.success(requestHeaders, responseHeaders);
+            return "item-" + id + "-" + Objects.requireNonNullElse(caller.get(), "none");
+        };
+        ProxyFactory proxy = new ProxyFactory(target);
+        proxy.addInterface(ItemClient.class);
+        proxy.addAdvice(interceptor);
+        return (ItemClient) proxy.getProxy();
+    }
+
+    private ItemClient client() throws NoSuchMethodException {
+        ExchangeResponseCache cache = new ExchangeResponseCache("itemClient", 100, 1024 * 1024);
+        ResponseCacheInterceptor interceptor = new ResponseCacheInterceptor(cache,
+                Map.of(ItemClient.class.getMethod("getItem", Long.class), new ResponseCacheInterceptor.CachedMethod(false, 0, true)));
+        ItemClient target = id -> {
+            requests.incrementAndGet();
+            Object marker = HttpExchangeMethodContext.getAttribute(MARKER);
+            markers.add(marker == null ? "none" : marker);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setCacheControl("max-age=0, stale-while-revalidate=60");
+            headers.setETag("\"v1\"");
+            ((CacheExchange) HttpExchangeMethodContext.getAttribute(CacheExchange.ATTRIBUTE)).success(new HttpHeaders(), headers);
+            return "item-" + id;
+        };
+        MethodInterceptor attributes = invocation -> {
+            Object previous = HttpExchangeMethodContext.setAttribute(MARKER, "caller");
+            try {
+                return invocation.proceed();
+            } finally {
+                HttpExchangeMethodContext.restoreAttribute(MARKER, previous);
+            }
+        };
+        ProxyFactory proxy = new ProxyFactory(target);
+        proxy.addInterface(ItemClient.class);
+        proxy.addAdvice(attributes);
+        proxy.addAdvice(interceptor);
+        return (ItemClient) proxy.getProxy();
+    }
+
+    interface ItemClient {
+
+        String getItem(Long id);
+    }
+}
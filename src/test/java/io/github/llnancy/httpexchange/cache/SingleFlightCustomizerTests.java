@@ -0,0 +1,69 @@
+package io.github.llnancy.httpexchange.cache;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.github.llnancy.httpexchange.core.SingleFlight;
+import io.github.llnancy.httpexchange.core.Transport;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.service.annotation.GetExchange;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link SingleFlightCustomizer}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class SingleFlightCustomizerTests {
+
+    @Test
+    void clientsWithoutHeaderSourcesAreCoalesced() {
+        assertThat(SingleFlightCustomizer.create(metadata(ItemClient.class), List.of())).isNotNull();
+    }
+
+    @Test
+    void clientsWithHeaderSourcesAreNotCoalesced() {
+        assertThat(SingleFlightCustomizer.create(metadata(ItemClient.class), List.of(ExchangeFilterFunction.class))).isNull();
+    }
+
+    @Test
+    void sharedHeadersAreCoalesced() {
+        assertThat(SingleFlightCustomizer.create(metadata(SharedHeadersClient.class), List.of(ExchangeFilterFunction.class))).isNotNull();
+    }
+
+    private static HttpExchangeClientMetadata metadata(Class<?> clientInterface) {
+        Map<Method, HttpExchangeMethod> methods = Arrays.stream(clientInterface.getMethods())
+                .collect(Collectors.toMap(Function.identity(), method -> Objects.requireNonNull(HttpExchangeMethod.of("client", clientInterface, method))));
+        ClientPropertiesResolver resolver = new ClientPropertiesResolver(new HttpExchangeClientProperties(), "client", new MockEnvironment());
+        return new HttpExchangeClientMetadata("client", clientInterface, Transport.WEBCLIENT, methods, resolver);
+    }
+
+    interface ItemClient {
+
+        @GetExchange("/items/{id}")
+        @SingleFlight
+        Mono<String> getItem(@PathVariable Long id);
+    }
+
+    interface SharedHeadersClient {
+
+        @GetExchange("/items/{id}")
+        @SingleFlight(sharedHeaders = true)
+        Mono<String> getItem(@PathVariable Long id);
+    }
+}
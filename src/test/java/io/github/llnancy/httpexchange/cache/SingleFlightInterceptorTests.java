@@ -0,0 +1,214 @@
+package io.github.llnancy.httpexchange.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link SingleFlightInterceptor}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class SingleFlightInterceptorTests {
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger cancellations = new AtomicInteger();
+
+    @Test
+    void concurrentSubscribersShareOneRequest() {
+        Sinks.One<String> response = Sinks.one();
+        ItemClient client = client(id -> response.asMono());
+        List<String> results = new CopyOnWriteArrayList<>();
+
+        client.getItem(1L).subscribe(results::add);
+        client.getItem(1L).subscribe(results::add);
+        response.tryEmitValue("item-1");
+
+        assertThat(results).containsExactly("item-1", "item-1");
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void flightIsRemovedBeforeItsResultIsSignalled() {
+        ItemClient client = client(id -> Mono.just("item-" + id));
+        List<String> results = new CopyOnWriteArrayList<>();
+
+        // a call on the result of the flight starts a new flight instead of joining the terminated one
+        client.getItem(1L)
+                .doOnSuccess(value -> client.getItem(1L).subscribe(results::add))
+                .subscribe(results::add);
+
+        assertThat(results).containsExactly("item-1", "item-1");
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void racingSubscribersAlwaysGetTheResult() throws Exception {
+        ItemClient client = client(id -> Mono.fromCallable(() -> "item-" + id).subscribeOn(Schedulers.parallel()));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 200; i++) {
+                List<Future<String>> futures = new ArrayList<>();
+                for (int j = 0; j < 4; j++) {
+                    futures.add(executor.submit(() -> client.getItem(1L).block(Duration.ofSeconds(5))));
+                }
+                for (Future<String> future : futures) {
+                    assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("item-1");
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void flightIsCancelledWhenAllSubscribersCancel() {
+        ItemClient client = client(id -> Mono.<String>never().doOnCancel(cancellations::incrementAndGet));
+
+        Disposable first = client.getItem(1L).subscribe();
+        Disposable second = client.getItem(1L).subscribe();
+        first.dispose();
+        assertThat(cancellations.get()).isZero();
+        second.dispose();
+
+        assertThat(cancellations.get()).isEqualTo(1);
+        assertThat(requests.get()).isEqualTo(1);
+        client.getItem(1L).subscribe().dispose();
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void flightRunsWithTheContextOfItsFirstSubscriber() {
+        Sinks.One<String> response = Sinks.one();
+        ItemClient client = client(id -> Mono.deferContextual(context -> response.asMono().map(value -> value + "-" + context.get("caller"))));
+        List<String> results = new CopyOnWriteArrayList<>();
+
+        client.getItem(1L).contextWrite(context -> context.put("caller", "first")).subscribe(results::add);
+        client.getItem(1L).contextWrite(context -> context.put("caller", "second")).subscribe(results::add);
+        response.tryEmitValue("item-1");
+
+        assertThat(results).containsExactly("item-1-first", "item-1-first");
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void subscribersRacingTheLastCancelAlwaysGetTheResult() throws Exception {
+        ItemClient client = client(id -> Mono.delay(Duration.ofMillis(1)).thenReturn("item-" + id));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 200; i++) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<String>> futures = new ArrayList<>();
+                for (int j = 0; j < 2; j++) {
+                    executor.submit(() -> {
+                        start.await();
+                        client.getItem(1L).subscribe().dispose();
+                        return null;
+                    });
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        return client.getItem(1L).block(Duration.ofSeconds(5));
+                    }));
+                }
+                start.countDown();
+                for (Future<String> future : futures) {
+                    assertThat(future.get(10, TimeUnit.SECONDS)).isEqualTo("item-1");
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void blockingCallersShareOneRequest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ItemClient client = client(id -> Mono.empty(), id -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "item-" + id;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> client.loadItem(1L));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<String> second = executor.submit(() -> client.loadItem(1L));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("item-1");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("item-1");
+            assertThat(requests.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ItemClient client(Function<Long, Mono<String>> reactive) {
+        return client(reactive, id -> "item-" + id);
+    }
+
+    private ItemClient client(Function<Long, Mono<String>> reactive, BlockingLoader blocking) {
+        ItemClient target = new ItemClient() {
+
+            @Override
+            public Mono<String> getItem(Long id) {
+                return Mono.defer(() -> {
+                    requests.incrementAndGet();
+                    return reactive.apply(id);
+                });
+            }
+
+            @Override
+            public String loadItem(Long id) throws InterruptedException {
+                requests.incrementAndGet();
+                return blocking.load(id);
+            }
+        };
+        try {
+            SingleFlightInterceptor interceptor = new SingleFlightInterceptor(Map.of(
+                    ItemClient.class.getMethod("getItem", Long.class), true,
+                    ItemClient.class.getMethod("loadItem", Long.class), false
+            ));
+            ProxyFactory proxy = new ProxyFactory(target);
+            proxy.addInterface(ItemClient.class);
+            proxy.addAdvice(interceptor);
+            return (ItemClient) proxy.getProxy();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    interface BlockingLoader {
+
+        String load(Long id) throws InterruptedException;
+    }
+
+    interface ItemClient {
+
+        Mono<String> getItem(Long id);
+
+        String loadItem(Long id) throws InterruptedException;
+    }
+}
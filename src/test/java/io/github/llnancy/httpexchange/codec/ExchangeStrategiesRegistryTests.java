@@ -0,0 +1,43 @@
+package io.github.llnancy.httpexchange.codec;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * tests of {@link ExchangeStrategiesRegistry}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/26
+ */
+class ExchangeStrategiesRegistryTests {
+
+    private final ExchangeStrategiesRegistry registry = new ExchangeStrategiesRegistry();
+
+    @Test
+    void strategiesAreSharedBySize() {
+        ExchangeStrategies strategies = registry.getOrCreate(null, null, DataSize.ofMegabytes(1));
+
+        assertThat(registry.getOrCreate(null, null, DataSize.ofMegabytes(1))).isSameAs(strategies);
+        assertThat(registry.getOrCreate(null, null, DataSize.ofBytes(-1))).isNotSameAs(strategies);
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void sizesOutOfIntRangeAreRejected() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> registry.getOrCreate(null, null, DataSize.ofGigabytes(2)))
+                .withMessageContaining("2147483648B");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> registry.getOrCreate(null, null, DataSize.ofBytes(-2)));
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void largestSizeIsAccepted() {
+        assertThat(registry.getOrCreate(null, null, DataSize.ofBytes(Integer.MAX_VALUE))).isNotNull();
+    }
+}
@@ -0,0 +1,226 @@
+package io.github.llnancy.httpexchange.compression;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties;
+import io.github.llnancy.httpexchange.core.Compression;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.Transport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of the compression of both transports
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class CompressionCustomizerTests {
+
+    private static final String BODY = "{\"name\":\"httpexchange\"}".repeat(200);
+
+    private static final List<Compression.Coding> CODINGS = List.of(Compression.Coding.GZIP, Compression.Coding.DEFLATE);
+
+    private DisposableServer server;
+
+    @BeforeEach
+    void setUp() {
+        // echoes the decoded request body in the coding of the path, with the received coding and size in headers
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.post("/echo/{coding}", (request, response) -> request.receive().aggregate().asByteArray()
+                        .defaultIfEmpty(new byte[0])
+                        .flatMap(received -> {
+                            String requestCoding = request.requestHeaders().get(HttpHeaders.CONTENT_ENCODING);
+                            byte[] body = decode(received, requestCoding);
+                            String coding = request.param("coding");
+                            return response.header("X-Request-Encoding", Objects.nonNull(requestCoding) ? requestCoding : "none")
+                                    .header("X-Request-Bytes", String.valueOf(received.length))
+                                    .header(HttpHeaders.CONTENT_ENCODING, coding)
+                                    .sendByteArray(Mono.just(ContentCodings.compress(body, Compression.Coding.valueOf(coding.toUpperCase()))))
+                                    .then();
+                        })))
+                .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void webClientRoundTrips() {
+        for (Compression.Coding coding : CODINGS) {
+            Clients clients = clients(coding);
+            ResponseEntity<String> response = clients.webClient().post()
+                    .uri("/echo/" + coding.name().toLowerCase())
+                    .bodyValue(BODY)
+                    .retrieve()
+                    .toEntity(String.class)
+                    .block(Duration.ofSeconds(10));
+
+            assertRoundTrip(Objects.requireNonNull(response), coding, clients.statistics());
+        }
+    }
+
+    @Test
+    void webClientCompressesStreamedBodies() {
+        for (Compression.Coding coding : CODINGS) {
+            Clients clients = clients(coding);
+            ResponseEntity<String> response = clients.webClient().post()
+                    .uri("/echo/" + coding.name().toLowerCase())
+                    .body(Flux.just(BODY.substring(0, 1000), BODY.substring(1000, 3000), BODY.substring(3000)), String.class)
+                    .retrieve()
+                    .toEntity(String.class)
+                    .block(Duration.ofSeconds(10));
+
+            assertRoundTrip(Objects.requireNonNull(response), coding, clients.statistics());
+        }
+    }
+
+    @Test
+    void restClientRoundTrips() {
+        for (Compression.Coding coding : CODINGS) {
+            Clients clients = clients(coding);
+            ResponseEntity<String> response = clients.restClient().post()
+                    .uri("/echo/" + coding.name().toLowerCase())
+                    .body(BODY)
+                    .retrieve()
+                    .toEntity(String.class);
+
+            assertRoundTrip(response, coding, clients.statistics());
+        }
+    }
+
+    @Test
+    void bodiesUnderTheMinimumSizeAreSentAsTheyAre() {
+        Clients clients = clients(Compression.Coding.GZIP);
+        String small = BODY.substring(0, 100);
+
+        ResponseEntity<String> reactive = clients.webClient().post()
+                .uri("/echo/gzip")
+                .bodyValue(small)
+                .retrieve()
+                .toEntity(String.class)
+                .block(Duration.ofSeconds(10));
+        ResponseEntity<String> streamed = clients.webClient().post()
+                .uri("/echo/gzip")
+                .body(Flux.just(small, small), String.class)
+                .retrieve()
+                .toEntity(String.class)
+                .block(Duration.ofSeconds(10));
+        ResponseEntity<String> blocking = clients.restClient().post()
+                .uri("/echo/gzip")
+                .body(small)
+                .retrieve()
+                .toEntity(String.class);
+
+        for (ResponseEntity<String> response : List.of(Objects.requireNonNull(reactive), Objects.requireNonNull(streamed), blocking)) {
+            assertThat(response.getHeaders().getFirst("X-Request-Encoding")).isEqualTo("none");
+        }
+        assertThat(streamed.getBody()).isEqualTo(small + small);
+        assertThat(clients.statistics().getRequestOriginalBytes()).isZero();
+        assertThat(clients.statistics().getRequestRatio()).isNaN();
+    }
+
+    @Test
+    void bodiesWithAContentEncodingAreSentAsTheyAre() {
+        Clients clients = clients(Compression.Coding.GZIP);
+
+        ResponseEntity<String> reactive = clients.webClient().post()
+                .uri("/echo/gzip")
+                .header(HttpHeaders.CONTENT_ENCODING, "identity")
+                .bodyValue(BODY)
+                .retrieve()
+                .toEntity(String.class)
+                .block(Duration.ofSeconds(10));
+        ResponseEntity<String> blocking = clients.restClient().post()
+                .uri("/echo/gzip")
+                .header(HttpHeaders.CONTENT_ENCODING, "identity")
+                .body(BODY)
+                .retrieve()
+                .toEntity(String.class);
+
+        for (ResponseEntity<String> response : List.of(Objects.requireNonNull(reactive), blocking)) {
+            assertThat(response.getHeaders().getFirst("X-Request-Encoding")).isEqualTo("identity");
+            assertThat(response.getHeaders().getFirst("X-Request-Bytes")).isEqualTo(String.valueOf(BODY.length()));
+            assertThat(response.getBody()).isEqualTo(BODY);
+        }
+        assertThat(clients.statistics().getRequestOriginalBytes()).isZero();
+    }
+
+    private static void assertRoundTrip(ResponseEntity<String> response, Compression.Coding coding, CompressionStatistics statistics) {
+        long received = Long.parseLong(Objects.requireNonNull(response.getHeaders().getFirst("X-Request-Bytes")));
+        assertThat(response.getHeaders().getFirst("X-Request-Encoding")).isEqualTo(coding.name().toLowerCase());
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(response.getBody()).isEqualTo(BODY);
+        assertThat(statistics.getRequestOriginalBytes()).isEqualTo(BODY.length());
+        assertThat(statistics.getRequestCompressedBytes()).isEqualTo(received);
+        assertThat(statistics.getRequestRatio()).isEqualTo((double) received / BODY.length()).isLessThan(0.1);
+        long sent = ContentCodings.compress(BODY.getBytes(StandardCharsets.UTF_8), coding).length;
+        assertThat(statistics.getResponseOriginalBytes()).isEqualTo(BODY.length());
+        assertThat(statistics.getResponseCompressedBytes()).isEqualTo(sent);
+        assertThat(statistics.getResponseRatio()).isEqualTo((double) sent / BODY.length());
+    }
+
+    private Clients clients(Compression.Coding coding) {
+        HttpExchangeClientProperties properties = new HttpExchangeClientProperties();
+        properties.getDefault().getCompression().setResponseEnabled(true);
+        properties.getDefault().getCompression().setRequestCoding(coding);
+        properties.getDefault().getCompression().setRequestMinSize(DataSize.ofKilobytes(1));
+        HttpExchangeClientMetadata metadata = new HttpExchangeClientMetadata("client", Object.class, Transport.DEFAULT, Map.of(),
+                new ClientPropertiesResolver(properties, "client", new MockEnvironment()));
+        CompressionRegistry registry = new CompressionRegistry();
+        CompressionCustomizer customizer = Objects.requireNonNull(CompressionCustomizer.create(metadata, AnnotationUtils.synthesizeAnnotation(Compression.class), registry));
+        // the default connector of spring decompresses the responses itself
+        WebClient.Builder webClient = WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.port())
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create()));
+        customizer.customizeWebClient(metadata, webClient);
+        RestClient.Builder restClient = RestClient.builder().baseUrl("http://127.0.0.1:" + server.port());
+        customizer.customizeRestClient(metadata, restClient);
+        return new Clients(webClient.build(), restClient.build(), registry.get("client"));
+    }
+
+    private static byte[] decode(byte[] body, String coding) {
+        if (Objects.isNull(coding) || !ContentCodings.isBlockingDecodable(coding)) {
+            return body;
+        }
+        try (InputStream in = ContentCodings.GZIP.equals(coding) ? new GZIPInputStream(new ByteArrayInputStream(body)) : new InflaterInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Clients(WebClient webClient, RestClient restClient, CompressionStatistics statistics) {
+    }
+}
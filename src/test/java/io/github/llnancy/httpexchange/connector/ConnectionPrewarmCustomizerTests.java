@@ -0,0 +1,154 @@
+package io.github.llnancy.httpexchange.connector;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.Pool;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.Transport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link ConnectionPrewarmCustomizer} against local servers
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class ConnectionPrewarmCustomizerTests {
+
+    private final Map<Integer, Set<Integer>> clientPorts = new ConcurrentHashMap<>();
+
+    private final AtomicInteger filtered = new AtomicInteger();
+
+    private final List<DisposableServer> servers = new ArrayList<>();
+
+    private ConnectionProvider provider;
+
+    @AfterEach
+    void tearDown() {
+        if (Objects.nonNull(provider)) {
+            provider.disposeLater().block(Duration.ofSeconds(10));
+        }
+        servers.forEach(DisposableServer::disposeNow);
+    }
+
+    @Test
+    void eachEndpointIsWarmedPastTheFilters() {
+        DisposableServer first = server(HttpProtocol.HTTP11);
+        DisposableServer second = server(HttpProtocol.HTTP11);
+        ConnectionPrewarmCustomizer customizer = ConnectionPrewarmCustomizer.create(metadata(Transport.WEBCLIENT, 3), List.of(url(first), url(second)), null);
+        WebClient.Builder builder = WebClient.builder()
+                .filter((request, next) -> {
+                    filtered.incrementAndGet();
+                    return next.exchange(request);
+                });
+
+        Objects.requireNonNull(customizer).customizeWebClient(null, builder);
+        customizer.prewarm().block();
+
+        assertThat(clientPorts.get(first.port())).hasSize(3);
+        assertThat(clientPorts.get(second.port())).hasSize(3);
+        assertThat(filtered).hasValue(0);
+    }
+
+    @Test
+    void blockingWarmUpSkipsTheInterceptors() {
+        DisposableServer server = server(HttpProtocol.HTTP11);
+        ConnectionPrewarmCustomizer customizer = ConnectionPrewarmCustomizer.create(metadata(Transport.REST_CLIENT, 2), List.of(), null);
+        RestClient.Builder builder = RestClient.builder()
+                .baseUrl(url(server))
+                .requestFactory(new SimpleClientHttpRequestFactory())
+                .requestInterceptor((request, body, execution) -> {
+                    filtered.incrementAndGet();
+                    return execution.execute(request, body);
+                });
+
+        Objects.requireNonNull(customizer).customizeRestClient(null, builder);
+        customizer.prewarm().block();
+
+        assertThat(clientPorts.get(server.port())).hasSize(2);
+        assertThat(filtered).hasValue(0);
+    }
+
+    @Test
+    void http2WarmUpIsSizedByMinConnections() {
+        DisposableServer server = server(HttpProtocol.H2C);
+        Pool pool = new Pool();
+        pool.setName("h2c");
+        pool.setMinConnections(3);
+        ConnectionPrewarmCustomizer customizer = ConnectionPrewarmCustomizer.create(metadata(Transport.WEBCLIENT, 3), List.of(url(server)), 3);
+
+        Objects.requireNonNull(customizer).customizeWebClient(null, h2cBuilder(pool));
+        customizer.prewarm().block();
+
+        assertThat(clientPorts.get(server.port())).hasSize(3);
+    }
+
+    @Test
+    void http2WarmUpIsLimitedToTheConnectionsOfThePool() {
+        DisposableServer server = server(HttpProtocol.H2C);
+        Pool pool = new Pool();
+        pool.setName("h2c");
+        ConnectionPrewarmCustomizer customizer = ConnectionPrewarmCustomizer.create(metadata(Transport.WEBCLIENT, 3), List.of(url(server)), 1);
+
+        Objects.requireNonNull(customizer).customizeWebClient(null, h2cBuilder(pool));
+        customizer.prewarm().block();
+
+        assertThat(clientPorts.get(server.port())).hasSize(1);
+    }
+
+    private WebClient.Builder h2cBuilder(Pool pool) {
+        provider = ConnectionProviderRegistry.create(pool, true);
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider).protocol(HttpProtocol.H2C)));
+    }
+
+    private DisposableServer server(HttpProtocol protocol) {
+        DisposableServer server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .protocol(protocol)
+                .handle((request, response) -> {
+                    int port = ((InetSocketAddress) Objects.requireNonNull(request.hostAddress())).getPort();
+                    int clientPort = ((InetSocketAddress) Objects.requireNonNull(request.remoteAddress())).getPort();
+                    clientPorts.computeIfAbsent(port, key -> ConcurrentHashMap.newKeySet()).add(clientPort);
+                    return Mono.delay(Duration.ofMillis(200)).then(response.send());
+                })
+                .bindNow();
+        servers.add(server);
+        return server;
+    }
+
+    private static String url(DisposableServer server) {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    private static HttpExchangeClientMetadata metadata(Transport transport, int connections) {
+        HttpExchangeClientProperties properties = new HttpExchangeClientProperties();
+        properties.getDefault().getPrewarm().setConnections(connections);
+        ClientPropertiesResolver resolver = new ClientPropertiesResolver(properties, "client", new MockEnvironment());
+        return new HttpExchangeClientMetadata("client", Object.class, transport, Map.of(), resolver);
+    }
+}
@@ -0,0 +1,113 @@
+package io.github.llnancy.httpexchange.connector;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.Transport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link ConnectionPrewarmer} against a local server
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class ConnectionPrewarmerTests {
+
+    private final AtomicInteger completed = new AtomicInteger();
+
+    private final CountDownLatch received = new CountDownLatch(1);
+
+    private final ConnectionPrewarmer prewarmer = new ConnectionPrewarmer();
+
+    private DisposableServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (Objects.nonNull(server)) {
+            server.disposeNow();
+        }
+    }
+
+    @Test
+    void startedEventWaitsForTheRegisteredClients() {
+        server = server(Duration.ofMillis(300));
+        prewarmer.register(customizer(2, null));
+        prewarmer.register(customizer(2, null));
+
+        prewarmer.onApplicationEvent(startedEvent());
+
+        assertThat(completed).hasValue(4);
+    }
+
+    @Test
+    void startedEventGivesUpOnClientsTimingOut() {
+        server = server(Duration.ofSeconds(30));
+        prewarmer.register(customizer(1, Duration.ofMillis(300)));
+
+        long start = System.nanoTime();
+        prewarmer.onApplicationEvent(startedEvent());
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(completed).hasValue(0);
+    }
+
+    @Test
+    void clientsRegisteredAfterTheStartedEventAreWarmedInTheBackground() throws InterruptedException {
+        server = server(Duration.ofMillis(300));
+        prewarmer.onApplicationEvent(startedEvent());
+
+        long start = System.nanoTime();
+        prewarmer.register(customizer(1, null));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(300));
+        assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private ConnectionPrewarmCustomizer customizer(int connections, Duration timeout) {
+        HttpExchangeClientProperties properties = new HttpExchangeClientProperties();
+        properties.getDefault().getPrewarm().setConnections(connections);
+        properties.getDefault().getPrewarm().setTimeout(timeout);
+        ClientPropertiesResolver resolver = new ClientPropertiesResolver(properties, "client", new MockEnvironment());
+        HttpExchangeClientMetadata metadata = new HttpExchangeClientMetadata("client", Object.class, Transport.WEBCLIENT, Map.of(), resolver);
+        ConnectionPrewarmCustomizer customizer = ConnectionPrewarmCustomizer.create(metadata, List.of("http://127.0.0.1:" + server.port()), null);
+        Objects.requireNonNull(customizer).customizeWebClient(null, WebClient.builder());
+        return customizer;
+    }
+
+    private DisposableServer server(Duration delay) {
+        return HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle((request, response) -> {
+                    received.countDown();
+                    return Mono.delay(delay)
+                            .doOnNext(ignored -> completed.incrementAndGet())
+                            .then(response.send());
+                })
+                .bindNow();
+    }
+
+    private static ApplicationStartedEvent startedEvent() {
+        return new ApplicationStartedEvent(new SpringApplication(), new String[0], new StaticApplicationContext(), Duration.ZERO);
+    }
+}
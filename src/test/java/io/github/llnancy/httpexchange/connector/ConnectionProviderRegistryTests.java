@@ -0,0 +1,107 @@
+package io.github.llnancy.httpexchange.connector;
+
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.Pool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link ConnectionProviderRegistry} against a local h2c server
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class ConnectionProviderRegistryTests {
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private final ConnectionProviderRegistry registry = new ConnectionProviderRegistry();
+
+    private DisposableServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .protocol(HttpProtocol.H2C)
+                .route(routes -> routes.get("/ping", (request, response) -> {
+                    clientPorts.add(((InetSocketAddress) Objects.requireNonNull(request.remoteAddress())).getPort());
+                    return response.sendString(Mono.just("pong").delayElement(Duration.ofMillis(200)));
+                }))
+                .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        registry.destroy();
+        server.disposeNow();
+    }
+
+    @Test
+    void http2PoolIsSizedByConnectionsAndStreams() {
+        Pool pool = pool("h2c");
+        pool.setMaxConnections(2);
+        pool.setMaxConcurrentStreams(2);
+        HttpClient client = HttpClient.create(registry.getOrCreate(pool, true))
+                .protocol(HttpProtocol.H2C)
+                .baseUrl("http://127.0.0.1:" + server.port());
+
+        Flux.range(0, 8)
+                .flatMap(i -> client.get().uri("/ping").responseContent().aggregate().asString())
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(clientPorts).hasSize(2);
+    }
+
+    @Test
+    void http2StrategyDefaultsToPoolMaxConnections() {
+        Pool pool = pool("h2c-default");
+        pool.setMaxConcurrentStreams(100);
+
+        Http2AllocationStrategy strategy = ConnectionProviderRegistry.http2AllocationStrategy(pool, true);
+
+        assertThat(strategy).isNotNull();
+        assertThat(strategy.permitMaximum()).isEqualTo(ConnectionProvider.DEFAULT_POOL_MAX_CONNECTIONS);
+        assertThat(strategy.maxConcurrentStreams()).isEqualTo(100);
+    }
+
+    @Test
+    void http2SettingsAreIgnoredByHttp11Pools() {
+        Pool pool = pool("http11");
+        pool.setMinConnections(1);
+        pool.setMaxConcurrentStreams(100);
+
+        assertThat(ConnectionProviderRegistry.http2AllocationStrategy(pool, false)).isNull();
+        assertThat(registry.getOrCreate(pool, false).maxConnections()).isEqualTo(ConnectionProvider.DEFAULT_POOL_MAX_CONNECTIONS);
+    }
+
+    @Test
+    void poolsAreSharedByName() {
+        assertThat(registry.getOrCreate(pool("shared"))).isSameAs(registry.getOrCreate(pool("shared")));
+        assertThat(registry.getConnectionProviders()).containsOnlyKeys("shared");
+    }
+
+    private static Pool pool(String name) {
+        Pool pool = new Pool();
+        pool.setName(name);
+        return pool;
+    }
+}
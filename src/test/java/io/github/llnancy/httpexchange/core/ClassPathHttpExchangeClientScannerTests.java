@@ -0,0 +1,59 @@
+package io.github.llnancy.httpexchange.core;
+
+import io.github.llnancy.httpexchange.core.scan.IndexedClient;
+import io.github.llnancy.httpexchange.core.scan.ScannedClient;
+import io.github.llnancy.httpexchange.index.HttpExchangeClientIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link ClassPathHttpExchangeClientScanner}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class ClassPathHttpExchangeClientScannerTests {
+
+    private static final String PACKAGE = IndexedClient.class.getPackageName();
+
+    @TempDir
+    private Path root;
+
+    @Test
+    void packagesWithoutIndexAreScanned() throws IOException {
+        // an index of another root lists only one of the clients, the package itself is not indexed
+        Files.createDirectories(root.resolve("META-INF"));
+        Files.writeString(root.resolve(HttpExchangeClientIndex.LOCATION), IndexedClient.class.getName() + "\n");
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{root.toUri().toURL()}, getClass().getClassLoader())) {
+            assertThat(candidates(classLoader)).containsExactlyInAnyOrder(IndexedClient.class.getName(), ScannedClient.class.getName());
+        }
+    }
+
+    @Test
+    void packagesAreScannedWithoutIndex() {
+        assertThat(candidates(getClass().getClassLoader())).containsExactlyInAnyOrder(IndexedClient.class.getName(), ScannedClient.class.getName());
+    }
+
+    private static Set<String> candidates(ClassLoader classLoader) {
+        try (GenericApplicationContext context = new GenericApplicationContext()) {
+            ClassPathHttpExchangeClientScanner scanner = new ClassPathHttpExchangeClientScanner(context, classLoader);
+            scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+            scanner.registerFilters();
+            return scanner.findCandidateComponents(PACKAGE).stream().map(BeanDefinition::getBeanClassName).collect(Collectors.toSet());
+        }
+    }
+}
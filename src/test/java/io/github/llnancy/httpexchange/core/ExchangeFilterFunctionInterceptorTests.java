@@ -0,0 +1,92 @@
+package io.github.llnancy.httpexchange.core;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link ExchangeFilterFunctionInterceptor}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class ExchangeFilterFunctionInterceptorTests {
+
+    private static final long BODY_SIZE = 64 * 1024 * 1024;
+
+    private final HttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/ping"));
+
+    @Test
+    void passedThroughResponseIsReturnedAsIs() throws IOException {
+        MockClientHttpResponse response = new MockClientHttpResponse("pong".getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+        ExchangeFilterFunction filter = (req, next) -> next.exchange(req);
+
+        ClientHttpResponse result = new ExchangeFilterFunctionInterceptor(filter).intercept(request, new byte[0], (req, body) -> response);
+
+        assertThat(result).isSameAs(response);
+    }
+
+    @Test
+    void requestIsMutatedByFilter() throws IOException {
+        AtomicReference<HttpRequest> executed = new AtomicReference<>();
+        ExchangeFilterFunction filter = (req, next) -> next.exchange(ClientRequest.from(req).header("X-Filtered", "true").cookie("a", "b").build());
+
+        new ExchangeFilterFunctionInterceptor(filter).intercept(request, new byte[0], (req, body) -> {
+            executed.set(req);
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        });
+
+        assertThat(executed.get().getHeaders().getFirst("X-Filtered")).isEqualTo("true");
+        assertThat(executed.get().getHeaders().getFirst(HttpHeaders.COOKIE)).isEqualTo("a=b");
+    }
+
+    @Test
+    void mappedResponseBodyIsStreamed() throws IOException {
+        AtomicLong produced = new AtomicLong();
+        InputStream source = new InputStream() {
+
+            @Override
+            public int read() {
+                return produced.getAndIncrement() < BODY_SIZE ? 'a' : -1;
+            }
+        };
+        ExchangeFilterFunction filter = (req, next) -> next.exchange(req).map(response -> response.mutate().header("X-Mapped", "true").build());
+
+        ClientHttpResponse result = new ExchangeFilterFunctionInterceptor(filter).intercept(request, new byte[0], (req, body) -> new MockClientHttpResponse(source, HttpStatus.OK));
+
+        assertThat(result.getHeaders().getFirst("X-Mapped")).isEqualTo("true");
+        byte[] head = new byte[16];
+        assertThat(result.getBody().read(head)).isPositive();
+        assertThat((char) head[0]).isEqualTo('a');
+        assertThat(produced.get()).isLessThan(BODY_SIZE / 16);
+        result.close();
+    }
+
+    @Test
+    void mappedResponseBodyIsFullyRead() throws IOException {
+        ExchangeFilterFunction filter = (req, next) -> next.exchange(req).map(response -> response.mutate().build());
+
+        ClientHttpResponse result = new ExchangeFilterFunctionInterceptor(filter).intercept(request, new byte[0],
+                (req, body) -> new MockClientHttpResponse("a".repeat(20_000).getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+
+        assertThat(new String(result.getBody().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("a".repeat(20_000));
+        assertThat(result.getBody().read()).isEqualTo(-1);
+        result.close();
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.llnancy.httpexchange.core;
+
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties.Bootstrap;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * tests of {@link HttpExchangeClientBootstrap}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class HttpExchangeClientBootstrapTests {
+
+    private final StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+
+    @Test
+    void clientsAreBuiltConcurrently() {
+        int clients = 4;
+        CyclicBarrier barrier = new CyclicBarrier(clients);
+        HttpExchangeClientBootstrap bootstrap = new HttpExchangeClientBootstrap(settings(clients), beanFactory);
+        List<LazyClientTargetSource> targetSources = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            // each build waits for all the others, so the bootstrap only completes if they run at the same time
+            LazyClientTargetSource targetSource = new LazyClientTargetSource(Object.class, () -> {
+                await(barrier);
+                return new Object();
+            });
+            targetSources.add(targetSource);
+            assertThat(bootstrap.register("client" + i, targetSource)).isTrue();
+        }
+
+        bootstrap.afterSingletonsInstantiated();
+
+        assertThat(targetSources).allMatch(LazyClientTargetSource::isInitialized);
+    }
+
+    @Test
+    void clientsAreBuiltOnTheBootstrapExecutor() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Executor executor = command -> new Thread(command, "bootstrap-executor").start();
+        beanFactory.addBean(HttpExchangeClientBootstrap.BOOTSTRAP_EXECUTOR_BEAN_NAME, executor);
+        HttpExchangeClientBootstrap bootstrap = new HttpExchangeClientBootstrap(settings(2), beanFactory);
+        bootstrap.register("client", new LazyClientTargetSource(Object.class, () -> {
+            threads.add(Thread.currentThread().getName());
+            return new Object();
+        }));
+
+        bootstrap.afterSingletonsInstantiated();
+
+        assertThat(threads).containsExactly("bootstrap-executor");
+    }
+
+    @Test
+    void firstFailureInRegistrationOrderFailsTheBootstrap() {
+        HttpExchangeClientBootstrap bootstrap = new HttpExchangeClientBootstrap(settings(2), beanFactory);
+        CountDownLatch secondFailed = new CountDownLatch(1);
+        bootstrap.register("first", new LazyClientTargetSource(Object.class, () -> {
+            // the failure of the second client is thrown first, but the first client is reported
+            await(secondFailed);
+            throw new IllegalStateException("first");
+        }));
+        bootstrap.register("second", new LazyClientTargetSource(Object.class, () -> {
+            secondFailed.countDown();
+            throw new IllegalStateException("second");
+        }));
+
+        assertThatThrownBy(bootstrap::afterSingletonsInstantiated)
+                .isInstanceOf(BeanCreationException.class)
+                .hasMessageContaining("'first'")
+                .hasRootCauseMessage("first");
+    }
+
+    @Test
+    void clientInvokedDuringTheBootstrapIsBuiltOnce() {
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch building = new CountDownLatch(1);
+        LazyClientTargetSource targetSource = new LazyClientTargetSource(Object.class, () -> {
+            builds.incrementAndGet();
+            building.countDown();
+            sleep();
+            return new Object();
+        });
+        HttpExchangeClientBootstrap bootstrap = new HttpExchangeClientBootstrap(settings(1), beanFactory);
+        bootstrap.register("client", targetSource);
+
+        CompletableFuture<Void> bootstrapped = CompletableFuture.runAsync(bootstrap::afterSingletonsInstantiated);
+        await(building);
+        List<CompletableFuture<Object>> invocations = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            invocations.add(CompletableFuture.supplyAsync(targetSource::getTarget));
+        }
+        bootstrapped.join();
+
+        assertThat(invocations.stream().map(CompletableFuture::join).distinct()).hasSize(1);
+        assertThat(builds).hasValue(1);
+    }
+
+    @Test
+    void clientsRegisteredAfterTheBootstrapAreBuiltOnInvocation() {
+        HttpExchangeClientBootstrap bootstrap = new HttpExchangeClientBootstrap(settings(1), beanFactory);
+        bootstrap.afterSingletonsInstantiated();
+
+        LazyClientTargetSource targetSource = new LazyClientTargetSource(Object.class, Object::new);
+
+        assertThat(bootstrap.register("client", targetSource)).isFalse();
+        assertThat(targetSource.isInitialized()).isFalse();
+    }
+
+    private static Bootstrap settings(int threads) {
+        Bootstrap settings = new Bootstrap();
+        settings.setParallel(true);
+        settings.setThreads(threads);
+        return settings;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+            throw new IllegalStateException("The clients are not built concurrently.", e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
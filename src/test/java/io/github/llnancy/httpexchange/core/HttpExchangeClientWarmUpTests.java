@@ -0,0 +1,102 @@
+package io.github.llnancy.httpexchange.core;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link HttpExchangeClientWarmUp}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/26
+ */
+class HttpExchangeClientWarmUpTests {
+
+    private final HttpExchangeClientWarmUp warmUp = new HttpExchangeClientWarmUp();
+
+    @Test
+    void clientsAreBuiltInTheBackgroundAfterTheApplicationIsReady() throws InterruptedException {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch built = new CountDownLatch(2);
+        LazyClientTargetSource first = targetSource(threads, built);
+        LazyClientTargetSource second = targetSource(threads, built);
+        warmUp.register("first", first);
+        warmUp.register("second", second);
+
+        assertThat(first.isInitialized()).isFalse();
+        warmUp.onApplicationEvent(readyEvent());
+
+        assertThat(built.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(threads).singleElement().asString().startsWith("httpexchange-warm-up-").isNotEqualTo(Thread.currentThread().getName());
+        assertThat(first.isInitialized()).isTrue();
+        assertThat(second.isInitialized()).isTrue();
+    }
+
+    @Test
+    void failedWarmUpIsRetriedByTheFirstInvocation() throws InterruptedException {
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch failed = new CountDownLatch(1);
+        CountDownLatch built = new CountDownLatch(1);
+        LazyClientTargetSource failing = new LazyClientTargetSource(Object.class, () -> {
+            if (builds.incrementAndGet() == 1) {
+                failed.countDown();
+                throw new IllegalStateException("unreachable discovery");
+            }
+            return new Object();
+        });
+        // the failure of the first client does not stop the warm-up of the others
+        LazyClientTargetSource next = targetSource(ConcurrentHashMap.newKeySet(), built);
+        warmUp.register("failing", failing);
+        warmUp.register("next", next);
+
+        warmUp.onApplicationEvent(readyEvent());
+
+        assertThat(failed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(built.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(failing.isInitialized()).isFalse();
+        assertThat(failing.getTarget()).isNotNull();
+        assertThat(builds).hasValue(2);
+    }
+
+    @Test
+    void invokedClientsAreNotBuiltAgain() throws InterruptedException {
+        AtomicInteger builds = new AtomicInteger();
+        LazyClientTargetSource invoked = new LazyClientTargetSource(Object.class, () -> {
+            builds.incrementAndGet();
+            return new Object();
+        });
+        CountDownLatch built = new CountDownLatch(1);
+        warmUp.register("invoked", invoked);
+        warmUp.register("other", targetSource(ConcurrentHashMap.newKeySet(), built));
+        invoked.getTarget();
+
+        warmUp.onApplicationEvent(readyEvent());
+        // a second event finds no registered client
+        warmUp.onApplicationEvent(readyEvent());
+
+        assertThat(built.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(builds).hasValue(1);
+    }
+
+    private static LazyClientTargetSource targetSource(Set<String> threads, CountDownLatch built) {
+        return new LazyClientTargetSource(Object.class, () -> {
+            threads.add(Thread.currentThread().getName());
+            built.countDown();
+            return new Object();
+        });
+    }
+
+    private static ApplicationReadyEvent readyEvent() {
+        return new ApplicationReadyEvent(new SpringApplication(), new String[0], new StaticApplicationContext(), Duration.ZERO);
+    }
+}
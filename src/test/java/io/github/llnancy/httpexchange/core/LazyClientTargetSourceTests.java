@@ -0,0 +1,85 @@
+package io.github.llnancy.httpexchange.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * tests of {@link LazyClientTargetSource}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/26
+ */
+class LazyClientTargetSourceTests {
+
+    @Test
+    void concurrentFirstInvocationsBuildTheClientOnce() throws Exception {
+        int invokers = 8;
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LazyClientTargetSource targetSource = new LazyClientTargetSource(Object.class, () -> {
+            builds.incrementAndGet();
+            building.countDown();
+            await(release);
+            return new Object();
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(invokers);
+        try {
+            List<CompletableFuture<Object>> targets = new ArrayList<>();
+            for (int i = 0; i < invokers; i++) {
+                targets.add(CompletableFuture.supplyAsync(targetSource::getTarget, executor));
+            }
+            // the other invocations wait for the build in progress
+            assertThat(building.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(targetSource.isInitialized()).isFalse();
+            release.countDown();
+
+            Object target = targets.get(0).get(5, TimeUnit.SECONDS);
+            for (CompletableFuture<Object> future : targets) {
+                assertThat(future.get(5, TimeUnit.SECONDS)).isSameAs(target);
+            }
+            assertThat(builds).hasValue(1);
+            assertThat(targetSource.isInitialized()).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedBuildIsRetriedByTheNextInvocation() {
+        AtomicInteger builds = new AtomicInteger();
+        Object client = new Object();
+        LazyClientTargetSource targetSource = new LazyClientTargetSource(Object.class, () -> {
+            if (builds.incrementAndGet() == 1) {
+                throw new IllegalStateException("no base url");
+            }
+            return client;
+        });
+
+        assertThatThrownBy(targetSource::getTarget).isInstanceOf(IllegalStateException.class).hasMessage("no base url");
+        assertThat(targetSource.isInitialized()).isFalse();
+
+        assertThat(targetSource.getTarget()).isSameAs(client);
+        assertThat(targetSource.getTarget()).isSameAs(client);
+        assertThat(builds).hasValue(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package io.github.llnancy.httpexchange.core;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.handler.codec.dns.DatagramDnsQuery;
+import io.netty.handler.codec.dns.DatagramDnsQueryDecoder;
+import io.netty.handler.codec.dns.DatagramDnsResponse;
+import io.netty.handler.codec.dns.DatagramDnsResponseEncoder;
+import io.netty.handler.codec.dns.DefaultDnsRawRecord;
+import io.netty.handler.codec.dns.DnsQuestion;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.handler.codec.dns.DnsResponseCode;
+import io.netty.handler.codec.dns.DnsSection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of the dns resolution of {@link WebClientConfigure} against a local stub dns server
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class WebClientConfigureDnsTests {
+
+    private static final String HOST = "stub.test";
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private EventLoopGroup dnsGroup;
+
+    private Channel dnsServer;
+
+    private DisposableServer server;
+
+    @BeforeEach
+    void setUp() {
+        dnsGroup = new NioEventLoopGroup(1);
+        dnsServer = new Bootstrap()
+                .group(dnsGroup)
+                .channel(NioDatagramChannel.class)
+                .handler(new ChannelInitializer<DatagramChannel>() {
+                    @Override
+                    protected void initChannel(DatagramChannel channel) {
+                        channel.pipeline().addLast(new DatagramDnsQueryDecoder(), new DatagramDnsResponseEncoder(), new StubDnsHandler());
+                    }
+                })
+                .bind("127.0.0.1", 0)
+                .syncUninterruptibly()
+                .channel();
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle((request, response) -> response.sendString(Mono.just("pong")))
+                .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+        dnsServer.close().syncUninterruptibly();
+        dnsGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    @Test
+    void addressesAreResolvedByTheConfiguredServerAndCached() {
+        HttpClient client = client(null);
+
+        assertThat(exchange(client)).isEqualTo("pong");
+        assertThat(exchange(client)).isEqualTo("pong");
+
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void cachedAddressesExpireAfterTheMaxTtl() throws InterruptedException {
+        HttpClient client = client(Duration.ofSeconds(1));
+
+        assertThat(exchange(client)).isEqualTo("pong");
+        Thread.sleep(1500);
+        assertThat(exchange(client)).isEqualTo("pong");
+
+        assertThat(queries).hasValue(2);
+    }
+
+    private HttpClient client(Duration maxTtl) {
+        HttpExchangeClientProperties properties = new HttpExchangeClientProperties();
+        HttpExchangeClientProperties.Dns dns = properties.getDefault().getDns();
+        dns.setEnabled(true);
+        dns.setMaxTtl(maxTtl);
+        dns.setSearchDomains(List.of());
+        dns.setServers(List.of("127.0.0.1:" + ((InetSocketAddress) dnsServer.localAddress()).getPort()));
+        ClientPropertiesResolver resolver = new ClientPropertiesResolver(properties, "client", new MockEnvironment());
+        // every exchange opens a connection, so every exchange resolves the host
+        return WebClientConfigure.dns(resolver, HttpClient.newConnection());
+    }
+
+    private String exchange(HttpClient client) {
+        return client.get()
+                .uri("http://" + HOST + ":" + server.port() + "/ping")
+                .responseContent()
+                .aggregate()
+                .asString()
+                .block(Duration.ofSeconds(10));
+    }
+
+    /**
+     * answers the {@code A} queries of the stub host with the loopback address
+     */
+    private class StubDnsHandler extends SimpleChannelInboundHandler<DatagramDnsQuery> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, DatagramDnsQuery query) {
+            DnsQuestion question = query.recordAt(DnsSection.QUESTION);
+            DatagramDnsResponse response = new DatagramDnsResponse(query.recipient(), query.sender(), query.id());
+            response.addRecord(DnsSection.QUESTION, question);
+            if (!question.name().equals(HOST + ".")) {
+                response.setCode(DnsResponseCode.NXDOMAIN);
+            } else if (question.type() == DnsRecordType.A) {
+                queries.incrementAndGet();
+                response.addRecord(DnsSection.ANSWER, new DefaultDnsRawRecord(question.name(), DnsRecordType.A, 60, Unpooled.wrappedBuffer(new byte[]{127, 0, 0, 1})));
+            }
+            ctx.writeAndFlush(response);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.llnancy.httpexchange.core.scan;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeClient;
+
+/**
+ * client found by {@code ClassPathHttpExchangeClientScannerTests}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+@HttpExchangeClient
+public interface IndexedClient {
+}
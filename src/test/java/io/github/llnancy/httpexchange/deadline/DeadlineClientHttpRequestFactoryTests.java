@@ -0,0 +1,102 @@
+package io.github.llnancy.httpexchange.deadline;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.Transport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ReactorNettyClientRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * tests of {@link DeadlineClientHttpRequestFactory}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class DeadlineClientHttpRequestFactoryTests {
+
+    private static final ClientHttpRequestFactorySettings SETTINGS = ClientHttpRequestFactorySettings.DEFAULTS
+            .withReadTimeout(Duration.ofSeconds(10));
+
+    private DisposableServer server;
+
+    private ExchangeTimeouts timeouts;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.get("/slow", (request, response) -> response.sendString(Mono.just("slow").delayElement(Duration.ofSeconds(3))))
+                        .get("/fast", (request, response) -> response.sendString(Mono.just("fast"))))
+                .bindNow();
+        HttpExchangeClientProperties properties = new HttpExchangeClientProperties();
+        properties.getDefault().getDeadline().setPropagationEnabled(true);
+        ClientPropertiesResolver resolver = new ClientPropertiesResolver(properties, "client", new MockEnvironment());
+        timeouts = ExchangeTimeouts.create(new HttpExchangeClientMetadata("client", Object.class, Transport.REST_CLIENT, Map.of(), resolver));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void deadlineLimitsTheReadOfSimpleFactory() {
+        assertDeadlineLimitsTheRead(ClientHttpRequestFactories.get(SimpleClientHttpRequestFactory.class, SETTINGS));
+    }
+
+    @Test
+    void deadlineLimitsTheReadOfReactorNettyFactory() {
+        assertDeadlineLimitsTheRead(ClientHttpRequestFactories.get(ReactorNettyClientRequestFactory.class, SETTINGS));
+    }
+
+    @Test
+    void exchangesWithoutDeadlineUseTheDefaultFactory() {
+        RestClient client = client(ClientHttpRequestFactories.get(SimpleClientHttpRequestFactory.class, SETTINGS));
+
+        assertThat(client.get().uri("/fast").retrieve().body(String.class)).isEqualTo("fast");
+    }
+
+    private void assertDeadlineLimitsTheRead(ClientHttpRequestFactory defaultFactory) {
+        RestClient client = client(defaultFactory);
+
+        long start = System.nanoTime();
+        Deadline.Scope scope = Deadline.after(Duration.ofMillis(300)).makeCurrent();
+        try {
+            // the reactor netty factory reports its exchange timeout as an IllegalStateException
+            assertThatThrownBy(() -> client.get().uri("/slow").retrieve().body(String.class))
+                    .isInstanceOfAny(ResourceAccessException.class, IllegalStateException.class);
+        } finally {
+            scope.close();
+        }
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        // the timeout of the previous exchange is not kept by the shared factory
+        assertThat(client.get().uri("/slow").retrieve().body(String.class)).isEqualTo("slow");
+    }
+
+    private RestClient client(ClientHttpRequestFactory defaultFactory) {
+        return RestClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.port())
+                .requestFactory(new DeadlineClientHttpRequestFactory(defaultFactory, SETTINGS, timeouts))
+                .build();
+    }
+}
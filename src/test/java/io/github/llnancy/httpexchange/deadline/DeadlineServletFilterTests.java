@@ -0,0 +1,58 @@
+package io.github.llnancy.httpexchange.deadline;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link DeadlineServletFilter}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class DeadlineServletFilterTests {
+
+    private final DeadlineServletFilter filter = new DeadlineServletFilter();
+
+    @Test
+    void deadlineIsCurrentWhileHandling() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(Deadline.HEADER, "5000");
+        AtomicReference<Deadline> handled = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(new CapturingServlet(handled)));
+
+        assertThat(handled.get()).isNotNull();
+        assertThat(handled.get().remaining()).isBetween(Duration.ZERO, Duration.ofSeconds(5));
+        assertThat(Deadline.current()).isNull();
+    }
+
+    @Test
+    void requestsWithoutHeaderHaveNoDeadline() throws Exception {
+        AtomicReference<Deadline> handled = new AtomicReference<>(Deadline.after(Duration.ofSeconds(1)));
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse(), new MockFilterChain(new CapturingServlet(handled)));
+
+        assertThat(handled.get()).isNull();
+    }
+
+    private static class CapturingServlet extends jakarta.servlet.http.HttpServlet {
+
+        private final transient AtomicReference<Deadline> handled;
+
+        CapturingServlet(AtomicReference<Deadline> handled) {
+            this.handled = handled;
+        }
+
+        @Override
+        protected void service(jakarta.servlet.http.HttpServletRequest req, jakarta.servlet.http.HttpServletResponse resp) {
+            handled.set(Deadline.current());
+        }
+    }
+}
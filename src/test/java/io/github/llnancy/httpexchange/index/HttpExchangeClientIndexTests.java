@@ -0,0 +1,53 @@
+package io.github.llnancy.httpexchange.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link HttpExchangeClientIndex}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class HttpExchangeClientIndexTests {
+
+    @TempDir
+    private Path indexed;
+
+    @TempDir
+    private Path scanned;
+
+    @Test
+    void packagesAreCoveredOnlyWhenAllTheirRootsAreIndexed() throws IOException {
+        Files.createDirectories(indexed.resolve("com/example/a"));
+        Files.createDirectories(scanned.resolve("com/example/b"));
+        Files.createDirectories(indexed.resolve("META-INF"));
+        Files.writeString(indexed.resolve(HttpExchangeClientIndex.LOCATION), "# clients\ncom.example.a.AClient\n");
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{indexed.toUri().toURL(), scanned.toUri().toURL()}, null)) {
+            HttpExchangeClientIndex index = HttpExchangeClientIndex.load(classLoader);
+
+            assertThat(index).isNotNull();
+            assertThat(index.getInterfaceNames("com.example")).containsExactly("com.example.a.AClient");
+            assertThat(index.covers("com.example.a", classLoader)).isTrue();
+            assertThat(index.covers("com.example.b", classLoader)).isFalse();
+            assertThat(index.covers("com.example", classLoader)).isFalse();
+            assertThat(index.covers("", classLoader)).isFalse();
+        }
+    }
+
+    @Test
+    void noIndexFile() throws IOException {
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{scanned.toUri().toURL()}, null)) {
+            assertThat(HttpExchangeClientIndex.load(classLoader)).isNull();
+        }
+    }
+}
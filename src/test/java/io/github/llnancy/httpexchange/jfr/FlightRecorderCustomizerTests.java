@@ -0,0 +1,112 @@
+package io.github.llnancy.httpexchange.jfr;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.Transport;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of the {@link HttpExchangeEvent}s of {@link FlightRecorderCustomizer} against a local server
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class FlightRecorderCustomizerTests {
+
+    private DisposableServer server;
+
+    private ConnectionProvider provider;
+
+    private WebClient client;
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle((request, response) -> response.sendString(Mono.just("pong")))
+                .bindNow();
+        // a single connection, so every exchange after the first one reuses it
+        provider = ConnectionProvider.create("jfr", 1);
+        HttpExchangeClientMetadata metadata = new HttpExchangeClientMetadata("client", Object.class, Transport.WEBCLIENT, Map.of(),
+                new ClientPropertiesResolver(new HttpExchangeClientProperties(), "client", new MockEnvironment()));
+        FlightRecorderCustomizer customizer = new FlightRecorderCustomizer();
+        WebClient.Builder builder = WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.port())
+                .clientConnector(new ReactorClientHttpConnector(customizer.customizeHttpClient(metadata, HttpClient.create(provider))));
+        customizer.customizeWebClient(metadata, builder);
+        client = builder.build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.disposeLater().block(Duration.ofSeconds(10));
+        server.disposeNow();
+    }
+
+    @Test
+    void recordedConnectionsAreNewThenReused() throws IOException, InterruptedException {
+        List<RecordedEvent> events = record(2);
+
+        assertThat(events).extracting(event -> event.getString("connection"))
+                .containsExactly(HttpExchangeEvent.NEW, HttpExchangeEvent.REUSED);
+        assertThat(events.get(0).getDuration("connect")).isPositive();
+    }
+
+    @Test
+    void connectionsOpenedWithoutRecordingAreUnknown() throws IOException, InterruptedException {
+        exchange();
+
+        List<RecordedEvent> events = record(2);
+
+        assertThat(events).extracting(event -> event.getString("connection"))
+                .containsExactly(HttpExchangeEvent.UNKNOWN, HttpExchangeEvent.UNKNOWN);
+        assertThat(events).allSatisfy(event -> assertThat(event.getDuration("connect")).isZero());
+    }
+
+    private List<RecordedEvent> record(int exchanges) throws IOException, InterruptedException {
+        Path file = directory.resolve("exchanges.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(HttpExchangeEvent.NAME);
+            recording.start();
+            for (int i = 0; i < exchanges; i++) {
+                exchange();
+            }
+            // the events are committed when the bodies terminate, which may follow the return of the blocking calls
+            Thread.sleep(200);
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private void exchange() {
+        client.get().uri("/ping").retrieve().bodyToMono(String.class).block(Duration.ofSeconds(10));
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.llnancy.httpexchange.loadbalancer;
+
+import io.github.llnancy.httpexchange.core.LoadBalancingStrategy;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link LoadBalancerExchangeFilterFunction}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class LoadBalancerExchangeFilterFunctionTests {
+
+    private final EndpointBalancer balancer = new EndpointBalancer(
+            "pingClient",
+            List.of("http://localhost:8080"),
+            LoadBalancingStrategy.LEAST_REQUESTS,
+            new Endpoint.OutlierSettings(0.5, 0, 10, TimeUnit.SECONDS.toNanos(10), TimeUnit.SECONDS.toNanos(30), 0.5)
+    );
+
+    private final LoadBalancerExchangeFilterFunction filter = new LoadBalancerExchangeFilterFunction(balancer);
+
+    private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost:8080/ping")).build();
+
+    @Test
+    void cancelAfterResponseReleasesOnce() {
+        ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+
+        StepVerifier.create(filter.filter(request, req -> Mono.fromDirect(Flux.concat(Mono.just(response), Mono.never()))))
+                .expectNext(response)
+                .thenCancel()
+                .verify();
+
+        assertThat(balancer.choose().outstanding()).isZero();
+    }
+
+    @Test
+    void cancelBeforeResponseReleases() {
+        StepVerifier.create(filter.filter(request, req -> Mono.never()))
+                .thenCancel()
+                .verify();
+
+        assertThat(balancer.choose().outstanding()).isZero();
+    }
+
+    @Test
+    void errorReleases() {
+        StepVerifier.create(filter.filter(request, req -> Mono.error(new IllegalStateException())))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertThat(balancer.choose().outstanding()).isZero();
+    }
+}
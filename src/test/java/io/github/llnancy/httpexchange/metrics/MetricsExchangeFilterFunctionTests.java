@@ -0,0 +1,96 @@
+package io.github.llnancy.httpexchange.metrics;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethodContext;
+import io.github.llnancy.httpexchange.core.Transport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.service.annotation.GetExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link MetricsExchangeFilterFunction}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class MetricsExchangeFilterFunctionTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final HttpExchangeMethod method = method();
+
+    private final MetricsExchangeFilterFunction filter = new MetricsExchangeFilterFunction(new ExchangeMethodMeters(
+            registry,
+            new HttpExchangeClientMetadata("pingClient", PingClient.class, Transport.WEBCLIENT, Map.of(method.method(), method), null),
+            false
+    ));
+
+    @Test
+    void cancelAfterResponseIsRecordedOnce() {
+        ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+
+        StepVerifier.create(filter.filter(request(), req -> Mono.fromDirect(Flux.concat(Mono.just(response), Mono.never()))))
+                .expectNext(response)
+                .thenCancel()
+                .verify();
+
+        assertThat(registry.get(ExchangeMethodMeters.REQUESTS).tag("status", "200").timer().count()).isEqualTo(1);
+        assertThat(registry.get(ExchangeMethodMeters.REQUESTS).tag("status", "CANCELLED").timer().count()).isZero();
+        assertThat(registry.get(ExchangeMethodMeters.ACTIVE_REQUESTS).gauge().value()).isZero();
+    }
+
+    @Test
+    void cancelBeforeResponseIsRecordedAsCancelled() {
+        StepVerifier.create(filter.filter(request(), req -> Mono.never()))
+                .thenCancel()
+                .verify();
+
+        assertThat(registry.get(ExchangeMethodMeters.REQUESTS).tag("status", "CANCELLED").timer().count()).isEqualTo(1);
+        assertThat(registry.get(ExchangeMethodMeters.ACTIVE_REQUESTS).gauge().value()).isZero();
+    }
+
+    @Test
+    void errorIsRecordedByExceptionType() {
+        StepVerifier.create(filter.filter(request(), req -> Mono.error(new IllegalStateException())))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertThat(registry.get(ExchangeMethodMeters.REQUESTS).tag("exception", "IllegalStateException").timer().count()).isEqualTo(1);
+        assertThat(registry.get(ExchangeMethodMeters.ACTIVE_REQUESTS).gauge().value()).isZero();
+    }
+
+    private ClientRequest request() {
+        return ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/ping"))
+                .attribute(HttpExchangeMethodContext.ATTRIBUTE, method)
+                .build();
+    }
+
+    private static HttpExchangeMethod method() {
+        try {
+            Method ping = PingClient.class.getMethod("ping");
+            return HttpExchangeMethod.of("pingClient", PingClient.class, ping);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    interface PingClient {
+
+        @GetExchange("/ping")
+        Mono<String> ping();
+    }
+}
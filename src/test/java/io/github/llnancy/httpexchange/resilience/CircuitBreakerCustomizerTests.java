@@ -0,0 +1,165 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties;
+import io.github.llnancy.httpexchange.core.BulkheadPolicy;
+import io.github.llnancy.httpexchange.core.CircuitBreakerPolicy;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.github.llnancy.httpexchange.core.Transport;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * tests of {@link CircuitBreakerCustomizer}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+class CircuitBreakerCustomizerTests {
+
+    private final HttpExchangeClientProperties properties = new HttpExchangeClientProperties();
+
+    @Test
+    void clientPropertiesDoNotOverrideTheMethodAnnotations() {
+        clientProperties().getCircuitBreaker().setMinimumCalls(100);
+        clientProperties().getBulkhead().setMaxConcurrentCalls(10);
+        ReportService service = new ReportService();
+        ReportClient client = client(service);
+
+        // the method circuit breaker opens after its one minimum call
+        assertThatThrownBy(client::createReport).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(client::createReport).isInstanceOf(CallNotPermittedException.class);
+        // the client circuit breaker needs 100 calls
+        assertThatThrownBy(client::listReports).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(client::listReports).isInstanceOf(IllegalStateException.class);
+
+        service.fail = false;
+        assertThat(nested(client::listReports, service)).isEqualTo(10);
+    }
+
+    @Test
+    void methodPropertiesOverrideTheMethodAnnotations() {
+        HttpExchangeClientProperties.CircuitBreaker breaker = new HttpExchangeClientProperties.CircuitBreaker();
+        breaker.setMinimumCalls(3);
+        clientProperties().setMethodCircuitBreakers(Map.of("createReport", breaker));
+        HttpExchangeClientProperties.Bulkhead bulkhead = new HttpExchangeClientProperties.Bulkhead();
+        bulkhead.setMaxConcurrentCalls(3);
+        clientProperties().setMethodBulkheads(Map.of("createReport", bulkhead));
+        ReportService service = new ReportService();
+        ReportClient client = client(service);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(client::createReport).isInstanceOf(IllegalStateException.class);
+        }
+        assertThatThrownBy(client::createReport).isInstanceOf(CallNotPermittedException.class);
+
+        // a new client, the circuit breaker of the first one is open
+        ReportService other = new ReportService();
+        other.fail = false;
+        assertThat(nested(client(other)::createReport, other)).isEqualTo(3);
+    }
+
+    @Test
+    void methodPropertiesEnableAndDisableTheGuardsOfAMethod() {
+        HttpExchangeClientProperties.Bulkhead enabled = new HttpExchangeClientProperties.Bulkhead();
+        enabled.setEnabled(true);
+        enabled.setMaxConcurrentCalls(2);
+        HttpExchangeClientProperties.Bulkhead disabled = new HttpExchangeClientProperties.Bulkhead();
+        disabled.setEnabled(false);
+        clientProperties().setMethodBulkheads(Map.of("listReports", enabled, "createReport", disabled));
+        ReportService service = new ReportService();
+        service.fail = false;
+        ReportClient client = client(service);
+
+        assertThat(nested(client::listReports, service)).isEqualTo(2);
+        // the disabled method uses the bulkhead of the client
+        assertThat(nested(client::createReport, service)).isEqualTo(5);
+    }
+
+    private HttpExchangeClientProperties.ClientProperties clientProperties() {
+        return properties.getClients().computeIfAbsent("client", name -> new HttpExchangeClientProperties.ClientProperties());
+    }
+
+    private ReportClient client(ReportService service) {
+        Map<Method, HttpExchangeMethod> methods = Arrays.stream(ReportClient.class.getMethods())
+                .collect(Collectors.toMap(Function.identity(), method -> Objects.requireNonNull(HttpExchangeMethod.of("client", ReportClient.class, method))));
+        ClientPropertiesResolver resolver = new ClientPropertiesResolver(properties, "client", new MockEnvironment());
+        HttpExchangeClientMetadata metadata = new HttpExchangeClientMetadata("client", ReportClient.class, Transport.REST_CLIENT, methods, resolver);
+        List<MethodInterceptor> interceptors = new ArrayList<>();
+        Objects.requireNonNull(CircuitBreakerCustomizer.create(metadata)).customizeInterceptors(metadata, interceptors);
+        ProxyFactory factory = new ProxyFactory(service);
+        interceptors.forEach(factory::addAdvice);
+        return (ReportClient) factory.getProxy();
+    }
+
+    /**
+     * the number of calls let in by the bulkhead at the same time, each call makes the next one before it returns
+     */
+    private static int nested(Runnable call, ReportService service) {
+        service.depth = 0;
+        service.nested = call;
+        assertThatThrownBy(call::run).isInstanceOf(BulkheadFullException.class);
+        service.nested = null;
+        return service.depth;
+    }
+
+    @CircuitBreakerPolicy(minimumCalls = 100)
+    @BulkheadPolicy(maxConcurrentCalls = 5)
+    interface ReportClient {
+
+        @PostExchange("/reports")
+        @CircuitBreakerPolicy(slidingWindowSize = 10, minimumCalls = 1)
+        @BulkheadPolicy(maxConcurrentCalls = 1)
+        String createReport();
+
+        @GetExchange("/reports")
+        String listReports();
+    }
+
+    static class ReportService implements ReportClient {
+
+        volatile boolean fail = true;
+
+        volatile Runnable nested;
+
+        volatile int depth;
+
+        @Override
+        public String createReport() {
+            return call();
+        }
+
+        @Override
+        public String listReports() {
+            return call();
+        }
+
+        private String call() {
+            if (fail) {
+                throw new IllegalStateException("failed");
+            }
+            depth++;
+            if (Objects.nonNull(nested)) {
+                nested.run();
+            }
+            return "report";
+        }
+    }
+}
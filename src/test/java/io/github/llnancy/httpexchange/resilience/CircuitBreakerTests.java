@@ -0,0 +1,96 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link CircuitBreaker} and {@link CircuitBreakerInterceptor}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/28
+ */
+class CircuitBreakerTests {
+
+    @Test
+    void failuresOpenTheCircuitUntilTheWaitIsOver() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("client", settings(Duration.ofMillis(200), 1));
+
+        breaker.onError(0, new IllegalStateException());
+
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        Thread.sleep(250);
+        assertThat(breaker.isOpen()).isFalse();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void failedProbeOpensTheCircuitForAnotherWait() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("client", settings(Duration.ofMillis(200), 1));
+        breaker.onError(0, new IllegalStateException());
+        Thread.sleep(250);
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onError(0, new IllegalStateException());
+
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void successfulProbesCloseTheCircuit() {
+        CircuitBreaker breaker = new CircuitBreaker("client", settings(Duration.ZERO, 2));
+        breaker.onError(0, new IllegalStateException());
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess(0);
+        breaker.onSuccess(0);
+
+        assertThat(breaker.isOpen()).isFalse();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void cancelAfterSuccessKeepsTheProbingPermit() {
+        CircuitBreaker breaker = new CircuitBreaker("client", settings(Duration.ZERO, 2));
+        breaker.onError(0, new IllegalStateException());
+        ProxyFactory factory = new ProxyFactory(new ProbedClient() {
+            @Override
+            public Mono<String> probe() {
+                // the response arrives, then the caller cancels before the completion
+                return Mono.fromDirect(Flux.concat(Mono.just("ok"), Mono.never()));
+            }
+        });
+        factory.addAdvice(new CircuitBreakerInterceptor(Map.of(ProbedClient.class.getMethods()[0], new CircuitBreakerInterceptor.GuardedMethod(true, breaker, null))));
+        ProbedClient client = (ProbedClient) factory.getProxy();
+
+        StepVerifier.create(client.probe())
+                .expectNext("ok")
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    private static CircuitBreaker.Settings settings(Duration waitInOpenState, int permittedCallsInHalfOpenState) {
+        return new CircuitBreaker.Settings(0.5, 1.0, Duration.ofMinutes(1).toNanos(), 10, 1, waitInOpenState.toNanos(), permittedCallsInHalfOpenState);
+    }
+
+    interface ProbedClient {
+
+        Mono<String> probe();
+    }
+}
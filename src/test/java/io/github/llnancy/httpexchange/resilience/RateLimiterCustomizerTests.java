@@ -0,0 +1,143 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import io.github.llnancy.httpexchange.config.ClientPropertiesResolver;
+import io.github.llnancy.httpexchange.config.HttpExchangeClientProperties;
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.github.llnancy.httpexchange.core.RateLimitPolicy;
+import io.github.llnancy.httpexchange.core.Transport;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * tests of {@link RateLimiterCustomizer}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class RateLimiterCustomizerTests {
+
+    private final HttpExchangeClientProperties properties = new HttpExchangeClientProperties();
+
+    private final RateLimiterRegistry registry = new RateLimiterRegistry();
+
+    @Test
+    void clientPropertiesDoNotOverrideTheMethodAnnotation() {
+        HttpExchangeClientProperties.RateLimiter clientRateLimiter = clientProperties().getRateLimiter();
+        clientRateLimiter.setPermitsPerSecond(100.0);
+        clientRateLimiter.setBurst(50);
+
+        RateLimiterCustomizer.create(metadata(), registry);
+
+        assertThat(permits(registry.get("client"))).isEqualTo(50);
+        // the burst of the method defaults to its 2 permits per second
+        assertThat(permits(registry.get("client.createOrder"))).isEqualTo(2);
+    }
+
+    @Test
+    void methodPropertiesOverrideTheMethodAnnotation() {
+        HttpExchangeClientProperties.RateLimiter methodRateLimiter = new HttpExchangeClientProperties.RateLimiter();
+        methodRateLimiter.setBurst(1);
+        clientProperties().setMethodRateLimiters(Map.of("createOrder", methodRateLimiter));
+
+        RateLimiterCustomizer.create(metadata(), registry);
+
+        assertThat(permits(registry.get("client.createOrder"))).isEqualTo(1);
+    }
+
+    @Test
+    void methodPropertiesEnableTheRateLimiterOfAMethod() {
+        HttpExchangeClientProperties.RateLimiter methodRateLimiter = new HttpExchangeClientProperties.RateLimiter();
+        methodRateLimiter.setEnabled(true);
+        HttpExchangeClientProperties.RateLimiter disabled = new HttpExchangeClientProperties.RateLimiter();
+        disabled.setEnabled(false);
+        clientProperties().setMethodRateLimiters(Map.of("listOrders", methodRateLimiter, "createOrder", disabled));
+
+        RateLimiterCustomizer.create(metadata(), registry);
+
+        assertThat(registry.get("client.listOrders")).isNotNull();
+        assertThat(registry.get("client.createOrder")).isNull();
+    }
+
+    @Test
+    void callsOfAMethodTakeAPermitOfTheMethodAndOfTheClient() {
+        PartnerClient client = client(Objects.requireNonNull(RateLimiterCustomizer.create(metadata(), registry)));
+        RateLimiter clientRateLimiter = registry.get("client");
+        RateLimiter methodRateLimiter = registry.get("client.createOrder");
+
+        assertThat(client.createOrder()).isEqualTo("created");
+        // the client has a burst of 1
+        assertThatThrownBy(client::createOrder).isInstanceOf(RequestNotPermittedException.class);
+        assertThatThrownBy(client::listOrders).isInstanceOf(RequestNotPermittedException.class);
+
+        assertThat(clientRateLimiter.getPermits()).isEqualTo(1);
+        // the permit of the rejected call is given back to the method
+        assertThat(methodRateLimiter.getPermits()).isEqualTo(1);
+        assertThat(methodRateLimiter.reserve()).isZero();
+    }
+
+    private HttpExchangeClientProperties.ClientProperties clientProperties() {
+        return properties.getClients().computeIfAbsent("client", name -> new HttpExchangeClientProperties.ClientProperties());
+    }
+
+    private HttpExchangeClientMetadata metadata() {
+        Map<Method, HttpExchangeMethod> methods = Arrays.stream(PartnerClient.class.getMethods())
+                .collect(Collectors.toMap(Function.identity(), method -> Objects.requireNonNull(HttpExchangeMethod.of("client", PartnerClient.class, method))));
+        ClientPropertiesResolver resolver = new ClientPropertiesResolver(properties, "client", new MockEnvironment());
+        return new HttpExchangeClientMetadata("client", PartnerClient.class, Transport.REST_CLIENT, methods, resolver);
+    }
+
+    private static PartnerClient client(RateLimiterCustomizer customizer) {
+        List<MethodInterceptor> interceptors = new ArrayList<>();
+        customizer.customizeInterceptors(null, interceptors);
+        ProxyFactory factory = new ProxyFactory(new PartnerClient() {
+
+            @Override
+            public String createOrder() {
+                return "created";
+            }
+
+            @Override
+            public String listOrders() {
+                return "orders";
+            }
+        });
+        interceptors.forEach(factory::addAdvice);
+        return (PartnerClient) factory.getProxy();
+    }
+
+    private static int permits(RateLimiter rateLimiter) {
+        int permits = 0;
+        while (rateLimiter.reserve() == 0) {
+            permits++;
+        }
+        return permits;
+    }
+
+    @RateLimitPolicy(permitsPerSecond = 1)
+    interface PartnerClient {
+
+        @PostExchange("/orders")
+        @RateLimitPolicy(permitsPerSecond = 2)
+        String createOrder();
+
+        @GetExchange("/orders")
+        String listOrders();
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of {@link RateLimiter} and {@link RateLimiterInterceptor}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class RateLimiterTests {
+
+    private static final long INTERVAL = Duration.ofMillis(10).toNanos();
+
+    @Test
+    void burstIsServedThenCallsAreRejected() {
+        RateLimiter rateLimiter = new RateLimiter("client", "client", 10, 3, 0);
+
+        assertThat(IntStream.range(0, 3).mapToLong(i -> rateLimiter.reserve())).containsOnly(0L);
+        assertThat(rateLimiter.reserve()).isEqualTo(-1);
+        assertThat(rateLimiter.getPermits()).isEqualTo(3);
+        assertThat(rateLimiter.getRejections()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentReservationsTakeDistinctSlots() {
+        int threads = 8;
+        int calls = 10;
+        RateLimiter rateLimiter = new RateLimiter("client", "client", 100, 1, Duration.ofSeconds(5).toNanos());
+        ConcurrentLinkedQueue<Long> slots = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                await(start);
+                for (int j = 0; j < calls; j++) {
+                    long wait = rateLimiter.reserve();
+                    slots.add(System.nanoTime() + wait);
+                }
+            }));
+        }
+        start.countDown();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        List<Long> sorted = slots.stream().sorted().toList();
+        assertThat(sorted).hasSize(threads * calls);
+        assertThat(rateLimiter.getPermits()).isEqualTo(threads * calls);
+        for (int i = 1; i < sorted.size(); i++) {
+            assertThat(sorted.get(i) - sorted.get(i - 1)).isGreaterThan(INTERVAL / 2);
+        }
+    }
+
+    @Test
+    void pauseHoldsThePermits() {
+        RateLimiter rateLimiter = new RateLimiter("client", "client", 100, 10, Duration.ofSeconds(1).toNanos());
+
+        rateLimiter.pause(Duration.ofMillis(300).toNanos());
+
+        assertThat(rateLimiter.reserve()).isGreaterThan(Duration.ofMillis(200).toNanos());
+    }
+
+    @Test
+    void reactiveCallsAreDelayedUntilTheirPermitThenRejected() {
+        RateLimiter rateLimiter = new RateLimiter("client", "client", 5, 1, Duration.ofMillis(300).toNanos());
+        LimitedClient client = client(rateLimiter);
+
+        StepVerifier.create(client.call()).expectNext("ok").verifyComplete();
+        long start = System.nanoTime();
+        CompletableFuture<String> delayed = client.call().toFuture();
+        StepVerifier.create(client.call()).expectError(RequestNotPermittedException.class).verify(Duration.ofSeconds(5));
+
+        assertThat(delayed.join()).isEqualTo("ok");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThan(Duration.ofMillis(100));
+    }
+
+    private static LimitedClient client(RateLimiter rateLimiter) {
+        ProxyFactory factory = new ProxyFactory((LimitedClient) () -> Mono.just("ok"));
+        factory.addAdvice(new RateLimiterInterceptor(Map.of(LimitedClient.class.getMethods()[0], new RateLimiterInterceptor.LimitedMethod(true, List.of(rateLimiter)))));
+        return (LimitedClient) factory.getProxy();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    interface LimitedClient {
+
+        Mono<String> call();
+    }
+}
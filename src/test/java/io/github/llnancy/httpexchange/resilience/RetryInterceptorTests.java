@@ -0,0 +1,192 @@
+package io.github.llnancy.httpexchange.resilience;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * tests of {@link RetryInterceptor}
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/27
+ */
+class RetryInterceptorTests {
+
+    private static final RetryInterceptor.RetrySettings RETRY = new RetryInterceptor.RetrySettings(3, Set.of(503),
+            List.of(UncheckedIOException.class), Duration.ofMillis(10), Duration.ofMillis(50), 0.5);
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    private final AtomicBoolean firstCancelled = new AtomicBoolean();
+
+    @Test
+    void reactiveAttemptsAreRetriedUntilTheMaxAttempts() {
+        RetriedClient client = client(new RetryInterceptor.RetryMethod(true, RETRY, null, null), new RetryBudget(1.0, 100));
+
+        StepVerifier.create(client.failing()).expectError(UncheckedIOException.class).verify(Duration.ofSeconds(5));
+
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void nonRetryableErrorsAreNotRetried() {
+        RetriedClient client = client(new RetryInterceptor.RetryMethod(true, RETRY, null, null), new RetryBudget(1.0, 100));
+
+        StepVerifier.create(client.rejected()).expectError(IllegalArgumentException.class).verify(Duration.ofSeconds(5));
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void exhaustedBudgetStopsTheRetries() {
+        RetriedClient client = client(new RetryInterceptor.RetryMethod(true, RETRY, null, null), new RetryBudget(0, 0));
+
+        StepVerifier.create(client.failing()).expectError(UncheckedIOException.class).verify(Duration.ofSeconds(5));
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void blockingAttemptsAreRetriedUntilSuccess() {
+        RetriedClient client = client(new RetryInterceptor.RetryMethod(false, RETRY, null, null), new RetryBudget(1.0, 100));
+
+        assertThat(client.succeedsThirdTime()).isEqualTo("3");
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void blockingErrorsArePropagatedAfterTheMaxAttempts() {
+        RetriedClient client = client(new RetryInterceptor.RetryMethod(false, RETRY, null, null), new RetryBudget(1.0, 100));
+
+        assertThatThrownBy(client::blockingFailing).isInstanceOf(UncheckedIOException.class);
+        assertThat(attempts).hasValue(3);
+    }
+
+    @Test
+    void slowAttemptIsHedgedAndCancelled() {
+        RetriedClient client = client(new RetryInterceptor.RetryMethod(true, null, Duration.ofMillis(50), null), new RetryBudget(1.0, 100));
+
+        StepVerifier.create(client.slowFirst()).expectNext("2").verifyComplete();
+
+        assertThat(attempts).hasValue(2);
+        assertThat(firstCancelled).isTrue();
+    }
+
+    @Test
+    void fastAttemptIsNotHedged() throws InterruptedException {
+        RetriedClient client = client(new RetryInterceptor.RetryMethod(true, null, Duration.ofMillis(50), null), new RetryBudget(1.0, 100));
+
+        StepVerifier.create(client.fast()).expectNext("ok").verifyComplete();
+        Thread.sleep(100);
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void blockingSlowAttemptIsHedged() {
+        RetriedClient client = client(new RetryInterceptor.RetryMethod(false, null, Duration.ofMillis(50), null), new RetryBudget(1.0, 100));
+
+        assertThat(client.blockingSlowFirst()).isEqualTo("2");
+        assertThat(attempts).hasValue(2);
+    }
+
+    private RetriedClient client(RetryInterceptor.RetryMethod retryMethod, RetryBudget budget) {
+        Map<Method, RetryInterceptor.RetryMethod> methods = new HashMap<>();
+        for (Method method : RetriedClient.class.getMethods()) {
+            methods.put(method, retryMethod);
+        }
+        ProxyFactory factory = new ProxyFactory(new CountingClient());
+        factory.addAdvice(new RetryInterceptor(methods, budget));
+        return (RetriedClient) factory.getProxy();
+    }
+
+    interface RetriedClient {
+
+        Mono<String> failing();
+
+        Mono<String> rejected();
+
+        Mono<String> slowFirst();
+
+        Mono<String> fast();
+
+        String succeedsThirdTime();
+
+        String blockingFailing();
+
+        String blockingSlowFirst();
+    }
+
+    private class CountingClient implements RetriedClient {
+
+        @Override
+        public Mono<String> failing() {
+            attempts.incrementAndGet();
+            return Mono.error(new UncheckedIOException(new IOException("connection reset")));
+        }
+
+        @Override
+        public Mono<String> rejected() {
+            attempts.incrementAndGet();
+            return Mono.error(new IllegalArgumentException());
+        }
+
+        @Override
+        public Mono<String> slowFirst() {
+            int attempt = attempts.incrementAndGet();
+            if (attempt == 1) {
+                return Mono.<String>never().doOnCancel(() -> firstCancelled.set(true));
+            }
+            return Mono.just(String.valueOf(attempt));
+        }
+
+        @Override
+        public Mono<String> fast() {
+            attempts.incrementAndGet();
+            return Mono.just("ok");
+        }
+
+        @Override
+        public String succeedsThirdTime() {
+            int attempt = attempts.incrementAndGet();
+            if (attempt < 3) {
+                throw new UncheckedIOException(new IOException("connection reset"));
+            }
+            return String.valueOf(attempt);
+        }
+
+        @Override
+        public String blockingFailing() {
+            attempts.incrementAndGet();
+            throw new UncheckedIOException(new IOException("connection reset"));
+        }
+
+        @Override
+        public String blockingSlowFirst() {
+            int attempt = attempts.incrementAndGet();
+            if (attempt == 1) {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return String.valueOf(attempt);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.llnancy.httpexchange.transfer;
+
+import io.github.llnancy.httpexchange.core.HttpExchangeClientMetadata;
+import io.github.llnancy.httpexchange.core.HttpExchangeMethod;
+import io.github.llnancy.httpexchange.core.Transport;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.annotation.PostExchange;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * tests of the file uploads of the blocking transports
+ *
+ * @author llnancy admin@lilu.org.cn
+ * @since JDK17 2024/7/30
+ */
+class FileTransferCustomizerTests {
+
+    private static final int FILE_SIZE = 8 * 1024 * 1024;
+
+    private final AtomicInteger bufferedBody = new AtomicInteger(-1);
+
+    private DisposableServer server;
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.post("/upload", (request, response) -> response.sendString(request.receive()
+                        .map(buf -> (long) buf.readableBytes())
+                        .reduce(0L, Long::sum)
+                        .map(size -> size + " " + request.requestHeaders().get(HttpHeaders.CONTENT_TYPE)))))
+                .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void uploadIsStreamedPastInterceptorsByJdkHttpClient() throws IOException {
+        UploadClient client = client(Transport.JDK_HTTP_CLIENT, new JdkClientHttpRequestFactory());
+
+        assertThat(client.upload(file("upload.bin"))).isEqualTo(FILE_SIZE + " application/octet-stream");
+        assertThat(bufferedBody.get()).isZero();
+    }
+
+    @Test
+    void uploadIsStreamedPastInterceptorsByRestClient() throws IOException {
+        UploadClient client = client(Transport.REST_CLIENT, new SimpleClientHttpRequestFactory());
+
+        assertThat(client.upload(file("upload.txt"))).isEqualTo(FILE_SIZE + " text/plain");
+        assertThat(bufferedBody.get()).isZero();
+    }
+
+    @Test
+    void otherMethodsSendTheirBodies() {
+        UploadClient client = client(Transport.REST_CLIENT, new SimpleClientHttpRequestFactory());
+
+        assertThat(client.send("pong")).startsWith("4 ");
+        assertThat(bufferedBody.get()).isEqualTo(4);
+    }
+
+    private UploadClient client(Transport transport, ClientHttpRequestFactory requestFactory) {
+        Map<Method, HttpExchangeMethod> methods = Arrays.stream(UploadClient.class.getMethods())
+                .collect(Collectors.toMap(Function.identity(), method -> Objects.requireNonNull(HttpExchangeMethod.of("uploadClient", UploadClient.class, method))));
+        HttpExchangeClientMetadata metadata = new HttpExchangeClientMetadata("uploadClient", UploadClient.class, transport, methods, null);
+        FileTransferCustomizer customizer = FileTransferCustomizer.create(metadata);
+        assertThat(customizer).isNotNull();
+
+        RestClient.Builder builder = RestClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.port())
+                .requestFactory(customizer.customizeRequestFactory(metadata, requestFactory))
+                .requestInterceptor((request, body, execution) -> {
+                    bufferedBody.set(body.length);
+                    return execution.execute(request, body);
+                });
+        customizer.customizeRestClient(metadata, builder);
+        HttpServiceProxyFactory.Builder proxyFactory = HttpServiceProxyFactory.builderFor(RestClientAdapter.create(builder.build()));
+        customizer.customizeProxyFactory(metadata, proxyFactory);
+        List<MethodInterceptor> interceptors = new ArrayList<>();
+        customizer.customizeInterceptors(metadata, interceptors);
+
+        ProxyFactory proxy = new ProxyFactory(proxyFactory.build().createClient(UploadClient.class));
+        proxy.addInterface(UploadClient.class);
+        interceptors.forEach(proxy::addAdvice);
+        return (UploadClient) proxy.getProxy();
+    }
+
+    private Path file(String name) throws IOException {
+        Path file = directory.resolve(name);
+        byte[] chunk = new byte[64 * 1024];
+        Arrays.fill(chunk, (byte) 'a');
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int written = 0; written < FILE_SIZE; written += chunk.length) {
+                out.write(chunk);
+            }
+        }
+        return file;
+    }
+
+    interface UploadClient {
+
+        @PostExchange("/upload")
+        String upload(@RequestBody Path file);
+
+        @PostExchange("/upload")
+        String send(@RequestBody String body);
+    }
+}